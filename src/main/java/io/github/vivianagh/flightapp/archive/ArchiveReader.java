@@ -0,0 +1,105 @@
+package io.github.vivianagh.flightapp.archive;
+
+import io.github.vivianagh.flightapp.replay.MappedInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads a time range out of the archive without scanning whole segments: segment names bound the candidates,
+ * their sparse index picks the blocks that overlap the range, and only those byte ranges are mapped and
+ * inflated. The result is block-granular (a few seconds either side); callers filter per line, as
+ * {@code SbsReplayer} does with its range.
+ * <p>
+ * Only blocks already listed in the index are visible, so the segment being written can be read too, up to its
+ * last closed block ({@code flight.archive.block-ms}).
+ */
+public final class ArchiveReader {
+
+    /** Contiguous run of blocks of one segment. */
+    public record Slice(Path segment, long offset, long length) {}
+
+    private static final int INFLATE_BUFFER_BYTES = 64 * 1024;
+    // con varios feeders, alguna línea de un segmento puede ser algo anterior a la de su nombre
+    private static final long OUT_OF_ORDER_SLACK_MS = 60_000;
+
+    private final Path dir;
+
+    public ArchiveReader(Path dir) {
+        this.dir = dir;
+    }
+
+    /** Blocks overlapping {@code [fromMillis, toMillis)} (feed logged time, epoch millis), in time order. */
+    public List<Slice> slices(long fromMillis, long toMillis) throws IOException {
+        if (!Files.isDirectory(dir)) return List.of();
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(dir)) {
+            segments = files.filter(SegmentFiles::isData).sorted().toList();
+        }
+
+        List<Slice> slices = new ArrayList<>();
+        for (Path segment : segments) {
+            // el nombre es el primer timestamp: lo que empieza después del rango no hace falta ni abrirlo
+            long start = SegmentFiles.startMillis(segment);
+            if (start - OUT_OF_ORDER_SLACK_MS >= toMillis) break;
+            Path index = SegmentFiles.indexOf(segment);
+            if (!Files.exists(index)) continue;
+
+            Slice run = null;
+            for (SegmentIndex.Entry e : SegmentIndex.read(index)) {
+                if (!e.overlaps(fromMillis, toMillis)) continue;
+                if (run != null && run.offset() + run.length() == e.offset()) {
+                    run = new Slice(segment, run.offset(), run.length() + e.length());
+                } else {
+                    if (run != null) slices.add(run);
+                    run = new Slice(segment, e.offset(), e.length());
+                }
+            }
+            if (run != null) slices.add(run);
+        }
+        return slices;
+    }
+
+    /**
+     * The SBS lines of {@link #slices} as one stream (gzip members are concatenated, so a single
+     * {@code GZIPInputStream} per slice inflates all of its blocks). Slices are mapped lazily, one at a time.
+     */
+    public InputStream open(long fromMillis, long toMillis) throws IOException {
+        Iterator<Slice> it = slices(fromMillis, toMillis).iterator();
+        return new SequenceInputStream(new Enumeration<>() {
+            @Override
+            public boolean hasMoreElements() {
+                return it.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                try {
+                    return inflate(it.next());
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+        });
+    }
+
+    private static InputStream inflate(Slice s) throws IOException {
+        MappedInputStream mapped = new MappedInputStream(s.segment(), s.offset(), s.length());
+        try {
+            return new GZIPInputStream(mapped, INFLATE_BUFFER_BYTES);
+        } catch (IOException ex) {
+            mapped.close();
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package io.github.vivianagh.flightapp.archive;
+
+import io.github.vivianagh.flightapp.config.ArchiveProperties;
+import io.github.vivianagh.flightapp.socket.SbsLineParser;
+import io.github.vivianagh.flightapp.socket.SbsMessage;
+import io.github.vivianagh.flightapp.utils.LogHelper;
+import io.github.vivianagh.flightapp.utils.SbsTimestamps;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Archivo durable de las líneas crudas del socket ({@code flight.archive.enabled=true}), independiente de la
+ * retención de {@code raw-flights}.
+ * <p>
+ * {@link #offer} solo copia la línea a una cola acotada: si el disco no acompaña, la línea se descarta (contada)
+ * y el lector del socket sigue. Un hilo propio ("raw-archive") la escribe en el segmento abierto
+ * ({@link SegmentWriter}), rota por tiempo/tamaño y aplica la retención. Lo archivado se lee por rango de
+ * tiempo con {@link ArchiveReader}.
+ * <p>
+ * Si el disco falla, el hilo espera antes de reintentar (de {@value #MIN_BACKOFF_MS} ms a
+ * {@value #MAX_BACKOFF_MS} ms, doblando) y mientras tanto la cola se llena y las líneas se descartan en
+ * {@link #offer}; los errores van por {@link LogHelper#logError}, con tope por segundo.
+ */
+@Slf4j
+@Service
+public class RawFeedArchiver {
+
+    private static final int DRAIN_BATCH = 1024;
+    private static final long MIN_BACKOFF_MS = 100;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final ArchiveProperties props;
+    private final Path dir;
+    private final ArrayBlockingQueue<byte[]> queue;
+    private final Thread writer;
+    private volatile boolean running;
+
+    private final LongAdder archived = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    // solo los toca el hilo writer
+    private final SbsMessage msg = new SbsMessage();
+    private SegmentWriter segment;
+
+    public RawFeedArchiver(ArchiveProperties props, MeterRegistry meters) {
+        this.props = props;
+        this.dir = Path.of(props.directory()).toAbsolutePath().normalize();
+        if (!props.enabled()) {
+            this.queue = null;
+            this.writer = null;
+            return;
+        }
+
+        this.queue = new ArrayBlockingQueue<>(props.queueCapacity());
+        FunctionCounter.builder("flight.archive.lines", archived, LongAdder::sum)
+                .description("Raw SBS lines written to the archive").register(meters);
+        FunctionCounter.builder("flight.archive.dropped", dropped, LongAdder::sum)
+                .description("Raw SBS lines not archived: queue full or write error").register(meters);
+        Gauge.builder("flight.archive.queue", queue, ArrayBlockingQueue::size)
+                .description("Raw SBS lines waiting to be archived").register(meters);
+
+        this.running = true;
+        this.writer = new Thread(this::writeLoop, "raw-archive");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        log.info("🗄️ Archivo crudo en {} (segmentos de {} min, bloques de {} KB / {} ms, retención {} días)",
+                dir, props.segmentMinutes(), props.blockBytes() / 1024, props.blockMs(),
+                props.retentionDays() == 0 ? "∞" : props.retentionDays());
+    }
+
+    public boolean isEnabled() {
+        return writer != null;
+    }
+
+    public Path directory() {
+        return dir;
+    }
+
+    /** Called on the feeder thread with the framer's slice; never blocks. */
+    public void offer(byte[] buf, int off, int len) {
+        if (queue == null) return;
+        byte[] line = new byte[len];
+        System.arraycopy(buf, off, line, 0, len);
+        if (!queue.offer(line)) dropped.increment();
+    }
+
+    private void writeLoop() {
+        List<byte[]> batch = new ArrayList<>(DRAIN_BATCH);
+        long blockAgeNanos = TimeUnit.MILLISECONDS.toNanos(props.blockMs());
+        long segmentAgeNanos = TimeUnit.MINUTES.toNanos(props.segmentMinutes());
+        long backoffMs = 0;
+        try {
+            Files.createDirectories(dir);
+            purgeExpired();
+        } catch (IOException ex) {
+            log.error("❌ Archivo crudo: no se pudo preparar {}", dir, ex);
+        }
+
+        while (running || !queue.isEmpty()) {
+            int written = 0;
+            try {
+                byte[] first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, DRAIN_BATCH - 1);
+                    for (byte[] line : batch) {
+                        write(line);
+                        written++;
+                    }
+                    archived.add(written);
+                    written = 0;
+                    batch.clear();
+                }
+                long now = System.nanoTime();
+                if (segment != null && segment.segmentDue(props.segmentBytes(), segmentAgeNanos, now)) {
+                    closeSegment();
+                    purgeExpired();
+                    backoffMs = 0; // solo un bloque cerrado demuestra que el disco vuelve a escribir
+                } else if (segment != null && segment.blockDue(props.blockBytes(), blockAgeNanos, now)) {
+                    segment.closeBlock();
+                    backoffMs = 0;
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException | RuntimeException ex) {
+                // las líneas ya escritas del lote cuentan como archivadas; el siguiente bloque va a un segmento nuevo
+                archived.add(written);
+                dropped.add(batch.size() - written);
+                batch.clear();
+                LogHelper.logError("writing raw archive " + (segment != null ? segment.path().getFileName() : dir), ex);
+                abandonSegment();
+                if (!running) {
+                    // parando con el disco fallando: no reintentar línea a línea lo que queda
+                    dropped.add(queue.size());
+                    queue.clear();
+                    break;
+                }
+                backoffMs = backoffMs == 0 ? MIN_BACKOFF_MS : Math.min(MAX_BACKOFF_MS, backoffMs * 2);
+                if (!pause(backoffMs)) break;
+            }
+        }
+        closeSegmentQuietly();
+    }
+
+    /** Sleeps up to {@code millis} in short steps so shutdown is not held up; false if interrupted. */
+    private boolean pause(long millis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        try {
+            for (long left; running && (left = deadline - System.nanoTime()) > 0; ) {
+                TimeUnit.NANOSECONDS.sleep(Math.min(left, TimeUnit.MILLISECONDS.toNanos(100)));
+            }
+            return true;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void write(byte[] line) throws IOException {
+        long feedMillis = SbsLineParser.parse(line, 0, line.length, msg)
+                ? SbsTimestamps.parseEpochMillis(msg.getLoggedDate(), msg.getLoggedTime())
+                : SbsTimestamps.INVALID;
+        if (segment == null) {
+            segment = new SegmentWriter(dir, feedMillis != SbsTimestamps.INVALID ? feedMillis : System.currentTimeMillis());
+            log.info("🗄️ Nuevo segmento {}", segment.path().getFileName());
+        }
+        segment.append(line, feedMillis);
+    }
+
+    private void closeSegment() throws IOException {
+        SegmentWriter s = segment;
+        segment = null;
+        if (s != null) s.close();
+    }
+
+    private void closeSegmentQuietly() {
+        try {
+            closeSegment();
+        } catch (IOException ex) {
+            log.error("❌ Archivo crudo: no se pudo cerrar el segmento", ex);
+        }
+    }
+
+    private void abandonSegment() {
+        SegmentWriter s = segment;
+        segment = null;
+        if (s == null) return;
+        try {
+            s.close();
+        } catch (IOException | RuntimeException ignored) {
+            // el índice solo tiene bloques completos; lo que falte en el .gz no es referenciado
+        }
+    }
+
+    /** Deletes segments whose successor starts before the retention cutoff (so the last one always stays). */
+    private void purgeExpired() throws IOException {
+        if (props.retentionDays() == 0) return;
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(props.retentionDays());
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(dir)) {
+            segments = files.filter(SegmentFiles::isData).sorted().toList();
+        }
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (SegmentFiles.startMillis(segments.get(i + 1)) >= cutoff) break;
+            Files.deleteIfExists(SegmentFiles.indexOf(segments.get(i)));
+            Files.deleteIfExists(segments.get(i));
+            log.info("🧹 Segmento expirado borrado: {}", segments.get(i).getFileName());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (writer == null) return;
+        running = false;
+        writer.join(10_000);
+        log.info("🗄️ Archivo crudo detenido (archived={}, dropped={})", archived.sum(), dropped.sum());
+    }
+}
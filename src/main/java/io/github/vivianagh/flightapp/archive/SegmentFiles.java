@@ -0,0 +1,47 @@
+package io.github.vivianagh.flightapp.archive;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Segment naming: {@code raw-20250831T163357Z.sbs.gz} + {@code raw-20250831T163357Z.idx}, named after the first
+ * line's logged time (UTC), so names sort in time order and a range lookup can skip segments without opening them.
+ */
+final class SegmentFiles {
+
+    static final String PREFIX = "raw-";
+    static final String DATA_SUFFIX = ".sbs.gz";
+    static final String INDEX_SUFFIX = ".idx";
+
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private SegmentFiles() {}
+
+    static Path data(Path dir, long startMillis) {
+        return dir.resolve(PREFIX + NAME.format(Instant.ofEpochMilli(startMillis)) + DATA_SUFFIX);
+    }
+
+    static Path indexOf(Path data) {
+        String name = data.getFileName().toString();
+        return data.resolveSibling(name.substring(0, name.length() - DATA_SUFFIX.length()) + INDEX_SUFFIX);
+    }
+
+    static boolean isData(Path p) {
+        String name = p.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(DATA_SUFFIX);
+    }
+
+    /** Start time encoded in the name, or -1 if it is not a segment name. */
+    static long startMillis(Path data) {
+        String name = data.getFileName().toString();
+        if (!isData(data)) return -1;
+        try {
+            return Instant.from(NAME.parse(name.substring(PREFIX.length(), name.length() - DATA_SUFFIX.length()))).toEpochMilli();
+        } catch (DateTimeParseException ex) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.vivianagh.flightapp.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sparse index of a segment ({@code .idx} next to the {@code .sbs.gz}): one fixed-size entry per block,
+ * appended once the block's gzip member is complete on disk. Big-endian longs:
+ * {@code offset, length, minMillis, maxMillis} (logged time of the SBS lines, epoch millis).
+ * A block without any parseable timestamp has {@code minMillis > maxMillis} and never matches a range.
+ */
+public final class SegmentIndex {
+
+    public static final int ENTRY_BYTES = 4 * Long.BYTES;
+
+    public record Entry(long offset, long length, long minMillis, long maxMillis) {
+        /** Overlaps {@code [fromMillis, toMillis)}. */
+        public boolean overlaps(long fromMillis, long toMillis) {
+            return minMillis <= maxMillis && minMillis < toMillis && maxMillis >= fromMillis;
+        }
+    }
+
+    private SegmentIndex() {}
+
+    static void encode(ByteBuffer out, Entry e) {
+        out.putLong(e.offset()).putLong(e.length()).putLong(e.minMillis()).putLong(e.maxMillis());
+    }
+
+    /** Complete entries only: a trailing partial entry (being written right now) is ignored. */
+    public static List<Entry> read(Path index) throws IOException {
+        try (FileChannel ch = FileChannel.open(index, StandardOpenOption.READ)) {
+            long complete = ch.size() / ENTRY_BYTES * ENTRY_BYTES;
+            ByteBuffer buf = ByteBuffer.allocate(Math.toIntExact(complete));
+            while (buf.hasRemaining() && ch.read(buf) > 0) { /* leer todo */ }
+            buf.flip();
+            List<Entry> entries = new ArrayList<>(buf.remaining() / ENTRY_BYTES);
+            while (buf.remaining() >= ENTRY_BYTES) {
+                entries.add(new Entry(buf.getLong(), buf.getLong(), buf.getLong(), buf.getLong()));
+            }
+            return entries;
+        }
+    }
+}
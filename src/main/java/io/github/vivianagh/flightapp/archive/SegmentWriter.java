@@ -0,0 +1,142 @@
+package io.github.vivianagh.flightapp.archive;
+
+import io.github.vivianagh.flightapp.utils.SbsTimestamps;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * One open segment. Lines are compressed in blocks; every block is a complete gzip member, so the segment is
+ * still a valid .gz for {@code zcat} or {@code ReplayFiles}, and a reader can start inflating at any block
+ * offset from the index. Single-threaded (the archiver's writer thread).
+ */
+final class SegmentWriter implements Closeable {
+
+    private final Path data;
+    private final FileChannel dataChannel;
+    private final CountingOutputStream out;
+    private final FileChannel index;
+    private final ByteBuffer entry = ByteBuffer.allocate(SegmentIndex.ENTRY_BYTES);
+    private final long openedNanos = System.nanoTime();
+
+    private GZIPOutputStream block;       // null entre bloques
+    private long blockOffset;
+    private long blockRawBytes;
+    private long blockOpenedNanos;
+    private long blockMin = Long.MAX_VALUE;
+    private long blockMax = Long.MIN_VALUE;
+
+    SegmentWriter(Path dir, long startMillis) throws IOException {
+        Path target = SegmentFiles.data(dir, startMillis);
+        for (int n = 1; Files.exists(target); n++) {
+            // mismo segundo que otro segmento (reinicio rápido): un segundo más tarde en el nombre
+            target = SegmentFiles.data(dir, startMillis + n * 1000L);
+        }
+        this.data = target;
+        this.dataChannel = FileChannel.open(data, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        this.out = new CountingOutputStream(new BufferedOutputStream(Channels.newOutputStream(dataChannel), 64 * 1024));
+        FileChannel idx;
+        try {
+            idx = FileChannel.open(SegmentFiles.indexOf(data), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        } catch (IOException | RuntimeException ex) {
+            // sin índice el segmento no sirve: no dejar el canal abierto ni un .gz vacío huérfano
+            try {
+                dataChannel.close();
+                Files.deleteIfExists(data);
+            } catch (IOException suppressed) {
+                ex.addSuppressed(suppressed);
+            }
+            throw ex;
+        }
+        this.index = idx;
+    }
+
+    Path path() {
+        return data;
+    }
+
+    /** {@code line} without its '\n'; {@code feedMillis} may be {@link SbsTimestamps#INVALID}. */
+    void append(byte[] line, long feedMillis) throws IOException {
+        if (block == null) {
+            blockOffset = out.count;
+            blockOpenedNanos = System.nanoTime();
+            block = new GZIPOutputStream(out, 8 * 1024);
+        }
+        block.write(line);
+        block.write('\n');
+        blockRawBytes += line.length + 1;
+        if (feedMillis != SbsTimestamps.INVALID) {
+            if (feedMillis < blockMin) blockMin = feedMillis;
+            if (feedMillis > blockMax) blockMax = feedMillis;
+        }
+    }
+
+    boolean blockDue(int maxRawBytes, long maxAgeNanos, long nowNanos) {
+        return block != null && (blockRawBytes >= maxRawBytes || nowNanos - blockOpenedNanos >= maxAgeNanos);
+    }
+
+    boolean segmentDue(long maxBytes, long maxAgeNanos, long nowNanos) {
+        return out.count >= maxBytes || nowNanos - openedNanos >= maxAgeNanos;
+    }
+
+    /** Finishes the gzip member, pushes it to the file and only then publishes its index entry. */
+    void closeBlock() throws IOException {
+        if (block == null) return;
+        block.finish();
+        out.flush();
+        SegmentIndex.encode(entry.clear(), new SegmentIndex.Entry(blockOffset, out.count - blockOffset, blockMin, blockMax));
+        entry.flip();
+        while (entry.hasRemaining()) index.write(entry);
+        block = null;
+        blockRawBytes = 0;
+        blockMin = Long.MAX_VALUE;
+        blockMax = Long.MIN_VALUE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            closeBlock();
+            out.flush();
+            dataChannel.force(false); // datos en disco antes que el índice que apunta a ellos
+            index.force(false);
+        } finally {
+            try {
+                out.close();
+            } finally {
+                index.close();
+            }
+        }
+    }
+
+    /** FilterOutputStream that forwards whole arrays (the default writes byte by byte) and counts. */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package io.github.vivianagh.flightapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Archivo append-only de las líneas crudas del socket ({@code archive.RawFeedArchiver}): segmentos .sbs.gz
+ * rotativos con un índice disperso por bloque para poder leer/reproducir cualquier rango de tiempo.
+ */
+@ConfigurationProperties(prefix = "flight.archive")
+public record ArchiveProperties(
+        boolean enabled,
+        String directory,
+        long segmentMinutes,        // un segmento nuevo cada tanto (y al superar segmentBytes)
+        long segmentBytes,          // tamaño comprimido máximo de un segmento
+        int blockBytes,             // bytes sin comprimir por bloque (miembro gzip + entrada del índice)
+        long blockMs,               // cierra el bloque aunque no esté lleno: lo último archivado es legible tras esto
+        int queueCapacity,          // líneas en espera de escribir; si se llena se descartan (el socket nunca espera)
+        int retentionDays           // 0 = conservar todo
+) {
+    public ArchiveProperties {
+        if (directory == null || directory.isBlank()) directory = "archive";
+        if (segmentMinutes <= 0) segmentMinutes = 60;
+        if (segmentBytes <= 0) segmentBytes = 1L << 30;
+        if (blockBytes <= 0) blockBytes = 256 * 1024;
+        if (blockMs <= 0) blockMs = 10_000;
+        if (queueCapacity <= 0) queueCapacity = 65_536;
+        if (retentionDays < 0) retentionDays = 0;
+    }
+}
@@ -2,14 +2,18 @@ package io.github.vivianagh.flightapp.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.List;
+
 @ConfigurationProperties(prefix = "flight.socket")
 public record FlightSocketProperties(
         boolean enabled,            // activar/desactivar lector
-        String host,                // host del socket (antena/feeder)
-        int port,                   // puerto (p.ej. 30003 dump1090)
+        String host,                // host del socket (antena/feeder) si no hay feeders[]
+        int port,                   // puerto (p.ej. 30003 dump1090) si no hay feeders[]
         int connectTimeoutMs,       // timeout de conexión
         int readTimeoutMs,          // timeout de lectura
-        int reconnectBackoffMs      // backoff entre reintentos
+        int reconnectBackoffMs,     // backoff inicial entre reintentos
+        int maxReconnectBackoffMs,  // tope del backoff exponencial
+        List<Feeder> feeders        // varios receptores en paralelo (flight.socket.feeders[0].host=...)
 ) {
     public FlightSocketProperties {
         // Defaults “seguros”
@@ -18,5 +22,25 @@ public record FlightSocketProperties(
         if (connectTimeoutMs <= 0) connectTimeoutMs = 3000;
         if (readTimeoutMs <= 0) readTimeoutMs = 5000;
         if (reconnectBackoffMs <= 0) reconnectBackoffMs = 1000;
+        if (maxReconnectBackoffMs < reconnectBackoffMs) maxReconnectBackoffMs = Math.max(30_000, reconnectBackoffMs);
+        feeders = (feeders == null) ? List.of() : List.copyOf(feeders);
+    }
+
+    /** Feeders a conectar: la lista {@code feeders[]} o, si está vacía, el host/port clásico. */
+    public List<Feeder> effectiveFeeders() {
+        if (!feeders.isEmpty()) return feeders;
+        return List.of(new Feeder("default", host, port));
+    }
+
+    public record Feeder(
+            String name,            // etiqueta para logs (p.ej. "tower-hamlets")
+            String host,
+            int port
+    ) {
+        public Feeder {
+            if (host == null || host.isBlank()) host = "localhost";
+            if (port <= 0) port = 30003;
+            if (name == null || name.isBlank()) name = host + ":" + port;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,61 @@
+package io.github.vivianagh.flightapp.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.ContainerProperties;
+
+import java.util.Map;
+import java.util.Properties;
+
+@Slf4j
+@Configuration
+public class KafkaConsumerConfig {
+
+    /**
+     * Factory para el listener batch de {@code raw-flights}: recibe {@code List<ConsumerRecord>},
+     * commitea por batch y levanta un consumidor por partición (o {@code flight.processor.concurrency}).
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> rawFlightsBatchFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            ConsumerFactory<Object, Object> consumerFactory,
+            KafkaAdmin kafkaAdmin,
+            ProcessorProperties props,
+            @Value("${kafka.topic.rawFlights}") String rawTopic) {
+
+        var factory = new ConcurrentKafkaListenerContainerFactory<Object, Object>();
+        configurer.configure(factory, consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(resolveConcurrency(props, kafkaAdmin, rawTopic));
+
+        ContainerProperties container = factory.getContainerProperties();
+        container.setAckMode(ContainerProperties.AckMode.BATCH);
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(props.maxPollRecords()));
+        container.setKafkaConsumerProperties(overrides);
+        return factory;
+    }
+
+    /** Más consumidores que particiones quedan ociosos; menos dejan throughput sin usar. */
+    private static int resolveConcurrency(ProcessorProperties props, KafkaAdmin admin, String topic) {
+        if (props.concurrency() > 0) return props.concurrency();
+        if (!ProcessorProperties.MODE_BATCH.equals(props.mode())) return 1;
+        try {
+            Map<String, TopicDescription> topics = admin.describeTopics(topic);
+            int partitions = topics.get(topic).partitions().size();
+            log.info("⚙️ raw-flights batch listener: {} partición(es) -> concurrency {}", partitions, partitions);
+            return Math.max(1, partitions);
+        } catch (Exception e) {
+            log.warn("⚠️ No pude leer las particiones de {} ({}); concurrency=1", topic, e.getMessage());
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.vivianagh.flightapp.config;
+
+import io.github.vivianagh.avro.Flight;
+import io.github.vivianagh.flightapp.geo.GeofenceEngine;
+import io.github.vivianagh.flightapp.producer.DeadLetterPublisher;
+import io.github.vivianagh.flightapp.streams.FlightStateTopology;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.KStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafkaStreams;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Motor alternativo ({@code flight.processor.mode=streams}): la topología de {@link FlightStateTopology}
+ * sustituye a los listeners de {@code FlightProcessorService}. Application id, state dir y standbys
+ * vienen de {@code spring.kafka.streams.*}.
+ */
+@Slf4j
+@Configuration
+@EnableKafkaStreams
+@ConditionalOnProperty(name = "flight.processor.mode", havingValue = ProcessorProperties.MODE_STREAMS)
+public class KafkaStreamsConfig {
+
+    @Bean
+    public KStream<String, Flight> flightStateStream(
+            StreamsBuilder builder,
+            GeofenceEngine geofence,
+            DeadLetterPublisher deadLetterPublisher,
+            StateStoreProperties stateProps,
+            KafkaProperties kafkaProperties,
+            @Value("${kafka.topic.rawFlights}") String rawTopic,
+            @Value("${kafka.topic.flightsUpdate}") String updateTopic,
+            @Value("${kafka.topic.flightsOverHome}") String overHomeTopic,
+            @Value("${kafka.topic.completedFlights}") String completedTopic,
+            @Value("${kafka.topic.deadLetter}") String deadLetterTopic) {
+
+        // schema.registry.url / specific.avro.reader de spring.kafka.properties
+        Map<String, Object> serdeConfig = new HashMap<>(kafkaProperties.getProperties());
+
+        var topology = new FlightStateTopology(
+                new FlightStateTopology.Topics(rawTopic, updateTopic, overHomeTopic, completedTopic, deadLetterTopic),
+                geofence,
+                deadLetterPublisher::record,
+                serdeConfig,
+                Duration.ofMillis(stateProps.idleTimeoutMs()),
+                Duration.ofMillis(stateProps.sweepIntervalMs()));
+
+        log.info("🌊 Kafka Streams: {} -> {} / {} / {}", rawTopic, updateTopic, overHomeTopic, completedTopic);
+        return topology.build(builder);
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.vivianagh.flightapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/** Lag por consumer group ({@code kafka.consumer.group.lag}) consultado con el AdminClient. */
+@ConfigurationProperties(prefix = "flight.metrics.lag")
+public record LagMonitorProperties(
+        Boolean enabled,
+        long intervalMs,            // cada cuánto se consulta el broker
+        long timeoutMs,             // tope por consulta al AdminClient
+        List<String> groups         // vacío = todos los grupos del cluster salvo los efímeros live-stream-*
+) {
+    public LagMonitorProperties {
+        if (enabled == null) enabled = true;
+        if (intervalMs <= 0) intervalMs = 30_000;
+        if (timeoutMs <= 0) timeoutMs = 5_000;
+        groups = groups == null ? List.of() : List.copyOf(groups);
+    }
+}
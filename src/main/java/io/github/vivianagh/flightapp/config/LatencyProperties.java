@@ -0,0 +1,17 @@
+package io.github.vivianagh.flightapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/** Histogramas de latencia del pipeline ({@code flight.pipeline.hop} / {@code flight.pipeline.age}). */
+@ConfigurationProperties(prefix = "flight.metrics.latency")
+public record LatencyProperties(
+        List<Long> sloMs,           // buckets exportados tal cual: sobre ellos se definen los SLO de frescura
+        long maxExpectedMs          // techo del histograma; lo que pase de aquí cae en +Inf
+) {
+    public LatencyProperties {
+        sloMs = sloMs == null || sloMs.isEmpty() ? List.of(100L, 500L, 1_000L, 5_000L, 30_000L) : List.copyOf(sloMs);
+        if (maxExpectedMs <= 0) maxExpectedMs = 300_000;
+    }
+}
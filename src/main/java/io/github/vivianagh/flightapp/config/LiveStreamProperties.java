@@ -0,0 +1,19 @@
+package io.github.vivianagh.flightapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** Stream en vivo ({@code GET /api/v1/stream}, SSE) para los dashboards. */
+@ConfigurationProperties(prefix = "flight.live")
+public record LiveStreamProperties(
+        int clientBuffer,           // eventos pendientes por cliente; al llenarse se descartan los más viejos
+        int maxClients,             // conexiones simultáneas; el resto recibe 503
+        int senderThreads,          // hilos compartidos que escriben en los sockets
+        long heartbeatMs            // comentario SSE periódico: mantiene proxies abiertos y detecta clientes caídos
+) {
+    public LiveStreamProperties {
+        if (clientBuffer <= 0) clientBuffer = 256;
+        if (maxClients <= 0) maxClients = 200;
+        if (senderThreads <= 0) senderThreads = 4;
+        if (heartbeatMs <= 0) heartbeatMs = 15_000;
+    }
+}
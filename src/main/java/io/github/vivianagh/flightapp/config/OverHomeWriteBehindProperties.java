@@ -0,0 +1,22 @@
+package io.github.vivianagh.flightapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** Persistencia diferida de {@code flights-over-home}: buffer coalescido + upsert por lotes. */
+@ConfigurationProperties(prefix = "flight.over-home.write-behind")
+public record OverHomeWriteBehindProperties(
+        boolean enabled,            // false: el consumer escribe fila a fila como siempre
+        long flushIntervalMs,       // flush periódico
+        int maxBatch,               // flush anticipado al llegar a tantas filas pendientes
+        int maxPending,             // tope del buffer si la BD no responde (lo que exceda se descarta)
+        int routeThreads,           // hilos que resuelven rutas fuera del camino de inserción
+        int routeQueueCapacity      // resoluciones en espera; si se llena, se deja para el BackfillRouteJob
+) {
+    public OverHomeWriteBehindProperties {
+        if (flushIntervalMs <= 0) flushIntervalMs = 1000;
+        if (maxBatch <= 0) maxBatch = 500;
+        if (maxPending < maxBatch) maxPending = maxBatch * 20;
+        if (routeThreads <= 0) routeThreads = 2;
+        if (routeQueueCapacity <= 0) routeQueueCapacity = 1000;
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.vivianagh.flightapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** Particiones mensuales de {@code flight_over_home} y {@code flights_per_hour_seen} (ver V5). */
+@ConfigurationProperties(prefix = "flight.partitions")
+public record PartitionProperties(
+        int monthsAhead,                // meses futuros que se dejan creados
+        int overHomeRetentionMonths,    // meses completos que se conservan; 0 = sin borrar
+        int seenRetentionMonths,        // idem para el dedupe por hora (solo sirve la hora en curso)
+        long maintenanceIntervalMs
+) {
+    public PartitionProperties {
+        if (monthsAhead <= 0) monthsAhead = 2;
+        if (overHomeRetentionMonths < 0) overHomeRetentionMonths = 0;
+        if (seenRetentionMonths < 0) seenRetentionMonths = 0;
+        if (maintenanceIntervalMs <= 0) maintenanceIntervalMs = 21_600_000; // 6 h
+    }
+}
@@ -0,0 +1,27 @@
+package io.github.vivianagh.flightapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** Conteo de aviones distintos por hora ({@code flights_per_hour}). */
+@ConfigurationProperties(prefix = "flight.per-hour")
+public record PerHourProperties(
+        String mode,            // db (dedupe en flights_per_hour_seen) | exact (bitset en memoria) | hll (aproximado)
+        long flushIntervalMs,   // cada cuánto se vuelcan las horas abiertas
+        int hllPrecision,       // 2^p registros; 14 = 16 KB por hora, ~0.8% de error
+        String zone             // zona horaria de logged_date/logged_time
+) {
+    public static final String MODE_DB = "db";
+    public static final String MODE_EXACT = "exact";
+    public static final String MODE_HLL = "hll";
+
+    public PerHourProperties {
+        if (mode == null || mode.isBlank()) mode = MODE_EXACT;
+        if (flushIntervalMs <= 0) flushIntervalMs = 60_000;
+        if (hllPrecision <= 0) hllPrecision = 14;
+        if (zone == null || zone.isBlank()) zone = "Europe/London";
+    }
+
+    public boolean inMemory() {
+        return !MODE_DB.equalsIgnoreCase(mode);
+    }
+}
@@ -0,0 +1,24 @@
+package io.github.vivianagh.flightapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Map;
+
+/**
+ * Muestreo de los logs por mensaje ({@code utils.LogHelper}). Claves de {@code sample-every}: record, received,
+ * produced, saved, skipped, msg-type; valor N = 1 de cada N (1 = todos, 0 = ninguno, solo el resumen).
+ */
+@ConfigurationProperties(prefix = "flight.logging")
+public record PipelineLoggingProperties(
+        Map<String, Long> sampleEvery,
+        int maxPerSecond,           // tope de líneas por segundo y tipo de evento (0 = sin tope)
+        int maxErrorsPerSecond,     // los errores no se muestrean, solo se limitan
+        long summaryIntervalMs      // cada cuánto se escribe la línea de conteos
+) {
+    public PipelineLoggingProperties {
+        sampleEvery = sampleEvery == null ? Map.of() : Map.copyOf(sampleEvery);
+        if (maxPerSecond < 0) maxPerSecond = 0;
+        if (maxErrorsPerSecond <= 0) maxErrorsPerSecond = 20;
+        if (summaryIntervalMs <= 0) summaryIntervalMs = 60_000;
+    }
+}
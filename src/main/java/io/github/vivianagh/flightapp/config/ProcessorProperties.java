@@ -0,0 +1,24 @@
+package io.github.vivianagh.flightapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Cómo se consume {@code raw-flights}: listeners de {@code FlightProcessorService} (record/batch)
+ * o la topología de Kafka Streams ({@code streams.FlightStateTopology}).
+ */
+@ConfigurationProperties(prefix = "flight.processor")
+public record ProcessorProperties(
+        String mode,            // record (un ConsumerRecord por llamada) | batch (List<ConsumerRecord>) | streams
+        int concurrency,        // consumidores en paralelo; 0 = uno por partición del tópico
+        int maxPollRecords      // tamaño máximo de cada batch
+) {
+    public static final String MODE_RECORD = "record";
+    public static final String MODE_BATCH = "batch";
+    public static final String MODE_STREAMS = "streams";
+
+    public ProcessorProperties {
+        if (mode == null || mode.isBlank()) mode = MODE_RECORD;
+        if (concurrency < 0) concurrency = 0;
+        if (maxPollRecords <= 0) maxPollRecords = 500;
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.vivianagh.flightapp.config;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Map;
+
+/**
+ * Modo "alto throughput" del productor de {@code raw-flights}: batching, compresión y
+ * backpressure acotada hacia los lectores de socket.
+ */
+@ConfigurationProperties(prefix = "flight.producer.raw")
+public record RawProducerProperties(
+        boolean highThroughput,     // usa un productor propio afinado en vez del template por defecto
+        int lingerMs,               // espera para llenar batches
+        int batchSize,              // bytes por batch y partición
+        String compressionType,     // none | gzip | snappy | lz4 | zstd
+        long bufferMemory,          // memoria total del productor para records pendientes
+        int maxInFlight,            // sends sin confirmar antes de frenar al lector
+        long maxBlockMs             // cuánto puede esperar el lector un permiso (o send() por metadata/buffer) antes de descartar
+) {
+    public RawProducerProperties {
+        if (lingerMs < 0) lingerMs = 0;
+        if (lingerMs == 0 && highThroughput) lingerMs = 20;
+        if (batchSize <= 0) batchSize = 64 * 1024;
+        if (compressionType == null || compressionType.isBlank()) compressionType = "lz4";
+        if (bufferMemory <= 0) bufferMemory = 64L * 1024 * 1024;
+        if (maxInFlight <= 0) maxInFlight = 20_000;
+        if (maxBlockMs <= 0) maxBlockMs = 250;
+    }
+
+    /**
+     * Overrides aplicados sobre la configuración de {@code spring.kafka.producer}. {@code max.block.ms}
+     * usa el mismo límite que el semáforo: sin él, un {@code send()} sin metadata o con el buffer lleno
+     * bloquearía al lector los 60 s por defecto de Kafka.
+     */
+    public Map<String, Object> producerOverrides() {
+        return Map.of(
+                ProducerConfig.LINGER_MS_CONFIG, lingerMs,
+                ProducerConfig.BATCH_SIZE_CONFIG, batchSize,
+                ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType,
+                ProducerConfig.BUFFER_MEMORY_CONFIG, bufferMemory,
+                ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs
+        );
+    }
+}
@@ -0,0 +1,25 @@
+package io.github.vivianagh.flightapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Replay de capturas SBS-1 grabadas ({@code replay.ReplayService}) por el mismo camino que el socket.
+ * Los ficheros (texto plano o .gz) se buscan dentro de {@code directory}.
+ */
+@ConfigurationProperties(prefix = "flight.replay")
+public record ReplayProperties(
+        boolean enabled,            // lanzar el replay de "files" al arrancar
+        String directory,           // raíz de las capturas; no se lee nada fuera de aquí
+        List<String> files,         // en orden: el tiempo del feed sigue de un fichero al siguiente
+        double speed,               // 1 = tiempo real, N = N veces más rápido, 0 = lo más rápido posible
+        long maxGapMs               // 0 = respetar los huecos originales; >0 = comprimir silencios a este máximo
+) {
+    public ReplayProperties {
+        if (directory == null || directory.isBlank()) directory = "captures";
+        files = files == null ? List.of() : List.copyOf(files);
+        if (speed < 0) speed = 0;
+        if (maxGapMs < 0) maxGapMs = 0;
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.vivianagh.flightapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/** Enriquecimiento de rutas (O/D) contra la API externa: cuota, concurrencia y tamaño de lote. */
+@ConfigurationProperties(prefix = "routes")
+public record RouteEnrichmentProperties(
+        int batchSize,              // filas pendientes leídas por pasada (se deduplican por número de vuelo)
+        int workers,                // resoluciones en paralelo; el ritmo real lo marca el token bucket
+        double ratePerSecond,       // cuota sostenida del proveedor (< 0: sin límite)
+        int burst,                  // llamadas que pueden salir juntas tras un rato sin uso
+        long maxWaitMs,             // espera máxima por un token antes de dejar la fila para la próxima pasada
+        Duration retryBackoff,      // primera espera antes de reintentar una fila cuya ruta no se encontró (se dobla)
+        Duration maxRetryBackoff,   // tope de esa espera
+        RouteCache cache
+) {
+    public RouteEnrichmentProperties {
+        if (batchSize <= 0) batchSize = 200;
+        if (workers <= 0) workers = 4;
+        if (ratePerSecond == 0) ratePerSecond = 0.8;
+        if (burst <= 0) burst = 1;
+        if (maxWaitMs <= 0) maxWaitMs = 5_000;
+        if (retryBackoff == null || retryBackoff.isNegative() || retryBackoff.isZero()) retryBackoff = Duration.ofMinutes(15);
+        if (maxRetryBackoff == null || maxRetryBackoff.isNegative() || maxRetryBackoff.isZero()) maxRetryBackoff = Duration.ofHours(24);
+        if (maxRetryBackoff.compareTo(retryBackoff) < 0) maxRetryBackoff = retryBackoff;
+        if (cache == null) cache = new RouteCache(0, null, null, 0, null);
+    }
+
+    /** Cache en memoria del resolver: acotada por tamaño (W-TinyLFU) y con TTL distinto para rutas y "sin datos". */
+    public record RouteCache(
+            int maxEntries,
+            Duration positiveTtl,   // vuelo con origin/destination
+            Duration negativeTtl,   // vuelo sin datos: evita volver a la BD/API en cada muestra
+            int maxCooldowns,       // vuelos en cooldown tras un error de la API
+            Duration errorCooldown  // cuánto se deja de consultar un vuelo tras un 5xx/timeout (0: nada)
+    ) {
+        public RouteCache {
+            if (maxEntries <= 0) maxEntries = 10_000;
+            if (positiveTtl == null || positiveTtl.isNegative() || positiveTtl.isZero()) positiveTtl = Duration.ofHours(12);
+            if (negativeTtl == null || negativeTtl.isNegative() || negativeTtl.isZero()) negativeTtl = Duration.ofMinutes(30);
+            if (maxCooldowns <= 0) maxCooldowns = 5_000;
+            if (errorCooldown == null || errorCooldown.isNegative()) errorCooldown = Duration.ofMinutes(10);
+        }
+    }
+}
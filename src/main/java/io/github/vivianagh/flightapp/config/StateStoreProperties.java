@@ -0,0 +1,23 @@
+package io.github.vivianagh.flightapp.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** Estado consolidado por aeronave: implementación, expiración por inactividad y tope de entradas. */
+@ConfigurationProperties(prefix = "flight.state")
+public record StateStoreProperties(
+        String store,               // map | columnar
+        long idleTimeoutMs,         // sin mensajes durante este tiempo -> se expulsa (vuelo perdido/completado)
+        int maxEntries,             // tope duro de aeronaves en memoria
+        long sweepIntervalMs        // cada cuánto se barren las inactivas
+) {
+    public StateStoreProperties {
+        if (store == null || store.isBlank()) store = "map";
+        if (idleTimeoutMs <= 0) idleTimeoutMs = 300_000;
+        if (maxEntries <= 0) maxEntries = 20_000;
+        if (sweepIntervalMs <= 0) sweepIntervalMs = 10_000;
+    }
+
+    public static StateStoreProperties defaults() {
+        return new StateStoreProperties(null, 0, 0, 0);
+    }
+}
@@ -8,9 +8,18 @@ import io.github.vivianagh.flightapp.producer.DeadLetterPublisher;
 import io.github.vivianagh.flightapp.repository.FlightOverHomeRepository;
 import io.github.vivianagh.flightapp.service.AirlineLookupService;
 import io.github.vivianagh.flightapp.service.CallsignRegistry;
+import io.github.vivianagh.flightapp.service.FlightOverHomeWriteBehind;
 import io.github.vivianagh.flightapp.service.FlightsPerHourService;
+import io.github.vivianagh.flightapp.service.LatestFlightsReadModel;
+import io.github.vivianagh.flightapp.service.PipelineLatency;
 import io.github.vivianagh.flightapp.service.RouteResolverService;
 import io.github.vivianagh.flightapp.utils.LogHelper;
+import io.github.vivianagh.flightapp.utils.PipelineHeaders;
+import io.github.vivianagh.flightapp.utils.SbsTimestamps;
+import io.github.vivianagh.flightapp.service.OverHomeDbTimers;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
@@ -19,8 +28,6 @@ import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
 import java.time.*;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -35,6 +42,19 @@ public class FlightOverHomeConsumer {
     private final CallsignRegistry registry;
     private final RouteResolverService routeResolver;
     private final AirlineLookupService airlineLookup;
+    private final FlightOverHomeWriteBehind writeBehind;
+    private final LatestFlightsReadModel latestFlights;
+    private final MeterRegistry meters;
+    private final PipelineLatency latency;
+
+    private Timer upsertTimer;
+    private Timer routeTimer;
+
+    @PostConstruct
+    void registerMeters() {
+        upsertTimer = OverHomeDbTimers.timer(meters, "upsert");
+        routeTimer = OverHomeDbTimers.timer(meters, "route");
+    }
 
     @Value("${kafka.topic.flightsOverHome}")
     private String flightsOverHomeTopic;
@@ -42,6 +62,8 @@ public class FlightOverHomeConsumer {
     @KafkaListener(topics = "${kafka.topic.flightsOverHome}", groupId = "flight-over-home")
     public void listen(ConsumerRecord<String, Flight> record) {
         LogHelper.logReceived(flightsOverHomeTopic, record.key());
+        latency.received(PipelineLatency.STAGE_OVER_HOME, record);
+        final long receivedAt = PipelineHeaders.receivedAt(record.headers());
         Flight flightAvro = record.value();
 
         try {
@@ -57,18 +79,28 @@ public class FlightOverHomeConsumer {
             String callsign = normalizeAndCacheCallsign(icao24, d.getCallsign());
 
             // ---- 3) Upsert row (update only missing fields) ----
-            FlightOverHomeEntity saved = upsertRow(d, icao24, callsign);
-            Instant when = toInstant(loggedDate, loggedTime);
+            final String zoneId = flightAvro.getZoneId() != null ? flightAvro.getZoneId().toString() : null;
+            Instant when = loggedAt(loggedDate, loggedTime);
+            if (writeBehind.isEnabled()) {
+                // buffered: batched upsert + route resolved off the listener thread
+                FlightOverHomeEntity row = newRow(d, icao24, callsign, zoneId, when);
+                writeBehind.submit(row, when, receivedAt);
+                latestFlights.record(row, when);
+                return;
+            }
+            FlightOverHomeEntity saved = upsertTimer.record(() -> upsertRow(d, icao24, callsign, zoneId, when));
+            latency.age(PipelineLatency.STAGE_DB, receivedAt);
+            latestFlights.record(saved, when);
             var route = routeResolver.resolve(callsign, icao24, when);
             if (route != null && (route.origin() != null || route.destination() != null)) {
                 // usar exactamente los strings que guardaste al insertar
-                int n = repository.updateRouteForSample(
+                int n = routeTimer.record(() -> repository.updateRouteForSample(
                         icao24,
-                        d.getLoggedDate(),      // ej: "2025/08/31" si así lo guardaste
-                        d.getLoggedTime(),      // ej: "16:33:57.544" (con o sin .SSS según tu columna)
+                        saved.getLoggedAt(),    // mismo instante con el que se insertó (clave de partición)
                         route.origin(),
                         route.destination()
-                );
+                ));
+                latestFlights.applyRoute(icao24, saved.getLoggedAt(), route.origin(), route.destination());
                 log.info("🏷️ route set {} -> {} for {} (rows updated = {})",
                         route.origin(), route.destination(), icao24, n);
             }
@@ -83,7 +115,7 @@ public class FlightOverHomeConsumer {
 
             // ---- 5) Resolve route (non-blocking cache warmup) if we have callsign ----
             if (callsign != null) {
-                log.info("Resolving route: icao24={} callsign={} when={}", icao24, callsign, loggedDate + " " + loggedTime);
+                log.debug("Resolving route: icao24={} callsign={} when={} {}", icao24, callsign, loggedDate, loggedTime);
                 routeResolver.resolve(callsign, icao24, when);
             }
 
@@ -112,10 +144,10 @@ public class FlightOverHomeConsumer {
         return known;
     }
 
-    /** Upsert semantics: if row exists for (icao24, loggedDate, loggedTime), only fill missing fields; otherwise insert. */
-    private FlightOverHomeEntity upsertRow(FlightData d, String icao24, String callsign) {
+    /** Upsert semantics: if row exists for (icao24, loggedAt), only fill missing fields; otherwise insert. */
+    private FlightOverHomeEntity upsertRow(FlightData d, String icao24, String callsign, String zoneId, Instant when) {
         Optional<FlightOverHomeEntity> existingOpt =
-                repository.findFirstByIcao24AndLoggedDateAndLoggedTime(icao24, d.getLoggedDate(), d.getLoggedTime());
+                repository.findFirstByIcao24AndLoggedAt(icao24, when);
 
         Double speed = d.getGroundSpeed();   // may be null (MSG=4 usually has it)
         Double lat   = d.getLatitude();
@@ -130,6 +162,7 @@ public class FlightOverHomeConsumer {
             if (e.getAltitude()  == null && alt != null)      e.setAltitude(alt);
             if (e.getLatitude()  == null && lat != null)      e.setLatitude(lat);
             if (e.getLongitude() == null && lng != null)      e.setLongitude(lng);
+            if (e.getZoneId()    == null && zoneId != null)   e.setZoneId(zoneId);
 
             // speed is optional — update if we didn’t have it yet
             if (e.getSpeed() == null && speed != null) e.setSpeed(speed);
@@ -144,26 +177,32 @@ public class FlightOverHomeConsumer {
         }
 
         // INSERT
+        return repository.save(newRow(d, icao24, callsign, zoneId, when));
+    }
+
+    /** Row for a new sample (not persisted). */
+    private FlightOverHomeEntity newRow(FlightData d, String icao24, String callsign, String zoneId, Instant when) {
         FlightOverHomeEntity entity = FlightOverHomeEntity.builder()
                 .icao24(icao24)
                 .callsign(callsign)
-                .latitude(lat)
-                .longitude(lng)
-                .altitude(alt)
+                .latitude(d.getLatitude())
+                .longitude(d.getLongitude())
+                .altitude(d.getAltitude())
                 .loggedDate(d.getLoggedDate())
                 .loggedTime(d.getLoggedTime())
+                .loggedAt(when)
+                .zoneId(zoneId)
                 .build();
 
         // set speed only if field exists (method below handles both cases)
-        if (speed != null) setSpeed(entity, speed);
+        if (d.getGroundSpeed() != null) setSpeed(entity, d.getGroundSpeed());
 
         // optional: airline based on callsign prefix
         if (callsign != null) {
             String airline = airlineLookup.lookupByCallsignPrefix(callsign);
             if (airline != null) entity.setAirline(airline);
         }
-
-        return repository.save(entity);
+        return entity;
     }
 
     /** Safe setter for speed to tolerate different field names in the entity (speed vs groundSpeed). */
@@ -201,17 +240,9 @@ public class FlightOverHomeConsumer {
         return t.isEmpty() ? null : t;
     }
 
-    /** Accepts yyyy-MM-dd or yyyy/MM/dd and HH:mm:ss[.SSS]. Falls back to now if parsing fails. */
-    private static Instant toInstant(String date, String time) {
-        List<String> dp = List.of("yyyy-MM-dd", "yyyy/MM/dd");
-        List<String> tp = List.of("HH:mm:ss.SSS", "HH:mm:ss");
-        for (var dpat : dp) for (var tpat : tp) {
-            try {
-                var d = LocalDate.parse(date, DateTimeFormatter.ofPattern(dpat));
-                var t = LocalTime.parse(time, DateTimeFormatter.ofPattern(tpat));
-                return ZonedDateTime.of(d, t, ZoneId.of("Europe/London")).toInstant();
-            } catch (Exception ignore) {}
-        }
-        return Instant.now();
+    /** Accepts yyyy-MM-dd or yyyy/MM/dd and HH:mm:ss[.SSS] (London time). Falls back to now if parsing fails. */
+    private static Instant loggedAt(String date, String time) {
+        long millis = SbsTimestamps.parseEpochMillis(date, time);
+        return millis != SbsTimestamps.INVALID ? Instant.ofEpochMilli(millis) : Instant.now();
     }
 }
@@ -1,24 +1,38 @@
 package io.github.vivianagh.flightapp.consumer;
 
 import io.github.vivianagh.avro.Flight;
+import io.github.vivianagh.flightapp.geo.GeofenceEngine;
 import io.github.vivianagh.flightapp.model.FlightData;
 import io.github.vivianagh.flightapp.producer.CleanFlightProducer;
+import io.github.vivianagh.flightapp.producer.CleanFlightProducer.Update;
 import io.github.vivianagh.flightapp.producer.CompletedFlightProducer;
 import io.github.vivianagh.flightapp.producer.DeadLetterPublisher;
 import io.github.vivianagh.flightapp.producer.FlightNearHomeProducer;
 import io.github.vivianagh.flightapp.service.CallsignRegistry;
+import io.github.vivianagh.flightapp.service.PipelineLatency;
+import io.github.vivianagh.flightapp.state.FlightEvictedEvent;
 import io.github.vivianagh.flightapp.state.FlightStateStore;
-import io.github.vivianagh.flightapp.utils.LocationUtils;
 import io.github.vivianagh.flightapp.utils.LogHelper;
+import io.github.vivianagh.flightapp.utils.PipelineHeaders;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
@@ -34,37 +48,108 @@ public class FlightProcessorService {
     private final FlightStateStore stateStore;
     private final CleanFlightProducer cleanFlightProducer;
     private final FlightNearHomeProducer flightNearHomeProducer;
-    private final CompletedFlightProducer completedFlightProducer; // kept for future "completed" pipeline
+    private final CompletedFlightProducer completedFlightProducer;
     private final DeadLetterPublisher deadLetterPublisher;
     private final CallsignRegistry registry;
+    private final GeofenceEngine geofence;
+    private final MeterRegistry meters;
+    private final PipelineLatency latency;
 
     @Value("${kafka.topic.flightsUpdate}")    private String flightsUpdateTopic;
     @Value("${kafka.topic.flightsOverHome}")  private String flightsOverHomeTopic;
     @Value("${kafka.topic.completedFlights}") private String completedFlightsTopic;
 
-    //Simple in-memory dedupe so we dont spam the over-home topic
-    private final Set<String> seenNearHome = ConcurrentHashMap.newKeySet();
+    //Simple in-memory dedupe so we dont spam the over-home topic: icao24 -> zones already reported
+    //(cleared when the aircraft leaves the store)
+    private final Map<String, Set<String>> seenNearHome = new ConcurrentHashMap<>();
 
-    @KafkaListener(topics = "${kafka.topic.rawFlights}", groupId = "flight-processor")
+    // flight.processor.messages{type=1..8|invalid}: índice = tipo MSG, 0 = inválido/desconocido
+    private final Counter[] messagesByType = new Counter[9];
+    private Counter nearZoneEvents;
+    private Timer processTimer;
+
+    @PostConstruct
+    void registerMeters() {
+        for (int t = 0; t < messagesByType.length; t++) {
+            messagesByType[t] = Counter.builder("flight.processor.messages")
+                    .tag("type", t == 0 ? "invalid" : String.valueOf(t))
+                    .description("Raw SBS messages processed, by MSG type")
+                    .register(meters);
+        }
+        nearZoneEvents = Counter.builder("flight.processor.near_zone")
+                .description("Near-zone events published to flights-over-home")
+                .register(meters);
+        processTimer = Timer.builder("flight.processor.process")
+                .description("Time to process one raw message (state update + publishes)")
+                .register(meters);
+    }
+
+    @KafkaListener(topics = "${kafka.topic.rawFlights}", groupId = "flight-processor",
+            autoStartup = "#{'${flight.processor.mode:record}' == 'record'}")
     public void listenRawFlights(ConsumerRecord<String, Flight> record) {
         LogHelper.logRecord(record, "📦 Received RAW flight");
-        final Flight avro = record.value();
+        latency.received(PipelineLatency.STAGE_PROCESSOR, record);
+        final List<Update> cleanUpdates = new ArrayList<>(1);
+        processRaw(record.value(), PipelineHeaders.receivedAt(record.headers()), cleanUpdates);
+        cleanUpdates.forEach(u -> cleanFlightProducer.sendCleanFlight(u.flight(), u.receivedAt()));
+        if (!cleanUpdates.isEmpty()) LogHelper.logProduced(flightsUpdateTopic, record.key());
+    }
+
+    /**
+     * Batch mode: records are grouped per icao24 (in arrival order, so per-aircraft order is kept;
+     * the key is the icao24, so one aircraft always comes from the same partition) and the
+     * resulting clean updates are published and flushed together before the batch is committed.
+     */
+    @KafkaListener(id = "raw-flights-batch", topics = "${kafka.topic.rawFlights}", groupId = "flight-processor",
+            containerFactory = "rawFlightsBatchFactory",
+            autoStartup = "#{'${flight.processor.mode:record}' == 'batch'}")
+    public void listenRawFlightsBatch(List<ConsumerRecord<String, Flight>> records) {
+        final Map<String, List<ConsumerRecord<String, Flight>>> byAircraft = new LinkedHashMap<>();
+        for (ConsumerRecord<String, Flight> record : records) {
+            final Flight avro = record.value();
+            if (avro == null) continue;
+            latency.received(PipelineLatency.STAGE_PROCESSOR, record);
+            final String key = record.key() != null ? record.key() : String.valueOf(avro.getIcao24());
+            byAircraft.computeIfAbsent(key, k -> new ArrayList<>(4)).add(record);
+        }
+
+        final List<Update> cleanUpdates = new ArrayList<>(records.size());
+        for (List<ConsumerRecord<String, Flight>> samples : byAircraft.values()) {
+            for (ConsumerRecord<String, Flight> record : samples) {
+                processRaw(record.value(), PipelineHeaders.receivedAt(record.headers()), cleanUpdates);
+            }
+        }
+
+        cleanFlightProducer.sendCleanFlights(cleanUpdates);
+        log.debug("📦 RAW batch | records={} aircraft={} cleanUpdates={}",
+                records.size(), byAircraft.size(), cleanUpdates.size());
+    }
+
+    /**
+     * Handles one raw sample; clean updates are appended to {@code cleanUpdates} for the caller to publish.
+     * {@code receivedAt} (socket read time, or {@link PipelineHeaders#ABSENT}) travels with every record derived from it.
+     */
+    private void processRaw(Flight avro, long receivedAt, List<Update> cleanUpdates) {
+        final long start = System.nanoTime();
         final FlightData data = FlightData.fromAvro(avro);
 
         try {
             final int msgType = parseMsgType(data.getTransmissionType(), data.getIcao24());
+            messagesByType[msgType >= 1 && msgType < messagesByType.length ? msgType : 0].increment();
             if (msgType == -1) return;
             switch (msgType) {
                 case MSG_IDENTIFICATION -> handleIdentification(data);
-                case MSG_POSITION, MSG_VELOCITY -> handleMotionMessage(data, avro);
+                case MSG_POSITION, MSG_VELOCITY -> handleMotionMessage(data, avro, receivedAt, cleanUpdates);
                 case MSG_SURVEILLANCE_ALT ->  cacheIdentIfAny(data);
-                default -> LogHelper.logSkipped("⏭ Ignored unsupported MSG type " + msgType, data.getIcao24());
+                default -> LogHelper.logSkipped("⏭ Ignored unsupported MSG type", msgType, data.getIcao24());
             }
 
         } catch (Exception ex) {
             // Any failure goes to DLQ with context
             deadLetterPublisher.sendToDlq(avro, ex.getMessage());
             LogHelper.logError("processing RAW flight to DLQ", ex);
+        } finally {
+            processTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
@@ -75,14 +160,14 @@ public class FlightProcessorService {
         final String cs = trim(d.getCallsign());
         if (cs != null) {
             registry.put(d.getIcao24(), cs);
-            log.info("🆔 IDENT cached | icao24={} callsign={}", d.getIcao24(), cs);
+            log.debug("🆔 IDENT cached | icao24={} callsign={}", d.getIcao24(), cs);
         } else {
             LogHelper.logSkipped("IDENT without callsign", d.getIcao24());
         }
     }
 
     /** MSG=3/4 — update state, publish clean update, and maybe emit near-home event. */
-    private void handleMotionMessage(FlightData d, Flight originalAvro) {
+    private void handleMotionMessage(FlightData d, Flight originalAvro, long receivedAt, List<Update> cleanUpdates) {
         // Fill callsign from the in-memory registry if missing
         backfillCallsignFromRegistry(d);
 
@@ -93,24 +178,32 @@ public class FlightProcessorService {
             return;
         }
 
-        // Publish normalized "clean flight" update
-        cleanFlightProducer.sendCleanFlight(updated);
-        LogHelper.logProduced(flightsUpdateTopic, updated.getIcao24().toString());
+        // Normalized "clean flight" update, published by the caller (one by one or as a batch)
+        cleanUpdates.add(new Update(updated, receivedAt));
 
-        // If this sample is near home and not on ground, emit a single event per ICAO (dedup)
-        if (isNearHomeCandidate(d) && seenNearHome.add(d.getIcao24())) {
-            final Flight toSend = ensureCallsignOnAvro(updated, originalAvro, d);
-            flightNearHomeProducer.sendNearFlight(toSend);
+        // If this sample is inside a watched zone and not on ground, emit a single event per ICAO and zone (dedup)
+        for (String zoneId : nearZones(d)) {
+            if (!seenNearHome.computeIfAbsent(d.getIcao24(), k -> ConcurrentHashMap.newKeySet()).add(zoneId)) continue;
+            // copy: 'updated' is also queued as the clean update and must not carry the zone
+            final Flight toSend = Flight.newBuilder(ensureCallsignOnAvro(updated, originalAvro, d))
+                    .setZoneId(zoneId)
+                    .build();
+            flightNearHomeProducer.sendNearFlight(toSend, receivedAt);
+            nearZoneEvents.increment();
+            log.debug("📍 Near zone | icao24={} zone={}", d.getIcao24(), zoneId);
             LogHelper.logProduced(flightsOverHomeTopic, d.getIcao24());
         }
+    }
 
-
-
-        // (Optional) If you later add "completed flight" semantics in stateStore:
-        // if (stateStore.isCompleted(d.getIcao24())) {
-        //     completedFlightProducer.sendCompleted(toSend);
-        //     LogHelper.logProduced(completedFlightsTopic, d.getIcao24());
-        // }
+    /** Aircraft left the state store (idle or capacity): the flight is lost/completed. */
+    @EventListener
+    public void onFlightEvicted(FlightEvictedEvent event) {
+        final Flight last = event.lastState();
+        final String icao24 = last.getIcao24().toString();
+        seenNearHome.remove(icao24);
+        completedFlightProducer.sendCompletedFlight(last);
+        log.debug("🏁 Flight completed | icao24={} cause={}", icao24, event.cause());
+        LogHelper.logProduced(completedFlightsTopic, icao24);
     }
 
     private void cacheIdentIfAny(FlightData raw) {
@@ -118,7 +211,7 @@ public class FlightProcessorService {
         if (cs != null && !cs.isBlank()) {
             String trimmed = cs.trim();
             registry.put(raw.getIcao24(), trimmed);
-            log.info("🆔 IDENT cached | icao24={} callsign={}", raw.getIcao24(), trimmed);
+            log.debug("🆔 IDENT cached | icao24={} callsign={}", raw.getIcao24(), trimmed);
         }
     }
 
@@ -129,10 +222,10 @@ public class FlightProcessorService {
     private int parseMsgType(String rawType, String icao24) {
         try {
             int t = Integer.parseInt(rawType);
-            log.info("🔍 MSG type={} | icao24={}", t, icao24);
+            LogHelper.logMsgType(t, icao24);
             return t;
         } catch (Exception ex) {
-            LogHelper.logSkipped("⚠️ Invalid transmissionType: " + rawType, icao24);
+            LogHelper.logSkipped("⚠️ Invalid transmissionType:", rawType, icao24);
             return -1;
         }
     }
@@ -147,12 +240,10 @@ public class FlightProcessorService {
         }
     }
 
-    /** Decide whether this sample qualifies for a one-shot "near home" event. */
-    private boolean isNearHomeCandidate(FlightData d) {
-        return d.getLatitude() != null
-                && d.getLongitude() != null
-                && Boolean.FALSE.equals(d.isOnGround())
-                && LocationUtils.isNearHome(d.getLatitude(), d.getLongitude());
+    /** Zones this sample qualifies for (one-shot "near zone" events); empty for most samples. */
+    private List<String> nearZones(FlightData d) {
+        if (d.getLatitude() == null || d.getLongitude() == null || d.isOnGround()) return List.of();
+        return geofence.zonesAt(d.getLatitude(), d.getLongitude());
     }
 
     /**
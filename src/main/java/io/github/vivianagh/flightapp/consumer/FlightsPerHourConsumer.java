@@ -2,6 +2,8 @@ package io.github.vivianagh.flightapp.consumer;
 
 import io.github.vivianagh.avro.Flight;
 import io.github.vivianagh.flightapp.service.FlightsPerHourService;
+import io.github.vivianagh.flightapp.service.HourlyUniqueAggregator;
+import io.github.vivianagh.flightapp.service.PipelineLatency;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
@@ -18,9 +20,12 @@ import java.time.format.DateTimeFormatter;
 public class FlightsPerHourConsumer {
 
     private final FlightsPerHourService service;
+    private final HourlyUniqueAggregator aggregator;
+    private final PipelineLatency latency;
 
     @KafkaListener(topics = "${kafka.topic.flightsOverHome}", groupId = "flights-per-hour")
     public void listen(ConsumerRecord<String, Flight> record) {
+        latency.received(PipelineLatency.STAGE_PER_HOUR, record);
         Flight flight = record.value();
 
         try {
@@ -33,8 +38,12 @@ public class FlightsPerHourConsumer {
             LocalDate date = LocalDate.parse(dateStr, dateFormatter);
             int hour = LocalTime.parse(timeStr, timeFormatter).getHour();
 
-            service.incrementCount(date, hour, flight.getIcao24().toString());
-            log.info("✅ Counted flight at hour {} on {}", hour, date);
+            if (aggregator.isEnabled()) {
+                aggregator.add(date, hour, flight.getIcao24().toString());
+            } else {
+                service.incrementCount(date, hour, flight.getIcao24().toString());
+            }
+            log.debug("✅ Counted flight at hour {} on {}", hour, date);
 
         } catch (Exception e) {
             log.error("❌ Failed to process flight for hourly stats", e);
@@ -0,0 +1,93 @@
+package io.github.vivianagh.flightapp.consumer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.vivianagh.avro.Flight;
+import io.github.vivianagh.flightapp.model.AirlineInfo;
+import io.github.vivianagh.flightapp.model.DTO.LiveFlightEvent;
+import io.github.vivianagh.flightapp.service.CallsignNormalizer;
+import io.github.vivianagh.flightapp.service.LiveFlightHub;
+import io.github.vivianagh.flightapp.service.PipelineLatency;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * Alimenta {@link LiveFlightHub} con {@code flights-update} (deltas) y {@code flights-over-home}.
+ * <p>
+ * Grupo propio por instancia y arranque en el final del topic: el stream en vivo no reprocesa historia
+ * ni compite por particiones con los consumidores que persisten. El contenedor arranca apagado y el hub
+ * lo enciende solo mientras haya clientes conectados.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LiveFlightStreamListener implements ConsumerSeekAware {
+
+    private final LiveFlightHub hub;
+    private final CallsignNormalizer callsigns;
+    private final ObjectMapper mapper;
+    private final PipelineLatency latency;
+
+    @Value("${kafka.topic.flightsOverHome}")
+    private String flightsOverHomeTopic;
+
+    @KafkaListener(id = LiveFlightHub.LISTENER_ID,
+            topics = {"${kafka.topic.flightsUpdate}", "${kafka.topic.flightsOverHome}"},
+            groupId = "live-stream-${random.uuid}",
+            autoStartup = "false")
+    public void listen(ConsumerRecord<String, Flight> record) {
+        Flight f = record.value();
+        if (f == null || !hub.hasSubscribers()) return;
+        latency.received(PipelineLatency.STAGE_LIVE, record);
+        boolean nearHome = flightsOverHomeTopic.equals(record.topic());
+        String type = nearHome ? LiveFlightHub.TYPE_NEAR_HOME : LiveFlightHub.TYPE_FLIGHT;
+        try {
+            hub.publish(type, mapper.writeValueAsString(toEvent(f, nearHome, record.timestamp())));
+        } catch (JsonProcessingException e) {
+            log.warn("⚠️ Live stream: no se pudo serializar {} ({})", f.getIcao24(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        callback.seekToEnd(assignments.keySet());
+    }
+
+    private LiveFlightEvent toEvent(Flight f, boolean nearHome, long timestamp) {
+        String callsign = str(f.getCallsign());
+        String airline = null;
+        if (nearHome && callsign != null) {
+            AirlineInfo a = callsigns.airline(callsign);
+            airline = a != null ? a.getName() : null;
+        }
+        return new LiveFlightEvent(
+                str(f.getIcao24()),
+                callsign,
+                airline,
+                f.getAltitude(),
+                f.getLatitude(),
+                f.getLongitude(),
+                f.getGroundSpeed(),
+                f.getTrack(),
+                str(f.getSquawk()),
+                f.getAlert(),
+                f.getEmergency(),
+                f.getIsOnGround(),
+                nearHome ? str(f.getZoneId()) : null,
+                timestamp);
+    }
+
+    private static String str(CharSequence cs) {
+        if (cs == null) return null;
+        String s = cs.toString().trim();
+        return s.isEmpty() ? null : s;
+    }
+}
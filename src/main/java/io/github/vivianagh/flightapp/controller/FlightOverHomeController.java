@@ -1,11 +1,14 @@
 package io.github.vivianagh.flightapp.controller;
 
 import io.github.vivianagh.flightapp.model.DTO.FlightOverHomeDTO;
-import io.github.vivianagh.flightapp.service.FlightOverHomeService;
+import io.github.vivianagh.flightapp.service.LatestFlightsReadModel;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -14,10 +17,23 @@ import java.util.List;
 @RequiredArgsConstructor
 public class FlightOverHomeController {
 
-    private final FlightOverHomeService service;
+    private final LatestFlightsReadModel latestFlights;
 
+    /**
+     * Served from memory; with {@code If-None-Match} an unchanged list answers 304 without a body.
+     * Same selection as the old DB query (latest flights with a route first, routes from
+     * {@code flight_route_cache} when the row has none), but taken from the latest in-memory
+     * candidates; see {@link LatestFlightsReadModel}.
+     */
     @GetMapping("/flights-over-home")
-    public List<FlightOverHomeDTO> getRecentFlights() {
-        return service.getAllFlightsOverHome();
+    public ResponseEntity<List<FlightOverHomeDTO>> getRecentFlights(WebRequest request) {
+        var latest = latestFlights.latest();
+        if (request.checkNotModified(latest.etag())) {
+            return null; // Spring ya respondió 304
+        }
+        return ResponseEntity.ok()
+                .eTag(latest.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(latest.flights());
     }
 }
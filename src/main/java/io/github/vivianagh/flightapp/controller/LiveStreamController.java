@@ -0,0 +1,32 @@
+package io.github.vivianagh.flightapp.controller;
+
+import io.github.vivianagh.flightapp.service.LiveFlightHub;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+public class LiveStreamController {
+
+    private final LiveFlightHub hub;
+
+    // Ej: /api/v1/stream?types=near-home  (sin types = near-home + flight)
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@RequestParam(required = false) List<String> types) {
+        SseEmitter emitter = hub.subscribe(types == null ? Set.of() : Set.copyOf(types));
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no") // nginx: no bufferizar el stream
+                .body(emitter);
+    }
+}
@@ -1,22 +1,82 @@
 package io.github.vivianagh.flightapp.controller;
 
+import io.github.vivianagh.flightapp.config.ReplayProperties;
 import io.github.vivianagh.flightapp.jobs.BackfillRouteJob;
+import io.github.vivianagh.flightapp.replay.ReplayReport;
+import io.github.vivianagh.flightapp.replay.ReplayService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Instant;
+import java.util.List;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/ops")
 public class OpsController {
     private final BackfillRouteJob job;
+    private final ReplayService replay;
+    private final ReplayProperties replayProps;
 
     @PostMapping("/backfill/routes")
     public ResponseEntity<String> runBackfill() {
         job.runManual();
         return ResponseEntity.ok("Backfill ejecutado");
     }
+
+    // Ej: POST /ops/replay?files=2025-08-31.sbs.gz&speed=10&maxGapMs=5000  (speed=0: lo más rápido posible)
+    @PostMapping("/replay")
+    public ResponseEntity<String> startReplay(@RequestParam List<String> files,
+                                              @RequestParam(required = false) Double speed,
+                                              @RequestParam(required = false) Long maxGapMs) {
+        try {
+            boolean started = replay.start(files,
+                    speed != null ? speed : replayProps.speed(),
+                    maxGapMs != null ? maxGapMs : replayProps.maxGapMs());
+            return started
+                    ? ResponseEntity.accepted().body("Replay iniciado")
+                    : ResponseEntity.status(HttpStatus.CONFLICT).body("Ya hay un replay en curso");
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    // Ej: POST /ops/replay/archive?from=2025-08-31T15:00:00Z&to=2025-08-31T16:00:00Z&speed=0
+    @PostMapping("/replay/archive")
+    public ResponseEntity<String> replayArchive(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                @RequestParam(required = false) Double speed,
+                                                @RequestParam(required = false) Long maxGapMs) {
+        try {
+            boolean started = replay.startArchive(from, to,
+                    speed != null ? speed : replayProps.speed(),
+                    maxGapMs != null ? maxGapMs : replayProps.maxGapMs());
+            return started
+                    ? ResponseEntity.accepted().body("Replay del archivo iniciado")
+                    : ResponseEntity.status(HttpStatus.CONFLICT).body("Ya hay un replay en curso");
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+    }
+
+    @PostMapping("/replay/stop")
+    public ResponseEntity<String> stopReplay() {
+        return replay.stop()
+                ? ResponseEntity.ok("Replay detenido")
+                : ResponseEntity.status(HttpStatus.CONFLICT).body("No hay replay en curso");
+    }
+
+    /** Último informe (204 si todavía no terminó ninguno). */
+    @GetMapping("/replay")
+    public ResponseEntity<ReplayReport> replayStatus() {
+        ReplayReport report = replay.lastReport();
+        return report == null ? ResponseEntity.noContent().build() : ResponseEntity.ok(report);
+    }
 }
@@ -0,0 +1,76 @@
+package io.github.vivianagh.flightapp.geo;
+
+/**
+ * Circle of {@code radiusKm} around a point. Points are classified with an equirectangular
+ * distance first (a multiply-add, no trig); only the ones that land in a thin band around the
+ * edge, where that approximation could be wrong, go through the full haversine.
+ */
+final class CircleZone extends GeoZone {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEG = Math.PI * EARTH_RADIUS_KM / 180.0;
+    // El error relativo de la equirectangular (cosLat tomado en el centro) crece con el radio y con la
+    // latitud: a 200 km es ~0.7% a 50°N pero ~3.8% a 80°N. La banda es este margen fijo más una cota de
+    // ese error; si la banda sale demasiado ancha, o el radio pasa de 200 km, se va directo a haversine
+    private static final double EDGE_BAND = 0.02;
+    private static final double MAX_BAND = 0.25;
+    private static final double MAX_FAST_RADIUS_KM = 200.0;
+
+    private final double lat, lon, radiusKm;
+    private final double cosLat;
+    private final double innerSq, outerSq;   // (radio·(1∓band))², en km²
+
+    CircleZone(String id, double lat, double lon, double radiusKm) {
+        super(checkRadius(id, radiusKm),
+                lat - radiusKm / KM_PER_DEG,
+                lat + radiusKm / KM_PER_DEG,
+                lon - radiusKm / (KM_PER_DEG * Math.max(Math.cos(Math.toRadians(Math.abs(lat) + radiusKm / KM_PER_DEG)), 1e-6)),
+                lon + radiusKm / (KM_PER_DEG * Math.max(Math.cos(Math.toRadians(Math.abs(lat) + radiusKm / KM_PER_DEG)), 1e-6)));
+        this.lat = lat;
+        this.lon = lon;
+        this.radiusKm = radiusKm;
+        this.cosLat = Math.cos(Math.toRadians(lat));
+        double band = EDGE_BAND + equirectangularError(lat, radiusKm);
+        boolean fast = radiusKm <= MAX_FAST_RADIUS_KM && band <= MAX_BAND;
+        double inner = fast ? radiusKm * (1 - band) : -1;
+        double outer = fast ? radiusKm * (1 + band) : Double.MAX_VALUE;
+        this.innerSq = inner < 0 ? -1 : inner * inner;
+        this.outerSq = outer == Double.MAX_VALUE ? Double.MAX_VALUE : outer * outer;
+    }
+
+    @Override
+    boolean contains(double pLat, double pLon) {
+        double dy = (pLat - lat) * KM_PER_DEG;
+        double dx = (pLon - lon) * KM_PER_DEG * cosLat;
+        double d2 = dx * dx + dy * dy;
+        if (d2 <= innerSq) return true;
+        if (d2 > outerSq) return false;
+        return haversineKm(lat, lon, pLat, pLon) <= radiusKm;
+    }
+
+    /**
+     * Upper bound of the relative error of the equirectangular distance within {@code radiusKm} of a
+     * center at {@code lat}: about {@code tan|lat| · r/R / 2}, taken at the latitude of the far edge.
+     */
+    static double equirectangularError(double lat, double radiusKm) {
+        double edgeLat = Math.abs(lat) + radiusKm / KM_PER_DEG;
+        if (edgeLat >= 90) return Double.POSITIVE_INFINITY;   // el círculo toca el polo
+        return Math.tan(Math.toRadians(edgeLat)) * radiusKm / EARTH_RADIUS_KM / 2;
+    }
+
+    private static String checkRadius(String id, double radiusKm) {
+        if (!(radiusKm > 0)) {
+            throw new IllegalArgumentException("Circle zone '" + id + "' needs a positive radiusKm, got " + radiusKm);
+        }
+        return id;
+    }
+
+    static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return EARTH_RADIUS_KM * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
@@ -0,0 +1,26 @@
+package io.github.vivianagh.flightapp.geo;
+
+/**
+ * A named area with a lat/lon bounding box (used by the grid and as the first, cheapest filter)
+ * and an exact containment test.
+ */
+abstract class GeoZone {
+
+    final String id;
+    final double minLat, maxLat, minLon, maxLon;
+
+    GeoZone(String id, double minLat, double maxLat, double minLon, double maxLon) {
+        this.id = id;
+        this.minLat = minLat;
+        this.maxLat = maxLat;
+        this.minLon = minLon;
+        this.maxLon = maxLon;
+    }
+
+    final boolean inBoundingBox(double lat, double lon) {
+        return lat >= minLat && lat <= maxLat && lon >= minLon && lon <= maxLon;
+    }
+
+    /** Exact test; only called once the point is inside the bounding box. */
+    abstract boolean contains(double lat, double lon);
+}
@@ -0,0 +1,123 @@
+package io.github.vivianagh.flightapp.geo;
+
+import io.github.vivianagh.flightapp.geo.GeofenceProperties.Zone;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decide en qué zonas ({@link GeofenceProperties}) está una posición.
+ * <p>
+ * Filtros de más barato a más caro: caja envolvente de todas las zonas (la mayoría de los
+ * mensajes se descartan aquí con 4 comparaciones), celda de una rejilla regular que guarda las
+ * zonas candidatas, caja de cada candidata y por último el test exacto de la zona.
+ * No contempla zonas que crucen el antimeridiano.
+ */
+@Slf4j
+@Component
+public class GeofenceEngine {
+
+    private static final int MAX_CELLS = 1 << 20;
+    private static final GeoZone[] NONE = new GeoZone[0];
+
+    private final List<String> zoneIds;
+    private final double minLat, maxLat, minLon, maxLon;
+    private final double cellSize, invCellSize;
+    private final int rows, cols;
+    private final GeoZone[][] cells;
+
+    public GeofenceEngine(GeofenceProperties props) {
+        List<GeoZone> zones = new ArrayList<>();
+        for (Zone z : props.zones()) {
+            zones.add(z.isPolygon() ? PolygonZone.of(z.id(), z.points()) : new CircleZone(z.id(), z.lat(), z.lon(), z.radiusKm()));
+        }
+        this.zoneIds = zones.stream().map(z -> z.id).toList();
+
+        double loLat = Double.MAX_VALUE, hiLat = -Double.MAX_VALUE, loLon = Double.MAX_VALUE, hiLon = -Double.MAX_VALUE;
+        for (GeoZone z : zones) {
+            loLat = Math.min(loLat, z.minLat);
+            hiLat = Math.max(hiLat, z.maxLat);
+            loLon = Math.min(loLon, z.minLon);
+            hiLon = Math.max(hiLon, z.maxLon);
+        }
+        this.minLat = loLat;
+        this.maxLat = hiLat;
+        this.minLon = loLon;
+        this.maxLon = hiLon;
+
+        // Celdas más grandes si las zonas están muy repartidas, para acotar la memoria de la rejilla
+        double size = props.cellSizeDeg();
+        while (cellCount(size) > MAX_CELLS) size *= 2;
+        this.cellSize = size;
+        this.invCellSize = 1.0 / size;
+        this.rows = (int) ((maxLat - minLat) * invCellSize) + 1;
+        this.cols = (int) ((maxLon - minLon) * invCellSize) + 1;
+
+        @SuppressWarnings("unchecked")
+        List<GeoZone>[] buckets = new List[rows * cols];
+        for (GeoZone z : zones) {
+            int r0 = row(z.minLat), r1 = row(z.maxLat), c0 = col(z.minLon), c1 = col(z.maxLon);
+            for (int r = r0; r <= r1; r++) {
+                for (int c = c0; c <= c1; c++) {
+                    int cell = r * cols + c;
+                    if (buckets[cell] == null) buckets[cell] = new ArrayList<>(1);
+                    buckets[cell].add(z);
+                }
+            }
+        }
+        this.cells = new GeoZone[buckets.length][];
+        for (int i = 0; i < buckets.length; i++) {
+            cells[i] = buckets[i] == null ? NONE : buckets[i].toArray(NONE);
+        }
+
+        log.info("🗺️ Geofence: {} zona(s) {} | rejilla {}x{} celdas de {}°", zones.size(), zoneIds, rows, cols, cellSize);
+    }
+
+    public List<String> zoneIds() {
+        return zoneIds;
+    }
+
+    /** Zones that contain the point, in configuration order; an empty immutable list (no allocation) if none. */
+    public List<String> zonesAt(double lat, double lon) {
+        GeoZone[] candidates = candidates(lat, lon);
+        List<String> hits = List.of();
+        for (GeoZone z : candidates) {
+            if (z.inBoundingBox(lat, lon) && z.contains(lat, lon)) {
+                if (hits.isEmpty()) hits = new ArrayList<>(2);
+                hits.add(z.id);
+            }
+        }
+        return hits;
+    }
+
+    /** First matching zone id, or null. */
+    public String firstZoneAt(double lat, double lon) {
+        for (GeoZone z : candidates(lat, lon)) {
+            if (z.inBoundingBox(lat, lon) && z.contains(lat, lon)) return z.id;
+        }
+        return null;
+    }
+
+    public boolean isInsideAny(double lat, double lon) {
+        return firstZoneAt(lat, lon) != null;
+    }
+
+    private GeoZone[] candidates(double lat, double lon) {
+        if (!(lat >= minLat && lat <= maxLat && lon >= minLon && lon <= maxLon)) return NONE; // también descarta NaN
+        return cells[row(lat) * cols + col(lon)];
+    }
+
+    private int row(double lat) {
+        return Math.min((int) ((lat - minLat) * invCellSize), rows - 1);
+    }
+
+    private int col(double lon) {
+        return Math.min((int) ((lon - minLon) * invCellSize), cols - 1);
+    }
+
+    private double cellCount(double size) {
+        return ((maxLat - minLat) / size + 1) * ((maxLon - minLon) / size + 1);
+    }
+}
@@ -0,0 +1,46 @@
+package io.github.vivianagh.flightapp.geo;
+
+import io.github.vivianagh.flightapp.utils.LocationUtils;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+/**
+ * Zonas vigiladas ({@code flight.geofence.zones[]}): círculos (centro + radio) o polígonos (lista de vértices).
+ * Sin zonas configuradas se vigila solo "home", el punto histórico de {@link LocationUtils}.
+ */
+@ConfigurationProperties(prefix = "flight.geofence")
+public record GeofenceProperties(
+        double cellSizeDeg,         // lado de la celda del índice en grados
+        List<Zone> zones
+) {
+    public static final String HOME = "home";
+
+    public GeofenceProperties {
+        if (cellSizeDeg <= 0) cellSizeDeg = 0.25;
+        zones = (zones == null || zones.isEmpty())
+                ? List.of(new Zone(HOME, null, LocationUtils.HOME_LAT, LocationUtils.HOME_LON, LocationUtils.RADIUS_KM, null))
+                : List.copyOf(zones);
+    }
+
+    public record Zone(
+            String id,              // etiqueta que viaja en el evento (p.ej. "EGLL")
+            String type,            // circle | polygon (se deduce de points si falta)
+            double lat,             // centro (circle)
+            double lon,
+            double radiusKm,
+            List<Point> points      // vértices en orden (polygon)
+    ) {
+        public Zone {
+            points = (points == null) ? List.of() : List.copyOf(points);
+            if (type == null || type.isBlank()) type = points.isEmpty() ? "circle" : "polygon";
+            if (id == null || id.isBlank()) throw new IllegalArgumentException("flight.geofence.zones[].id is required");
+        }
+
+        public boolean isPolygon() {
+            return "polygon".equalsIgnoreCase(type);
+        }
+    }
+
+    public record Point(double lat, double lon) {}
+}
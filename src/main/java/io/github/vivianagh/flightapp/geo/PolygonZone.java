@@ -0,0 +1,58 @@
+package io.github.vivianagh.flightapp.geo;
+
+import io.github.vivianagh.flightapp.geo.GeofenceProperties.Point;
+
+import java.util.List;
+
+/**
+ * Simple (non self-intersecting) polygon in lat/lon, tested with even-odd ray casting.
+ * Edges are straight in lat/lon, which is what people draw on a map for airport-sized areas.
+ */
+final class PolygonZone extends GeoZone {
+
+    private final double[] lats;
+    private final double[] lons;
+
+    private PolygonZone(String id, double[] lats, double[] lons) {
+        super(id, min(lats), max(lats), min(lons), max(lons));
+        this.lats = lats;
+        this.lons = lons;
+    }
+
+    static PolygonZone of(String id, List<Point> points) {
+        if (points.size() < 3) {
+            throw new IllegalArgumentException("Polygon zone '" + id + "' needs at least 3 points");
+        }
+        double[] lats = new double[points.size()];
+        double[] lons = new double[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            lats[i] = points.get(i).lat();
+            lons[i] = points.get(i).lon();
+        }
+        return new PolygonZone(id, lats, lons);
+    }
+
+    @Override
+    boolean contains(double lat, double lon) {
+        boolean inside = false;
+        for (int i = 0, j = lats.length - 1; i < lats.length; j = i++) {
+            if ((lats[i] > lat) != (lats[j] > lat)
+                    && lon < (lons[j] - lons[i]) * (lat - lats[i]) / (lats[j] - lats[i]) + lons[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    private static double min(double[] v) {
+        double m = v[0];
+        for (double d : v) m = Math.min(m, d);
+        return m;
+    }
+
+    private static double max(double[] v) {
+        double m = v[0];
+        for (double d : v) m = Math.max(m, d);
+        return m;
+    }
+}
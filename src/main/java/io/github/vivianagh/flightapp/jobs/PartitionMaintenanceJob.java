@@ -0,0 +1,77 @@
+package io.github.vivianagh.flightapp.jobs;
+
+import io.github.vivianagh.flightapp.config.PartitionProperties;
+import io.github.vivianagh.flightapp.repository.PartitionJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * Mantiene las particiones mensuales: crea por adelantado las de los próximos meses (así nada cae en la
+ * DEFAULT) y borra las que quedaron fuera de la retención. Borrar una partición es un DROP TABLE, sin
+ * DELETE masivo ni VACUUM posterior. Si la DEFAULT ya tenía filas del mes, {@code ensure_month_partition}
+ * las mueve a la partición nueva; un mes que falle se informa y no impide mantener los demás.
+ */
+@Slf4j
+@Component
+public class PartitionMaintenanceJob {
+
+    static final String OVER_HOME = "flight_over_home";
+    static final String PER_HOUR_SEEN = "flights_per_hour_seen";
+
+    private final PartitionJdbcRepository partitions;
+    private final PartitionProperties props;
+    private final Clock clock = Clock.systemUTC(); // los límites de las particiones están en UTC
+
+    public PartitionMaintenanceJob(PartitionJdbcRepository partitions, PartitionProperties props) {
+        this.partitions = partitions;
+        this.props = props;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        runScheduled();
+    }
+
+    @Scheduled(fixedDelayString = "${flight.partitions.maintenance-interval-ms:21600000}",
+            initialDelayString = "${flight.partitions.maintenance-interval-ms:21600000}")
+    public void runScheduled() {
+        try {
+            runOnce();
+        } catch (RuntimeException ex) {
+            log.error("⚠️ Mantenimiento de particiones falló", ex);
+        }
+    }
+
+    public void runOnce() {
+        LocalDate thisMonth = LocalDate.now(clock).withDayOfMonth(1);
+        maintain(OVER_HOME, thisMonth, props.overHomeRetentionMonths());
+        maintain(PER_HOUR_SEEN, thisMonth, props.seenRetentionMonths());
+    }
+
+    private void maintain(String table, LocalDate thisMonth, int retentionMonths) {
+        int created = 0;
+        for (int i = 0; i <= props.monthsAhead(); i++) {
+            LocalDate month = thisMonth.plusMonths(i);
+            try {
+                if (partitions.ensureMonthPartition(table, month)) created++;
+            } catch (DataAccessException ex) {
+                log.error("⚠️ {}: no se pudo crear la partición de {} ({})", table, month, ex.getMostSpecificCause().getMessage());
+            }
+        }
+        int dropped = 0;
+        if (retentionMonths > 0) {
+            // se conservan el mes en curso y los N anteriores completos
+            dropped = partitions.dropMonthPartitionsBefore(table, thisMonth.minusMonths(retentionMonths));
+        }
+        if (created > 0 || dropped > 0) {
+            log.info("🗂️ {}: {} partición(es) creada(s), {} borrada(s)", table, created, dropped);
+        }
+    }
+}
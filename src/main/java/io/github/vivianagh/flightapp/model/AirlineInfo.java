@@ -6,6 +6,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 public class AirlineInfo {
     private String icao;    // e.g. BAW
     private String iata;    // e.g. BA
+    private String flightNumberPrefix; // optional, when flights are sold under another code (CFE -> BA)
     private String name;    // e.g. British Airways
     private String country; // optional
 
@@ -19,6 +20,8 @@ public class AirlineInfo {
     public void setIcao(String icao) { this.icao = icao; }
     public String getIata() { return iata; }
     public void setIata(String iata) { this.iata = iata; }
+    public String getFlightNumberPrefix() { return flightNumberPrefix; }
+    public void setFlightNumberPrefix(String flightNumberPrefix) { this.flightNumberPrefix = flightNumberPrefix; }
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
     public String getCountry() { return country; }
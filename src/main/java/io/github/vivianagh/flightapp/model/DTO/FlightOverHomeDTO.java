@@ -3,7 +3,7 @@ package io.github.vivianagh.flightapp.model.DTO;
 import lombok.Builder;
 import lombok.Data;
 
-@Builder
+@Builder(toBuilder = true)
 @Data
 public class FlightOverHomeDTO {
     private String icao24;
@@ -18,4 +18,5 @@ public class FlightOverHomeDTO {
     private Boolean hasAlert;
     private Boolean hasEmergency;
     private String timestamp;
+    private String zoneId;
 }
@@ -0,0 +1,26 @@
+package io.github.vivianagh.flightapp.model.DTO;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Payload de {@code /api/v1/stream}. En los eventos {@code flight} solo vienen los campos que cambiaron
+ * (el resto es null); en {@code near-home} viene la muestra completa con la zona y la aerolínea.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record LiveFlightEvent(
+        String icao24,
+        String callsign,
+        String airline,
+        Double altitude,
+        Double latitude,
+        Double longitude,
+        Double groundSpeed,
+        Double track,
+        String squawk,
+        boolean alert,
+        boolean emergency,
+        boolean onGround,
+        String zoneId,
+        long timestamp              // epoch millis del record de Kafka
+) {
+}
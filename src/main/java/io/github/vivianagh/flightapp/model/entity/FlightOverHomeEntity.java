@@ -6,6 +6,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.Instant;
+
 @Entity
 @Table(name = "flight_over_home")
 @Data
@@ -29,7 +31,16 @@ public class FlightOverHomeEntity {
 
     private String loggedDate;
     private String loggedTime;
+    private Instant loggedAt;       // logged_date + logged_time (Londres) ya parseados
 
     private String origin;
     private String destination;
+
+    private String zoneId;
+
+    // Solo los escribe RouteEnrichmentWorker (JDBC) cuando la ruta no se encuentra
+    @Column(insertable = false, updatable = false)
+    private Integer routeAttempts;
+    @Column(insertable = false, updatable = false)
+    private Instant routeRetryAt;
 }
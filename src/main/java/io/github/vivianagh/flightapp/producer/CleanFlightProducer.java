@@ -1,19 +1,38 @@
 package io.github.vivianagh.flightapp.producer;
 
 import io.github.vivianagh.avro.Flight;
+import io.github.vivianagh.flightapp.utils.PipelineHeaders;
 import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class CleanFlightProducer {
     private final KafkaTemplate<String, Flight > kafkaTemplate;
 
+    /** A clean update plus the socket receive time of the raw sample it came from. */
+    public record Update(Flight flight, long receivedAt) {}
+
     public void sendCleanFlight(Flight flight) {
+        sendCleanFlight(flight, PipelineHeaders.ABSENT);
+    }
 
+    public void sendCleanFlight(Flight flight, long receivedAt) {
+        kafkaTemplate.send(new ProducerRecord<>("flights-update", null, flight.getIcao24().toString(), flight,
+                PipelineHeaders.receivedAt(receivedAt)));
+    }
 
-        kafkaTemplate.send("flights-update", flight.getIcao24().toString(), flight);
+    /** Sends the whole batch and waits for it to leave the producer, so the caller can commit afterwards. */
+    public void sendCleanFlights(List<Update> updates) {
+        if (updates.isEmpty()) return;
+        for (Update u : updates) {
+            sendCleanFlight(u.flight(), u.receivedAt());
+        }
+        kafkaTemplate.flush();
     }
 
 }
@@ -4,6 +4,7 @@ import io.github.vivianagh.avro.Flight;
 import io.github.vivianagh.flightapp.model.entity.DeadLetterEntity;
 import io.github.vivianagh.flightapp.repository.DeadLetterRepository;
 import io.github.vivianagh.flightapp.utils.JsonUtils;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -19,19 +20,35 @@ public class DeadLetterPublisher {
 
     private final KafkaTemplate<String, Flight> kafkaTemplate;
     private final DeadLetterRepository deadLetterRepository;
+    private final MeterRegistry meters;
 
     @Value("${kafka.topic.deadLetter}")
     private String deadLetterTopic;
 
     public void sendToDlq(Flight flight, String reason) {
+        meters.counter("flight.dlq.published").increment();
+
         // 1. Send to DLQ topic in Kafka
         kafkaTemplate.send(deadLetterTopic, flight.getIcao24().toString(), flight);
         log.warn("☠️ Sent to DLQ - ICAO24: {}, reason: {}", flight.getIcao24(), reason);
 
         // 2. Save failed event in the database
+        save(flight, reason);
+    }
+
+    /**
+     * Counts and stores a dead letter whose Kafka copy is written by someone else: the streams
+     * topology forwards it to its own DLQ sink.
+     */
+    public void record(Flight flight, String reason) {
+        meters.counter("flight.dlq.published").increment();
+        save(flight, reason);
+    }
+
+    private void save(Flight flight, String reason) {
         DeadLetterEntity entity = DeadLetterEntity.builder()
                 .topic(deadLetterTopic)
-                .key(flight.getIcao24().toString())
+                .key(String.valueOf(flight.getIcao24()))
                 .payload(JsonUtils.toJson(flight)) // JSON serialized version of the Avro message
                 .error(reason)
                 .timestamp(LocalDateTime.now())
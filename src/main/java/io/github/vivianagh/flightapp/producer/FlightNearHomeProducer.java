@@ -1,7 +1,9 @@
 package io.github.vivianagh.flightapp.producer;
 
 import io.github.vivianagh.avro.Flight;
+import io.github.vivianagh.flightapp.utils.PipelineHeaders;
 import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
@@ -15,6 +17,12 @@ public class FlightNearHomeProducer {
     private final KafkaTemplate<String, Flight> kafkaTemplate;
 
     public void sendNearFlight(Flight flight) {
-        kafkaTemplate.send(flightsOverHomeTopic, flight.getIcao24().toString(), flight);
+        sendNearFlight(flight, PipelineHeaders.ABSENT);
+    }
+
+    /** @param receivedAt socket receive time of the raw sample, propagated as a header */
+    public void sendNearFlight(Flight flight, long receivedAt) {
+        kafkaTemplate.send(new ProducerRecord<>(flightsOverHomeTopic, null, flight.getIcao24().toString(), flight,
+                PipelineHeaders.receivedAt(receivedAt)));
     }
 }
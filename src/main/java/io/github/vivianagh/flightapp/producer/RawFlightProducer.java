@@ -1,21 +1,94 @@
 package io.github.vivianagh.flightapp.producer;
 
+import io.github.vivianagh.flightapp.config.RawProducerProperties;
 import io.github.vivianagh.flightapp.model.FlightData;
-import lombok.RequiredArgsConstructor;
+import io.github.vivianagh.flightapp.socket.SbsMessage;
+import io.github.vivianagh.flightapp.utils.PipelineHeaders;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import io.github.vivianagh.avro.Flight;
 
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publica cada línea del feeder en {@code raw-flights}.
+ * <p>
+ * Con {@code flight.producer.raw.high-throughput=true} usa un productor propio con
+ * linger/batch/compresión afinados y limita los sends sin confirmar: si el broker no
+ * acompaña, el lector espera como mucho {@code max-block-ms} y luego descarta (contado),
+ * así el hilo del socket nunca queda colgado del broker. El replay usa {@link #replayRawFlight}, que
+ * espera el permiso sin límite: una captura se reproduce entera o se para, pero no pierde líneas.
+ * <p>
+ * Cada record lleva el header {@link PipelineHeaders#RECEIVED_AT} con el instante de lectura del socket.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
-public class RawFlightProducer {
+public class RawFlightProducer implements DisposableBean {
 
     private final KafkaTemplate<String,Flight> kafkaTemplate;
+    private final RawProducerProperties props;
+    private final ProducerFactory<String, Flight> ownFactory; // solo en modo high-throughput
+    private final Semaphore inFlight;                         // idem
+
+    // Un record Avro reutilizable por hilo lector (cada feeder tiene el suyo)
+    private final ThreadLocal<Flight> reusable = ThreadLocal.withInitial(Flight::new);
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Timer sendOk;       // latencia hasta el ack del broker
+    private final Timer sendError;
+    private long lastReported;
 
     @Value("${kafka.topic.rawFlights}")
     private String flightTopic;
 
+    public RawFlightProducer(KafkaTemplate<String, Flight> kafkaTemplate, RawProducerProperties props, MeterRegistry meters) {
+        this.props = props;
+        if (props.highThroughput()) {
+            this.ownFactory = kafkaTemplate.getProducerFactory().copyWithConfigurationOverride(props.producerOverrides());
+            this.kafkaTemplate = new KafkaTemplate<>(ownFactory);
+            this.inFlight = new Semaphore(props.maxInFlight());
+            log.info("🚀 RawFlightProducer high-throughput: linger={}ms batch={}B compression={} maxInFlight={}",
+                    props.lingerMs(), props.batchSize(), props.compressionType(), props.maxInFlight());
+        } else {
+            this.ownFactory = null;
+            this.kafkaTemplate = kafkaTemplate;
+            this.inFlight = null;
+        }
+
+        this.sendOk = sendTimer(meters, "success");
+        this.sendError = sendTimer(meters, "error");
+        FunctionCounter.builder("flight.producer.sent", sent, LongAdder::sum)
+                .description("Raw records acknowledged by the broker").register(meters);
+        FunctionCounter.builder("flight.producer.failed", failed, LongAdder::sum)
+                .description("Raw records the broker or the serializer rejected").register(meters);
+        FunctionCounter.builder("flight.producer.dropped", dropped, LongAdder::sum)
+                .description("Raw records dropped because too many sends were unacknowledged").register(meters);
+        Gauge.builder("flight.producer.in_flight", this, RawFlightProducer::getInFlight)
+                .description("Raw sends waiting for an ack (high-throughput mode)").register(meters);
+    }
+
+    private static Timer sendTimer(MeterRegistry meters, String outcome) {
+        return Timer.builder("flight.producer.send")
+                .tag("topic", "raw-flights")
+                .tag("outcome", outcome)
+                .description("Time from send() to the broker ack")
+                .register(meters);
+    }
+
     public void sendRawFlight(FlightData data) {
         Flight flightAvro = Flight.newBuilder()
                 .setIcao24(data.getIcao24())
@@ -35,7 +108,128 @@ public class RawFlightProducer {
                 .setLoggedTime(data.getLoggedTime())
                 .setTransmissionType(data.getTransmissionType())
                 .build();
-        kafkaTemplate.send(flightTopic, data.getIcao24(), flightAvro);
+        send(data.getIcao24(), flightAvro, PipelineHeaders.ABSENT, false);
+    }
+
+    /**
+     * Same as {@link #sendRawFlight(FlightData)} straight from the parsed SBS line.
+     * Both the Avro record and the message's {@code Utf8} buffers are reused: this is safe
+     * because {@code KafkaProducer.send} serializes the value before returning.
+     *
+     * @param receivedAtMillis when the line was read from the socket (epoch millis)
+     */
+    public void sendRawFlight(SbsMessage msg, long receivedAtMillis) {
+        send(msg.getIcao24(), toAvro(msg), receivedAtMillis, false);
+    }
+
+    /**
+     * Replay variant of {@link #sendRawFlight(SbsMessage, long)}: instead of dropping after
+     * {@code max-block-ms} it waits for a permit, so the replay is paced by the broker.
+     *
+     * @return false if the record could not be handed to the producer (interrupted, or rejected synchronously)
+     */
+    public boolean replayRawFlight(SbsMessage msg, long receivedAtMillis) {
+        return send(msg.getIcao24(), toAvro(msg), receivedAtMillis, true);
     }
 
+    private Flight toAvro(SbsMessage msg) {
+        Flight flightAvro = reusable.get();
+        flightAvro.setIcao24(msg.getIcao24());
+        flightAvro.setCallsign(msg.getCallsign());
+        flightAvro.setAltitude(SbsMessage.boxed(msg.getAltitude()));
+        flightAvro.setLatitude(SbsMessage.boxed(msg.getLatitude()));
+        flightAvro.setLongitude(SbsMessage.boxed(msg.getLongitude()));
+        flightAvro.setGroundSpeed(SbsMessage.boxed(msg.getGroundSpeed()));
+        flightAvro.setTrack(SbsMessage.boxed(msg.getTrack()));
+        flightAvro.setSquawk(msg.getSquawk());
+        flightAvro.setAlert(msg.isAlert());
+        flightAvro.setEmergency(msg.isEmergency());
+        flightAvro.setSpi(msg.isSpi());
+        flightAvro.setIsOnGround(msg.isOnGround());
+        flightAvro.setGeneratedDate(msg.getGeneratedDate());
+        flightAvro.setGeneratedTime(msg.getGeneratedTime());
+        flightAvro.setLoggedDate(msg.getLoggedDate());
+        flightAvro.setLoggedTime(msg.getLoggedTime());
+        flightAvro.setTransmissionType(msg.getTransmissionTypeText());
+        return flightAvro;
+    }
+
+    /** @return true if the record reached {@code KafkaTemplate.send} (the ack is counted in {@link #completed}) */
+    private boolean send(String key, Flight value, long receivedAtMillis, boolean block) {
+        ProducerRecord<String, Flight> record =
+                new ProducerRecord<>(flightTopic, null, key, value, PipelineHeaders.receivedAt(receivedAtMillis));
+        if (inFlight == null) {
+            long start = System.nanoTime();
+            try {
+                kafkaTemplate.send(record).whenComplete((result, ex) -> completed(start, ex));
+            } catch (RuntimeException ex) {
+                completed(start, ex);
+                if (block) return false;
+                throw ex;
+            }
+            return true;
+        }
+
+        try {
+            if (block) {
+                inFlight.acquire();
+            } else if (!inFlight.tryAcquire(props.maxBlockMs(), TimeUnit.MILLISECONDS)) {
+                dropped.increment();
+                return false;
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            dropped.increment();
+            return false;
+        }
+
+        long start = System.nanoTime();
+        try {
+            kafkaTemplate.send(record).whenComplete((result, ex) -> {
+                inFlight.release();
+                completed(start, ex);
+                if (ex != null) log.debug("❌ raw send failed - key: {} - {}", key, ex.getMessage());
+            });
+        } catch (RuntimeException ex) {
+            // fallo síncrono (serialización, metadata timeout): no hubo callback
+            inFlight.release();
+            completed(start, ex);
+            log.debug("❌ raw send rejected - key: {} - {}", key, ex.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    private void completed(long startNanos, Throwable ex) {
+        long elapsed = System.nanoTime() - startNanos;
+        if (ex == null) {
+            sent.increment();
+            sendOk.record(elapsed, TimeUnit.NANOSECONDS);
+        } else {
+            failed.increment();
+            sendError.record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public long getSentCount()    { return sent.sum(); }
+    public long getFailedCount()  { return failed.sum(); }
+    public long getDroppedCount() { return dropped.sum(); }
+    public int  getInFlight()     { return inFlight == null ? 0 : props.maxInFlight() - inFlight.availablePermits(); }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void logStats() {
+        if (inFlight == null) return;
+        long total = sent.sum() + failed.sum() + dropped.sum();
+        if (total == lastReported) return;
+        lastReported = total;
+        log.info("📤 raw producer: sent={}, failed={}, dropped={}, inFlight={}",
+                sent.sum(), failed.sum(), dropped.sum(), getInFlight());
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (ownFactory instanceof DisposableBean disposable) {
+            disposable.destroy();
+        }
+    }
 }
@@ -0,0 +1,72 @@
+package io.github.vivianagh.flightapp.replay;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sequential {@link InputStream} over a memory-mapped file, or a byte range of it. The range is mapped in
+ * windows of {@value #WINDOW_BYTES} bytes (a single mapping is capped at 2 GB), so reads are plain copies out
+ * of the page cache with no read() syscall per chunk.
+ */
+public final class MappedInputStream extends InputStream {
+
+    private static final long WINDOW_BYTES = 1L << 30;
+
+    private final FileChannel channel;
+    private final long end;
+    private long mapped;                 // posición del fichero hasta la que ya está mapeado
+    private MappedByteBuffer window;
+
+    public MappedInputStream(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.end = channel.size();
+    }
+
+    /** Only {@code [offset, offset + length)} of the file (clamped to its current size). */
+    public MappedInputStream(Path file, long offset, long length) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.mapped = offset;
+        this.end = Math.min(channel.size(), offset + length);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureWindow()) return -1;
+        return window.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        if (!ensureWindow()) return -1;
+        int n = Math.min(len, window.remaining());
+        window.get(b, off, n);
+        return n;
+    }
+
+    /** Bytes left in the range; GZIPInputStream relies on this to go on to the next concatenated member. */
+    @Override
+    public int available() {
+        long left = (window == null ? 0 : window.remaining()) + (end - mapped);
+        return (int) Math.min(Integer.MAX_VALUE, left);
+    }
+
+    private boolean ensureWindow() throws IOException {
+        if (window != null && window.hasRemaining()) return true;
+        if (mapped >= end) return false;
+        long len = Math.min(WINDOW_BYTES, end - mapped);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, mapped, len);
+        mapped += len;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null; // el mapping se libera con el GC
+        channel.close();
+    }
+}
@@ -0,0 +1,37 @@
+package io.github.vivianagh.flightapp.replay;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+
+/** Opens a capture file through {@link MappedInputStream}, inflating it when it is gzip (detected by magic bytes). */
+public final class ReplayFiles {
+
+    private static final int GZIP_BUFFER_BYTES = 64 * 1024;
+
+    private ReplayFiles() {}
+
+    public static InputStream open(Path file) throws IOException {
+        InputStream mapped = new MappedInputStream(file);
+        if (!isGzip(file)) return mapped;
+        try {
+            // GZIPInputStream también lee miembros concatenados (capturas rotadas con cat a.gz b.gz)
+            return new GZIPInputStream(mapped, GZIP_BUFFER_BYTES);
+        } catch (IOException ex) {
+            mapped.close();
+            throw ex;
+        }
+    }
+
+    static boolean isGzip(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(2);
+            while (magic.hasRemaining() && ch.read(magic) > 0) { /* hasta 2 bytes */ }
+            return magic.position() == 2 && (magic.get(0) & 0xFF) == 0x1f && (magic.get(1) & 0xFF) == 0x8b;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.vivianagh.flightapp.replay;
+
+import io.github.vivianagh.flightapp.utils.SbsTimestamps;
+
+/**
+ * Maps feed time to wall time for a replay. Each message is due {@code gap / speed} after the previous
+ * one, where {@code gap} is the difference between their logged timestamps, optionally capped at
+ * {@code maxGapMs} so quiet periods (nights, receiver outages) are compressed. Schedule is cumulative,
+ * so a slow send is caught up on the following messages instead of drifting.
+ * <p>
+ * Lag is how far behind schedule a message went out: with {@code speed} higher than the pipeline can take
+ * it keeps growing, which is the signal that the target rate was not reached.
+ */
+public final class ReplayPacer {
+
+    private final double speed;
+    private final long maxGapMs;
+
+    private long startNanos = -1;
+    private long scheduleNanos;        // offset del mensaje actual respecto a startNanos
+    private long lastFeedMillis = SbsTimestamps.INVALID;
+
+    private long lagNanos;
+    private long maxLagNanos;
+
+    /**
+     * @param speed    1 = real time, N = N× faster, 0 (or less) = as fast as possible
+     * @param maxGapMs cap for a single gap; 0 keeps the original timing
+     */
+    public ReplayPacer(double speed, long maxGapMs) {
+        this.speed = speed;
+        this.maxGapMs = maxGapMs;
+    }
+
+    public boolean isPaced() {
+        return speed > 0;
+    }
+
+    /**
+     * Nanos to wait before sending a message logged at {@code feedMillis}
+     * ({@link SbsTimestamps#INVALID} = same instant as the previous one).
+     */
+    public long delayNanos(long feedMillis, long nowNanos) {
+        if (!isPaced()) return 0;
+        if (startNanos < 0) startNanos = nowNanos;
+        if (feedMillis != SbsTimestamps.INVALID) {
+            if (lastFeedMillis != SbsTimestamps.INVALID && feedMillis > lastFeedMillis) {
+                long gap = feedMillis - lastFeedMillis;
+                if (maxGapMs > 0 && gap > maxGapMs) gap = maxGapMs;
+                scheduleNanos += (long) (gap * 1_000_000L / speed);
+            }
+            // fuera de orden (varios receptores mezclados): sale ya, sin retroceder el reloj
+            if (feedMillis > lastFeedMillis) lastFeedMillis = feedMillis;
+        }
+        long wait = startNanos + scheduleNanos - nowNanos;
+        lagNanos = Math.max(0, -wait);
+        if (lagNanos > maxLagNanos) maxLagNanos = lagNanos;
+        return Math.max(0, wait);
+    }
+
+    /** Lag of the last message sent, in millis. */
+    public long lagMillis() {
+        return lagNanos / 1_000_000;
+    }
+
+    public long maxLagMillis() {
+        return maxLagNanos / 1_000_000;
+    }
+}
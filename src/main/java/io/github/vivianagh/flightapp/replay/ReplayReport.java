@@ -0,0 +1,27 @@
+package io.github.vivianagh.flightapp.replay;
+
+import java.util.List;
+
+/** Outcome of one replay run (all files), logged at the end and returned by {@code GET /ops/replay}. */
+public record ReplayReport(
+        List<String> files,
+        long lines,
+        long sent,
+        long dropped,           // el sink no pudo entregarlos (interrumpido o rechazados por el productor)
+        long rejected,
+        long outOfRange,        // fuera del rango pedido (replay desde el archivo)
+        long elapsedMs,
+        long feedSpanMs,        // del primer al último timestamp del feed
+        long maxLagMs,
+        long finalLagMs,
+        boolean completed       // false si se paró a mano, falló o se perdió algún mensaje
+) {
+    public double linesPerSecond() {
+        return elapsedMs == 0 ? lines : lines * 1000.0 / elapsedMs;
+    }
+
+    /** Feed time replayed per wall-clock time (1.0 = real time). */
+    public double speedUp() {
+        return elapsedMs == 0 ? 0 : (double) feedSpanMs / elapsedMs;
+    }
+}
@@ -0,0 +1,158 @@
+package io.github.vivianagh.flightapp.replay;
+
+import io.github.vivianagh.flightapp.archive.ArchiveReader;
+import io.github.vivianagh.flightapp.archive.RawFeedArchiver;
+import io.github.vivianagh.flightapp.config.ReplayProperties;
+import io.github.vivianagh.flightapp.producer.RawFlightProducer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reproduce capturas grabadas por {@link RawFlightProducer} en un hilo propio ("replay"), una ejecución
+ * a la vez. Sirve para carga offline (speed &gt; 1 o 0) y para reprocesar un periodo (speed 0, sin pausas).
+ * También reproduce un rango de tiempo del archivo crudo ({@link RawFeedArchiver}) leyendo solo los bloques que lo cubren.
+ * Al terminar escribe el {@link ReplayReport}: throughput, lag respecto al horario pedido y si completó.
+ */
+@Slf4j
+@Service
+public class ReplayService {
+
+    private final ReplayProperties props;
+    private final RawFlightProducer producer;
+    private final RawFeedArchiver archiver;
+    private final Path root;
+
+    private final AtomicReference<SbsReplayer> current = new AtomicReference<>();
+    private volatile Thread worker;
+    private volatile ReplayReport lastReport;
+
+    public ReplayService(ReplayProperties props, RawFlightProducer producer, RawFeedArchiver archiver) {
+        this.props = props;
+        this.producer = producer;
+        this.archiver = archiver;
+        this.root = Path.of(props.directory()).toAbsolutePath().normalize();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (!props.enabled()) return;
+        if (props.files().isEmpty()) {
+            log.warn("⚠️ flight.replay.enabled=true pero flight.replay.files está vacío");
+            return;
+        }
+        start(props.files(), props.speed(), props.maxGapMs());
+    }
+
+    /**
+     * Starts a replay in the background.
+     *
+     * @return false if one is already running
+     * @throws IllegalArgumentException if a file does not exist or is outside {@code flight.replay.directory}
+     */
+    public boolean start(List<String> files, double speed, long maxGapMs) {
+        List<Path> paths = resolve(files);
+        SbsReplayer replayer = new SbsReplayer(new ReplayPacer(speed, maxGapMs), producer::replayRawFlight);
+        if (!current.compareAndSet(null, replayer)) return false;
+
+        log.info("🎬 Replay de {} fichero(s) a {} (maxGap={} ms)",
+                paths.size(), speed > 0 ? "x" + speed : "máxima velocidad", maxGapMs);
+        launch(replayer, () -> replayer.replay(paths));
+        return true;
+    }
+
+    /**
+     * Replays {@code [from, to)} (feed logged time) out of the raw archive.
+     *
+     * @return false if a replay is already running
+     */
+    public boolean startArchive(Instant from, Instant to, double speed, long maxGapMs) {
+        if (!from.isBefore(to)) throw new IllegalArgumentException("from must be before to");
+        long fromMillis = from.toEpochMilli(), toMillis = to.toEpochMilli();
+        SbsReplayer replayer = new SbsReplayer(new ReplayPacer(speed, maxGapMs), producer::replayRawFlight, fromMillis, toMillis);
+        if (!current.compareAndSet(null, replayer)) return false;
+
+        log.info("🎬 Replay del archivo {} .. {} a {} (maxGap={} ms)",
+                from, to, speed > 0 ? "x" + speed : "máxima velocidad", maxGapMs);
+        ArchiveReader reader = new ArchiveReader(archiver.directory());
+        launch(replayer, () -> replayer.replay("archive " + from + " .. " + to, reader.open(fromMillis, toMillis)));
+        return true;
+    }
+
+    /** @return false if nothing was running */
+    public boolean stop() {
+        SbsReplayer r = current.get();
+        if (r == null) return false;
+        r.stop();
+        return true;
+    }
+
+    public boolean isRunning() {
+        return current.get() != null;
+    }
+
+    public ReplayReport lastReport() {
+        return lastReport;
+    }
+
+    @FunctionalInterface
+    private interface Run {
+        ReplayReport call() throws IOException;
+    }
+
+    private void launch(SbsReplayer replayer, Run run) {
+        Thread t = new Thread(() -> run(replayer, run), "replay");
+        t.setDaemon(true);
+        worker = t;
+        t.start();
+    }
+
+    private void run(SbsReplayer replayer, Run run) {
+        try {
+            ReplayReport report = run.call();
+            lastReport = report;
+            log.info("🎬 Replay {}: {} líneas ({} enviadas, {} perdidas, {} rechazadas, {} fuera de rango) en {} ms = {} líneas/s; "
+                            + "{} ms de feed (x{}); lag máx {} ms, final {} ms",
+                    report.completed() ? "terminado" : report.dropped() > 0 ? "incompleto" : "detenido",
+                    report.lines(), report.sent(), report.dropped(), report.rejected(), report.outOfRange(),
+                    report.elapsedMs(), Math.round(report.linesPerSecond()), report.feedSpanMs(),
+                    String.format("%.1f", report.speedUp()),
+                    report.maxLagMs(), report.finalLagMs());
+        } catch (IOException | RuntimeException ex) {
+            log.error("❌ Replay falló tras {} mensajes", replayer.sent(), ex);
+        } finally {
+            // worker antes que current: en cuanto current queda libre, otro start() puede fijar su propio worker
+            worker = null;
+            current.set(null);
+        }
+    }
+
+    private List<Path> resolve(List<String> files) {
+        if (files == null || files.isEmpty()) throw new IllegalArgumentException("no files to replay");
+        List<Path> paths = new ArrayList<>(files.size());
+        for (String f : files) {
+            Path p = root.resolve(f).toAbsolutePath().normalize();
+            if (!p.startsWith(root)) throw new IllegalArgumentException(f + " is outside " + root);
+            if (!Files.isRegularFile(p)) throw new IllegalArgumentException(f + " not found in " + root);
+            paths.add(p);
+        }
+        return paths;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stop();
+        Thread t = worker;
+        if (t != null) t.join(5_000);
+    }
+}
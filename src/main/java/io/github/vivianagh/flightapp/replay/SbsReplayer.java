@@ -0,0 +1,157 @@
+package io.github.vivianagh.flightapp.replay;
+
+import io.github.vivianagh.flightapp.socket.SbsLineFramer;
+import io.github.vivianagh.flightapp.socket.SbsLineParser;
+import io.github.vivianagh.flightapp.socket.SbsMessage;
+import io.github.vivianagh.flightapp.utils.SbsTimestamps;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Feeds recorded SBS-1 captures through the same framing/parsing as {@code FeederConnection}
+ * and hands each message to a {@link Sink} (in the app, {@code RawFlightProducer::replayRawFlight}),
+ * paced by a {@link ReplayPacer}. One run per instance, on the calling thread; {@link #stop()} may be
+ * called from any thread.
+ * <p>
+ * With a range only messages logged in {@code [fromMillis, toMillis)} are sent (lines without a timestamp go with
+ * the previous one); that is how block-granular reads from {@code archive.ArchiveReader} are trimmed.
+ */
+public final class SbsReplayer {
+
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+
+    /**
+     * Same contract as {@code RawFlightProducer.replayRawFlight}: {@code msg} is only valid during the call;
+     * returns false if the message was dropped.
+     */
+    @FunctionalInterface
+    public interface Sink {
+        boolean accept(SbsMessage msg, long receivedAtMillis);
+    }
+
+    private final ReplayPacer pacer;
+    private final Sink sink;
+    private final long fromMillis;
+    private final long toMillis;
+
+    private final SbsLineFramer framer = new SbsLineFramer(READ_BUFFER_BYTES);
+    private final SbsMessage msg = new SbsMessage();
+    private final SbsLineFramer.LineHandler onLine = this::onLine;
+
+    private volatile boolean stopped;
+    private long lines;
+    private long sent;
+    private long dropped;
+    private long rejected;
+    private long outOfRange;
+    private long lastSeenMillis = SbsTimestamps.INVALID;
+    private long firstFeedMillis = SbsTimestamps.INVALID;
+    private long lastFeedMillis = SbsTimestamps.INVALID;
+
+    public SbsReplayer(ReplayPacer pacer, Sink sink) {
+        this(pacer, sink, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    public SbsReplayer(ReplayPacer pacer, Sink sink, long fromMillis, long toMillis) {
+        this.pacer = pacer;
+        this.sink = sink;
+        this.fromMillis = fromMillis;
+        this.toMillis = toMillis;
+    }
+
+    public ReplayReport replay(List<Path> files) throws IOException {
+        long start = System.nanoTime();
+        for (Path file : files) {
+            if (stopped) break;
+            try (InputStream in = ReplayFiles.open(file)) {
+                drain(in);
+            }
+        }
+        return report(files.stream().map(p -> p.getFileName().toString()).toList(), System.nanoTime() - start);
+    }
+
+    /** Replays an already open SBS stream (e.g. from {@code ArchiveReader}); closes it. */
+    public ReplayReport replay(String name, InputStream source) throws IOException {
+        long start = System.nanoTime();
+        try (InputStream in = source) {
+            drain(in);
+        }
+        return report(List.of(name), System.nanoTime() - start);
+    }
+
+    private void drain(InputStream in) throws IOException {
+        framer.reset();
+        while (!stopped && framer.readFrom(in, onLine) != -1) {
+            // las líneas completas ya se enviaron en onLine
+        }
+        if (!stopped) framer.finish(onLine);
+    }
+
+    /** Ends the run after the current message (a pending pause is cut short). */
+    public void stop() {
+        stopped = true;
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    public long sent() {
+        return sent;
+    }
+
+    private void onLine(byte[] buf, int off, int len) {
+        if (stopped) return;
+        lines++;
+        if (!SbsLineParser.parse(buf, off, len, msg)) {
+            rejected++;
+            return;
+        }
+        long feedMillis = SbsTimestamps.parseEpochMillis(msg.getLoggedDate(), msg.getLoggedTime());
+        if (feedMillis != SbsTimestamps.INVALID) lastSeenMillis = feedMillis;
+        // sin rango pasa todo (INVALID == Long.MIN_VALUE); con rango, lo que aún no tiene hora queda fuera
+        if (lastSeenMillis < fromMillis || lastSeenMillis >= toMillis) {
+            outOfRange++;
+            return;
+        }
+        if (feedMillis != SbsTimestamps.INVALID) {
+            if (firstFeedMillis == SbsTimestamps.INVALID) firstFeedMillis = feedMillis;
+            lastFeedMillis = Math.max(lastFeedMillis, feedMillis);
+        }
+        if (pacer.isPaced()) {
+            long wait = pacer.delayNanos(feedMillis, System.nanoTime());
+            if (wait > 0) sleepUntil(System.nanoTime() + wait);
+            if (stopped) return;
+        }
+        if (sink.accept(msg, System.currentTimeMillis())) {
+            sent++;
+        } else {
+            dropped++;
+        }
+    }
+
+    private void sleepUntil(long deadline) {
+        for (long left; (left = deadline - System.nanoTime()) > 0 && !stopped; ) {
+            LockSupport.parkNanos(Math.min(left, 100_000_000L)); // como mucho 100 ms, para ver stop()
+            if (Thread.currentThread().isInterrupted()) {
+                stopped = true;
+            }
+        }
+    }
+
+    private ReplayReport report(List<String> sources, long elapsedNanos) {
+        long span = firstFeedMillis == SbsTimestamps.INVALID ? 0 : lastFeedMillis - firstFeedMillis;
+        return new ReplayReport(
+                sources,
+                lines, sent, dropped, rejected, outOfRange,
+                elapsedNanos / 1_000_000,
+                span,
+                pacer.maxLagMillis(),
+                pacer.lagMillis(),
+                !stopped && dropped == 0);
+    }
+}
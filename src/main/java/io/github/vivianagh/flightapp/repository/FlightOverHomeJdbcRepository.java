@@ -0,0 +1,159 @@
+package io.github.vivianagh.flightapp.repository;
+
+import io.github.vivianagh.flightapp.model.entity.FlightOverHomeEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Escrituras por lotes sobre {@code flight_over_home} (JDBC directo, sin pasar por el contexto JPA).
+ * El upsert mantiene la semántica de {@code FlightOverHomeConsumer}: solo rellena lo que falta.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FlightOverHomeJdbcRepository {
+
+    private static final String UPSERT = """
+        INSERT INTO flight_over_home
+               (icao24, callsign, airline, latitude, longitude, altitude, speed, logged_date, logged_time, logged_at, zone_id)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT (icao24, logged_at) DO UPDATE SET
+               callsign  = COALESCE(flight_over_home.callsign,  EXCLUDED.callsign),
+               airline   = COALESCE(flight_over_home.airline,   EXCLUDED.airline),
+               latitude  = COALESCE(flight_over_home.latitude,  EXCLUDED.latitude),
+               longitude = COALESCE(flight_over_home.longitude, EXCLUDED.longitude),
+               altitude  = COALESCE(flight_over_home.altitude,  EXCLUDED.altitude),
+               speed     = COALESCE(flight_over_home.speed,     EXCLUDED.speed),
+               zone_id   = COALESCE(flight_over_home.zone_id,   EXCLUDED.zone_id)
+        """;
+
+    private static final String UPDATE_ROUTE = """
+        UPDATE flight_over_home
+           SET origin      = COALESCE(?, origin),
+               destination = COALESCE(?, destination)
+         WHERE icao24 = ? AND logged_at = ?
+        """;
+
+    private static final String UPDATE_ROUTES_FROM_VALUES = """
+        UPDATE flight_over_home f
+           SET origin      = COALESCE(v.origin, f.origin),
+               destination = COALESCE(v.destination, f.destination)
+          FROM (VALUES %s) AS v(id, logged_at, origin, destination)
+         WHERE f.id = v.id AND f.logged_at = v.logged_at
+        """;
+
+    // espera = base * 2^intentos (el exponente se corta en 20 para no desbordar), con tope
+    private static final String DEFER_ROUTES_FROM_VALUES = """
+        UPDATE flight_over_home f
+           SET route_attempts = f.route_attempts + 1,
+               route_retry_at = now() + LEAST(make_interval(secs => ? * power(2, LEAST(f.route_attempts, 20))),
+                                              make_interval(secs => ?))
+          FROM (VALUES %s) AS v(id, logged_at)
+         WHERE f.id = v.id AND f.logged_at = v.logged_at
+        """;
+
+    // Postgres admite ~65k parámetros por sentencia; usamos 4 por fila
+    private static final int MAX_ROWS_PER_STATEMENT = 5_000;
+
+    private final JdbcTemplate jdbc;
+
+    /** One JDBC batch; rows must be unique per (icao24, logged_at) or Postgres rejects the statement. */
+    public void upsertBatch(List<FlightOverHomeEntity> rows) {
+        if (rows.isEmpty()) return;
+        jdbc.batchUpdate(UPSERT, rows, rows.size(), (ps, e) -> {
+            ps.setString(1, e.getIcao24());
+            ps.setString(2, e.getCallsign());
+            ps.setString(3, e.getAirline());
+            setDouble(ps, 4, e.getLatitude());
+            setDouble(ps, 5, e.getLongitude());
+            setDouble(ps, 6, e.getAltitude());
+            setDouble(ps, 7, e.getSpeed());
+            ps.setString(8, e.getLoggedDate());
+            ps.setString(9, e.getLoggedTime());
+            setInstant(ps, 10, e.getLoggedAt());
+            ps.setString(11, e.getZoneId());
+        });
+    }
+
+    public record RouteUpdate(String icao24, Instant loggedAt, String origin, String destination) {}
+
+    public void updateRoutes(List<RouteUpdate> updates) {
+        if (updates.isEmpty()) return;
+        jdbc.batchUpdate(UPDATE_ROUTE, updates, updates.size(), (ps, u) -> {
+            ps.setString(1, u.origin());
+            ps.setString(2, u.destination());
+            ps.setString(3, u.icao24());
+            setInstant(ps, 4, u.loggedAt());
+        });
+    }
+
+    /** {@code loggedAt} is part of the key so each row is looked up only in its own partition. */
+    public record RouteById(long id, Instant loggedAt, String origin, String destination) {}
+
+    /**
+     * Applies many routes with a single {@code UPDATE ... FROM (VALUES ...)} per chunk: one round trip
+     * and one plan instead of one per row. Null origin/destination leave the stored value as is.
+     */
+    public int updateRoutesById(List<RouteById> updates) {
+        int updated = 0;
+        for (int from = 0; from < updates.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<RouteById> chunk = updates.subList(from, Math.min(updates.size(), from + MAX_ROWS_PER_STATEMENT));
+            StringBuilder values = new StringBuilder(chunk.size() * 14);
+            Object[] args = new Object[chunk.size() * 4];
+            for (int i = 0; i < chunk.size(); i++) {
+                RouteById u = chunk.get(i);
+                // los tipos de la primera fila fijan los de la columna en VALUES
+                values.append(i == 0 ? "(?::bigint, ?::timestamptz, ?::text, ?::text)" : ", (?, ?, ?, ?)");
+                args[i * 4] = u.id();
+                args[i * 4 + 1] = u.loggedAt().atOffset(ZoneOffset.UTC);
+                args[i * 4 + 2] = u.origin();
+                args[i * 4 + 3] = u.destination();
+            }
+            updated += jdbc.update(UPDATE_ROUTES_FROM_VALUES.formatted(values), args);
+        }
+        return updated;
+    }
+
+    public record RowRef(long id, Instant loggedAt) {}
+
+    /**
+     * Records a failed route lookup: bumps {@code route_attempts} and hides the rows from
+     * {@code findPendingWithCallsignAsc} for {@code backoff * 2^attempts}, at most {@code maxBackoff}.
+     */
+    public int deferRoutesById(List<RowRef> rows, Duration backoff, Duration maxBackoff) {
+        int updated = 0;
+        for (int from = 0; from < rows.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<RowRef> chunk = rows.subList(from, Math.min(rows.size(), from + MAX_ROWS_PER_STATEMENT));
+            StringBuilder values = new StringBuilder(chunk.size() * 8);
+            Object[] args = new Object[2 + chunk.size() * 2];
+            args[0] = backoff.toMillis() / 1000.0;
+            args[1] = maxBackoff.toMillis() / 1000.0;
+            for (int i = 0; i < chunk.size(); i++) {
+                RowRef r = chunk.get(i);
+                values.append(i == 0 ? "(?::bigint, ?::timestamptz)" : ", (?, ?)");
+                args[2 + i * 2] = r.id();
+                args[2 + i * 2 + 1] = r.loggedAt().atOffset(ZoneOffset.UTC);
+            }
+            updated += jdbc.update(DEFER_ROUTES_FROM_VALUES.formatted(values), args);
+        }
+        return updated;
+    }
+
+    private static void setInstant(PreparedStatement ps, int idx, Instant v) throws SQLException {
+        if (v == null) ps.setNull(idx, Types.TIMESTAMP_WITH_TIMEZONE);
+        else ps.setObject(idx, v.atOffset(ZoneOffset.UTC));
+    }
+
+    private static void setDouble(PreparedStatement ps, int idx, Double v) throws SQLException {
+        if (v == null) ps.setNull(idx, Types.DOUBLE);
+        else ps.setDouble(idx, v);
+    }
+}
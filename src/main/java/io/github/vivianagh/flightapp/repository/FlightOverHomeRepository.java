@@ -7,9 +7,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Transactional;
-import java.time.LocalDate;
-import java.time.LocalTime;
+import java.time.Instant;
 
 import java.util.List;
 import java.util.Optional;
@@ -18,12 +16,11 @@ public interface FlightOverHomeRepository extends JpaRepository<FlightOverHomeEn
 
     // ==== Lecturas para API ====
 
-    /** Últimos N por fecha+hora (con fallback por id). */
+    /** Últimos N por logged_at (con fallback por id); usa idx_foh_logged_at_desc. */
     @Query(value = """
         SELECT *
           FROM flight_over_home f
-      ORDER BY f.logged_date DESC,
-               f.logged_time DESC NULLS LAST,
+      ORDER BY f.logged_at DESC NULLS LAST,
                f.id DESC
          LIMIT :limit
     """, nativeQuery = true)
@@ -42,17 +39,25 @@ public interface FlightOverHomeRepository extends JpaRepository<FlightOverHomeEn
           ) rc ON TRUE
          WHERE (f.origin IS NOT NULL OR f.destination IS NOT NULL
              OR rc.origin IS NOT NULL OR rc.destination IS NOT NULL)
-      ORDER BY f.logged_date DESC,
-               f.logged_time DESC NULLS LAST,
+      ORDER BY f.logged_at DESC NULLS LAST,
                f.id DESC
          LIMIT :limit
     """, nativeQuery = true)
     List<FlightOverHomeEntity> findLatestCompleteLike(@Param("limit") int limit);
 
+    /** Muestras en [from, to), en orden; el BRIN de logged_at acota las páginas a leer. */
+    @Query(value = """
+        SELECT *
+          FROM flight_over_home f
+         WHERE f.logged_at >= :from
+           AND f.logged_at <  :to
+      ORDER BY f.logged_at, f.id
+    """, nativeQuery = true)
+    List<FlightOverHomeEntity> findLoggedBetween(@Param("from") Instant from, @Param("to") Instant to);
+
     // ==== Backfill / utilitarios ====
 
-    Optional<FlightOverHomeEntity> findFirstByIcao24AndLoggedDateAndLoggedTime(
-            String icao24, String loggedDate, String loggedTime);
+    Optional<FlightOverHomeEntity> findFirstByIcao24AndLoggedAt(String icao24, Instant loggedAt);
 
     // FlightOverHomeRepository.java
     @Query(value = """
@@ -60,7 +65,7 @@ public interface FlightOverHomeRepository extends JpaRepository<FlightOverHomeEn
     FROM flight_over_home
    WHERE (origin IS NULL OR destination IS NULL)
      AND callsign IS NOT NULL
-ORDER BY logged_date ASC, logged_time ASC NULLS LAST, id ASC
+ORDER BY logged_at ASC NULLS LAST, id ASC
    LIMIT :limit
 """, nativeQuery = true)
 List<FlightOverHomeEntity> findRecentMissingRouteWithCallsign(@Param("limit") int limit);
@@ -70,39 +75,22 @@ List<FlightOverHomeEntity> findRecentMissingRouteWithCallsign(@Param("limit") in
     FROM flight_over_home
    WHERE (origin IS NULL OR destination IS NULL)
      AND callsign IS NULL
-ORDER BY logged_date ASC, logged_time ASC NULLS LAST, id ASC
+ORDER BY logged_at ASC NULLS LAST, id ASC
    LIMIT :limit
 """, nativeQuery = true)
 List<FlightOverHomeEntity> findRecentMissingRouteNoCallsign(@Param("limit") int limit);
 
 
-    @Modifying
-    @Transactional
-    @Query(value = """
-      UPDATE flight_over_home
-         SET callsign = :callsign
-       WHERE icao24 = :icao24
-         AND callsign IS NULL
-         AND logged_date = :date
-         AND logged_time BETWEEN (:time - interval '10 minutes') AND (:time + interval '1 minute')
-    """, nativeQuery = true)
-    int backfillCallsign(@Param("icao24") String icao24,
-                         @Param("callsign") String callsign,
-                         @Param("date") LocalDate date,
-                         @Param("time") LocalTime time);
-
     @Modifying
     @Query("""
         UPDATE FlightOverHomeEntity f
            SET f.origin = :origin,
                f.destination = :destination
          WHERE f.icao24 = :icao24
-           AND f.loggedDate = :date
-           AND f.loggedTime = :time
+           AND f.loggedAt = :at
     """)
     int updateRouteForSample(@Param("icao24") String icao24,
-                             @Param("date") String loggedDate,
-                             @Param("time") String loggedTime,
+                             @Param("at") Instant loggedAt,
                              @Param("origin") String origin,
                              @Param("destination") String destination);
 
@@ -115,14 +103,16 @@ List<FlightOverHomeEntity> findRecentMissingRouteNoCallsign(@Param("limit") int
 
 
 
+    /** Pending rows oldest first, skipping the ones whose last failed lookup is still backing off. */
     @Query("""
     SELECT f
       FROM FlightOverHomeEntity f
      WHERE (f.origin IS NULL OR f.destination IS NULL)
        AND f.callsign IS NOT NULL
-     ORDER BY f.loggedDate ASC, f.loggedTime ASC NULLS LAST, f.id ASC
+       AND (f.routeRetryAt IS NULL OR f.routeRetryAt <= :now)
+     ORDER BY f.loggedAt ASC NULLS LAST, f.id ASC
   """)
-    List<FlightOverHomeEntity> findPendingWithCallsignAsc(Pageable pageable);
+    List<FlightOverHomeEntity> findPendingWithCallsignAsc(@Param("now") Instant now, Pageable pageable);
 
     // opcional: para marcar actualizaciones de origin/destination
     @Modifying
@@ -2,10 +2,24 @@ package io.github.vivianagh.flightapp.repository;
 
 import io.github.vivianagh.flightapp.model.entity.FlightsPerDayEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 
 @Repository
 public interface FlightsPerDayRepository extends JpaRepository<FlightsPerDayEntity, LocalDate> {
+
+    // Suma incremental: cada flush aporta solo lo contado desde el anterior
+    @Modifying
+    @Transactional
+    @Query(value = """
+        INSERT INTO flights_per_day(date, count)
+        VALUES (:date, :delta)
+        ON CONFLICT (date) DO UPDATE SET count = flights_per_day.count + EXCLUDED.count
+        """, nativeQuery = true)
+    int addToCount(@Param("date") LocalDate date, @Param("delta") int delta);
 }
@@ -0,0 +1,68 @@
+package io.github.vivianagh.flightapp.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/** Volcado por lotes de {@code flights_per_hour} desde el agregador en memoria. */
+@Repository
+@RequiredArgsConstructor
+public class FlightsPerHourJdbcRepository {
+
+    // GREATEST: el recuento en memoria solo crece, así que reescribir una hora es idempotente
+    private static final String UPSERT_MAX = """
+        INSERT INTO flights_per_hour (date, hour, count)
+        VALUES (?, ?, ?)
+        ON CONFLICT (date, hour) DO UPDATE SET count = GREATEST(flights_per_hour.count, EXCLUDED.count)
+        """;
+
+    private static final String UPSERT_SKETCH = """
+        INSERT INTO flights_per_hour_sketch (date, hour, kind, sketch, updated_at)
+        VALUES (?, ?, ?, ?, now())
+        ON CONFLICT (date, hour) DO UPDATE SET kind = EXCLUDED.kind, sketch = EXCLUDED.sketch, updated_at = now()
+        """;
+
+    private final JdbcTemplate jdbc;
+
+    public record HourCount(LocalDate date, int hour, int count) {}
+
+    /** Conjunto serializado de una hora; {@code kind} es el modo que lo escribió. */
+    public record HourSketch(LocalDate date, int hour, String kind, byte[] sketch) {}
+
+    public void upsertMax(List<HourCount> rows) {
+        if (rows.isEmpty()) return;
+        jdbc.batchUpdate(UPSERT_MAX, rows, rows.size(), (ps, r) -> {
+            ps.setDate(1, Date.valueOf(r.date()));
+            ps.setInt(2, r.hour());
+            ps.setInt(3, r.count());
+        });
+    }
+
+    /** Sketch guardado de la hora si lo escribió el mismo modo; vacío si no hay. */
+    public Optional<byte[]> findSketch(LocalDate date, int hour, String kind) {
+        List<byte[]> found = jdbc.query(
+                "SELECT sketch FROM flights_per_hour_sketch WHERE date = ? AND hour = ? AND kind = ?",
+                (rs, i) -> rs.getBytes(1), Date.valueOf(date), hour, kind);
+        return found.stream().findFirst();
+    }
+
+    /** Reemplaza el sketch de cada hora: quien escribe ya unió antes lo que había guardado. */
+    public void upsertSketches(List<HourSketch> rows) {
+        if (rows.isEmpty()) return;
+        jdbc.batchUpdate(UPSERT_SKETCH, rows, rows.size(), (ps, r) -> {
+            ps.setDate(1, Date.valueOf(r.date()));
+            ps.setInt(2, r.hour());
+            ps.setString(3, r.kind());
+            ps.setBytes(4, r.sketch());
+        });
+    }
+
+    public int deleteSketchesBefore(LocalDate date) {
+        return jdbc.update("DELETE FROM flights_per_hour_sketch WHERE date < ?", Date.valueOf(date));
+    }
+}
@@ -0,0 +1,26 @@
+package io.github.vivianagh.flightapp.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+/** Wrappers over the partition functions created in V5 ({@code ensure_month_partition}, {@code drop_month_partitions_before}). */
+@Repository
+@RequiredArgsConstructor
+public class PartitionJdbcRepository {
+
+    private final JdbcTemplate jdbc;
+
+    /** Creates the partition of {@code parent} for the month containing {@code month}; false if it already existed. */
+    public boolean ensureMonthPartition(String parent, LocalDate month) {
+        return Boolean.TRUE.equals(jdbc.queryForObject("SELECT ensure_month_partition(?, ?)", Boolean.class, parent, month));
+    }
+
+    /** Drops every monthly partition of {@code parent} that ends on or before {@code cutoff}; returns how many. */
+    public int dropMonthPartitionsBefore(String parent, LocalDate cutoff) {
+        Integer n = jdbc.queryForObject("SELECT drop_month_partitions_before(?, ?)", Integer.class, parent, cutoff);
+        return n != null ? n : 0;
+    }
+}
@@ -1,50 +1,272 @@
 package io.github.vivianagh.flightapp.service;
 
-import org.springframework.stereotype.Component;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.vivianagh.flightapp.model.AirlineInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
-import java.util.*;
-
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 
+/**
+ * Directorio de aerolíneas de solo lectura cargado desde {@code airlines.json}.
+ * <p>
+ * Los códigos ICAO (3) e IATA (2) se empaquetan en un {@code int} (6 bits por carácter, sin distinguir
+ * mayúsculas) y se buscan en una tabla de direccionamiento abierto, así que se puede consultar con los
+ * caracteres del callsign tal cual, sin crear strings. El JSON se lee en streaming; con
+ * {@code flight.airlines.snapshot} se guarda además un binario que se usa en los siguientes arranques
+ * mientras {@code airlines.json} no cambie.
+ */
+@Slf4j
 @Component
 public class AirlineDirectory {
-    private final Map<String, AirlineInfo> byIcao;
-    private final Map<String, AirlineInfo> byIata;
 
-    public AirlineDirectory(ObjectMapper mapper) {
+    private static final String RESOURCE = "airlines.json";
+    private static final int SNAPSHOT_MAGIC = 0x41_49_52_31; // "AIR1"
+
+    private static final int KIND_ICAO = 1;
+    private static final int KIND_IATA = 2;
+
+    private final List<AirlineInfo> all;
+    private final int[] keys;        // 0 = slot libre
+    private final AirlineInfo[] values;
+    private final int mask;
+    private final int shift;         // 32 - log2(capacity): el slot son los bits altos del producto
+
+    @Autowired
+    public AirlineDirectory(ObjectMapper mapper,
+                            @Value("${flight.airlines.snapshot:}") String snapshotPath) {
+        this(load(mapper, snapshotPath));
+    }
+
+    /** Builds the table from already normalised codes (upper case, trimmed); used by the loader and tests. */
+    AirlineDirectory(List<AirlineInfo> airlines) {
+        this.all = List.copyOf(airlines);
+        int capacity = Integer.highestOneBit(Math.max(4, all.size() * 4 - 1)) << 1; // carga <= 0.5 con 2 claves por aerolínea
+        this.keys = new int[capacity];
+        this.values = new AirlineInfo[capacity];
+        this.mask = capacity - 1;
+        this.shift = Integer.numberOfLeadingZeros(capacity) + 1;
+        for (AirlineInfo a : all) {
+            String icao = a.getIcao();
+            if (icao != null && icao.length() == 3) put(key(KIND_ICAO, icao.charAt(0), icao.charAt(1), icao.charAt(2)), a);
+            String iata = a.getIata();
+            if (iata != null && iata.length() == 2) put(key(KIND_IATA, iata.charAt(0), iata.charAt(1), '\0'), a);
+        }
+        log.info("✈️ AirlineDirectory: {} aerolíneas ({} slots, sondeo máx {})", all.size(), capacity, longestProbe());
+    }
+
+    private static List<AirlineInfo> load(ObjectMapper mapper, @Nullable String snapshotPath) {
         try {
-            ClassPathResource res = new ClassPathResource("airlines.json");
+            ClassPathResource res = new ClassPathResource(RESOURCE);
             if (!res.exists()) throw new IllegalStateException("Missing airlines.json in resources/");
-            List<AirlineInfo> list;
-            try (InputStream is = res.getInputStream()) {
-                list = mapper.readValue(is, new TypeReference<List<AirlineInfo>>() {});
+            Path snapshot = snapshotPath == null || snapshotPath.isBlank() ? null : Path.of(snapshotPath);
+            long stamp = snapshot != null ? res.lastModified() ^ (res.contentLength() << 32) : 0;
+            List<AirlineInfo> list = snapshot != null ? readSnapshot(snapshot, stamp) : null;
+            if (list == null) {
+                try (InputStream is = res.getInputStream()) {
+                    list = parse(mapper, is);
+                }
+                if (snapshot != null) writeSnapshot(snapshot, stamp, list);
             }
-            Map<String, AirlineInfo> icao = new HashMap<>();
-            Map<String, AirlineInfo> iata = new HashMap<>();
-            for (AirlineInfo a : list) {
-                if (a.getIcao() != null && !a.getIcao().isBlank())
-                    icao.put(a.getIcao().trim().toUpperCase(Locale.ROOT), a);
-                if (a.getIata() != null && !a.getIata().isBlank())
-                    iata.put(a.getIata().trim().toUpperCase(Locale.ROOT), a);
-            }
-            this.byIcao = Collections.unmodifiableMap(icao);
-            this.byIata = Collections.unmodifiableMap(iata);
-        } catch (Exception e) {
+            return list;
+        } catch (IOException e) {
             throw new IllegalStateException("Failed to load airlines.json", e);
         }
     }
 
+    /** Number of table slots (a power of two, at least twice the number of keys). */
+    int capacity() {
+        return keys.length;
+    }
+
+    /** Longest distance between a key's home slot and where it sits (0 = no collision moved it). */
+    int longestProbe() {
+        int longest = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) longest = Math.max(longest, (i - slot(keys[i])) & mask);
+        }
+        return longest;
+    }
+
+    /** Slot where an ICAO code starts probing. */
+    int icaoHomeSlot(char c0, char c1, char c2) {
+        return slot(key(KIND_ICAO, c0, c1, c2));
+    }
+
+    public List<AirlineInfo> all() {
+        return all;
+    }
+
+    /** Lookup by the three ICAO chars as they come in the callsign (any case); null if unknown. */
+    public @Nullable AirlineInfo byIcao(char c0, char c1, char c2) {
+        return get(key(KIND_ICAO, c0, c1, c2));
+    }
+
+    /** Lookup by the two IATA chars as they come in the callsign (any case); null if unknown. */
+    public @Nullable AirlineInfo byIata(char c0, char c1) {
+        return get(key(KIND_IATA, c0, c1, '\0'));
+    }
+
     public Optional<AirlineInfo> findByIcao(String c) {
         if (c == null) return Optional.empty();
-        return Optional.ofNullable(byIcao.get(c.trim().toUpperCase(Locale.ROOT)));
+        String t = c.trim();
+        return t.length() == 3 ? Optional.ofNullable(byIcao(t.charAt(0), t.charAt(1), t.charAt(2))) : Optional.empty();
     }
+
     public Optional<AirlineInfo> findByIata(String c) {
         if (c == null) return Optional.empty();
-        return Optional.ofNullable(byIata.get(c.trim().toUpperCase(Locale.ROOT)));
+        String t = c.trim();
+        return t.length() == 2 ? Optional.ofNullable(byIata(t.charAt(0), t.charAt(1))) : Optional.empty();
+    }
+
+    /** Code the airline's flights are sold under: explicit prefix, else IATA, else ICAO. */
+    public static String flightNumberPrefix(AirlineInfo a) {
+        if (a.getFlightNumberPrefix() != null) return a.getFlightNumberPrefix();
+        return a.getIata() != null ? a.getIata() : a.getIcao();
+    }
+
+    // ---------- tabla ----------
+
+    /** 0-9 -> 1..10, A-Z/a-z -> 11..36, '\0' -> 0 (third char of an IATA code), anything else -> -1. */
+    private static int code(char c) {
+        if (c >= '0' && c <= '9') return c - '0' + 1;
+        if (c >= 'A' && c <= 'Z') return c - 'A' + 11;
+        if (c >= 'a' && c <= 'z') return c - 'a' + 11;
+        return c == '\0' ? 0 : -1;
+    }
+
+    /** kind(2 bits) | c0 | c1 | c2 (6 bits each); never 0, or 0 when a char is not a code char. */
+    private static int key(int kind, char c0, char c1, char c2) {
+        int a = code(c0), b = code(c1), c = code(c2);
+        if (a <= 0 || b <= 0 || c < 0) return 0;
+        return kind << 18 | a << 12 | b << 6 | c;
+    }
+
+    /** Fibonacci hashing: the top log2(capacity) bits of the product, so any slot can be a home slot. */
+    private int slot(int key) {
+        return (key * 0x9E3779B9) >>> shift;
+    }
+
+    private void put(int key, AirlineInfo a) {
+        if (key == 0) return;
+        int i = slot(key);
+        while (keys[i] != 0 && keys[i] != key) i = (i + 1) & mask;
+        keys[i] = key;          // clave repetida: gana la última, como antes con HashMap.put
+        values[i] = a;
+    }
+
+    private @Nullable AirlineInfo get(int key) {
+        if (key == 0) return null;
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            int k = keys[i];
+            if (k == key) return values[i];
+            if (k == 0) return null;
+        }
+    }
+
+    // ---------- carga ----------
+
+    /** Streams the JSON array; codes are trimmed and upper-cased once here instead of on every lookup. */
+    private static List<AirlineInfo> parse(ObjectMapper mapper, InputStream is) throws IOException {
+        List<AirlineInfo> list = new ArrayList<>();
+        try (JsonParser p = mapper.getFactory().createParser(is)) {
+            if (p.nextToken() != JsonToken.START_ARRAY) throw new IOException("airlines.json must be an array");
+            while (p.nextToken() == JsonToken.START_OBJECT) {
+                AirlineInfo a = new AirlineInfo();
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = p.currentName();
+                    JsonToken value = p.nextToken();
+                    if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                        p.skipChildren();
+                        continue;
+                    }
+                    String text = value == JsonToken.VALUE_NULL ? null : p.getText();
+                    switch (field) {
+                        case "icao" -> a.setIcao(code(text));
+                        case "iata" -> a.setIata(code(text));
+                        case "flightNumberPrefix" -> a.setFlightNumberPrefix(code(text));
+                        case "name" -> a.setName(text);
+                        case "country" -> a.setCountry(text);
+                        default -> { } // campos desconocidos se ignoran
+                    }
+                }
+                list.add(a);
+            }
+        }
+        return list;
+    }
+
+    private static @Nullable String code(@Nullable String s) {
+        if (s == null || s.isBlank()) return null;
+        return s.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /** Returns null (and the JSON is parsed instead) if the snapshot is missing, stale or unreadable. */
+    private static @Nullable List<AirlineInfo> readSnapshot(Path file, long stamp) {
+        if (!Files.isRegularFile(file)) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readLong() != stamp) return null;
+            int n = in.readInt();
+            List<AirlineInfo> list = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                AirlineInfo a = new AirlineInfo(readNullable(in), readNullable(in), readNullable(in), readNullable(in));
+                a.setFlightNumberPrefix(readNullable(in));
+                list.add(a);
+            }
+            return list;
+        } catch (IOException e) {
+            log.warn("⚠️ AirlineDirectory: snapshot {} ilegible, se usa airlines.json ({})", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private static void writeSnapshot(Path file, long stamp, List<AirlineInfo> list) {
+        try {
+            Path dir = file.toAbsolutePath().getParent();
+            if (dir != null) Files.createDirectories(dir);
+            Path tmp = Files.createTempFile(dir, "airlines", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeLong(stamp);
+                out.writeInt(list.size());
+                for (AirlineInfo a : list) {
+                    writeNullable(out, a.getIcao());
+                    writeNullable(out, a.getIata());
+                    writeNullable(out, a.getName());
+                    writeNullable(out, a.getCountry());
+                    writeNullable(out, a.getFlightNumberPrefix());
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("⚠️ AirlineDirectory: no se pudo escribir el snapshot {} ({})", file, e.getMessage());
+        }
+    }
+
+    private static @Nullable String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeNullable(DataOutputStream out, @Nullable String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) out.writeUTF(s);
     }
 }
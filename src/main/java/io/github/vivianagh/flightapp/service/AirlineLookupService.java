@@ -4,20 +4,14 @@ import io.github.vivianagh.flightapp.model.AirlineInfo;
 import org.springframework.stereotype.Service;
 import org.springframework.lang.Nullable;
 
-import java.util.Locale;
-import java.util.Map;
-import java.util.Optional;
-
-import static java.util.Map.entry;
-
 @Service
 public class AirlineLookupService {
 
-    private final AirlineDirectory  directory;
+    private final CallsignNormalizer normalizer;
 
 
-    public AirlineLookupService(AirlineDirectory directory) {
-        this.directory = directory;
+    public AirlineLookupService(CallsignNormalizer normalizer) {
+        this.normalizer = normalizer;
     }
 
     public String getAirlineName(@Nullable String callsign, @Nullable String icao24) {
@@ -28,18 +22,8 @@ public class AirlineLookupService {
     @Nullable
     public String lookupByCallsignPrefix(String callsign) {
         if (callsign == null || callsign.isBlank()) return null;
-
-        Optional<String> prefixOpt = CallsignParser.extractPrefix(callsign);
-        if (prefixOpt.isEmpty()) return null;
-        String prefix = prefixOpt.get();
-
-        // Intentar 3 letras (ICAO), si no, 2 (IATA)
-        Optional<AirlineInfo> info =
-                (prefix.length() == 3)
-                        ? directory.findByIcao(prefix).or(() -> directory.findByIata(prefix))
-                        : directory.findByIata(prefix).or(() -> directory.findByIcao(prefix));
-
-        return info.map(AirlineInfo::getName).orElse(null);
+        AirlineInfo info = normalizer.airline(callsign);
+        return info != null ? info.getName() : null;
     }
 
 }
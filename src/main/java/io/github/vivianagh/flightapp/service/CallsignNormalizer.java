@@ -0,0 +1,114 @@
+package io.github.vivianagh.flightapp.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.vivianagh.flightapp.model.AirlineInfo;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Única normalización de callsigns de la app, construida desde {@code airlines.json}:
+ * número de vuelo comercial (BAW123 -> BA123, CFE45 -> BA45) y aerolínea por prefijo ICAO/IATA.
+ * <p>
+ * El escaneo recorre los caracteres una vez (sin regex, {@code replaceAll} ni {@code substring}) y el
+ * resultado se memoriza por callsign: los callsigns activos son pocos y se repiten en cada muestra,
+ * así que el caso normal es un único lookup sin asignaciones.
+ */
+@Component
+public class CallsignNormalizer {
+
+    /** Result for one raw callsign; every field may be null. */
+    public record Normalized(@Nullable String flightNumber, @Nullable AirlineInfo airline) {
+        static final Normalized NONE = new Normalized(null, null);
+    }
+
+    private static final int MEMO_MAX_ENTRIES = 8_192;
+
+    private final AirlineDirectory directory;
+    private final Cache<String, Normalized> memo = Caffeine.newBuilder().maximumSize(MEMO_MAX_ENTRIES).build();
+
+    public CallsignNormalizer(AirlineDirectory directory) {
+        this.directory = directory;
+    }
+
+    public Normalized normalize(@Nullable String callsign) {
+        if (callsign == null || callsign.isEmpty()) return Normalized.NONE;
+        return memo.get(callsign, this::scan);
+    }
+
+    /** BAW123 -> BA123; null if the callsign is not 2-3 letters followed by digits. */
+    public @Nullable String flightNumber(@Nullable String callsign) {
+        return normalize(callsign).flightNumber();
+    }
+
+    public @Nullable AirlineInfo airline(@Nullable String callsign) {
+        return normalize(callsign).airline();
+    }
+
+    /**
+     * Same grammar as the old {@code ^([A-Z]{2,3})(\d+)} over the upper-cased callsign without
+     * whitespace, and the same airline prefix rule (3 letters = ICAO, else 2 alphanumerics = IATA).
+     */
+    private Normalized scan(String cs) {
+        // primeros 4 caracteres significativos (sin espacios), ya en mayúsculas
+        int c0 = 0, c1 = 0, c2 = 0, c3 = 0, n = 0;
+        for (int i = 0; i < cs.length() && n < 4; i++) {
+            char c = cs.charAt(i);
+            if (Character.isWhitespace(c)) continue;
+            c = Character.toUpperCase(c);
+            switch (n++) {
+                case 0 -> c0 = c;
+                case 1 -> c1 = c;
+                case 2 -> c2 = c;
+                default -> c3 = c;
+            }
+        }
+        if (n < 2) return Normalized.NONE;
+
+        boolean icaoPrefix = n >= 3 && isAsciiLetter(c0) && isAsciiLetter(c1) && isAsciiLetter(c2);
+        AirlineInfo airline = null;
+        if (icaoPrefix) {
+            airline = directory.byIcao((char) c0, (char) c1, (char) c2);
+        } else {
+            airline = directory.byIata((char) c0, (char) c1); // null si no son alfanuméricos
+        }
+
+        String flightNumber = null;
+        if (isAsciiLetter(c0) && isAsciiLetter(c1)) {
+            int prefixLen = icaoPrefix ? 3 : 2;
+            int next = icaoPrefix ? c3 : c2;
+            if (n > prefixLen && isAsciiDigit(next)) {
+                flightNumber = buildFlightNumber(cs, prefixLen, c0, c1, c2, airline);
+            }
+        }
+        return (flightNumber == null && airline == null) ? Normalized.NONE : new Normalized(flightNumber, airline);
+    }
+
+    /** Prefix (mapped to its commercial code when 3 letters) followed by the leading digit run. */
+    private String buildFlightNumber(String cs, int prefixLen, int c0, int c1, int c2, @Nullable AirlineInfo airline) {
+        StringBuilder sb = new StringBuilder(8);
+        if (prefixLen == 3) {
+            if (airline != null) sb.append(AirlineDirectory.flightNumberPrefix(airline));
+            else sb.append((char) c0).append((char) c1).append((char) c2);
+        } else {
+            sb.append((char) c0).append((char) c1);
+        }
+        int seen = 0;
+        for (int i = 0; i < cs.length(); i++) {
+            char c = cs.charAt(i);
+            if (Character.isWhitespace(c)) continue;
+            if (seen++ < prefixLen) continue;
+            if (!isAsciiDigit(c)) break;
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static boolean isAsciiLetter(int c) {
+        return c >= 'A' && c <= 'Z';
+    }
+
+    private static boolean isAsciiDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+}
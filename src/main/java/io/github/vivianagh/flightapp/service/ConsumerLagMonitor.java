@@ -0,0 +1,106 @@
+package io.github.vivianagh.flightapp.service;
+
+import io.github.vivianagh.flightapp.config.LagMonitorProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ConsumerGroupListing;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publica {@code kafka.consumer.group.lag{group,topic}} (mensajes sin consumir) y
+ * {@code kafka.consumer.group.lag.partitions{group}} consultando offsets comprometidos y finales con
+ * el AdminClient. A diferencia de las métricas del cliente Kafka, ve también los grupos de otras
+ * instancias y los que están parados.
+ */
+@Slf4j
+@Service
+public class ConsumerLagMonitor {
+
+    private static final String EPHEMERAL_PREFIX = "live-stream-";
+
+    private record GroupTopic(String group, String topic) {}
+
+    private final LagMonitorProperties props;
+    private final AdminClient admin;
+    private final MultiGauge lagByTopic;
+
+    public ConsumerLagMonitor(LagMonitorProperties props, KafkaAdmin kafkaAdmin, MeterRegistry meters) {
+        this.props = props;
+        this.admin = props.enabled() ? AdminClient.create(kafkaAdmin.getConfigurationProperties()) : null;
+        this.lagByTopic = MultiGauge.builder("kafka.consumer.group.lag")
+                .description("Messages not yet consumed, per consumer group and topic")
+                .baseUnit("messages")
+                .register(meters);
+    }
+
+    @Scheduled(fixedDelayString = "${flight.metrics.lag.interval-ms:30000}")
+    public void refresh() {
+        if (admin == null) return;
+        try {
+            Map<GroupTopic, Long> lag = computeLag();
+            List<MultiGauge.Row<?>> rows = new ArrayList<>(lag.size());
+            lag.forEach((gt, value) -> rows.add(MultiGauge.Row.of(Tags.of("group", gt.group(), "topic", gt.topic()), value)));
+            lagByTopic.register(rows, true); // true: los grupos/topics que desaparecen dejan de exportarse
+        } catch (TimeoutException | ExecutionException ex) {
+            log.warn("⚠️ ConsumerLagMonitor: no se pudo leer el lag ({})", ex.getMessage());
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<GroupTopic, Long> computeLag() throws InterruptedException, ExecutionException, TimeoutException {
+        long timeout = props.timeoutMs();
+        Map<String, Map<TopicPartition, OffsetAndMetadata>> committed = new HashMap<>();
+        for (String group : groups()) {
+            committed.put(group, admin.listConsumerGroupOffsets(group)
+                    .partitionsToOffsetAndMetadata().get(timeout, TimeUnit.MILLISECONDS));
+        }
+
+        Map<TopicPartition, OffsetSpec> wanted = new HashMap<>();
+        committed.values().forEach(m -> m.keySet().forEach(tp -> wanted.put(tp, OffsetSpec.latest())));
+        if (wanted.isEmpty()) return Map.of();
+        Map<TopicPartition, ListOffsetsResultInfo> ends = admin.listOffsets(wanted).all().get(timeout, TimeUnit.MILLISECONDS);
+
+        Map<GroupTopic, Long> lag = new TreeMap<>((a, b) -> a.group().equals(b.group())
+                ? a.topic().compareTo(b.topic()) : a.group().compareTo(b.group()));
+        committed.forEach((group, offsets) -> offsets.forEach((tp, om) -> {
+            ListOffsetsResultInfo end = ends.get(tp);
+            if (om == null || end == null) return;
+            lag.merge(new GroupTopic(group, tp.topic()), Math.max(0, end.offset() - om.offset()), Long::sum);
+        }));
+        return lag;
+    }
+
+    private List<String> groups() throws InterruptedException, ExecutionException, TimeoutException {
+        if (!props.groups().isEmpty()) return props.groups();
+        List<String> groups = new ArrayList<>();
+        for (ConsumerGroupListing g : admin.listConsumerGroups().all().get(props.timeoutMs(), TimeUnit.MILLISECONDS)) {
+            if (!g.groupId().startsWith(EPHEMERAL_PREFIX)) groups.add(g.groupId());
+        }
+        return groups;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (admin != null) admin.close();
+    }
+}
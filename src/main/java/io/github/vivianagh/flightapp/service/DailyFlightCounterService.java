@@ -1,47 +1,107 @@
 package io.github.vivianagh.flightapp.service;
 
-import io.github.vivianagh.flightapp.model.entity.FlightsPerDayEntity;
 import io.github.vivianagh.flightapp.repository.FlightsPerDayRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Clock;
 import java.time.LocalDate;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Vuelos "clean" por día. Cada update suma en un {@link LongAdder} (sin boxing ni contención entre
+ * hilos) y cada {@code flight.daily-count.flush-interval-ms} se vuelca a {@code flights_per_day}
+ * solo lo contado desde el último flush, con un upsert aditivo. Un reinicio pierde como mucho
+ * un intervalo.
+ * <p>
+ * Al cambiar de día, un hilo que ya había leído {@code today} puede sumar todavía en el contador del día
+ * anterior. Por eso un día cerrado solo se suelta cuando dos flushes seguidos lo encuentran sin nada
+ * pendiente: la suma tardía entra en el segundo.
+ */
 @Component
 @Slf4j
 public class DailyFlightCounterService {
 
-    private final Map<LocalDate, Integer> dailyCount = new ConcurrentHashMap<>();
+    /** Adder of one day plus what has already been written; {@code flushed} and {@code drained} are only touched by the flush. */
+    private static final class DayCounter {
+        final LongAdder adder = new LongAdder();
+        long flushed;
+        boolean drained;   // día cerrado que el flush anterior ya encontró sin nada pendiente
+    }
+
+    /** Day in use and the instant it ends, so the hot path only compares two longs. */
+    private record Today(LocalDate date, long endsAtMillis, DayCounter counter) {}
 
+    private final Map<LocalDate, DayCounter> days = new ConcurrentHashMap<>();
     private final FlightsPerDayRepository repository;
+    private final Clock clock;
+    private volatile Today today;
 
+    @Autowired
     public DailyFlightCounterService(FlightsPerDayRepository repository) {
+        this(repository, Clock.systemDefaultZone());
+    }
+
+    DailyFlightCounterService(FlightsPerDayRepository repository, Clock clock) {
         this.repository = repository;
+        this.clock = clock;
+        this.today = rollTo(LocalDate.now(clock));
     }
 
     public void incrementDailyCount() {
-        LocalDate today = LocalDate.now();
-        dailyCount.merge(today, 1, Integer::sum);
-    }
-
-    @Scheduled(cron = "0 0 1 * * *") // cada día a la 1 a.m.
-    public void persistDailyCounts() {
-        dailyCount.forEach((date, count) -> {
-            repository.findById(date).ifPresentOrElse(
-                    existing -> {
-                        existing.setCount(existing.getCount() + count);
-                        repository.save(existing);
-                    },
-                    () -> {
-                        repository.save(FlightsPerDayEntity.builder().date(date).count(count).build());
-                    }
-            );
+        Today t = today;
+        if (clock.millis() >= t.endsAtMillis()) {
+            t = roll();
+        }
+        t.counter().adder.increment();
+    }
+
+    private synchronized Today roll() {
+        LocalDate now = LocalDate.now(clock);
+        if (!now.equals(today.date())) {
+            today = rollTo(now);
+        }
+        return today;
+    }
+
+    private Today rollTo(LocalDate date) {
+        long endsAt = date.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        return new Today(date, endsAt, days.computeIfAbsent(date, d -> new DayCounter()));
+    }
+
+    @Scheduled(fixedDelayString = "${flight.daily-count.flush-interval-ms:10000}")
+    public synchronized void persistDailyCounts() {
+        days.forEach((date, counter) -> {
+            long total = counter.adder.sum();
+            long delta = total - counter.flushed;
+            if (delta > 0) {
+                try {
+                    repository.addToCount(date, (int) delta);
+                    counter.flushed = total;
+                } catch (RuntimeException ex) {
+                    // se reintenta en el próximo flush con el delta acumulado
+                    log.error("⚠️ flights_per_day: no se pudo sumar {} a {} ({})", delta, date, ex.getMessage());
+                    return;
+                }
+            }
+            if (counter == today.counter() || counter.adder.sum() != counter.flushed) {
+                counter.drained = false;
+            } else if (counter.drained) {
+                days.remove(date, counter); // día cerrado, volcado y sin sumas tardías desde el flush anterior
+            } else {
+                counter.drained = true;
+            }
         });
-        dailyCount.clear();
-        log.info("✅ Persisted daily flight counts");
     }
 
+    @PreDestroy
+    public void flushOnShutdown() {
+        persistDailyCounts();
+        log.info("✅ Persisted daily flight counts");
+    }
 }
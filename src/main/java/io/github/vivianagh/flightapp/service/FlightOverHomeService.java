@@ -3,20 +3,17 @@ package io.github.vivianagh.flightapp.service;
 import io.github.vivianagh.flightapp.exception.ResourceNotFoundException;
 import io.github.vivianagh.flightapp.model.DTO.FlightOverHomeDTO;
 import io.github.vivianagh.flightapp.model.entity.FlightOverHomeEntity;
+import io.github.vivianagh.flightapp.model.entity.FlightRouteCacheEntity;
 import io.github.vivianagh.flightapp.repository.FlightOverHomeRepository;
 import io.github.vivianagh.flightapp.repository.FlightRouteCacheRepository;
+import io.github.vivianagh.flightapp.utils.SbsTimestamps;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.regex.Pattern;
-import org.springframework.lang.Nullable;
-
-import static java.util.Map.entry;
 
 @Service
 @RequiredArgsConstructor
@@ -25,39 +22,13 @@ public class FlightOverHomeService {
     private final FlightOverHomeRepository repository;
     private final AirlineLookupService lookupService;
     private final FlightRouteCacheRepository routeCacheRepo; // ⬅️ NUEVO
-
-    // ---------- Normalizador de callsign -> flightNumber (BAW123 -> BA123) ----------
-    private static final Pattern CALLSIGN_RX = Pattern.compile("^([A-Z]{2,3})(\\d+).*");
-
-    // Mapa ICAO->IATA (3 letras -> 2 letras) para prefijos de callsign
-    private static final Map<String, String> ICAO_TO_IATA = Map.ofEntries(
-            entry("BAW","BA"), entry("VIR","VS"), entry("EZY","U2"), entry("RYR","FR"),
-            entry("WZZ","W6"), entry("EXS","LS"), entry("TOM","BY"), entry("IBE","IB"),
-            entry("VLG","VY"), entry("AEA","UX"), entry("AFR","AF"), entry("KLM","KL"),
-            entry("DLH","LH"), entry("SWR","LX"), entry("AUA","OS"), entry("SAS","SK"),
-            entry("FIN","AY"), entry("LOT","LO"), entry("BEL","SN"),
-            entry("THY","TK"), entry("QTR","QR"), entry("UAE","EK"), entry("ETD","EY"),
-            entry("AAL","AA"), entry("UAL","UA"), entry("DAL","DL"), entry("ACA","AC"),
-            entry("JBU","B6"), entry("AMX","AM"), entry("LAN","LA"), entry("AVA","AV"),
-            entry("EWG","EW"),  // Eurowings: EWG45Z -> EW45
-            entry("HVN","VN"),  // Vietnam Airlines: HVN51 -> VN51
-            entry("BBC","BG"),
-            entry("CLX","CV"),  // Cargolux
-            entry("DHK","QY"),  // DHL Air UK
-            entry("GTI","5Y"),  // Atlas Air
-            entry("BTI","BT"),  // Air Baltic
-            entry("BOO","B0")
-    );
+    private final CallsignNormalizer callsignNormalizer;
 
     public List<FlightOverHomeDTO> getAllFlightsOverHome() {
         // Trae 40 “completables” más recientes y después mapeá a 20
-        var rows = repository.findLatestCompleteLike(40);
+        var rows = latestCandidates(40);
         if (rows.isEmpty()) {
-            // fallback a puro “últimos” si no hay suficientes completables
-            rows = repository.findLatest(40);
-            if (rows.isEmpty()) {
-                throw new ResourceNotFoundException("No se encontraron vuelos sobre casa.");
-            }
+            throw new ResourceNotFoundException("No se encontraron vuelos sobre casa.");
         }
 
         // Mapear/enriquecer y quedarte con los primeros 20
@@ -68,6 +39,24 @@ public class FlightOverHomeService {
                 .toList();
     }
 
+    /**
+     * Últimas {@code limit} filas "completables" (con O/D propia o en flight_route_cache por icao24);
+     * si no hay ninguna, las últimas a secas. Vacía si la tabla lo está.
+     */
+    public List<FlightOverHomeEntity> latestCandidates(int limit) {
+        var rows = repository.findLatestCompleteLike(limit);
+        // fallback a puro “últimos” si no hay suficientes completables
+        return rows.isEmpty() ? repository.findLatest(limit) : rows;
+    }
+
+    /** Si la muestra aún no tiene origen ni destino, los toma de flight_route_cache (sin pegarle a la API). */
+    public FlightOverHomeDTO withCachedRoute(FlightOverHomeDTO dto) {
+        if (dto.getOrigin() != null || dto.getDestination() != null) return dto;
+        var rc = cachedRoute(dto.getCallsign(), dto.getIcao24());
+        if (rc == null) return dto;
+        return dto.toBuilder().origin(rc.getOrigin()).destination(rc.getDestination()).build();
+    }
+
     private FlightOverHomeDTO mapAndEnrich(FlightOverHomeEntity e) {
         String callsign = trimOrNull(e.getCallsign());
         String icao24   = trimOrNull(e.getIcao24());
@@ -76,38 +65,13 @@ public class FlightOverHomeService {
         String airline = Optional.ofNullable(lookupService.getAirlineName(callsign, icao24))
                 .filter(s -> !s.isBlank()).orElse("Unknown");
 
-        // 2) Origen/destino: primero lo que ya tenga la fila
-        String origin = e.getOrigin();
-        String destination = e.getDestination();
-
-        // 3) Si aún no hay, consulto cache persistente (sin pegarle a la API)
-        if (origin == null && destination == null) {
-            // 3.a) por flightNumber (callsign normalizado)
-            String flightNumber = normalizeFlightNumber(callsign);
-            if (flightNumber != null) {
-                var rc = routeCacheRepo.findById(flightNumber).orElse(null);
-                if (rc != null) {
-                    origin = rc.getOrigin();
-                    destination = rc.getDestination();
-                }
-            }
-
-            // 3.b) por icao24 (último registro)
-            if (origin == null && destination == null && icao24 != null) {
-                var rc2 = routeCacheRepo.findFirstByIcao24OrderByUpdatedAtDesc(icao24.toUpperCase()).orElse(null);
-                if (rc2 != null) {
-                    origin = rc2.getOrigin();
-                    destination = rc2.getDestination();
-                }
-            }
-        }
-
-        return FlightOverHomeDTO.builder()
+        // 2) Origen/destino: primero lo que ya tenga la fila; 3) si no, la cache persistente
+        return withCachedRoute(FlightOverHomeDTO.builder()
                 .icao24(icao24)
                 .callsign(callsign)
                 .airline(airline)
-                .origin(origin)
-                .destination(destination)
+                .origin(e.getOrigin())
+                .destination(e.getDestination())
                 .altitude(e.getAltitude())
                 .speed(e.getSpeed())          // o null si tu entity no lo tiene
                 .latitude(e.getLatitude())
@@ -115,7 +79,22 @@ public class FlightOverHomeService {
                 .hasAlert(false)
                 .hasEmergency(false)
                 .timestamp(toIsoTimestamp(e))
-                .build();
+                .zoneId(e.getZoneId())
+                .build());
+    }
+
+    private FlightRouteCacheEntity cachedRoute(String callsign, String icao24) {
+        // 3.a) por flightNumber (callsign normalizado)
+        String flightNumber = callsignNormalizer.flightNumber(callsign);
+        if (flightNumber != null) {
+            var rc = routeCacheRepo.findById(flightNumber).orElse(null);
+            if (rc != null && (rc.getOrigin() != null || rc.getDestination() != null)) return rc;
+        }
+        // 3.b) por icao24 (último registro)
+        if (icao24 != null) {
+            return routeCacheRepo.findFirstByIcao24OrderByUpdatedAtDesc(icao24.toUpperCase()).orElse(null);
+        }
+        return null;
     }
 
 
@@ -127,35 +106,14 @@ public class FlightOverHomeService {
         return t.isEmpty() ? null : t;
     }
 
-    @Nullable
-    private static String normalizeFlightNumber(@Nullable String callsign) {
-        if (callsign == null || callsign.isBlank()) return null;
-        String cs = callsign.trim().toUpperCase().replaceAll("\\s+","");
-        var m = CALLSIGN_RX.matcher(cs);
-        if (!m.matches()) return null;
-        String prefix = m.group(1);
-        String digits = m.group(2);
-        if (prefix.length() == 3) prefix = ICAO_TO_IATA.getOrDefault(prefix, prefix);
-        return prefix + digits;
-    }
-
     private String toIsoTimestamp(FlightOverHomeEntity e) {
+        if (e.getLoggedAt() != null) return e.getLoggedAt().toString();
+
+        // filas que el backfill de V4 no pudo parsear
         var dateStr = e.getLoggedDate();
         var timeStr = e.getLoggedTime();
-
-        List<String> datePatterns = List.of("yyyy-MM-dd", "yyyy/MM/dd");
-        List<String> timePatterns = List.of("HH:mm:ss.SSS", "HH:mm:ss");
-
-        for (var dp : datePatterns) {
-            for (var tp : timePatterns) {
-                try {
-                    var date = java.time.LocalDate.parse(dateStr, java.time.format.DateTimeFormatter.ofPattern(dp));
-                    var time = java.time.LocalTime.parse(timeStr, java.time.format.DateTimeFormatter.ofPattern(tp));
-                    var zdt  = java.time.ZonedDateTime.of(date, time, java.time.ZoneId.of("Europe/London"));
-                    return zdt.toInstant().toString();
-                } catch (Exception ignore) {}
-            }
-        }
+        Instant parsed = SbsTimestamps.parseInstant(dateStr, timeStr);
+        if (parsed != null) return parsed.toString();
         return (dateStr != null ? dateStr : "") + "T" + (timeStr != null ? timeStr : "");
     }
 
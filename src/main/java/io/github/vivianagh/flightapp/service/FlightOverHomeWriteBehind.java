@@ -0,0 +1,283 @@
+package io.github.vivianagh.flightapp.service;
+
+import io.github.vivianagh.flightapp.config.OverHomeWriteBehindProperties;
+import io.github.vivianagh.flightapp.exception.RateLimitException;
+import io.github.vivianagh.flightapp.model.entity.FlightOverHomeEntity;
+import io.github.vivianagh.flightapp.repository.FlightOverHomeJdbcRepository;
+import io.github.vivianagh.flightapp.repository.FlightOverHomeJdbcRepository.RouteUpdate;
+import io.github.vivianagh.flightapp.utils.PipelineHeaders;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind para {@code flight_over_home} ({@code flight.over-home.write-behind.enabled=true}).
+ * <p>
+ * El listener solo deja la fila en un buffer coalescido por {@code (icao24, logged_at)};
+ * un hilo propio la escribe con un único batch {@code INSERT ... ON CONFLICT DO UPDATE} cada
+ * {@code flush-interval-ms} o al llegar a {@code max-batch}. Las rutas se resuelven después del insert
+ * en un pool aparte y sus {@code UPDATE} viajan en el siguiente flush. Si el pool de rutas está lleno,
+ * la fila queda sin ruta y la completa el {@code BackfillRouteJob}.
+ */
+@Slf4j
+@Service
+public class FlightOverHomeWriteBehind {
+
+    private record Key(String icao24, Instant loggedAt) {}
+
+    /** {@code receivedAt}: socket read time of the first sample coalesced into the row. */
+    private record Pending(FlightOverHomeEntity row, Instant when, long receivedAt) {}
+
+    private final FlightOverHomeJdbcRepository jdbc;
+    private final RouteResolverService routeResolver;
+    private final OverHomeWriteBehindProperties props;
+    private final LatestFlightsReadModel latestFlights;
+    private final PipelineLatency latency;
+
+    private final ConcurrentHashMap<Key, Pending> pending = new ConcurrentHashMap<>();
+    private final Queue<RouteUpdate> routeUpdates = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ScheduledExecutorService flusher;
+    private final ThreadPoolExecutor routePool;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder routesSkipped = new LongAdder();
+    private long droppedReported; // solo el hilo del flush
+    private final Timer batchUpsertTimer;
+    private final Timer routeUpdateTimer;
+
+    @Autowired
+    public FlightOverHomeWriteBehind(FlightOverHomeJdbcRepository jdbc,
+                                     RouteResolverService routeResolver,
+                                     OverHomeWriteBehindProperties props,
+                                     LatestFlightsReadModel latestFlights,
+                                     PipelineLatency latency,
+                                     MeterRegistry meters) {
+        this(jdbc, routeResolver, props, latestFlights, latency, meters,
+                props.enabled() ? Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "over-home-flush")) : null);
+    }
+
+    /** {@code flusher} is null when disabled; tests pass one that never runs and call {@link #flush()} themselves. */
+    FlightOverHomeWriteBehind(FlightOverHomeJdbcRepository jdbc,
+                              RouteResolverService routeResolver,
+                              OverHomeWriteBehindProperties props,
+                              LatestFlightsReadModel latestFlights,
+                              PipelineLatency latency,
+                              MeterRegistry meters,
+                              ScheduledExecutorService flusher) {
+        this.jdbc = jdbc;
+        this.routeResolver = routeResolver;
+        this.props = props;
+        this.latestFlights = latestFlights;
+        this.latency = latency;
+        this.batchUpsertTimer = OverHomeDbTimers.timer(meters, "batch_upsert");
+        this.routeUpdateTimer = OverHomeDbTimers.timer(meters, "batch_route");
+        Gauge.builder("flight.overhome.pending", pending, ConcurrentHashMap::size)
+                .description("Rows buffered by the write-behind, not yet upserted").register(meters);
+        FunctionCounter.builder("flight.overhome.written", written, LongAdder::sum)
+                .description("Rows upserted by the write-behind").register(meters);
+        FunctionCounter.builder("flight.overhome.dropped", dropped, LongAdder::sum)
+                .description("Rows dropped because the write-behind buffer was full").register(meters);
+        this.flusher = flusher;
+        if (flusher == null) {
+            this.routePool = null;
+            return;
+        }
+
+        this.flusher.scheduleWithFixedDelay(this::flushSafely, props.flushIntervalMs(), props.flushIntervalMs(), TimeUnit.MILLISECONDS);
+
+        AtomicInteger n = new AtomicInteger();
+        this.routePool = new ThreadPoolExecutor(props.routeThreads(), props.routeThreads(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(props.routeQueueCapacity()),
+                r -> daemon(r, "over-home-route-" + n.incrementAndGet()),
+                (task, pool) -> routesSkipped.increment());
+        log.info("🗃️ flight_over_home write-behind: flush cada {} ms o {} filas, {} hilo(s) de rutas",
+                props.flushIntervalMs(), props.maxBatch(), props.routeThreads());
+    }
+
+    public boolean isEnabled() {
+        return props.enabled();
+    }
+
+    /** Buffers the row; a later sample for the same key only fills the fields that are still missing. */
+    public void submit(FlightOverHomeEntity row, Instant when) {
+        submit(row, when, PipelineHeaders.ABSENT);
+    }
+
+    /**
+     * @param receivedAt socket read time of the sample, for {@code flight.pipeline.age{stage=db}}.
+     * With {@code max-pending} rows buffered (the DB is not keeping up) a new key is dropped; a sample for a
+     * key already buffered is still merged.
+     */
+    public void submit(FlightOverHomeEntity row, Instant when, long receivedAt) {
+        if (flusher == null) throw new IllegalStateException("flight.over-home.write-behind.enabled=false");
+        Key key = new Key(row.getIcao24(), row.getLoggedAt());
+        if (pending.size() >= props.maxPending() && !pending.containsKey(key)) {
+            dropped.increment();
+            return;
+        }
+        pending.merge(key, new Pending(row, when, receivedAt), (old, neu) -> {
+            fillMissing(old.row(), neu.row());
+            return old;
+        });
+        if (pending.size() >= props.maxBatch() && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushSafely);
+        }
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            log.error("⚠️ flight_over_home write-behind: flush falló", ex);
+        }
+    }
+
+    /** Runs on the flusher thread only (or at shutdown, once it has stopped). */
+    void flush() {
+        flushRequested.set(false);
+
+        List<Pending> batch = new ArrayList<>(Math.min(pending.size(), props.maxBatch()));
+        for (Key key : pending.keySet()) {
+            Pending p = pending.remove(key);
+            if (p == null) continue;
+            batch.add(p);
+            if (batch.size() >= props.maxBatch()) {
+                write(batch);
+                batch = new ArrayList<>(props.maxBatch());
+            }
+        }
+        write(batch);
+        applyRouteUpdates();
+
+        long total = dropped.sum();
+        if (total > droppedReported) {
+            log.warn("⚠️ flight_over_home write-behind: {} filas descartadas desde el último flush (buffer lleno)",
+                    total - droppedReported);
+            droppedReported = total;
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        if (batch.isEmpty()) return;
+        List<FlightOverHomeEntity> rows = new ArrayList<>(batch.size());
+        for (Pending p : batch) rows.add(p.row());
+
+        try {
+            batchUpsertTimer.record(() -> jdbc.upsertBatch(rows));
+        } catch (RuntimeException ex) {
+            log.error("⚠️ flight_over_home write-behind: batch de {} filas falló, se reintenta ({})", rows.size(), ex.getMessage());
+            requeue(batch);
+            return;
+        }
+        written.add(rows.size());
+        for (Pending p : batch) latency.age(PipelineLatency.STAGE_DB, p.receivedAt());
+        log.debug("💾 flight_over_home: {} filas en un batch (total={}, pendientes={})", rows.size(), written.sum(), pending.size());
+
+        for (Pending p : batch) {
+            if (p.row().getCallsign() != null) {
+                routePool.execute(() -> resolveRoute(p));
+            }
+        }
+    }
+
+    private void requeue(List<Pending> batch) {
+        for (Pending p : batch) {
+            if (pending.size() >= props.maxPending()) {
+                dropped.increment();
+                continue;
+            }
+            Key key = new Key(p.row().getIcao24(), p.row().getLoggedAt());
+            pending.merge(key, p, (newer, old) -> {
+                fillMissing(newer.row(), old.row());
+                return newer;
+            });
+        }
+    }
+
+    private void resolveRoute(Pending p) {
+        FlightOverHomeEntity row = p.row();
+        try {
+            var route = routeResolver.resolve(row.getCallsign(), row.getIcao24(), p.when());
+            if (route != null && (route.origin() != null || route.destination() != null)) {
+                routeUpdates.add(new RouteUpdate(row.getIcao24(), row.getLoggedAt(),
+                        route.origin(), route.destination()));
+                latestFlights.applyRoute(row.getIcao24(), row.getLoggedAt(), route.origin(), route.destination());
+            }
+        } catch (RateLimitException ex) {
+            routesSkipped.increment();
+            log.debug("⏳ Ruta pendiente (rate limit) para {}; la completará el backfill", row.getCallsign());
+        } catch (RuntimeException ex) {
+            routesSkipped.increment();
+            log.warn("⚠️ No se pudo resolver la ruta de {} ({})", row.getCallsign(), ex.getMessage());
+        }
+    }
+
+    private void applyRouteUpdates() {
+        List<RouteUpdate> updates = new ArrayList<>();
+        for (RouteUpdate u; (u = routeUpdates.poll()) != null; ) updates.add(u);
+        if (updates.isEmpty()) return;
+        try {
+            routeUpdateTimer.record(() -> jdbc.updateRoutes(updates));
+            log.info("🏷️ routes set for {} flight_over_home row(s)", updates.size());
+        } catch (RuntimeException ex) {
+            log.error("⚠️ No se pudieron guardar {} rutas ({}); las completará el backfill", updates.size(), ex.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (flusher == null) return;
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flushSafely();
+        routePool.shutdown();
+        if (routePool.awaitTermination(5, TimeUnit.SECONDS)) {
+            applyRouteUpdates();
+        }
+        log.info("🗃️ flight_over_home write-behind detenido (written={}, dropped={}, routesSkipped={})",
+                written.sum(), dropped.sum(), routesSkipped.sum());
+    }
+
+    /** Same rule as the row-by-row path: keep what we have, fill what is missing. */
+    private static void fillMissing(FlightOverHomeEntity into, FlightOverHomeEntity from) {
+        if (into.getCallsign()  == null) into.setCallsign(from.getCallsign());
+        if (into.getAirline()   == null) into.setAirline(from.getAirline());
+        if (into.getLatitude()  == null) into.setLatitude(from.getLatitude());
+        if (into.getLongitude() == null) into.setLongitude(from.getLongitude());
+        if (into.getAltitude()  == null) into.setAltitude(from.getAltitude());
+        if (into.getSpeed()     == null) into.setSpeed(from.getSpeed());
+        if (into.getZoneId()    == null) into.setZoneId(from.getZoneId());
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+        return t;
+    }
+}
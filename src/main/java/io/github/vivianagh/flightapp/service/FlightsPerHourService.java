@@ -26,6 +26,7 @@ import java.util.stream.IntStream;
 public class FlightsPerHourService {
 
     private final FlightsPerHourRepository repository;
+    private final HourlyUniqueAggregator aggregator;
 
     /** Cuenta el vuelo solo si (date,hour,icao24) no se vio antes. */
     @Transactional
@@ -46,6 +47,8 @@ public class FlightsPerHourService {
 
         Map<Integer, Integer> map = rows.stream()
                 .collect(Collectors.toMap(e -> e.getId().getHour(), FlightsPerHourEntity::getCount));
+        // horas abiertas: el agregador puede ir por delante del último volcado
+        aggregator.liveCounts(date).forEach((h, c) -> map.merge(h, c, Math::max));
 
         return IntStream.range(0, 24)
                 .mapToObj(h -> ChartDataDTO.builder()
@@ -0,0 +1,183 @@
+package io.github.vivianagh.flightapp.service;
+
+import io.github.vivianagh.flightapp.config.PerHourProperties;
+import io.github.vivianagh.flightapp.repository.FlightsPerHourJdbcRepository;
+import io.github.vivianagh.flightapp.repository.FlightsPerHourJdbcRepository.HourCount;
+import io.github.vivianagh.flightapp.repository.FlightsPerHourJdbcRepository.HourSketch;
+import io.github.vivianagh.flightapp.utils.HyperLogLog;
+import io.github.vivianagh.flightapp.utils.Icao24;
+import io.github.vivianagh.flightapp.utils.LogHelper;
+import io.github.vivianagh.flightapp.utils.PagedBitSet;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aviones distintos por hora en memoria ({@code flight.per-hour.mode=exact|hll}), en lugar del
+ * dedupe fila a fila en {@code flights_per_hour_seen}.
+ * <p>
+ * {@code exact} marca la dirección ICAO en un bitset paginado sobre los 2^24 valores posibles;
+ * {@code hll} usa un HyperLogLog de tamaño fijo. Las horas abiertas se vuelcan juntas en un batch
+ * cada {@code flush-interval-ms} (upsert con {@code GREATEST}, idempotente) y se liberan al cerrarse,
+ * una hora después de terminar para admitir datos atrasados.
+ * <p>
+ * Junto al count se guarda el conjunto de la hora en {@code flights_per_hour_sketch}. Una hora que se
+ * retoma (tras un reinicio, o un dato muy atrasado de una hora ya cerrada) se une con ese conjunto en
+ * su primer flush antes de escribir nada, así el count es el de la unión y no el mayor de dos parciales.
+ * Toda la E/S va en el hilo del flush; el consumer solo marca bits.
+ */
+@Slf4j
+@Service
+public class HourlyUniqueAggregator {
+
+    /** Sketches de días anteriores a este margen ya no se van a retomar. */
+    private static final int SKETCH_RETENTION_DAYS = 2;
+
+    private abstract static class HourCounter {
+        boolean merged; // ya unido con el sketch guardado (bajo el lock del counter)
+
+        abstract void add(int icao);
+        abstract int count();
+        abstract byte[] toBytes();
+        abstract void merge(byte[] stored);
+    }
+
+    private final PerHourProperties props;
+    private final FlightsPerHourJdbcRepository jdbc;
+    private final ZoneId zone;
+    private final String kind;
+    private final Map<LocalDateTime, HourCounter> hours = new ConcurrentHashMap<>();
+
+    public HourlyUniqueAggregator(PerHourProperties props, FlightsPerHourJdbcRepository jdbc) {
+        this.props = props;
+        this.jdbc = jdbc;
+        this.zone = ZoneId.of(props.zone());
+        this.kind = PerHourProperties.MODE_HLL.equalsIgnoreCase(props.mode())
+                ? PerHourProperties.MODE_HLL : PerHourProperties.MODE_EXACT;
+        if (props.inMemory()) {
+            log.info("⏱️ Vuelos por hora en memoria (mode={}, flush cada {} ms)", props.mode(), props.flushIntervalMs());
+        }
+    }
+
+    public boolean isEnabled() {
+        return props.inMemory();
+    }
+
+    public void add(LocalDate date, int hour, String icao24) {
+        int icao = Icao24.parse(icao24);
+        if (icao == Icao24.INVALID) {
+            LogHelper.logSkipped("hourly uniques: invalid icao24", icao24);
+            return;
+        }
+        HourCounter counter = hours.computeIfAbsent(date.atTime(hour, 0), k -> newCounter());
+        synchronized (counter) {
+            counter.add(icao);
+        }
+    }
+
+    /** Counts of the hours of {@code date} that are still in memory (not yet closed). */
+    public Map<Integer, Integer> liveCounts(LocalDate date) {
+        Map<Integer, Integer> out = new HashMap<>();
+        hours.forEach((key, counter) -> {
+            if (key.toLocalDate().equals(date)) out.put(key.getHour(), countOf(counter));
+        });
+        return out;
+    }
+
+    @Scheduled(fixedDelayString = "${flight.per-hour.flush-interval-ms:60000}")
+    public void flush() {
+        LocalDateTime openFrom = LocalDateTime.now(zone).truncatedTo(ChronoUnit.HOURS).minusHours(1);
+        flush(openFrom);
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        flush(LocalDateTime.MAX);
+    }
+
+    /**
+     * One batch for every hour in memory; hours before {@code openFrom} are written for the last time and
+     * dropped. An hour whose stored sketch could not be merged yet only gets its count written (GREATEST
+     * keeps that safe) and stays in memory until the merge works.
+     */
+    void flush(LocalDateTime openFrom) {
+        if (!isEnabled() || hours.isEmpty()) return;
+
+        List<HourCount> rows = new ArrayList<>(hours.size());
+        List<HourSketch> sketches = new ArrayList<>(hours.size());
+        List<LocalDateTime> closed = new ArrayList<>();
+        hours.forEach((key, counter) -> {
+            synchronized (counter) {
+                if (!counter.merged) mergeStored(key, counter);
+                rows.add(new HourCount(key.toLocalDate(), key.getHour(), counter.count()));
+                if (!counter.merged) return;
+                sketches.add(new HourSketch(key.toLocalDate(), key.getHour(), kind, counter.toBytes()));
+            }
+            if (key.isBefore(openFrom)) closed.add(key);
+        });
+
+        try {
+            jdbc.upsertMax(rows);
+            jdbc.upsertSketches(sketches);
+            if (!closed.isEmpty()) {
+                jdbc.deleteSketchesBefore(LocalDate.now(zone).minusDays(SKETCH_RETENTION_DAYS));
+            }
+        } catch (RuntimeException ex) {
+            log.error("⚠️ flights_per_hour: no se pudieron volcar {} hora(s); se reintenta en el próximo flush ({})",
+                    rows.size(), ex.getMessage());
+            return;
+        }
+        closed.forEach(hours::remove);
+        log.debug("⏱️ flights_per_hour: {} hora(s) volcadas, {} cerradas", rows.size(), closed.size());
+    }
+
+    /** Une el counter con el sketch guardado de su hora (si lo hay); si la BD falla, se reintenta en el próximo flush. */
+    private void mergeStored(LocalDateTime hour, HourCounter counter) {
+        try {
+            jdbc.findSketch(hour.toLocalDate(), hour.getHour(), kind).ifPresent(counter::merge);
+            counter.merged = true;
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            // sketch de otra precisión o corrupto: no se puede unir, se sobrescribe
+            log.warn("⚠️ flights_per_hour_sketch {}: ignorado ({})", hour, ex.getMessage());
+            counter.merged = true;
+        } catch (RuntimeException ex) {
+            log.warn("⚠️ flights_per_hour_sketch {}: no se pudo leer ({})", hour, ex.getMessage());
+        }
+    }
+
+    private HourCounter newCounter() {
+        if (PerHourProperties.MODE_HLL.equals(kind)) {
+            HyperLogLog hll = new HyperLogLog(props.hllPrecision());
+            return new HourCounter() {
+                void add(int icao) { hll.add(icao); }
+                int count() { return (int) hll.estimate(); }
+                byte[] toBytes() { return hll.toBytes(); }
+                void merge(byte[] stored) { hll.merge(stored); }
+            };
+        }
+        PagedBitSet seen = new PagedBitSet(1 << 24);
+        return new HourCounter() {
+            void add(int icao) { seen.add(icao); }
+            int count() { return seen.cardinality(); }
+            byte[] toBytes() { return seen.toBytes(); }
+            void merge(byte[] stored) { seen.addAll(stored); }
+        };
+    }
+
+    private static int countOf(HourCounter counter) {
+        synchronized (counter) {
+            return counter.count();
+        }
+    }
+}
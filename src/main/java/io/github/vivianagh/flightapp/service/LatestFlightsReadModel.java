@@ -0,0 +1,239 @@
+package io.github.vivianagh.flightapp.service;
+
+import io.github.vivianagh.flightapp.exception.ResourceNotFoundException;
+import io.github.vivianagh.flightapp.model.DTO.FlightOverHomeDTO;
+import io.github.vivianagh.flightapp.model.entity.FlightOverHomeEntity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Read model de {@code GET /api/v1/flights-over-home}: las últimas muestras sobre casa ya enriquecidas
+ * (aerolínea, ruta, timestamp ISO) en un ring buffer en memoria.
+ * <p>
+ * Lo alimenta {@code FlightOverHomeConsumer} con cada muestra y las rutas llegan después con
+ * {@link #applyRoute}; el endpoint solo lee la última foto inmutable y su ETag, así que el polling del
+ * dashboard no toca Postgres. Al arrancar se siembra una vez desde la BD.
+ * <p>
+ * Mantiene lo que devolvía {@code FlightOverHomeService.getAllFlightsOverHome}:
+ * <ul>
+ *   <li>Guarda el doble de candidatos de los que publica (40 → 20 por defecto) y publica solo los
+ *       "completables", con origen o destino; si no hay ninguno, los últimos a secas
+ *       (igual que {@code findLatestCompleteLike} con su fallback a {@code findLatest}).</li>
+ *   <li>Una muestra nueva sin ruta se completa desde {@code flight_route_cache} (por flight number y
+ *       luego por icao24), una sola vez al entrar y no en cada poll.</li>
+ * </ul>
+ * Lo que cambia respecto a la consulta: el filtro se aplica sobre los últimos candidatos en memoria,
+ * así que un completable más antiguo que esos 40 ya no se muestra.
+ */
+@Slf4j
+@Component
+public class LatestFlightsReadModel {
+
+    /** Published view: immutable list plus the ETag that identifies it. */
+    public record Snapshot(List<FlightOverHomeDTO> flights, String etag) {}
+
+    /** Una muestra: icao24 + instante logged (Londres ya parseado), igual en vivo y sembrada. */
+    private record Key(String icao24, Instant loggedAt) {
+        static Key of(String icao24, Instant loggedAt) {
+            return new Key(icao24 == null ? null : icao24.trim().toUpperCase(Locale.ROOT), loggedAt);
+        }
+    }
+
+    private record Entry(Key key, FlightOverHomeDTO dto) {}
+
+    private record Published(long version, Snapshot snapshot) {}
+
+    private final FlightOverHomeService dbService;
+    private final AirlineLookupService airlineLookup;
+    private final int size;                // vuelos publicados
+    private final int capacity;            // candidatos en memoria
+    private final Entry[] ring;
+    private final String bootId = Long.toHexString(System.currentTimeMillis());
+
+    private int head;                      // próxima posición a escribir
+    private volatile long version;         // cambia con cada escritura (siempre bajo el lock)
+    private volatile Published published;  // se recalcula en la primera lectura tras un cambio
+
+    public LatestFlightsReadModel(FlightOverHomeService dbService,
+                                  AirlineLookupService airlineLookup,
+                                  @Value("${flight.over-home.latest-size:20}") int size) {
+        this.dbService = dbService;
+        this.airlineLookup = airlineLookup;
+        this.size = Math.max(1, size);
+        this.capacity = this.size * 2;
+        this.ring = new Entry[this.capacity];
+        this.published = new Published(0, new Snapshot(List.of(), etag(0)));
+    }
+
+    /** Adds (or completes, for the same icao24/loggedAt) one sample as it is written to flight_over_home. */
+    public void record(FlightOverHomeEntity row, Instant when) {
+        Instant at = row.getLoggedAt() != null ? row.getLoggedAt() : when;
+        Key key = Key.of(row.getIcao24(), at);
+        FlightOverHomeDTO fresh = null;
+        if (row.getOrigin() == null && row.getDestination() == null && !contains(key)) {
+            // fuera del lock: puede consultar flight_route_cache
+            fresh = withCachedRoute(toDto(row, at));
+        }
+        synchronized (this) {
+            int i = indexOf(key);
+            if (i >= 0) {
+                ring[i] = new Entry(key, merge(ring[i].dto(), row));
+            } else {
+                insert(key, fresh != null ? fresh : toDto(row, at));
+            }
+            version++;
+        }
+    }
+
+    /** Sets the route on the buffered sample, if it is still among the latest ones. */
+    public void applyRoute(String icao24, Instant loggedAt,
+                           @Nullable String origin, @Nullable String destination) {
+        if (origin == null && destination == null) return;
+        Key key = Key.of(icao24, loggedAt);
+        synchronized (this) {
+            int i = indexOf(key);
+            if (i < 0) return;
+            FlightOverHomeDTO dto = ring[i].dto();
+            ring[i] = new Entry(key, dto.toBuilder()
+                    .origin(origin != null ? origin : dto.getOrigin())
+                    .destination(destination != null ? destination : dto.getDestination())
+                    .build());
+            version++;
+        }
+    }
+
+    /** Latest flights, newest first; throws if nothing has been seen yet (same contract as the DB query). */
+    public Snapshot latest() {
+        Published p = published;
+        Snapshot s = p.version() == version ? p.snapshot() : rebuild();
+        if (s.flights().isEmpty()) throw new ResourceNotFoundException("No se encontraron vuelos sobre casa.");
+        return s;
+    }
+
+    /** Seeds the buffer from Postgres once, so the endpoint has data right after a restart. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedFromDatabase() {
+        try {
+            List<FlightOverHomeEntity> rows = dbService.latestCandidates(capacity); // más reciente primero
+            if (rows.isEmpty()) {
+                log.info("📋 LatestFlightsReadModel vacío: todavía no hay vuelos sobre casa");
+                return;
+            }
+            List<Entry> seeds = new ArrayList<>(rows.size());
+            for (FlightOverHomeEntity row : rows) {
+                if (row.getLoggedAt() == null) continue; // V4 no la pudo parsear: no hay instante que publicar
+                seeds.add(new Entry(Key.of(row.getIcao24(), row.getLoggedAt()),
+                        withCachedRoute(toDto(row, row.getLoggedAt()))));
+            }
+            synchronized (this) {
+                if (version != 0) return; // el consumer ya escribió algo más nuevo
+                for (int i = seeds.size() - 1; i >= 0; i--) {
+                    insert(seeds.get(i).key(), seeds.get(i).dto());
+                }
+                version++;
+            }
+            log.info("📋 LatestFlightsReadModel sembrado con {} muestra(s)", seeds.size());
+        } catch (RuntimeException ex) {
+            log.warn("⚠️ LatestFlightsReadModel: no se pudo sembrar desde la BD ({})", ex.getMessage());
+        }
+    }
+
+    private synchronized Snapshot rebuild() {
+        if (published.version() == version) return published.snapshot(); // otro hilo ya la recalculó
+        List<FlightOverHomeDTO> candidates = new ArrayList<>(capacity);
+        for (Entry e : ring) {
+            if (e != null) candidates.add(e.dto());
+        }
+        candidates.sort(Comparator.comparing(FlightOverHomeDTO::getTimestamp,
+                Comparator.nullsLast(Comparator.<String>naturalOrder())).reversed());
+        // primero los completables; si no hay ninguno, los últimos a secas
+        List<FlightOverHomeDTO> flights = candidates.stream()
+                .filter(d -> d.getOrigin() != null || d.getDestination() != null)
+                .limit(size)
+                .toList();
+        if (flights.isEmpty()) flights = candidates.stream().limit(size).toList();
+        Snapshot s = new Snapshot(flights, etag(version));
+        published = new Published(version, s);
+        return s;
+    }
+
+    private void insert(Key key, FlightOverHomeDTO dto) {
+        ring[head] = new Entry(key, dto);
+        head = (head + 1) % capacity;
+    }
+
+    private synchronized boolean contains(Key key) {
+        return indexOf(key) >= 0;
+    }
+
+    private FlightOverHomeDTO withCachedRoute(FlightOverHomeDTO dto) {
+        try {
+            return dbService.withCachedRoute(dto);
+        } catch (RuntimeException ex) {
+            log.debug("flight_route_cache no disponible para {} ({})", dto.getIcao24(), ex.getMessage());
+            return dto;
+        }
+    }
+
+    private int indexOf(Key key) {
+        for (int i = 0; i < capacity; i++) {
+            Entry e = ring[i];
+            if (e != null && e.key().equals(key)) return i;
+        }
+        return -1;
+    }
+
+    private String etag(long v) {
+        return "\"" + bootId + "-" + v + "\"";
+    }
+
+    private FlightOverHomeDTO toDto(FlightOverHomeEntity row, Instant when) {
+        String callsign = trimOrNull(row.getCallsign());
+        return FlightOverHomeDTO.builder()
+                .icao24(trimOrNull(row.getIcao24()))
+                .callsign(callsign)
+                .airline(row.getAirline() != null ? row.getAirline() : airlineLookup.getAirlineName(callsign, row.getIcao24()))
+                .origin(row.getOrigin())
+                .destination(row.getDestination())
+                .altitude(row.getAltitude())
+                .speed(row.getSpeed())
+                .latitude(row.getLatitude())
+                .longitude(row.getLongitude())
+                .hasAlert(false)
+                .hasEmergency(false)
+                .timestamp(when.toString())
+                .zoneId(row.getZoneId())
+                .build();
+    }
+
+    /** Keeps what the buffered DTO already has and fills the rest from the newer sample. */
+    private FlightOverHomeDTO merge(FlightOverHomeDTO dto, FlightOverHomeEntity row) {
+        String callsign = dto.getCallsign() != null ? dto.getCallsign() : trimOrNull(row.getCallsign());
+        return dto.toBuilder()
+                .callsign(callsign)
+                .airline(!"Unknown".equals(dto.getAirline()) ? dto.getAirline()
+                        : airlineLookup.getAirlineName(callsign, row.getIcao24()))
+                .altitude(dto.getAltitude() != null ? dto.getAltitude() : row.getAltitude())
+                .speed(dto.getSpeed() != null ? dto.getSpeed() : row.getSpeed())
+                .latitude(dto.getLatitude() != null ? dto.getLatitude() : row.getLatitude())
+                .longitude(dto.getLongitude() != null ? dto.getLongitude() : row.getLongitude())
+                .zoneId(dto.getZoneId() != null ? dto.getZoneId() : row.getZoneId())
+                .build();
+    }
+
+    private static String trimOrNull(String s) {
+        if (s == null) return null;
+        var t = s.trim();
+        return t.isEmpty() ? null : t;
+    }
+}
@@ -0,0 +1,248 @@
+package io.github.vivianagh.flightapp.service;
+
+import io.github.vivianagh.flightapp.config.LiveStreamProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fan-out de eventos en vivo hacia los clientes SSE.
+ * <p>
+ * Cada evento se serializa una sola vez y se encola en el buffer acotado de cada cliente; un pool chico
+ * compartido vacía esos buffers hacia los sockets. Un cliente lento no frena a los demás: cuando su
+ * buffer se llena se descarta primero el delta {@code flight} más viejo (los {@code near-home} son
+ * pocos y se conservan). El listener de Kafka solo corre mientras haya al menos un cliente conectado.
+ */
+@Slf4j
+@Service
+public class LiveFlightHub {
+
+    public static final String TYPE_FLIGHT = "flight";
+    public static final String TYPE_NEAR_HOME = "near-home";
+    public static final String LISTENER_ID = "live-stream";
+
+    private record Event(@Nullable String type, String data) {}   // type null = heartbeat
+
+    private static final Event HEARTBEAT = new Event(null, "hb");
+
+    private final LiveStreamProperties props;
+    private final KafkaListenerEndpointRegistry listeners;
+    private final ExecutorService senders;
+    private final CopyOnWriteArrayList<Client> clients = new CopyOnWriteArrayList<>();
+    private final AtomicInteger slots = new AtomicInteger();   // plazas reservadas, <= maxClients
+    private final Counter dropped;
+    private final Counter sent;
+
+    @Autowired
+    public LiveFlightHub(LiveStreamProperties props, KafkaListenerEndpointRegistry listeners, MeterRegistry registry) {
+        this(props, listeners, registry, senderPool(props.senderThreads()));
+    }
+
+    /** Tests pass an executor that only queues the drains, to run them by hand. */
+    LiveFlightHub(LiveStreamProperties props, KafkaListenerEndpointRegistry listeners, MeterRegistry registry,
+                  ExecutorService senders) {
+        this.props = props;
+        this.listeners = listeners;
+        this.senders = senders;
+        Gauge.builder("flight.live.clients", clients, CopyOnWriteArrayList::size)
+                .description("Connected live-stream clients")
+                .register(registry);
+        this.dropped = Counter.builder("flight.live.dropped")
+                .description("Events dropped for slow live-stream clients")
+                .register(registry);
+        this.sent = Counter.builder("flight.live.sent")
+                .description("Events written to live-stream clients")
+                .register(registry);
+    }
+
+    private static ExecutorService senderPool(int threads) {
+        AtomicInteger n = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "live-sse-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Registers a new SSE client; {@code types} limits the event types it receives (empty = all).
+     * Returns null when {@code flight.live.max-clients} is reached.
+     */
+    public @Nullable SseEmitter subscribe(Set<String> types) {
+        // sin timeout: el heartbeat detecta las conexiones muertas
+        return subscribe(types, new SseEmitter(0L));
+    }
+
+    @Nullable SseEmitter subscribe(Set<String> types, SseEmitter emitter) {
+        // la plaza se reserva antes de añadir el cliente: dos subscribe a la vez no pasan ambos del límite
+        int max = props.maxClients();
+        if (slots.getAndUpdate(n -> n < max ? n + 1 : n) >= max) return null;
+        Client client = new Client(emitter, types, props.clientBuffer());
+        emitter.onCompletion(() -> remove(client));
+        emitter.onTimeout(() -> remove(client));
+        emitter.onError(ex -> remove(client));
+        clients.add(client);
+        updateListener();
+        log.info("📡 Live stream: cliente conectado (types={}, total={})", types.isEmpty() ? "all" : types, clients.size());
+        return emitter;
+    }
+
+    /** Fans one already-serialized event out to every interested client. */
+    public void publish(String type, String json) {
+        Event event = new Event(type, json);
+        for (Client c : clients) {
+            if (c.accepts(type)) c.offer(event);
+        }
+    }
+
+    public boolean hasSubscribers() {
+        return !clients.isEmpty();
+    }
+
+    @Scheduled(fixedDelayString = "${flight.live.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Client c : clients) c.offer(HEARTBEAT);
+    }
+
+    private void remove(Client client) {
+        if (clients.remove(client)) {
+            slots.decrementAndGet();
+            client.closed = true;
+            updateListener();
+            log.info("📡 Live stream: cliente desconectado (dropped={}, total={})", client.droppedCount, clients.size());
+        }
+    }
+
+    /** Starts the Kafka listener with the first client and stops it with the last one. */
+    private synchronized void updateListener() {
+        MessageListenerContainer container = listeners.getListenerContainer(LISTENER_ID);
+        if (container == null) return;
+        if (!clients.isEmpty() && !container.isRunning()) {
+            container.start();
+        } else if (clients.isEmpty() && container.isRunning()) {
+            container.stop();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Client c : clients) c.emitter.complete();
+        clients.clear();
+        slots.set(0);
+        senders.shutdownNow();
+    }
+
+    /** One connection: bounded queue plus a "drain scheduled" flag so at most one sender works on it. */
+    private final class Client {
+        final SseEmitter emitter;
+        final Set<String> types;
+        final int capacity;
+        final ArrayDeque<Event> queue;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        volatile boolean closed;
+        long droppedCount;
+
+        Client(SseEmitter emitter, Set<String> types, int capacity) {
+            this.emitter = emitter;
+            this.types = types;
+            this.capacity = capacity;
+            this.queue = new ArrayDeque<>(Math.min(capacity, 64));
+        }
+
+        boolean accepts(String type) {
+            return types.isEmpty() || types.contains(type);
+        }
+
+        void offer(Event event) {
+            if (closed) return;
+            synchronized (queue) {
+                if (queue.size() >= capacity) {
+                    dropOne();
+                }
+                queue.addLast(event);
+            }
+            schedule();
+        }
+
+        /** Drops the oldest flight delta (or heartbeat); only if there is none, the oldest event. */
+        private void dropOne() {
+            for (Iterator<Event> it = queue.iterator(); it.hasNext(); ) {
+                Event e = it.next();
+                if (!TYPE_NEAR_HOME.equals(e.type())) {
+                    it.remove();
+                    countDrop();
+                    return;
+                }
+            }
+            queue.pollFirst();
+            countDrop();
+        }
+
+        private void countDrop() {
+            droppedCount++;
+            dropped.increment();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException ex) {
+                    scheduled.set(false); // apagando
+                }
+            }
+        }
+
+        private void drain() {
+            while (!closed) {
+                Event e;
+                synchronized (queue) {
+                    e = queue.pollFirst();
+                }
+                if (e == null) {
+                    scheduled.set(false);
+                    // un offer pudo llegar entre el poll vacío y el set(false)
+                    synchronized (queue) {
+                        if (queue.isEmpty() || !scheduled.compareAndSet(false, true)) return;
+                    }
+                    continue;
+                }
+                try {
+                    if (e.type() == null) {
+                        emitter.send(SseEmitter.event().comment(e.data()));
+                    } else {
+                        emitter.send(SseEmitter.event().name(e.type()).data(e.data(), MediaType.APPLICATION_JSON));
+                        sent.increment();
+                    }
+                } catch (IOException | IllegalStateException ex) {
+                    // cliente caído: se cierra y se quita ya, sin esperar al callback del contenedor
+                    closed = true;
+                    emitter.completeWithError(ex);
+                    remove(this);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package io.github.vivianagh.flightapp.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/** {@code flight.overhome.db{op}}: Postgres time of the flight_over_home writes, shared by the consumer and the write-behind. */
+public final class OverHomeDbTimers {
+
+    private OverHomeDbTimers() {}
+
+    public static Timer timer(MeterRegistry meters, String op) {
+        return Timer.builder("flight.overhome.db")
+                .tag("op", op)
+                .description("Time spent writing flight_over_home")
+                .register(meters);
+    }
+}
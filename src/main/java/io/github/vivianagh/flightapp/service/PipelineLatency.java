@@ -0,0 +1,79 @@
+package io.github.vivianagh.flightapp.service;
+
+import io.github.vivianagh.flightapp.config.LatencyProperties;
+import io.github.vivianagh.flightapp.utils.PipelineHeaders;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia por etapa del pipeline, con histogramas para sacar p50/p99 en Prometheus:
+ * <ul>
+ *   <li>{@code flight.pipeline.hop{stage}}: desde que la etapa anterior produjo el record
+ *       (timestamp del record) hasta que esta lo recibe.</li>
+ *   <li>{@code flight.pipeline.age{stage}}: desde que se leyó la línea del socket
+ *       ({@link PipelineHeaders#RECEIVED_AT}) hasta este punto; con {@code stage=db} es la
+ *       frescura de la fila en Postgres.</li>
+ * </ul>
+ * Todo corre en la misma máquina, así que ambos relojes son el mismo; lo negativo se cuenta como 0.
+ */
+@Service
+public class PipelineLatency {
+
+    public static final String STAGE_PROCESSOR = "processor";
+    public static final String STAGE_OVER_HOME = "over-home";
+    public static final String STAGE_PER_HOUR = "per-hour";
+    public static final String STAGE_LIVE = "live";
+    public static final String STAGE_DB = "db";
+
+    private final MeterRegistry meters;
+    private final LatencyProperties props;
+    private final ConcurrentHashMap<String, Timer> hops = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Timer> ages = new ConcurrentHashMap<>();
+
+    public PipelineLatency(MeterRegistry meters, LatencyProperties props) {
+        this.meters = meters;
+        this.props = props;
+    }
+
+    /** Records both the hop from the previous stage and the age since the socket read. */
+    public void received(String stage, ConsumerRecord<?, ?> record) {
+        long now = System.currentTimeMillis();
+        if (record.timestamp() > 0) {
+            record(hops.computeIfAbsent(stage, s -> timer("flight.pipeline.hop", s,
+                    "Time from the upstream stage producing the record to this stage receiving it")), now - record.timestamp());
+        }
+        age(stage, PipelineHeaders.receivedAt(record.headers()), now);
+    }
+
+    /** Age since the socket read at this point; no-op when the sample has no receive time. */
+    public void age(String stage, long receivedAtMillis) {
+        age(stage, receivedAtMillis, System.currentTimeMillis());
+    }
+
+    private void age(String stage, long receivedAtMillis, long now) {
+        if (receivedAtMillis == PipelineHeaders.ABSENT) return;
+        record(ages.computeIfAbsent(stage, s -> timer("flight.pipeline.age", s,
+                "Time since the SBS line was read from the feeder socket")), now - receivedAtMillis);
+    }
+
+    private static void record(Timer timer, long millis) {
+        timer.record(Math.max(0, millis), TimeUnit.MILLISECONDS);
+    }
+
+    private Timer timer(String name, String stage, String description) {
+        return Timer.builder(name)
+                .tag("stage", stage)
+                .description(description)
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(props.sloMs().stream().map(Duration::ofMillis).toArray(Duration[]::new))
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMillis(props.maxExpectedMs()))
+                .register(meters);
+    }
+}
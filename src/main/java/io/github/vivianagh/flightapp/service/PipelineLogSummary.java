@@ -0,0 +1,34 @@
+package io.github.vivianagh.flightapp.service;
+
+import io.github.vivianagh.flightapp.config.PipelineLoggingProperties;
+import io.github.vivianagh.flightapp.utils.LogHelper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/** Aplica {@code flight.logging} a {@link LogHelper} y escribe una línea de conteos por intervalo en lugar de una por mensaje. */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PipelineLogSummary {
+
+    private final PipelineLoggingProperties props;
+
+    @PostConstruct
+    void configure() {
+        LogHelper.configure(props.sampleEvery(), props.maxPerSecond(), props.maxErrorsPerSecond());
+        log.info("🪵 Pipeline logging: sampleEvery={} maxPerSecond={} resumen cada {} ms",
+                props.sampleEvery(), props.maxPerSecond(), props.summaryIntervalMs());
+    }
+
+    @Scheduled(fixedDelayString = "${flight.logging.summary-interval-ms:60000}",
+               initialDelayString = "${flight.logging.summary-interval-ms:60000}")
+    public void logSummary() {
+        String summary = LogHelper.drainSummary();
+        if (!summary.isEmpty()) {
+            log.info("📊 pipeline (últimos {} s): {}", props.summaryIntervalMs() / 1000, summary);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package io.github.vivianagh.flightapp.service;
+
+import io.github.vivianagh.flightapp.config.RouteEnrichmentProperties;
+import io.github.vivianagh.flightapp.exception.RateLimitException;
+import io.github.vivianagh.flightapp.model.entity.FlightOverHomeEntity;
+import io.github.vivianagh.flightapp.repository.FlightOverHomeJdbcRepository;
+import io.github.vivianagh.flightapp.repository.FlightOverHomeJdbcRepository.RouteById;
+import io.github.vivianagh.flightapp.repository.FlightOverHomeJdbcRepository.RowRef;
+import io.github.vivianagh.flightapp.repository.FlightOverHomeRepository;
+import io.github.vivianagh.flightapp.utils.SbsTimestamps;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Completa origin/destination de las filas pendientes de {@code flight_over_home}.
+ * <p>
+ * Las filas se agrupan por número de vuelo normalizado (BAW123 y BA123 son la misma consulta), cada
+ * vuelo se resuelve una sola vez en un pool de {@code routes.workers} hilos y el ritmo de llamadas
+ * lo impone la cuota del {@link RouteResolverService} (token bucket + {@code Retry-After}). Todas las
+ * rutas encontradas se aplican al final con un único {@code UPDATE ... FROM (VALUES ...)}.
+ * <p>
+ * Las filas cuyo vuelo no se encuentra (o cuyo callsign no da número de vuelo) se aplazan con backoff
+ * exponencial ({@code routes.retry-backoff}) para que no ocupen el principio de cada lote; las que se
+ * quedan sin intentar por un 429 no cuentan como intento.
+ */
+@Slf4j
+@Service
+public class RouteEnrichmentWorker {
+
+    public record Summary(int rows, int flights, int resolved, int updated, int deferred, boolean rateLimited) {
+        static final Summary SKIPPED = new Summary(0, 0, 0, 0, 0, false);
+    }
+
+    private record Resolved(String flightNumber, String origin, String destination) {}
+
+    private final FlightOverHomeRepository repo;
+    private final FlightOverHomeJdbcRepository jdbc;
+    private final RouteResolverService resolver;
+    private final RouteEnrichmentProperties props;
+    private final LatestFlightsReadModel latestFlights;
+    private final ExecutorService pool;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public RouteEnrichmentWorker(FlightOverHomeRepository repo,
+                                 FlightOverHomeJdbcRepository jdbc,
+                                 RouteResolverService resolver,
+                                 RouteEnrichmentProperties props,
+                                 LatestFlightsReadModel latestFlights) {
+        this.repo = repo;
+        this.latestFlights = latestFlights;
+        this.jdbc = jdbc;
+        this.resolver = resolver;
+        this.props = props;
+        AtomicInteger n = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(props.workers(), r -> {
+            Thread t = new Thread(r, "route-enrich-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** One pass over the oldest pending rows. Concurrent calls (cron + /ops) are skipped, not queued. */
+    public Summary runOnce() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("RouteEnrichmentWorker: ya hay una pasada en curso");
+            return Summary.SKIPPED;
+        }
+        try {
+            return enrich();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Summary enrich() {
+        if (resolver.isCoolingDown()) {
+            log.info("RouteEnrichmentWorker: en cooldown, no proceso batch");
+            return Summary.SKIPPED;
+        }
+
+        List<FlightOverHomeEntity> rows = repo.findPendingWithCallsignAsc(Instant.now(), PageRequest.of(0, props.batchSize()));
+        Map<String, List<FlightOverHomeEntity>> byFlight = new LinkedHashMap<>();
+        List<RowRef> deferred = new ArrayList<>();
+        for (FlightOverHomeEntity row : rows) {
+            String fn = resolver.flightNumberOf(row.getCallsign());
+            if (fn != null) byFlight.computeIfAbsent(fn, k -> new ArrayList<>()).add(row);
+            else defer(row, deferred); // nunca se podrá consultar
+        }
+
+        AtomicBoolean rateLimited = new AtomicBoolean();
+        Queue<String> missed = new ConcurrentLinkedQueue<>();
+        List<Callable<Resolved>> tasks = new ArrayList<>(byFlight.size());
+        byFlight.forEach((fn, group) -> tasks.add(() -> resolve(fn, group.get(0), rateLimited, missed)));
+
+        List<RouteById> updates = new ArrayList<>();
+        int resolved = 0;
+        try {
+            for (Future<Resolved> f : pool.invokeAll(tasks)) {
+                Resolved r = f.get();
+                if (r == null) continue;
+                resolved++;
+                for (FlightOverHomeEntity row : byFlight.get(r.flightNumber())) {
+                    updates.add(new RouteById(row.getId(), row.getLoggedAt(), r.origin(), r.destination()));
+                    latestFlights.applyRoute(row.getIcao24(), row.getLoggedAt(), r.origin(), r.destination());
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ee) {
+            log.warn("RouteEnrichmentWorker: tarea falló: {}", ee.getCause().toString());
+        }
+
+        for (String fn : missed) {
+            for (FlightOverHomeEntity row : byFlight.get(fn)) defer(row, deferred);
+        }
+
+        int updated = updates.isEmpty() ? 0 : jdbc.updateRoutesById(updates);
+        if (!deferred.isEmpty()) jdbc.deferRoutesById(deferred, props.retryBackoff(), props.maxRetryBackoff());
+        Summary summary = new Summary(rows.size(), byFlight.size(), resolved, updated, deferred.size(), rateLimited.get());
+        log.info("RouteEnrichmentWorker: rows={}, flights={}, resolved={}, updated={}, deferred={}, rateLimited={}",
+                summary.rows(), summary.flights(), summary.resolved(), summary.updated(), summary.deferred(),
+                summary.rateLimited());
+        return summary;
+    }
+
+    private static void defer(FlightOverHomeEntity row, List<RowRef> deferred) {
+        if (row.getId() != null && row.getLoggedAt() != null) deferred.add(new RowRef(row.getId(), row.getLoggedAt()));
+    }
+
+    /** Null if there is no route; {@code fn} goes to {@code missed} unless the call never happened (quota). */
+    private Resolved resolve(String fn, FlightOverHomeEntity sample, AtomicBoolean rateLimited, Queue<String> missed) {
+        if (rateLimited.get()) return null; // tras un 429 o sin cuota, el resto espera a la próxima pasada
+        try {
+            LocalDate day = sample.getLoggedAt() != null ? LocalDate.ofInstant(sample.getLoggedAt(), SbsTimestamps.LONDON) : null;
+            RouteResolverService.RouteResult rr = resolver.resolve(sample.getCallsign(), day);
+            if (rr.found()) return new Resolved(fn, rr.origin(), rr.destination());
+            missed.add(fn);
+            return null;
+        } catch (RateLimitException rle) {
+            rateLimited.set(true);
+            return null;
+        } catch (Exception ex) {
+            log.warn("RouteEnrichmentWorker: error resolviendo fn={} (id={}): {}", fn, sample.getId(), ex.toString());
+            missed.add(fn);
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
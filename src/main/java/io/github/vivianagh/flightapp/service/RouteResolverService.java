@@ -25,5 +25,8 @@ public interface RouteResolverService {
 
     boolean isCoolingDown();
 
+    /** Normalized flight number used as cache key (BAW123 -> BA123), or null if the callsign has none. */
+    @Nullable String flightNumberOf(@Nullable String callsign);
+
     record RouteResult(String flightNumber, String origin, String destination, boolean found) {}
 }
@@ -1,8 +1,19 @@
 package io.github.vivianagh.flightapp.service;
 
+import io.github.vivianagh.flightapp.config.RouteEnrichmentProperties;
 import io.github.vivianagh.flightapp.exception.RateLimitException;
 import io.github.vivianagh.flightapp.model.entity.FlightRouteCacheEntity;
 import io.github.vivianagh.flightapp.repository.FlightRouteCacheRepository;
+import io.github.vivianagh.flightapp.utils.TokenBucket;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,15 +26,14 @@ import org.springframework.lang.Nullable;
 import org.springframework.web.client.RestClientResponseException;
 
 import java.time.*;
+import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.Map;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
-
-import static java.util.Map.entry;
 
 
 @Slf4j
@@ -31,6 +41,7 @@ import static java.util.Map.entry;
 public class RouteResolverServiceImpl implements RouteResolverService {
 
     private final FlightRouteCacheRepository cacheRepo;
+    private final CallsignNormalizer callsignNormalizer;
 
     // HTTP / API
     private final RestClient http;
@@ -41,47 +52,84 @@ public class RouteResolverServiceImpl implements RouteResolverService {
     @Value("${routes.cooldown-seconds:3600}")
     private long defaultCooldownSeconds;
 
-    // mem-cache (solo con datos)
-    private record CacheVal(String origin, String destination, Instant exp) {}
-    private final Map<String, CacheVal> memCache = new ConcurrentHashMap<>();
-    private static final Duration TTL = Duration.ofHours(12);
+    // cache en memoria: rutas encontradas y también "sin datos" (CacheVal.NONE), cada una con su TTL.
+    // NONE solo cuando la API contestó sin ruta; un error o un salto de la API no se cachea.
+    private record CacheVal(String origin, String destination) {
+        static final CacheVal NONE = new CacheVal(null, null);
+        boolean found() { return origin != null || destination != null; }
+    }
+    private final AsyncCache<String, CacheVal> routeCache;
 
     // zonas / fechas
     private static final ZoneId LONDON = ZoneId.of("Europe/London");
 
-    // normalizador ICAO→IATA
-    private static final Pattern CALLSIGN_RX = Pattern.compile("^([A-Z]{2,3})(\\d+).*");
-    private static final Map<String, String> ICAO_TO_IATA = Map.ofEntries(
-            entry("BAW","BA"), entry("VIR","VS"), entry("EZY","U2"), entry("RYR","FR"),
-            entry("WZZ","W6"), entry("EXS","LS"), entry("TOM","BY"),
-            entry("IBE","IB"), entry("VLG","VY"), entry("AEA","UX"),
-            entry("AFR","AF"), entry("KLM","KL"), entry("DLH","LH"), entry("SWR","LX"),
-            entry("AUA","OS"), entry("SAS","SK"), entry("FIN","AY"), entry("LOT","LO"),
-            entry("BEL","SN"), entry("AEE","A3"),
-            entry("THY","TK"), entry("QTR","QR"), entry("UAE","EK"), entry("ETD","EY"),
-            entry("AAL","AA"), entry("UAL","UA"), entry("DAL","DL"), entry("ACA","AC"),
-            entry("JBU","B6"), entry("AMX","AM"), entry("LAN","LA"), entry("AVA","AV"),
-            entry("KAL","KE"), entry("CFE","BA")
-    );
-
     // rate limit
-    private final Map<String, Instant> perFlightCooldown = new ConcurrentHashMap<>();
+    private final Cache<String, Instant> perFlightCooldown; // la entrada expira justo al terminar el cooldown
     private static final Duration COOLDOWN_TTL = Duration.ofMinutes(45);
     private final AtomicReference<Instant> globalCooldownUntil = new AtomicReference<>(Instant.EPOCH);
+    // cuota del proveedor: cada request HTTP consume un token (los hits de cache no)
+    private final TokenBucket apiQuota;
+    private final long quotaWaitMs;
+    private final Duration errorCooldown;
+
+    // métricas: de dónde salió cada ruta que no estaba en memoria (los hits de memoria van en cache.gets{cache=routes})
+    private final MeterRegistry meterRegistry;
+    private final Counter loadedFromDb;
+    private final Counter loadedFromApi;
+    private final Counter loadedNone;
+    private final Counter skippedCooldown;
 
     @Autowired
     public RouteResolverServiceImpl(
             FlightRouteCacheRepository cacheRepo,
+            CallsignNormalizer callsignNormalizer,
             @Value("${external.aerodatabox.baseUrl}") String baseUrl,
             @Value("${external.aerodatabox.apiKey:}") String apiKey,
-            @Value("${external.aerodatabox.host:aerodatabox.p.rapidapi.com}") String host
+            @Value("${external.aerodatabox.host:aerodatabox.p.rapidapi.com}") String host,
+            RouteEnrichmentProperties routeProps,
+            MeterRegistry meterRegistry
+    ) {
+        this(cacheRepo, callsignNormalizer, baseUrl, apiKey, host, routeProps, meterRegistry, RestClient.builder());
+    }
+
+    RouteResolverServiceImpl(
+            FlightRouteCacheRepository cacheRepo,
+            CallsignNormalizer callsignNormalizer,
+            String baseUrl,
+            String apiKey,
+            String host,
+            RouteEnrichmentProperties routeProps,
+            MeterRegistry meterRegistry,
+            RestClient.Builder httpBuilder
     ) {
         this.cacheRepo = cacheRepo;
+        this.callsignNormalizer = callsignNormalizer;
+        var cacheProps = routeProps.cache();
+        this.routeCache = Caffeine.newBuilder()
+                .maximumSize(cacheProps.maxEntries())
+                .expireAfter(Expiry.writing((String fn, CacheVal v) ->
+                        v.found() ? cacheProps.positiveTtl() : cacheProps.negativeTtl()))
+                .recordStats()
+                .buildAsync();
+        this.perFlightCooldown = Caffeine.newBuilder()
+                .maximumSize(cacheProps.maxCooldowns())
+                .expireAfter(Expiry.writing((String fn, Instant until) ->
+                        Duration.ofMillis(Math.max(0, until.toEpochMilli() - System.currentTimeMillis()))))
+                .build();
+        new CaffeineCacheMetrics<>(routeCache.synchronous(), "routes", Tags.empty()).bindTo(meterRegistry);
+        this.meterRegistry = meterRegistry;
+        this.loadedFromDb = tierCounter(meterRegistry, "db");
+        this.loadedFromApi = tierCounter(meterRegistry, "api");
+        this.loadedNone = tierCounter(meterRegistry, "none");
+        this.skippedCooldown = tierCounter(meterRegistry, "cooldown");
+        this.apiQuota = new TokenBucket(routeProps.ratePerSecond(), routeProps.burst());
+        this.quotaWaitMs = routeProps.maxWaitMs();
+        this.errorCooldown = cacheProps.errorCooldown();
         this.baseUrl = baseUrl;
         this.apiKey = apiKey == null ? "" : apiKey;
         this.host = host;
 
-        this.http = RestClient.builder()
+        this.http = httpBuilder
                 .requestInterceptor((req, body, exec) -> {
                     HttpHeaders h = req.getHeaders();
                     h.setAccept(List.of(MediaType.APPLICATION_JSON));
@@ -96,12 +144,32 @@ public class RouteResolverServiceImpl implements RouteResolverService {
         log.info("AeroDataBox READY? {}", !this.apiKey.isBlank());
     }
 
+    private static Counter tierCounter(MeterRegistry registry, String tier) {
+        return Counter.builder("flight.routes.lookups")
+                .tag("tier", tier)
+                .description("Route loads after a memory-cache miss, by the tier that answered")
+                .register(registry);
+    }
+
+    /** One HTTP call to AeroDataBox, tagged with its status class (2xx, 4xx, 429, 5xx, error). */
+    private Timer apiTimer(String status) {
+        return Timer.builder("flight.routes.api.calls")
+                .tag("status", status)
+                .description("AeroDataBox requests")
+                .register(meterRegistry);
+    }
+
     // ---- RouteResolverService ----
     @Override
     public boolean isCoolingDown() {
         return Instant.now().isBefore(globalCooldownUntil.get());
     }
 
+    @Override
+    public @Nullable String flightNumberOf(@Nullable String callsign) {
+        return callsignNormalizer.flightNumber(callsign);
+    }
+
     @Override
     public @Nullable Route resolveFromCallsign(String callsign) throws RateLimitException{
         return coreResolve(callsign, null, null);
@@ -122,7 +190,7 @@ public class RouteResolverServiceImpl implements RouteResolverService {
                 : null;
 
         Route r = coreResolve(rawCallsign, null, when);
-        String fn = normalizeFlightNumber(rawCallsign);
+        String fn = callsignNormalizer.flightNumber(rawCallsign);
         if (r != null) {
             return new RouteResult(r.flightNumber(), r.origin(), r.destination(), true);
         }
@@ -132,52 +200,28 @@ public class RouteResolverServiceImpl implements RouteResolverService {
     // ---- core ----
     private @Nullable Route coreResolve(@Nullable String callsign, @Nullable String icao24, @Nullable Instant when)
             throws RateLimitException {
-        final Instant now = Instant.now();
-
         if (isCoolingDown()) {
             log.debug("GLOBAL COOLDOWN activo hasta {}", globalCooldownUntil.get());
             throw new RateLimitException("Cooling down");
         }
 
-        final String flightNumber = normalizeFlightNumber(callsign);
+        final String flightNumber = callsignNormalizer.flightNumber(callsign);
         log.debug("Resolve start — callsign={}, icao24={}, when={}, normalizedFN={}",
                 callsign, icao24, when, flightNumber);
 
-        // 1) mem-cache
+        // 1) cache por fn (con carga única: BD → API)
         if (flightNumber != null) {
-            var cv = memCache.get(flightNumber);
-            if (cv != null && now.isBefore(cv.exp())) {
-                log.debug("HIT mem-cache — fn={}, origin={}, dest={}", flightNumber, cv.origin(), cv.destination());
-                return new Route(flightNumber, cv.origin(), cv.destination());
-            }
-            log.debug("MISS mem-cache — fn={}", flightNumber);
+            CacheVal cv = cachedRoute(flightNumber, icao24, when);
+            return cv != null && cv.found() ? new Route(flightNumber, cv.origin(), cv.destination()) : null;
         }
 
-        // 2) DB by fn
-        if (flightNumber != null) {
-            var db = cacheRepo.findById(flightNumber).orElse(null);
-            if (db != null) {
-                boolean hasRoute = (db.getOrigin() != null) || (db.getDestination() != null);
-                if (hasRoute) {
-                    memCache.put(flightNumber, new CacheVal(db.getOrigin(), db.getDestination(), now.plus(TTL)));
-                    log.debug("HIT db by fn — fn={}, origin={}, dest={}, icao24(db)={}",
-                            flightNumber, db.getOrigin(), db.getDestination(), db.getIcao24());
-                    return new Route(flightNumber, db.getOrigin(), db.getDestination());
-                } else {
-                    log.debug("DB by fn is EMPTY — fn={}, seguimos a API", flightNumber);
-                }
-            } else {
-                log.debug("MISS db by fn — fn={}", flightNumber);
-            }
-        }
-
-        // 3) DB by icao24 (solo si no tengo fn)
-        if (flightNumber == null && notBlank(icao24)) {
+        // 2) DB by icao24 (solo si no tengo fn)
+        if (notBlank(icao24)) {
             var opt = cacheRepo.findFirstByIcao24OrderByUpdatedAtDesc(icao24.toUpperCase());
             if (opt.isPresent()) {
                 var ent = opt.get();
                 if (ent.getOrigin() != null || ent.getDestination() != null) {
-                    memCache.put(ent.getFlightNumber(), new CacheVal(ent.getOrigin(), ent.getDestination(), now.plus(TTL)));
+                    routeCache.synchronous().put(ent.getFlightNumber(), new CacheVal(ent.getOrigin(), ent.getDestination()));
                     log.debug("HIT db by icao24 — icao24={}, fn={}, origin={}, dest={}",
                             icao24, ent.getFlightNumber(), ent.getOrigin(), ent.getDestination());
                     return new Route(ent.getFlightNumber(), ent.getOrigin(), ent.getDestination());
@@ -189,24 +233,93 @@ public class RouteResolverServiceImpl implements RouteResolverService {
             }
         }
 
-        // 4) API externa
+        log.debug("Resolve end — sin datos");
+        return null;
+    }
+
+    /**
+     * Single-flight lookup: the first caller for a missing fn installs an empty future and loads it on
+     * its own thread; concurrent callers for the same fn wait on that future instead of hitting BD/API.
+     * A failed load (rate limit) is not cached, so the next caller retries; neither is a load that got
+     * no answer from the API (null: Caffeine drops futures that complete with null).
+     */
+    private @Nullable CacheVal cachedRoute(String flightNumber, @Nullable String icao24, @Nullable Instant when)
+            throws RateLimitException {
+        CompletableFuture<CacheVal> mine = new CompletableFuture<>();
+        CompletableFuture<CacheVal> future = routeCache.get(flightNumber, (fn, executor) -> mine);
+        if (future == mine) {
+            try {
+                mine.complete(loadRoute(flightNumber, icao24, when));
+            } catch (RateLimitException | RuntimeException ex) {
+                mine.completeExceptionally(ex);
+            }
+        } else {
+            log.debug("HIT cache — fn={}", flightNumber);
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException ce) {
+            if (ce.getCause() instanceof RateLimitException rle) throw rle;
+            if (ce.getCause() instanceof RuntimeException re) throw re;
+            throw ce;
+        }
+    }
+
+    /** Route, {@link CacheVal#NONE} if the API answered without one, or null if nobody could answer (not cached). */
+    private @Nullable CacheVal loadRoute(String flightNumber, @Nullable String icao24, @Nullable Instant when)
+            throws RateLimitException {
+        final Instant now = Instant.now();
+
+        // 2) DB by fn
+        var db = cacheRepo.findById(flightNumber).orElse(null);
+        if (db != null) {
+            boolean hasRoute = (db.getOrigin() != null) || (db.getDestination() != null);
+            if (hasRoute) {
+                log.debug("HIT db by fn — fn={}, origin={}, dest={}, icao24(db)={}",
+                        flightNumber, db.getOrigin(), db.getDestination(), db.getIcao24());
+                loadedFromDb.increment();
+                return new CacheVal(db.getOrigin(), db.getDestination());
+            } else {
+                log.debug("DB by fn is EMPTY — fn={}, seguimos a API", flightNumber);
+            }
+        } else {
+            log.debug("MISS db by fn — fn={}", flightNumber);
+        }
+
+        // 3) API externa
         String origin = null, destination = null;
+        boolean answered = false; // la API contestó (con o sin ruta) para todas las fechas probadas
 
-        if (flightNumber != null && !apiKey.isBlank()) {
-            var until = perFlightCooldown.get(flightNumber);
-            if (until != null && now.isBefore(until)) {
+        if (!apiKey.isBlank()) {
+            var until = perFlightCooldown.getIfPresent(flightNumber);
+            if (until != null) {
                 log.debug("COOLDOWN por fn — fn={} hasta {}", flightNumber, until);
+                skippedCooldown.increment();
             } else {
                 try {
                     LocalDate base = (when != null ? when.atZone(LONDON).toLocalDate() : LocalDate.now(LONDON));
                     for (LocalDate d : List.of(base, base.minusDays(1), base.plusDays(1))) {
                         String url = baseUrl + "/flights/number/" + flightNumber + "/" + d + "/" + d;
+                        acquireQuota(flightNumber);
                         log.info("CALL API — fn={}, url={}", flightNumber, url);
 
-                        List<Map<String, Object>> list = http.get()
-                                .uri(url)
-                                .retrieve()
-                                .body(new ParameterizedTypeReference<>() {});
+                        Timer.Sample call = Timer.start(meterRegistry);
+                        List<Map<String, Object>> list;
+                        try {
+                            list = http.get()
+                                    .uri(url)
+                                    .retrieve()
+                                    .body(new ParameterizedTypeReference<>() {});
+                            call.stop(apiTimer("2xx"));
+                        } catch (RestClientResponseException ex) {
+                            int status = ex.getStatusCode().value();
+                            call.stop(apiTimer(status == 429 ? "429" : status >= 500 ? "5xx" : "4xx"));
+                            throw ex;
+                        } catch (RuntimeException ex) {
+                            call.stop(apiTimer("error"));
+                            throw ex;
+                        }
 
                         var od = extractOD(list);
                         if (od.origin() != null || od.destination() != null) {
@@ -216,27 +329,33 @@ public class RouteResolverServiceImpl implements RouteResolverService {
                             break;
                         }
                     }
+                    answered = true;
+                } catch (RateLimitException rle) {
+                    throw rle; // sin token: no es un fallo del vuelo, se reintenta en otra pasada
                 } catch (RestClientResponseException ex) {
                     if (ex.getStatusCode().value() == 429) {
                         perFlightCooldown.put(flightNumber, now.plus(COOLDOWN_TTL));
                         enterGlobalCooldownFrom429(ex);
-                        log.warn("API 429 — fn={}; per-flight cooldown hasta {}", flightNumber, perFlightCooldown.get(flightNumber));
+                        log.warn("API 429 — fn={}; per-flight cooldown hasta {}", flightNumber, now.plus(COOLDOWN_TTL));
                         throw new RateLimitException("Rate limited");
+                    } else if (ex.getStatusCode().value() == 404) {
+                        answered = true; // el proveedor no conoce el vuelo: eso sí es "sin datos"
+                        log.debug("API 404 — fn={} sin datos", flightNumber);
                     } else {
                         log.warn("API error — fn={}, status={}, msg={}", flightNumber, ex.getStatusCode(), ex.getMessage());
-                        perFlightCooldown.put(flightNumber, now.plus(Duration.ofMinutes(10)));
+                        coolDownAfterError(flightNumber, now);
                     }
                 } catch (Exception ex) {
                     log.warn("API exception — fn={}, msg={}", flightNumber, ex.toString());
-                    perFlightCooldown.put(flightNumber, now.plus(Duration.ofMinutes(10)));
+                    coolDownAfterError(flightNumber, now);
                 }
             }
         } else {
-            log.debug("SKIP API — fn={}, apiKeyPresent={}", flightNumber, !apiKey.isBlank());
+            log.debug("SKIP API — fn={}, apiKeyPresent=false", flightNumber);
         }
 
-        // 5) persistir solo si hay datos
-        if (flightNumber != null && (origin != null || destination != null)) {
+        // 4) persistir solo si hay datos
+        if (origin != null || destination != null) {
             cacheRepo.save(FlightRouteCacheEntity.builder()
                     .flightNumber(flightNumber)
                     .icao24(notBlank(icao24) ? icao24.toUpperCase() : null)
@@ -244,14 +363,22 @@ public class RouteResolverServiceImpl implements RouteResolverService {
                     .destination(destination)
                     .updatedAt(now)
                     .build());
-
-            memCache.put(flightNumber, new CacheVal(origin, destination, now.plus(TTL)));
             log.debug("SAVED db — fn={}, icao24={}, origin={}, dest={}", flightNumber, icao24, origin, destination);
-            return new Route(flightNumber, origin, destination);
+            loadedFromApi.increment();
+            return new CacheVal(origin, destination);
         }
+        loadedNone.increment();
 
-        log.debug("Resolve end — sin datos");
-        return null;
+        if (!answered) {
+            log.debug("Resolve end — sin respuesta de la API para fn={} (no se cachea)", flightNumber);
+            return null;
+        }
+        log.debug("Resolve end — sin datos para fn={} (cache negativa)", flightNumber);
+        return CacheVal.NONE;
+    }
+
+    private void coolDownAfterError(String flightNumber, Instant now) {
+        if (!errorCooldown.isZero()) perFlightCooldown.put(flightNumber, now.plus(errorCooldown));
     }
 
     // helpers
@@ -259,20 +386,6 @@ public class RouteResolverServiceImpl implements RouteResolverService {
         return s != null && !s.trim().isEmpty();
     }
 
-    /** BAW123 -> BA123 (mapea ICAO→IATA si corresponde). */
-    private @Nullable String normalizeFlightNumber(@Nullable String callsign) {
-        if (!notBlank(callsign)) return null;
-        String cs = callsign.trim().toUpperCase().replaceAll("\\s+","");
-        Matcher m = CALLSIGN_RX.matcher(cs);
-        if (!m.matches()) return null;
-        String prefix = m.group(1);
-        String digits = m.group(2);
-        if (prefix.length() == 3) {
-            prefix = ICAO_TO_IATA.getOrDefault(prefix, prefix);
-        }
-        return prefix + digits;
-    }
-
     private record OD(String origin, String destination) {}
 
     @SuppressWarnings("unchecked")
@@ -294,26 +407,48 @@ public class RouteResolverServiceImpl implements RouteResolverService {
         return new OD(orig, dest);
     }
 
+    private void acquireQuota(String flightNumber) throws RateLimitException {
+        try {
+            if (apiQuota.acquire(quotaWaitMs, TimeUnit.MILLISECONDS)) return;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+        log.debug("Sin cuota para fn={} tras {} ms", flightNumber, quotaWaitMs);
+        throw new RateLimitException("Local quota exhausted");
+    }
+
     /** Lee Retry-After y activa cooldown GLOBAL. */
     private void enterGlobalCooldownFrom429(RestClientResponseException ex) {
         var headers = ex.getResponseHeaders();
-        Instant until = null;
+        Instant now = Instant.now();
+        Instant until = headers != null ? retryAfter(headers.getFirst(HttpHeaders.RETRY_AFTER), now) : null;
+        if (until == null) until = now.plusSeconds(defaultCooldownSeconds);
+        globalCooldownUntil.set(until);
+        apiQuota.pauseFor(Duration.between(now, until).toMillis());
+        log.warn("API 429 — GLOBAL cooldown hasta {}", until);
+    }
 
-        if (headers != null) {
-            String ra = headers.getFirst("Retry-After");
-            if (ra != null && !ra.isBlank()) {
-                try {
-                    long secs = Long.parseLong(ra.trim());
-                    until = Instant.now().plusSeconds(secs);
-                } catch (NumberFormatException nfe) {
-                    try {
-                        until = ZonedDateTime.parse(ra.trim()).toInstant();
-                    } catch (DateTimeParseException ignored) {}
-                }
+    /**
+     * {@code Retry-After} as delay-seconds or HTTP-date (RFC 1123, e.g. {@code Wed, 21 Oct 2015 07:28:00 GMT});
+     * a date already past means "now". Null if the header is missing or unreadable.
+     */
+    static @Nullable Instant retryAfter(@Nullable String value, Instant now) {
+        if (value == null || value.isBlank()) return null;
+        String ra = value.trim();
+        try {
+            return now.plusSeconds(Math.max(0, Long.parseLong(ra)));
+        } catch (NumberFormatException nfe) {
+            try {
+                Instant at = ZonedDateTime.parse(ra, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                return at.isBefore(now) ? now : at;
+            } catch (DateTimeParseException ignored) {
+                return null;
             }
         }
-        if (until == null) until = Instant.now().plusSeconds(defaultCooldownSeconds);
-        globalCooldownUntil.set(until);
-        log.warn("API 429 — GLOBAL cooldown hasta {}", until);
+    }
+
+    /** Until when the API is not called after a 429 (EPOCH if it never was). */
+    Instant cooldownUntil() {
+        return globalCooldownUntil.get();
     }
 }
\ No newline at end of file
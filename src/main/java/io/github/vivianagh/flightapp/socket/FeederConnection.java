@@ -0,0 +1,113 @@
+package io.github.vivianagh.flightapp.socket;
+
+import io.github.vivianagh.flightapp.archive.RawFeedArchiver;
+import io.github.vivianagh.flightapp.config.FlightSocketProperties;
+import io.github.vivianagh.flightapp.config.FlightSocketProperties.Feeder;
+import io.github.vivianagh.flightapp.producer.RawFlightProducer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One feeder (dump1090 / port 30003) read on its own thread.
+ * Owns its framer, parser target and reconnect/backoff state, so feeders never share mutable buffers.
+ */
+@Slf4j
+class FeederConnection implements Runnable {
+
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+
+    private final Feeder feeder;
+    private final FlightSocketProperties props;
+    private final RawFlightProducer producer;
+    private final FeederStats stats;
+
+    private final SbsLineFramer framer = new SbsLineFramer(READ_BUFFER_BYTES);
+    private final SbsMessage msg = new SbsMessage();
+    private final SbsLineFramer.LineHandler onLine;
+
+    private volatile boolean running = true;
+    private volatile Socket current;
+
+    FeederConnection(Feeder feeder, FlightSocketProperties props, RawFlightProducer producer,
+                     RawFeedArchiver archiver, FeederStats stats) {
+        this.feeder = feeder;
+        this.props = props;
+        this.producer = producer;
+        this.stats = stats;
+        this.onLine = (buf, off, len) -> {
+            stats.lines.increment();
+            archiver.offer(buf, off, len); // línea cruda tal cual; no bloquea
+            if (SbsLineParser.parse(buf, off, len, msg)) {
+                producer.sendRawFlight(msg, System.currentTimeMillis());
+            } else {
+                stats.rejected.increment();
+            }
+        };
+    }
+
+    String name() {
+        return feeder.name();
+    }
+
+    @Override
+    public void run() {
+        final InetSocketAddress addr = new InetSocketAddress(feeder.host(), feeder.port());
+        long backoff = props.reconnectBackoffMs();
+
+        while (running) {
+            log.info("🔌 [{}] Conectando a feeder en {}:{}", feeder.name(), feeder.host(), feeder.port());
+            long linesBefore = stats.lines.sum();
+            try (Socket socket = new Socket()) {
+                current = socket;
+                socket.connect(addr, props.connectTimeoutMs());
+                socket.setSoTimeout(props.readTimeoutMs());
+                framer.reset();
+                InputStream in = socket.getInputStream();
+                while (running && framer.readFrom(in, onLine) != -1) {
+                    // las líneas completas ya se despacharon en onLine
+                }
+                log.warn("🔌 [{}] El feeder cerró la conexión", feeder.name());
+            } catch (IOException ex) {
+                if (!running) break;
+                log.error("⚠️ [{}] Error leyendo del socket ({})", feeder.name(), ex.getMessage());
+            } catch (RuntimeException ex) {
+                if (!running) break;
+                log.error("⚠️ [{}] Error procesando línea del feeder", feeder.name(), ex);
+            } finally {
+                current = null;
+            }
+
+            // Si la conexión llegó a entregar datos, volvemos al backoff inicial
+            if (stats.lines.sum() > linesBefore) backoff = props.reconnectBackoffMs();
+            long sleep = backoff + ThreadLocalRandom.current().nextLong(backoff / 5 + 1); // jitter ~20%
+            log.info("⏳ [{}] Reintento en {} ms (lines={}, rejected={})", feeder.name(), sleep, stats.lines.sum(), stats.rejected.sum());
+            try {
+                Thread.sleep(sleep);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            backoff = Math.min(backoff * 2, props.maxReconnectBackoffMs());
+            stats.reconnects.increment();
+        }
+        log.info("🛑 [{}] Lector detenido (lines={}, rejected={})", feeder.name(), stats.lines.sum(), stats.rejected.sum());
+    }
+
+    /** Stops the loop and unblocks a pending read by closing the socket. */
+    void stop() {
+        running = false;
+        Socket s = current;
+        if (s != null) {
+            try {
+                s.close();
+            } catch (IOException ignored) {
+                // closing only to unblock read()
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package io.github.vivianagh.flightapp.socket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of one feeder. They belong to {@link FlightSocketReader}, not to the {@link FeederConnection},
+ * so the meters are registered once and keep counting across a lifecycle stop/start (Micrometer would
+ * otherwise hand back the meter bound to the first, already stopped connection).
+ */
+final class FeederStats {
+
+    final LongAdder lines = new LongAdder();
+    final LongAdder rejected = new LongAdder();
+    final Counter reconnects;
+
+    private FeederStats(Counter reconnects) {
+        this.reconnects = reconnects;
+    }
+
+    static FeederStats register(String feeder, MeterRegistry meters) {
+        FeederStats stats = new FeederStats(Counter.builder("flight.socket.reconnects")
+                .tag("feeder", feeder)
+                .description("Reconnect attempts to the SBS feeder")
+                .register(meters));
+        FunctionCounter.builder("flight.socket.lines", stats.lines, LongAdder::sum)
+                .tag("feeder", feeder)
+                .description("SBS lines read from the feeder")
+                .register(meters);
+        FunctionCounter.builder("flight.socket.rejected", stats.rejected, LongAdder::sum)
+                .tag("feeder", feeder)
+                .description("Lines the SBS parser rejected")
+                .register(meters);
+        return stats;
+    }
+}
@@ -1,76 +1,91 @@
 package io.github.vivianagh.flightapp.socket;
 
+import io.github.vivianagh.flightapp.archive.RawFeedArchiver;
 import io.github.vivianagh.flightapp.config.FlightSocketProperties;
-import io.github.vivianagh.flightapp.model.FlightData;
+import io.github.vivianagh.flightapp.config.FlightSocketProperties.Feeder;
 import io.github.vivianagh.flightapp.producer.RawFlightProducer;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.stereotype.Component;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.Socket;
-
-import java.io.*;
-import java.net.InetSocketAddress;
-import java.net.Socket;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Arranca un hilo lector por feeder ({@code flight.socket.feeders[]}) sin bloquear el arranque:
+ * cada feeder tiene su propio socket, framing por bytes y reconexión con backoff exponencial.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
-public class FlightSocketReader implements CommandLineRunner {
+public class FlightSocketReader implements SmartLifecycle {
+
+    private static final long JOIN_TIMEOUT_MS = 5_000;
 
     private final FlightSocketProperties props;
 
     private final RawFlightProducer producer;
 
-    private String host;
+    private final RawFeedArchiver archiver;
+
+    private final MeterRegistry meters;
 
-    private int port;
+    private final Map<String, FeederStats> stats = new HashMap<>(); // por nombre; sobrevive a stop/start
+    private final List<FeederConnection> connections = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
 
     @Override
-    public void run(String... args) throws Exception {
+    public synchronized void start() {
+        if (running) return;
+        running = true;
         if (!props.enabled()) {
             log.info("✋ FlightSocketReader deshabilitado (flight.socket.enabled=false)");
             return;
         }
 
-        final InetSocketAddress addr = new InetSocketAddress(props.host(), props.port());
-        log.info("🔌 Conectando a feeder en {}:{}", props.host(), props.port());
-
-        // Bucle de reconexión básico
-        while (true) {
-            try (Socket socket = new Socket()) {
-                socket.connect(addr, props.connectTimeoutMs());
-                socket.setSoTimeout(props.readTimeoutMs());
-                try (BufferedReader br = new BufferedReader(
-                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+        for (Feeder feeder : props.effectiveFeeders()) {
+            FeederStats feederStats = stats.computeIfAbsent(feeder.name(), name -> FeederStats.register(name, meters));
+            FeederConnection conn = new FeederConnection(feeder, props, producer, archiver, feederStats);
+            Thread t = new Thread(conn, "feeder-" + feeder.name());
+            t.setDaemon(true);
+            connections.add(conn);
+            threads.add(t);
+            t.start();
+        }
+        log.info("📡 FlightSocketReader iniciado con {} feeder(s)", connections.size());
+    }
 
-                    String line;
-                    while ((line = br.readLine()) != null) {
-                        // TODO: parsear tu formato (SBS/BEAST/lo que uses)
-                        // y enviar al tópico raw con Avro
-                        FlightData data = FlightData.fromCsvLine(line);
-                        producer.sendRawFlight(data);
-                    }
-                }
-            } catch (Exception ex) {
-                log.error("⚠️ Error leyendo del socket ({}). Reintento en {} ms",
-                        ex.getMessage(), props.reconnectBackoffMs(), ex);
-                try {
-                    Thread.sleep(props.reconnectBackoffMs());
-                } catch (InterruptedException ignored) {
-                    Thread.currentThread().interrupt();
-                    return;
-                }
+    @Override
+    public synchronized void stop() {
+        if (!running) return;
+        running = false;
+        connections.forEach(FeederConnection::stop);
+        threads.forEach(Thread::interrupt);
+        for (Thread t : threads) {
+            try {
+                t.join(JOIN_TIMEOUT_MS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                break;
             }
         }
+        connections.clear();
+        threads.clear();
+    }
 
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
 
+    /** Arranca después del resto (Kafka, JPA) y se detiene antes que ellos. */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 100;
     }
 }
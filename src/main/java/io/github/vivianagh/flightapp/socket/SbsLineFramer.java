@@ -0,0 +1,89 @@
+package io.github.vivianagh.flightapp.socket;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Byte-level line framing over a fixed, reusable buffer (replaces {@code BufferedReader.readLine()}).
+ * Complete lines are handed to the {@link LineHandler} as slices of the internal buffer,
+ * so nothing is allocated per line. Not thread-safe: one framer per connection.
+ */
+public final class SbsLineFramer {
+
+    @FunctionalInterface
+    public interface LineHandler {
+        /** {@code buf[off, off+len)} is one line without the trailing '\n'; only valid during the call. */
+        void onLine(byte[] buf, int off, int len);
+    }
+
+    private final byte[] buf;
+    private int filled;   // bytes currently in buf
+    private int scanned;  // bytes already checked for '\n'
+    private long overlongLines;
+
+    public SbsLineFramer(int capacity) {
+        this.buf = new byte[capacity];
+    }
+
+    /**
+     * Reads once from {@code in} and dispatches every complete line.
+     *
+     * @return bytes read, or -1 at end of stream
+     */
+    public int readFrom(InputStream in, LineHandler handler) throws IOException {
+        int n = in.read(buf, filled, buf.length - filled);
+        if (n > 0) {
+            filled += n;
+            drain(handler);
+        }
+        return n;
+    }
+
+    /** Copies {@code src[off, off+len)} in and dispatches every complete line. */
+    public void feed(byte[] src, int off, int len, LineHandler handler) {
+        while (len > 0) {
+            int n = Math.min(len, buf.length - filled);
+            System.arraycopy(src, off, buf, filled, n);
+            filled += n;
+            off += n;
+            len -= n;
+            drain(handler);
+        }
+    }
+
+    /** End of a finite input (a capture file): dispatches the last line if it had no trailing '\n'. */
+    public void finish(LineHandler handler) {
+        if (filled > 0) handler.onLine(buf, 0, filled);
+        reset();
+    }
+
+    /** Drops any partial line (e.g. after a reconnect). */
+    public void reset() {
+        filled = 0;
+        scanned = 0;
+    }
+
+    public long getOverlongLines() {
+        return overlongLines;
+    }
+
+    private void drain(LineHandler handler) {
+        int lineStart = 0;
+        for (int i = scanned; i < filled; i++) {
+            if (buf[i] == '\n') {
+                if (i > lineStart) handler.onLine(buf, lineStart, i - lineStart);
+                lineStart = i + 1;
+            }
+        }
+        int rest = filled - lineStart;
+        if (rest == buf.length) {
+            // No newline in a full buffer: garbage or a non-SBS feed. Drop it and resync.
+            overlongLines++;
+            rest = 0;
+        } else if (lineStart > 0 && rest > 0) {
+            System.arraycopy(buf, lineStart, buf, 0, rest);
+        }
+        filled = rest;
+        scanned = rest;
+    }
+}
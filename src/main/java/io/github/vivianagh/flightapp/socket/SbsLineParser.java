@@ -0,0 +1,172 @@
+package io.github.vivianagh.flightapp.socket;
+
+import io.github.vivianagh.flightapp.utils.Icao24;
+import org.apache.avro.util.Utf8;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Allocation-free parser for SBS-1 (BaseStation, dump1090 port 30003) lines.
+ * <p>
+ * Scans the raw bytes field by field, parses numbers in place and fills a reusable
+ * {@link SbsMessage}. Replaces {@code FlightData.fromCsvLine} on the ingestion path,
+ * which did a {@code String.split} plus a substring per field.
+ *
+ * <pre>
+ * MSG,3,1,1,4CA2D6,1,2025/08/31,16:33:57.544,2025/08/31,16:33:57.544,,37000,,,51.47570,-0.12345,,,0,0,0,0
+ *  0  1 2 3   4    5     6           7            8          9       10  11 12 13   14       15   16 17 18..21
+ * </pre>
+ */
+public final class SbsLineParser {
+
+    private static final int F_MESSAGE_TYPE  = 0;
+    private static final int F_TRANSMISSION  = 1;
+    private static final int F_HEX_IDENT     = 4;
+    private static final int F_GEN_DATE      = 6;
+    private static final int F_GEN_TIME      = 7;
+    private static final int F_LOG_DATE      = 8;
+    private static final int F_LOG_TIME      = 9;
+    private static final int F_CALLSIGN      = 10;
+    private static final int F_ALTITUDE      = 11;
+    private static final int F_GROUND_SPEED  = 12;
+    private static final int F_TRACK         = 13;
+    private static final int F_LATITUDE      = 14;
+    private static final int F_LONGITUDE     = 15;
+    private static final int F_SQUAWK        = 17;
+    private static final int F_ALERT         = 18;
+    private static final int F_EMERGENCY     = 19;
+    private static final int F_SPI           = 20;
+    private static final int F_ON_GROUND     = 21;
+
+    // Up to 15 significant digits the mantissa fits in a double exactly, and 10^k (k <= 22)
+    // is exact too, so mantissa / 10^k is correctly rounded — same result as Double.parseDouble.
+    private static final int MAX_FAST_DIGITS = 15;
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    private SbsLineParser() {}
+
+    /**
+     * Parses {@code buf[off, off+len)} (trailing CR/LF allowed) into {@code out}.
+     *
+     * @return {@code false} when the line is not a {@code MSG} line or has no valid hex ident;
+     *         {@code out} content is undefined in that case.
+     */
+    public static boolean parse(byte[] buf, int off, int len, SbsMessage out) {
+        int end = off + len;
+        while (end > off && (buf[end - 1] == '\n' || buf[end - 1] == '\r')) end--;
+
+        out.reset();
+        int field = 0;
+        int start = off;
+        for (int i = off; i <= end; i++) {
+            if (i < end && buf[i] != ',') continue;
+            if (field == F_MESSAGE_TYPE && !isMsg(buf, start, i)) return false;
+            onField(field, buf, start, i, out);
+            field++;
+            start = i + 1;
+            if (field > F_ON_GROUND) break;
+        }
+        return field > F_HEX_IDENT && out.icao != Icao24.INVALID;
+    }
+
+    /** Convenience overload for tests and tools; allocates the byte copy, not for the hot path. */
+    public static boolean parse(String line, SbsMessage out) {
+        byte[] b = line.getBytes(StandardCharsets.US_ASCII);
+        return parse(b, 0, b.length, out);
+    }
+
+    private static void onField(int field, byte[] b, int from, int to, SbsMessage m) {
+        switch (field) {
+            case F_TRANSMISSION -> {
+                m.transmissionType = parseInt(b, from, to);
+                copy(b, from, to, m.transmissionTypeText);
+            }
+            case F_HEX_IDENT    -> m.icao = Icao24.parse(b, from, to);
+            case F_GEN_DATE     -> copy(b, from, to, m.generatedDate);
+            case F_GEN_TIME     -> copy(b, from, to, m.generatedTime);
+            case F_LOG_DATE     -> copy(b, from, to, m.loggedDate);
+            case F_LOG_TIME     -> copy(b, from, to, m.loggedTime);
+            case F_CALLSIGN     -> copy(b, from, to, m.callsign);
+            case F_ALTITUDE     -> m.altitude = parseDouble(b, from, to);
+            case F_GROUND_SPEED -> m.groundSpeed = parseDouble(b, from, to);
+            case F_TRACK        -> m.track = parseDouble(b, from, to);
+            case F_LATITUDE     -> m.latitude = parseDouble(b, from, to);
+            case F_LONGITUDE    -> m.longitude = parseDouble(b, from, to);
+            case F_SQUAWK       -> copy(b, from, to, m.squawk);
+            case F_ALERT        -> m.alert = parseFlag(b, from, to);
+            case F_EMERGENCY    -> m.emergency = parseFlag(b, from, to);
+            case F_SPI          -> m.spi = parseFlag(b, from, to);
+            case F_ON_GROUND    -> m.onGround = parseFlag(b, from, to);
+            default -> { /* session/aircraft/flight ids, vertical rate: not used */ }
+        }
+    }
+
+    private static boolean isMsg(byte[] b, int from, int to) {
+        return to - from == 3 && b[from] == 'M' && b[from + 1] == 'S' && b[from + 2] == 'G';
+    }
+
+    private static void copy(byte[] b, int from, int to, Utf8 target) {
+        int n = to - from;
+        target.setByteLength(n);
+        if (n > 0) System.arraycopy(b, from, target.getBytes(), 0, n);
+    }
+
+    /** Non-negative decimal int, or -1. */
+    static int parseInt(byte[] b, int from, int to) {
+        if (from >= to || to - from > 9) return -1;
+        int v = 0;
+        for (int i = from; i < to; i++) {
+            int d = b[i] - '0';
+            if (d < 0 || d > 9) return -1;
+            v = v * 10 + d;
+        }
+        return v;
+    }
+
+    /** BaseStation writes -1 for true; some feeders write 1. Anything else is false. */
+    static boolean parseFlag(byte[] b, int from, int to) {
+        int n = to - from;
+        if (n == 1) return b[from] == '1';
+        return n == 2 && b[from] == '-' && b[from + 1] == '1';
+    }
+
+    /** Plain decimal ({@code [-+]digits[.digits]}) parsed in place; anything unusual goes to the JDK parser. */
+    static double parseDouble(byte[] b, int from, int to) {
+        if (from >= to) return Double.NaN;
+        int i = from;
+        boolean negative = false;
+        if (b[i] == '-' || b[i] == '+') {
+            negative = b[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fraction = 0;
+        boolean dot = false;
+        for (; i < to; i++) {
+            int c = b[i];
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_FAST_DIGITS) return slowParse(b, from, to);
+                mantissa = mantissa * 10 + (c - '0');
+                if (dot) fraction++;
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                return slowParse(b, from, to);
+            }
+        }
+        if (digits == 0) return Double.NaN;
+        double v = fraction == 0 ? (double) mantissa : mantissa / POW10[fraction];
+        return negative ? -v : v;
+    }
+
+    private static double slowParse(byte[] b, int from, int to) {
+        try {
+            return Double.parseDouble(new String(b, from, to - from, StandardCharsets.US_ASCII));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package io.github.vivianagh.flightapp.socket;
+
+import io.github.vivianagh.flightapp.utils.Icao24;
+import org.apache.avro.util.Utf8;
+
+/**
+ * Mutable, reusable holder for one SBS-1 (BaseStation) line.
+ * <p>
+ * Filled in place by {@link SbsLineParser}; one instance per reader thread, never shared.
+ * Text fields are kept as {@link Utf8} so they can be handed straight to the Avro record
+ * without building Strings. Missing numbers are {@code NaN}, missing text has length 0.
+ */
+public final class SbsMessage {
+
+    int transmissionType = -1;
+    int icao = Icao24.INVALID;
+
+    final Utf8 transmissionTypeText = new Utf8();
+    final Utf8 callsign = new Utf8();
+    final Utf8 squawk = new Utf8();
+    final Utf8 generatedDate = new Utf8();
+    final Utf8 generatedTime = new Utf8();
+    final Utf8 loggedDate = new Utf8();
+    final Utf8 loggedTime = new Utf8();
+
+    double altitude = Double.NaN;
+    double groundSpeed = Double.NaN;
+    double track = Double.NaN;
+    double latitude = Double.NaN;
+    double longitude = Double.NaN;
+
+    boolean alert;
+    boolean emergency;
+    boolean spi;
+    boolean onGround;
+
+    void reset() {
+        transmissionType = -1;
+        icao = Icao24.INVALID;
+        transmissionTypeText.setByteLength(0);
+        callsign.setByteLength(0);
+        squawk.setByteLength(0);
+        generatedDate.setByteLength(0);
+        generatedTime.setByteLength(0);
+        loggedDate.setByteLength(0);
+        loggedTime.setByteLength(0);
+        altitude = groundSpeed = track = latitude = longitude = Double.NaN;
+        alert = emergency = spi = onGround = false;
+    }
+
+    /** MSG sub-type (1..8) or -1 when absent. */
+    public int getTransmissionType() { return transmissionType; }
+
+    /** 24-bit ICAO address, or {@link Icao24#INVALID}. */
+    public int getIcao() { return icao; }
+
+    /** Hex form of the address; cached per address so it does not allocate on repeat. */
+    public String getIcao24() { return Icao24.format(icao); }
+
+    public CharSequence getTransmissionTypeText() { return orNull(transmissionTypeText); }
+    public CharSequence getCallsign()      { return orNull(callsign); }
+    public CharSequence getSquawk()        { return orNull(squawk); }
+    public CharSequence getGeneratedDate() { return orNull(generatedDate); }
+    public CharSequence getGeneratedTime() { return orNull(generatedTime); }
+    public CharSequence getLoggedDate()    { return orNull(loggedDate); }
+    public CharSequence getLoggedTime()    { return orNull(loggedTime); }
+
+    public double getAltitude()    { return altitude; }
+    public double getGroundSpeed() { return groundSpeed; }
+    public double getTrack()       { return track; }
+    public double getLatitude()    { return latitude; }
+    public double getLongitude()   { return longitude; }
+
+    public boolean hasPosition() { return !Double.isNaN(latitude) && !Double.isNaN(longitude); }
+
+    public boolean isAlert()     { return alert; }
+    public boolean isEmergency() { return emergency; }
+    public boolean isSpi()       { return spi; }
+    public boolean isOnGround()  { return onGround; }
+
+    /** Boxes a parsed number for the Avro union {@code ["null","double"]}. */
+    public static Double boxed(double v) {
+        return Double.isNaN(v) ? null : v;
+    }
+
+    private static Utf8 orNull(Utf8 u) {
+        return u.getByteLength() == 0 ? null : u;
+    }
+
+    @Override
+    public String toString() {
+        return "SbsMessage{icao24=" + getIcao24()
+                + ", type=" + transmissionType
+                + ", callsign=" + callsign
+                + ", alt=" + altitude
+                + ", lat=" + latitude
+                + ", lon=" + longitude
+                + ", gs=" + groundSpeed
+                + ", track=" + track
+                + ", logged=" + loggedDate + ' ' + loggedTime + '}';
+    }
+}
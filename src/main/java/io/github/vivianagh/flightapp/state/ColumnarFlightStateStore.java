@@ -0,0 +1,412 @@
+package io.github.vivianagh.flightapp.state;
+
+import io.github.vivianagh.avro.Flight;
+import io.github.vivianagh.flightapp.config.StateStoreProperties;
+import io.github.vivianagh.flightapp.model.FlightData;
+import io.github.vivianagh.flightapp.utils.Icao24;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * State store keyed by the 24-bit ICAO address as an {@code int}, laid out by columns.
+ * <p>
+ * Each segment is an open-addressing table whose slots index parallel primitive arrays
+ * (altitude, position, velocity as {@code double} with NaN = unknown, flags packed in a byte),
+ * so a tracked aircraft costs a few dozen bytes instead of a {@link FlightState} plus its boxed
+ * fields, and applying a sample allocates nothing. Text fields stay as {@code String} references
+ * and are only replaced when the value actually changes.
+ * <p>
+ * Enabled with {@code flight.state.store=columnar}. Samples whose icao24 is not a valid hex
+ * address are ignored. The capacity bound is enforced per segment ({@code max-entries / 16}),
+ * and removals use backward-shift deletion, so no tombstones pile up between sweeps.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "flight.state.store", havingValue = "columnar")
+public class ColumnarFlightStateStore implements FlightStateStore {
+
+    private static final int SEGMENT_BITS = 4;
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+    private static final int INITIAL_SEGMENT_CAPACITY = 256;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final int maxPerSegment;
+    private final ApplicationEventPublisher events;
+
+    public ColumnarFlightStateStore(StateStoreProperties props, ApplicationEventPublisher events) {
+        this.maxPerSegment = Math.max(1, (props.maxEntries() + SEGMENTS - 1) / SEGMENTS);
+        this.events = events;
+        for (int i = 0; i < SEGMENTS; i++) segments[i] = new Segment(INITIAL_SEGMENT_CAPACITY);
+        log.info("🧮 FlightStateStore columnar ({} segmentos, max {} aeronaves)", SEGMENTS, maxPerSegment * SEGMENTS);
+    }
+
+    @Override
+    public int apply(FlightData data) {
+        int icao = Icao24.parse(data.getIcao24());
+        if (icao == Icao24.INVALID) return FlightFields.NONE;
+        int h = mix(icao);
+        Segment s = segments[h >>> (32 - SEGMENT_BITS)];
+        Flight evicted = null;
+        int changed;
+        synchronized (s) {
+            int slot = s.find(icao, h);
+            if (slot < 0) {
+                if (s.size >= maxPerSegment) evicted = s.evictOldest();
+                slot = s.insert(icao, h, data.getIcao24());
+            }
+            s.lastUpdate[slot] = System.currentTimeMillis();
+            changed = s.apply(slot, data);
+        }
+        if (evicted != null) events.publishEvent(new FlightEvictedEvent(evicted, FlightEvictedEvent.Cause.CAPACITY));
+        return changed;
+    }
+
+    @Override
+    public Flight toAvro(String icao24, int fieldMask) {
+        int icao = Icao24.parse(icao24);
+        if (icao == Icao24.INVALID) return null;
+        int h = mix(icao);
+        Segment s = segments[h >>> (32 - SEGMENT_BITS)];
+        synchronized (s) {
+            int slot = s.find(icao, h);
+            return slot < 0 ? null : s.toAvro(slot, fieldMask);
+        }
+    }
+
+    @Override
+    public Flight process(FlightData data) {
+        int icao = Icao24.parse(data.getIcao24());
+        if (icao == Icao24.INVALID) return null;
+        int h = mix(icao);
+        Segment s = segments[h >>> (32 - SEGMENT_BITS)];
+        Flight evicted = null;
+        Flight updated;
+        synchronized (s) {
+            int slot = s.find(icao, h);
+            if (slot < 0) {
+                if (s.size >= maxPerSegment) evicted = s.evictOldest();
+                slot = s.insert(icao, h, data.getIcao24());
+            }
+            s.lastUpdate[slot] = System.currentTimeMillis();
+            // no emitir si no cambió nada
+            updated = s.apply(slot, data) == FlightFields.NONE ? null : s.toAvro(slot, FlightFields.ALL);
+        }
+        if (evicted != null) events.publishEvent(new FlightEvictedEvent(evicted, FlightEvictedEvent.Cause.CAPACITY));
+        return updated;
+    }
+
+    @Override
+    public int size() {
+        int n = 0;
+        for (Segment s : segments) {
+            synchronized (s) {
+                n += s.size;
+            }
+        }
+        return n;
+    }
+
+    @Override
+    public int evictIdle(long cutoffMillis) {
+        List<Flight> evicted = new ArrayList<>();
+        for (Segment s : segments) {
+            synchronized (s) {
+                s.evictIdle(cutoffMillis, evicted);
+            }
+        }
+        for (Flight f : evicted) {
+            events.publishEvent(new FlightEvictedEvent(f, FlightEvictedEvent.Cause.IDLE));
+        }
+        return evicted.size();
+    }
+
+    @Override
+    public long estimatedMemoryBytes() {
+        long bytes = 0;
+        for (Segment s : segments) {
+            synchronized (s) {
+                bytes += (long) s.keys.length * Segment.BYTES_PER_SLOT + (long) s.size * Segment.TEXT_BYTES_PER_ENTRY;
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public void clear() {
+        for (Segment s : segments) {
+            synchronized (s) {
+                s.reset(INITIAL_SEGMENT_CAPACITY);
+            }
+        }
+    }
+
+    /** Murmur3 finalizer: high bits pick the segment, low bits the slot. */
+    private static int mix(int k) {
+        k ^= k >>> 16;
+        k *= 0x85ebca6b;
+        k ^= k >>> 13;
+        k *= 0xc2b2ae35;
+        k ^= k >>> 16;
+        return k;
+    }
+
+    /** One lock, one table. Load factor is kept at or below 1/2 so probe runs stay short. */
+    private static final class Segment {
+
+        private static final int EMPTY = -1;
+
+        // key + lastUpdate + 5 doubles + flags + 8 referencias comprimidas
+        static final int BYTES_PER_SLOT = 4 + 8 + 5 * 8 + 1 + 8 * 4;
+        // icao24, callsign, squawk y fechas/horas: ~7 Strings cortos vivos por aeronave
+        static final int TEXT_BYTES_PER_ENTRY = 7 * 48;
+
+        // bits de flags
+        private static final byte ALERT = 1;
+        private static final byte EMERGENCY = 1 << 1;
+        private static final byte SPI = 1 << 2;
+        private static final byte ON_GROUND = 1 << 3;
+        private static final byte KNOWN = 1 << 4;   // los flags ya se fijaron alguna vez
+
+        int size;
+        int[] keys;
+        long[] lastUpdate;
+        String[] icaoText;
+        double[] altitude, latitude, longitude, groundSpeed, track;
+        byte[] flags;
+        String[] callsign, squawk, generatedDate, generatedTime, loggedDate, loggedTime;
+
+        Segment(int capacity) {
+            reset(capacity);
+        }
+
+        void reset(int capacity) {
+            size = 0;
+            keys = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            lastUpdate = new long[capacity];
+            icaoText = new String[capacity];
+            altitude = new double[capacity];
+            latitude = new double[capacity];
+            longitude = new double[capacity];
+            groundSpeed = new double[capacity];
+            track = new double[capacity];
+            flags = new byte[capacity];
+            callsign = new String[capacity];
+            squawk = new String[capacity];
+            generatedDate = new String[capacity];
+            generatedTime = new String[capacity];
+            loggedDate = new String[capacity];
+            loggedTime = new String[capacity];
+        }
+
+        int find(int icao, int h) {
+            int mask = keys.length - 1;
+            for (int i = h & mask; ; i = (i + 1) & mask) {
+                int k = keys[i];
+                if (k == icao) return i;
+                if (k == EMPTY) return -1;
+            }
+        }
+
+        /** Slot for {@code icao}, creating an empty row (all unknown) if needed. */
+        int insert(int icao, int h, String text) {
+            int mask = keys.length - 1;
+            int i = h & mask;
+            for (; ; i = (i + 1) & mask) {
+                int k = keys[i];
+                if (k == icao) return i;
+                if (k == EMPTY) break;
+            }
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+                return insert(icao, h, text);
+            }
+            keys[i] = icao;
+            icaoText[i] = text;
+            altitude[i] = latitude[i] = longitude[i] = groundSpeed[i] = track[i] = Double.NaN;
+            flags[i] = 0;
+            size++;
+            return i;
+        }
+
+        private void grow() {
+            Segment old = new Segment(0);
+            old.keys = keys; old.lastUpdate = lastUpdate; old.icaoText = icaoText;
+            old.altitude = altitude; old.latitude = latitude; old.longitude = longitude;
+            old.groundSpeed = groundSpeed; old.track = track; old.flags = flags;
+            old.callsign = callsign; old.squawk = squawk;
+            old.generatedDate = generatedDate; old.generatedTime = generatedTime;
+            old.loggedDate = loggedDate; old.loggedTime = loggedTime;
+
+            reset(keys.length * 2);
+            int mask = keys.length - 1;
+            for (int j = 0; j < old.keys.length; j++) {
+                int k = old.keys[j];
+                if (k == EMPTY) continue;
+                int i = mix(k) & mask;
+                while (keys[i] != EMPTY) i = (i + 1) & mask;
+                copyRow(old, j, this, i);
+                size++;
+            }
+        }
+
+        private static void copyRow(Segment from, int j, Segment to, int i) {
+            to.keys[i] = from.keys[j];
+            to.lastUpdate[i] = from.lastUpdate[j];
+            to.icaoText[i] = from.icaoText[j];
+            to.altitude[i] = from.altitude[j];
+            to.latitude[i] = from.latitude[j];
+            to.longitude[i] = from.longitude[j];
+            to.groundSpeed[i] = from.groundSpeed[j];
+            to.track[i] = from.track[j];
+            to.flags[i] = from.flags[j];
+            to.callsign[i] = from.callsign[j];
+            to.squawk[i] = from.squawk[j];
+            to.generatedDate[i] = from.generatedDate[j];
+            to.generatedTime[i] = from.generatedTime[j];
+            to.loggedDate[i] = from.loggedDate[j];
+            to.loggedTime[i] = from.loggedTime[j];
+        }
+
+        /**
+         * Backward-shift deletion: walks the probe run after {@code i} and pulls back every entry
+         * whose home slot is not cyclically in {@code (i, j]}, so lookups never need tombstones.
+         */
+        void removeAt(int i) {
+            int mask = keys.length - 1;
+            int j = i;
+            while (true) {
+                j = (j + 1) & mask;
+                int k = keys[j];
+                if (k == EMPTY) break;
+                int home = mix(k) & mask;
+                boolean stays = (i <= j) ? (i < home && home <= j) : (i < home || home <= j);
+                if (!stays) {
+                    copyRow(this, j, this, i);
+                    i = j;
+                }
+            }
+            keys[i] = EMPTY;
+            icaoText[i] = callsign[i] = squawk[i] = null;
+            generatedDate[i] = generatedTime[i] = loggedDate[i] = loggedTime[i] = null;
+            size--;
+        }
+
+        /** Removes the least recently updated aircraft and returns its last state. */
+        Flight evictOldest() {
+            int oldest = -1;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != EMPTY && (oldest < 0 || lastUpdate[i] < lastUpdate[oldest])) oldest = i;
+            }
+            if (oldest < 0) return null;
+            Flight last = toAvro(oldest, FlightFields.ALL);
+            removeAt(oldest);
+            return last;
+        }
+
+        void evictIdle(long cutoffMillis, List<Flight> out) {
+            for (int i = 0; i < keys.length; ) {
+                if (keys[i] != EMPTY && lastUpdate[i] < cutoffMillis) {
+                    out.add(toAvro(i, FlightFields.ALL));
+                    removeAt(i);   // puede traer otra entrada a i: se vuelve a mirar el mismo slot
+                } else {
+                    i++;
+                }
+            }
+        }
+
+        /** Same semantics as {@link FlightState#applyAndDiff}: every field is overwritten with the sample's value. */
+        int apply(int i, FlightData d) {
+            int changed = FlightFields.NONE;
+
+            if (!Objects.equals(callsign[i], d.getCallsign())) {
+                callsign[i] = d.getCallsign();
+                changed |= FlightFields.CALLSIGN;
+            }
+            changed |= setDouble(altitude, i, d.getAltitude(), FlightFields.ALTITUDE);
+            changed |= setDouble(latitude, i, d.getLatitude(), FlightFields.LATITUDE);
+            changed |= setDouble(longitude, i, d.getLongitude(), FlightFields.LONGITUDE);
+            changed |= setDouble(groundSpeed, i, d.getGroundSpeed(), FlightFields.GROUND_SPEED);
+            changed |= setDouble(track, i, d.getTrack(), FlightFields.TRACK);
+            if (!Objects.equals(squawk[i], d.getSquawk())) {
+                squawk[i] = d.getSquawk();
+                changed |= FlightFields.SQUAWK;
+            }
+
+            int f = flags[i];
+            int nf = KNOWN
+                    | (d.isAlert() ? ALERT : 0)
+                    | (d.isEmergency() ? EMERGENCY : 0)
+                    | (d.isSpi() ? SPI : 0)
+                    | (d.isOnGround() ? ON_GROUND : 0);
+            if (f != nf) {
+                // antes del primer mensaje los flags son "desconocidos": cuentan todos como cambio
+                int diff = (f & KNOWN) == 0 ? 0xFF : (f ^ nf);
+                if ((diff & ALERT) != 0) changed |= FlightFields.ALERT;
+                if ((diff & EMERGENCY) != 0) changed |= FlightFields.EMERGENCY;
+                if ((diff & SPI) != 0) changed |= FlightFields.SPI;
+                if ((diff & ON_GROUND) != 0) changed |= FlightFields.ON_GROUND;
+                flags[i] = (byte) nf;
+            }
+
+            if (!Objects.equals(generatedDate[i], d.getGeneratedDate())) {
+                generatedDate[i] = d.getGeneratedDate();
+                changed |= FlightFields.GENERATED_DATE;
+            }
+            if (!Objects.equals(generatedTime[i], d.getGeneratedTime())) {
+                generatedTime[i] = d.getGeneratedTime();
+                changed |= FlightFields.GENERATED_TIME;
+            }
+            if (!Objects.equals(loggedDate[i], d.getLoggedDate())) {
+                loggedDate[i] = d.getLoggedDate();
+                changed |= FlightFields.LOGGED_DATE;
+            }
+            if (!Objects.equals(loggedTime[i], d.getLoggedTime())) {
+                loggedTime[i] = d.getLoggedTime();
+                changed |= FlightFields.LOGGED_TIME;
+            }
+            return changed;
+        }
+
+        /** Compares like {@code Double.equals} (NaN == NaN), which is what the boxed store did. */
+        private static int setDouble(double[] col, int i, Double value, int bit) {
+            double v = value == null ? Double.NaN : value;
+            if (Double.doubleToLongBits(col[i]) == Double.doubleToLongBits(v)) return FlightFields.NONE;
+            col[i] = v;
+            return bit;
+        }
+
+        Flight toAvro(int i, int mask) {
+            int f = flags[i];
+            Flight out = new Flight();
+            out.setIcao24(icaoText[i]);
+            out.setAlert((f & ALERT) != 0);
+            out.setEmergency((f & EMERGENCY) != 0);
+            out.setSpi((f & SPI) != 0);
+            out.setIsOnGround((f & ON_GROUND) != 0);
+            if ((mask & FlightFields.CALLSIGN) != 0)       out.setCallsign(callsign[i]);
+            if ((mask & FlightFields.ALTITUDE) != 0)       out.setAltitude(boxed(altitude[i]));
+            if ((mask & FlightFields.LATITUDE) != 0)       out.setLatitude(boxed(latitude[i]));
+            if ((mask & FlightFields.LONGITUDE) != 0)      out.setLongitude(boxed(longitude[i]));
+            if ((mask & FlightFields.GROUND_SPEED) != 0)   out.setGroundSpeed(boxed(groundSpeed[i]));
+            if ((mask & FlightFields.TRACK) != 0)          out.setTrack(boxed(track[i]));
+            if ((mask & FlightFields.SQUAWK) != 0)         out.setSquawk(squawk[i]);
+            if ((mask & FlightFields.GENERATED_DATE) != 0) out.setGeneratedDate(generatedDate[i]);
+            if ((mask & FlightFields.GENERATED_TIME) != 0) out.setGeneratedTime(generatedTime[i]);
+            if ((mask & FlightFields.LOGGED_DATE) != 0)    out.setLoggedDate(loggedDate[i]);
+            if ((mask & FlightFields.LOGGED_TIME) != 0)    out.setLoggedTime(loggedTime[i]);
+            return out;
+        }
+
+        private static Double boxed(double v) {
+            return Double.isNaN(v) ? null : v;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.vivianagh.flightapp.state;
+
+import io.github.vivianagh.avro.Flight;
+
+/**
+ * Published by the {@link FlightStateStore} when an aircraft leaves the store, after its lock is released.
+ *
+ * @param lastState last consolidated record of the aircraft
+ * @param cause     why it was removed
+ */
+public record FlightEvictedEvent(Flight lastState, Cause cause) {
+
+    public enum Cause {
+        /** No samples for {@code flight.state.idle-timeout-ms}: out of range or landed. */
+        IDLE,
+        /** Store full ({@code flight.state.max-entries}); the least recently updated aircraft goes. */
+        CAPACITY
+    }
+}
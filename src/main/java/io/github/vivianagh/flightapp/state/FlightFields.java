@@ -0,0 +1,73 @@
+package io.github.vivianagh.flightapp.state;
+
+import io.github.vivianagh.avro.Flight;
+
+/**
+ * Bit per consolidated field, as returned by {@link FlightStateStore#apply}.
+ * Lets callers tell a position update from a velocity or ident change without diffing records.
+ */
+public final class FlightFields {
+
+    public static final int CALLSIGN       = 1;
+    public static final int ALTITUDE       = 1 << 1;
+    public static final int LATITUDE       = 1 << 2;
+    public static final int LONGITUDE      = 1 << 3;
+    public static final int GROUND_SPEED   = 1 << 4;
+    public static final int TRACK          = 1 << 5;
+    public static final int SQUAWK         = 1 << 6;
+    public static final int ALERT          = 1 << 7;
+    public static final int EMERGENCY      = 1 << 8;
+    public static final int SPI            = 1 << 9;
+    public static final int ON_GROUND      = 1 << 10;
+    public static final int GENERATED_DATE = 1 << 11;
+    public static final int GENERATED_TIME = 1 << 12;
+    public static final int LOGGED_DATE    = 1 << 13;
+    public static final int LOGGED_TIME    = 1 << 14;
+
+    public static final int NONE = 0;
+    public static final int ALL = (1 << 15) - 1;
+
+    public static final int POSITION = LATITUDE | LONGITUDE;
+    public static final int VELOCITY = GROUND_SPEED | TRACK;
+    public static final int FLAGS    = ALERT | EMERGENCY | SPI | ON_GROUND;
+
+    private static final String[] NAMES = {
+            "callsign", "altitude", "latitude", "longitude", "groundSpeed", "track", "squawk",
+            "alert", "emergency", "spi", "isOnGround",
+            "generatedDate", "generatedTime", "loggedDate", "loggedTime"
+    };
+
+    private FlightFields() {}
+
+    public static boolean any(int mask, int fields) {
+        return (mask & fields) != 0;
+    }
+
+    /** Nulls every nullable field of {@code flight} that is not in {@code mask} (icao24 and flags are kept). */
+    public static Flight retain(Flight flight, int mask) {
+        if ((mask & CALLSIGN) == 0)       flight.setCallsign(null);
+        if ((mask & ALTITUDE) == 0)       flight.setAltitude(null);
+        if ((mask & LATITUDE) == 0)       flight.setLatitude(null);
+        if ((mask & LONGITUDE) == 0)      flight.setLongitude(null);
+        if ((mask & GROUND_SPEED) == 0)   flight.setGroundSpeed(null);
+        if ((mask & TRACK) == 0)          flight.setTrack(null);
+        if ((mask & SQUAWK) == 0)         flight.setSquawk(null);
+        if ((mask & GENERATED_DATE) == 0) flight.setGeneratedDate(null);
+        if ((mask & GENERATED_TIME) == 0) flight.setGeneratedTime(null);
+        if ((mask & LOGGED_DATE) == 0)    flight.setLoggedDate(null);
+        if ((mask & LOGGED_TIME) == 0)    flight.setLoggedTime(null);
+        return flight;
+    }
+
+    /** e.g. {@code "[latitude, longitude]"}, for logs. */
+    public static String describe(int mask) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < NAMES.length; i++) {
+            if ((mask & (1 << i)) != 0) {
+                if (sb.length() > 1) sb.append(", ");
+                sb.append(NAMES[i]);
+            }
+        }
+        return sb.append(']').toString();
+    }
+}
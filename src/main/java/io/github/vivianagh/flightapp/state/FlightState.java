@@ -26,6 +26,7 @@ public class FlightState {
     private String loggedDate;
     private String loggedTime;
     private Boolean previousIsOnGround;
+    private volatile long lastUpdateMillis; // último mensaje aplicado; lo lee el barrido de inactivas desde otro hilo
 
     public void apply(FlightData data) {
         String type = data.getTransmissionType();
@@ -74,6 +75,33 @@ public class FlightState {
     public void applyMsg7(FlightData data) {this.isOnGround = data.isOnGround();}
     public void applyMsg8(FlightData data) {this.isOnGround = data.isOnGround();}
 
+    /** Rebuilds the state from its last consolidated record (e.g. read back from a Kafka Streams store). */
+    public static FlightState fromAvro(Flight flight) {
+        FlightState s = new FlightState();
+        s.icao24 = str(flight.getIcao24());
+        s.transmissionType = str(flight.getTransmissionType());
+        s.callsign = str(flight.getCallsign());
+        s.altitude = flight.getAltitude();
+        s.latitude = flight.getLatitude();
+        s.longitude = flight.getLongitude();
+        s.groundSpeed = flight.getGroundSpeed();
+        s.track = flight.getTrack();
+        s.squawk = str(flight.getSquawk());
+        s.alert = flight.getAlert();
+        s.emergency = flight.getEmergency();
+        s.spi = flight.getSpi();
+        s.isOnGround = flight.getIsOnGround();
+        s.generatedDate = str(flight.getGeneratedDate());
+        s.generatedTime = str(flight.getGeneratedTime());
+        s.loggedDate = str(flight.getLoggedDate());
+        s.loggedTime = str(flight.getLoggedTime());
+        return s;
+    }
+
+    private static String str(CharSequence cs) {
+        return cs == null ? null : cs.toString();
+    }
+
     public Flight toAvroFlight() {
         if (icao24 == null || icao24.isBlank()) {
             throw new IllegalStateException("Invalid FlightState: icao24 is null");
@@ -107,82 +135,87 @@ public class FlightState {
     }
 
     public boolean applyAndDetectChange(FlightData newData) {
-        boolean changed = false;
+        return applyAndDiff(newData) != FlightFields.NONE;
+    }
+
+    /** Like {@link #applyAndDetectChange} but says which fields changed ({@link FlightFields} bits). */
+    public int applyAndDiff(FlightData newData) {
+        int changed = FlightFields.NONE;
 
         if (!Objects.equals(this.callsign, newData.getCallsign())) {
             this.callsign = newData.getCallsign();
-            changed = true;
+            changed |= FlightFields.CALLSIGN;
         }
         if (!Objects.equals(this.altitude, newData.getAltitude())) {
             this.altitude = newData.getAltitude();
-            changed = true;
+            changed |= FlightFields.ALTITUDE;
         }
 
         if (!Objects.equals(latitude, newData.getLatitude())) {
             latitude = newData.getLatitude();
-            changed = true;
+            changed |= FlightFields.LATITUDE;
         }
 
         if (!Objects.equals(longitude, newData.getLongitude())) {
             longitude = newData.getLongitude();
-            changed = true;
+            changed |= FlightFields.LONGITUDE;
         }
 
         if (!Objects.equals(groundSpeed, newData.getGroundSpeed())) {
             groundSpeed = newData.getGroundSpeed();
-            changed = true;
+            changed |= FlightFields.GROUND_SPEED;
         }
 
         if (!Objects.equals(track, newData.getTrack())) {
             track = newData.getTrack();
-            changed = true;
+            changed |= FlightFields.TRACK;
         }
 
         if (!Objects.equals(squawk, newData.getSquawk())) {
             squawk = newData.getSquawk();
-            changed = true;
+            changed |= FlightFields.SQUAWK;
         }
 
         if (!Objects.equals(alert, newData.isAlert())) {
             alert = newData.isAlert();
-            changed = true;
+            changed |= FlightFields.ALERT;
         }
 
         if (!Objects.equals(emergency, newData.isEmergency())) {
             emergency = newData.isEmergency();
-            changed = true;
+            changed |= FlightFields.EMERGENCY;
         }
 
         if (!Objects.equals(spi, newData.isSpi())) {
             spi = newData.isSpi();
-            changed = true;
+            changed |= FlightFields.SPI;
         }
 
         if (!Objects.equals(isOnGround, newData.isOnGround())) {
             isOnGround = newData.isOnGround();
-            changed = true;
+            changed |= FlightFields.ON_GROUND;
         }
 
         if (!Objects.equals(generatedDate, newData.getGeneratedDate())) {
             generatedDate = newData.getGeneratedDate();
-            changed = true;
+            changed |= FlightFields.GENERATED_DATE;
         }
 
         if (!Objects.equals(generatedTime, newData.getGeneratedTime())) {
             generatedTime = newData.getGeneratedTime();
-            changed = true;
+            changed |= FlightFields.GENERATED_TIME;
         }
 
         if (!Objects.equals(loggedDate, newData.getLoggedDate())) {
             loggedDate = newData.getLoggedDate();
-            changed = true;
+            changed |= FlightFields.LOGGED_DATE;
         }
 
         if (!Objects.equals(loggedTime, newData.getLoggedTime())) {
             loggedTime = newData.getLoggedTime();
-            changed = true;
+            changed |= FlightFields.LOGGED_TIME;
         }
-         return changed;
+        return changed;
     }
 
 }
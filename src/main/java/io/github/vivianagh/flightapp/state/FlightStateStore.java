@@ -2,40 +2,43 @@ package io.github.vivianagh.flightapp.state;
 
 import io.github.vivianagh.avro.Flight;
 import io.github.vivianagh.flightapp.model.FlightData;
-import lombok.Getter;
-import org.springframework.stereotype.Component;
-
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
-@Getter
-@Component
-public class FlightStateStore {
-
-    private final Map<String, FlightState> stateMap = new ConcurrentHashMap<>();
-
-    public Flight process(FlightData data) {
-        String icao24 = data.getIcao24();
-        if (icao24 == null) return null;
-
-        FlightState currentState = stateMap.computeIfAbsent(icao24, k -> {
-            FlightState fs = new FlightState();
-            fs.setIcao24(icao24);
-            return fs;
-        });
-
-        boolean changed = currentState.applyAndDetectChange(data);
-
-        if (!changed) {
-            return null; // no emitir si no cambió nada
-        }
-
-        return currentState.toAvroFlight();
-    }
+import org.springframework.lang.Nullable;
+
+/**
+ * Consolidated per-aircraft state built from MSG 3/4 samples.
+ * Implementations are picked with {@code flight.state.store} ({@code map} by default, or {@code columnar}).
+ * <p>
+ * Entries expire after {@code flight.state.idle-timeout-ms} without samples and the store never holds more
+ * than {@code flight.state.max-entries}; every removal is published as a {@link FlightEvictedEvent}.
+ */
+public interface FlightStateStore {
+
+    /**
+     * Merges the sample into the aircraft state.
+     *
+     * @return {@link FlightFields} bitmask of the fields that changed, {@link FlightFields#NONE} if nothing did
+     */
+    int apply(FlightData data);
+
+    /** Current state as Avro, with only the fields in {@code fieldMask} filled; null if unknown. */
+    @Nullable Flight toAvro(String icao24, int fieldMask);
+
+    /** Applies the sample and returns the full consolidated record, or null when nothing changed. */
+    @Nullable Flight process(FlightData data);
+
+    /** Aircraft currently tracked. */
+    int size();
+
+    /**
+     * Removes every aircraft whose last sample is older than {@code cutoffMillis} (epoch ms).
+     *
+     * @return number of aircraft evicted
+     */
+    int evictIdle(long cutoffMillis);
+
+    /** Rough heap footprint of the tracked state, for metrics. */
+    long estimatedMemoryBytes();
 
     // Útil para testing
-    public void clear() {
-        stateMap.clear();
-    }
-
+    void clear();
 }
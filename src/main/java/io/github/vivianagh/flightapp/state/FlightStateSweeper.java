@@ -0,0 +1,60 @@
+package io.github.vivianagh.flightapp.state;
+
+import io.github.vivianagh.flightapp.config.StateStoreProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Expira las aeronaves sin mensajes ({@code flight.state.idle-timeout-ms}) y publica las
+ * métricas del store: {@code flight.state.entries}, {@code flight.state.memory.estimated}
+ * y {@code flight.state.evictions{cause=idle|capacity}}.
+ */
+@Slf4j
+@Component
+public class FlightStateSweeper {
+
+    private final FlightStateStore store;
+    private final StateStoreProperties props;
+    private final Counter idleEvictions;
+    private final Counter capacityEvictions;
+
+    public FlightStateSweeper(FlightStateStore store, StateStoreProperties props, MeterRegistry registry) {
+        this.store = store;
+        this.props = props;
+
+        Gauge.builder("flight.state.entries", store, FlightStateStore::size)
+                .description("Aircraft tracked in the state store")
+                .register(registry);
+        Gauge.builder("flight.state.memory.estimated", store, FlightStateStore::estimatedMemoryBytes)
+                .description("Estimated heap used by the state store")
+                .baseUnit("bytes")
+                .register(registry);
+        this.idleEvictions = evictionCounter(registry, "idle");
+        this.capacityEvictions = evictionCounter(registry, "capacity");
+    }
+
+    @Scheduled(fixedDelayString = "${flight.state.sweep-interval-ms:10000}")
+    public void sweep() {
+        int evicted = store.evictIdle(System.currentTimeMillis() - props.idleTimeoutMs());
+        if (evicted > 0) {
+            log.debug("🧹 State store: {} aeronaves inactivas expulsadas, quedan {}", evicted, store.size());
+        }
+    }
+
+    @EventListener
+    public void onEvicted(FlightEvictedEvent event) {
+        (event.cause() == FlightEvictedEvent.Cause.IDLE ? idleEvictions : capacityEvictions).increment();
+    }
+
+    private static Counter evictionCounter(MeterRegistry registry, String cause) {
+        return Counter.builder("flight.state.evictions")
+                .description("Aircraft removed from the state store")
+                .tag("cause", cause)
+                .register(registry);
+    }
+}
@@ -0,0 +1,140 @@
+package io.github.vivianagh.flightapp.state;
+
+import io.github.vivianagh.avro.Flight;
+import io.github.vivianagh.flightapp.config.StateStoreProperties;
+import io.github.vivianagh.flightapp.model.FlightData;
+import lombok.Getter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Store por defecto: un {@link FlightState} por aeronave en un {@code ConcurrentHashMap}. */
+@Getter
+@Component
+@ConditionalOnProperty(name = "flight.state.store", havingValue = "map", matchIfMissing = true)
+public class MapFlightStateStore implements FlightStateStore {
+
+    // Entrada del mapa + FlightState + campos boxed + ~6 Strings de texto
+    private static final long BYTES_PER_ENTRY = 520;
+
+    private final Map<String, FlightState> stateMap = new ConcurrentHashMap<>();
+    private final Object insertLock = new Object();   // solo las altas pasan por aquí (tope de capacidad)
+
+    private final int maxEntries;
+    private final ApplicationEventPublisher events;
+
+    public MapFlightStateStore(StateStoreProperties props, ApplicationEventPublisher events) {
+        this.maxEntries = props.maxEntries();
+        this.events = events;
+    }
+
+    @Override
+    public int apply(FlightData data) {
+        String icao24 = data.getIcao24();
+        if (icao24 == null) return FlightFields.NONE;
+        FlightState state = stateFor(icao24);
+        state.setLastUpdateMillis(System.currentTimeMillis());
+        return state.applyAndDiff(data);
+    }
+
+    @Override
+    public Flight toAvro(String icao24, int fieldMask) {
+        FlightState state = stateMap.get(icao24);
+        if (state == null) return null;
+        Flight flight = state.toAvroFlight();
+        return fieldMask == FlightFields.ALL ? flight : FlightFields.retain(flight, fieldMask);
+    }
+
+    @Override
+    public Flight process(FlightData data) {
+        String icao24 = data.getIcao24();
+        if (icao24 == null) return null;
+
+        FlightState currentState = stateFor(icao24);
+        currentState.setLastUpdateMillis(System.currentTimeMillis());
+
+        boolean changed = currentState.applyAndDetectChange(data);
+
+        if (!changed) {
+            return null; // no emitir si no cambió nada
+        }
+
+        return currentState.toAvroFlight();
+    }
+
+    @Override
+    public int size() {
+        return stateMap.size();
+    }
+
+    /**
+     * The idle check is repeated under the map's bin lock: a consumer that has just fetched the state in
+     * {@link #stateFor} and refreshed its timestamp keeps it, and only what was really removed is published.
+     */
+    @Override
+    public int evictIdle(long cutoffMillis) {
+        List<FlightState> evicted = new ArrayList<>();
+        for (Map.Entry<String, FlightState> e : stateMap.entrySet()) {
+            if (e.getValue().getLastUpdateMillis() >= cutoffMillis) continue;
+            stateMap.computeIfPresent(e.getKey(), (k, s) -> {
+                if (s.getLastUpdateMillis() >= cutoffMillis) return s;
+                evicted.add(s);
+                return null;
+            });
+        }
+        evicted.forEach(s -> publish(s, FlightEvictedEvent.Cause.IDLE));
+        return evicted.size();
+    }
+
+    @Override
+    public long estimatedMemoryBytes() {
+        return stateMap.size() * BYTES_PER_ENTRY;
+    }
+
+    // Útil para testing
+    @Override
+    public void clear() {
+        stateMap.clear();
+    }
+
+    private FlightState stateFor(String icao24) {
+        FlightState existing = stateMap.get(icao24);
+        if (existing != null) return existing;
+
+        FlightState evicted = null;
+        FlightState fs;
+        synchronized (insertLock) {
+            existing = stateMap.get(icao24);
+            if (existing != null) return existing;
+            if (stateMap.size() >= maxEntries) {
+                evicted = removeLeastRecentlyUpdated();
+            }
+            fs = new FlightState();
+            fs.setIcao24(icao24);
+            fs.setLastUpdateMillis(System.currentTimeMillis()); // que el barrido no la vea como inactiva
+            stateMap.put(icao24, fs);
+        }
+        if (evicted != null) publish(evicted, FlightEvictedEvent.Cause.CAPACITY);
+        return fs;
+    }
+
+    /** O(n), but only runs when a new aircraft arrives with the store already full. */
+    private FlightState removeLeastRecentlyUpdated() {
+        FlightState oldest = null;
+        for (FlightState s : stateMap.values()) {
+            if (oldest == null || s.getLastUpdateMillis() < oldest.getLastUpdateMillis()) oldest = s;
+        }
+        if (oldest != null) stateMap.remove(oldest.getIcao24(), oldest);
+        return oldest;
+    }
+
+    private void publish(FlightState state, FlightEvictedEvent.Cause cause) {
+        if (state.getIcao24() == null || state.getIcao24().isBlank()) return; // nunca llegó a emitirse
+        events.publishEvent(new FlightEvictedEvent(state.toAvroFlight(), cause));
+    }
+}
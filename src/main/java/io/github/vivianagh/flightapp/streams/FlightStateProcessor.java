@@ -0,0 +1,187 @@
+package io.github.vivianagh.flightapp.streams;
+
+import io.github.vivianagh.avro.Flight;
+import io.github.vivianagh.flightapp.geo.GeofenceEngine;
+import io.github.vivianagh.flightapp.model.FlightData;
+import io.github.vivianagh.flightapp.state.FlightFields;
+import io.github.vivianagh.flightapp.state.FlightState;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.apache.kafka.streams.state.TimestampedKeyValueStore;
+import org.apache.kafka.streams.state.ValueAndTimestamp;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Same rules as {@code FlightProcessorService}, with the state in the task's stores:
+ * MSG 1/5 cache the callsign, MSG 3/4 are merged into the aircraft's {@link FlightState} and emitted
+ * when something changed, plus one near-zone event per aircraft and zone. A stream-time punctuator
+ * expires idle aircraft and publishes their last state to {@code flights-completed}.
+ * <p>
+ * Stream time, not wall clock: the stored timestamps are record timestamps, so "idle" must be measured on
+ * the same clock. With wall clock a consumer catching up on a backlog would expire every aircraft it had
+ * just updated. The cost is that a partition with no traffic at all does not sweep until its next record.
+ */
+@Slf4j
+class FlightStateProcessor implements Processor<String, Flight, String, Flight> {
+
+    // Sin cambios, el timestamp del estado solo se refresca cada tanto (evita escribir el changelog por mensaje)
+    private static final long TOUCH_INTERVAL_MS = 30_000;
+
+    private final GeofenceEngine geofence;
+    private final FlightStateTopology.DeadLetters deadLetters;
+    private final Duration idleTimeout;
+    private final Duration sweepInterval;
+    private final StringSerializer prefixSerializer = new StringSerializer();
+
+    private ProcessorContext<String, Flight> context;
+    private TimestampedKeyValueStore<String, Flight> states;
+    private TimestampedKeyValueStore<String, String> callsigns;
+    private KeyValueStore<String, Long> zoneSeen;
+
+    FlightStateProcessor(GeofenceEngine geofence, FlightStateTopology.DeadLetters deadLetters,
+                         Duration idleTimeout, Duration sweepInterval) {
+        this.geofence = geofence;
+        this.deadLetters = deadLetters;
+        this.idleTimeout = idleTimeout;
+        this.sweepInterval = sweepInterval;
+    }
+
+    @Override
+    public void init(ProcessorContext<String, Flight> context) {
+        this.context = context;
+        this.states = context.getStateStore(FlightStateTopology.STATE_STORE);
+        this.callsigns = context.getStateStore(FlightStateTopology.CALLSIGN_STORE);
+        this.zoneSeen = context.getStateStore(FlightStateTopology.ZONE_SEEN_STORE);
+        context.schedule(sweepInterval, PunctuationType.STREAM_TIME, this::evictIdle);
+    }
+
+    @Override
+    public void process(Record<String, Flight> record) {
+        final Flight avro = record.value();
+        if (avro == null) return;
+        final String icao24 = record.key() != null ? record.key() : String.valueOf(avro.getIcao24());
+
+        try {
+            final FlightData d = FlightData.fromAvro(avro);
+            final String type = trim(d.getTransmissionType());
+            if (type == null) return;
+            switch (type) {
+                case "1", "5" -> cacheCallsign(icao24, d, record.timestamp());
+                case "3", "4" -> applyMotion(record, icao24, d);
+                default -> { /* resto de tipos: sin efecto en el estado */ }
+            }
+        } catch (RuntimeException ex) {
+            log.warn("☠️ streams: RAW flight to DLQ | icao24={} reason={}", icao24, ex.getMessage());
+            context.forward(record, FlightStateTopology.DLQ_SINK);
+            recordDeadLetter(icao24, avro, ex.getMessage());
+        }
+    }
+
+    // Un fallo al guardar el DLQ no debe tumbar el stream thread: el registro ya salió por el sink
+    private void recordDeadLetter(String icao24, Flight avro, String reason) {
+        try {
+            deadLetters.record(avro, reason);
+        } catch (RuntimeException ex) {
+            log.error("❌ streams: DLQ enviado pero no registrado | icao24={}", icao24, ex);
+        }
+    }
+
+    private void cacheCallsign(String icao24, FlightData d, long ts) {
+        final String cs = trim(d.getCallsign());
+        if (cs == null) return;
+        final ValueAndTimestamp<String> prev = callsigns.get(icao24);
+        if (prev == null || !cs.equals(prev.value()) || ts - prev.timestamp() > TOUCH_INTERVAL_MS) {
+            callsigns.put(icao24, ValueAndTimestamp.make(cs, ts));
+        }
+    }
+
+    private void applyMotion(Record<String, Flight> record, String icao24, FlightData d) {
+        if (trim(d.getCallsign()) == null) {
+            final ValueAndTimestamp<String> cs = callsigns.get(icao24);
+            if (cs != null) d.setCallsign(cs.value());
+        }
+
+        final ValueAndTimestamp<Flight> prev = states.get(icao24);
+        final FlightState state;
+        if (prev != null) {
+            state = FlightState.fromAvro(prev.value());
+        } else {
+            state = new FlightState();
+            state.setIcao24(icao24);
+        }
+        final long ts = prev == null ? record.timestamp() : Math.max(record.timestamp(), prev.timestamp());
+
+        if (state.applyAndDiff(d) == FlightFields.NONE) {
+            if (prev != null && ts - prev.timestamp() > TOUCH_INTERVAL_MS) {
+                states.put(icao24, ValueAndTimestamp.make(prev.value(), ts));
+            }
+            return;
+        }
+
+        final Flight updated = state.toAvroFlight();
+        states.put(icao24, ValueAndTimestamp.make(updated, ts));
+        context.forward(record.withKey(icao24).withValue(updated), FlightStateTopology.UPDATE_SINK);
+
+        if (d.getLatitude() == null || d.getLongitude() == null || d.isOnGround()) return;
+        for (String zoneId : geofence.zonesAt(d.getLatitude(), d.getLongitude())) {
+            final String seenKey = icao24 + "|" + zoneId;
+            if (zoneSeen.get(seenKey) != null) continue;
+            zoneSeen.put(seenKey, ts);
+            final Flight near = Flight.newBuilder(updated).setZoneId(zoneId).build();
+            context.forward(record.withKey(icao24).withValue(near), FlightStateTopology.NEAR_ZONE_SINK);
+        }
+    }
+
+    /**
+     * Drops aircraft without samples for {@code idleTimeout} of stream time; their last state goes to
+     * flights-completed.
+     */
+    private void evictIdle(long now) {
+        final long cutoff = now - idleTimeout.toMillis();
+
+        final List<String> expired = new ArrayList<>();
+        try (KeyValueIterator<String, ValueAndTimestamp<Flight>> it = states.all()) {
+            while (it.hasNext()) {
+                final KeyValue<String, ValueAndTimestamp<Flight>> kv = it.next();
+                if (kv.value.timestamp() < cutoff) {
+                    expired.add(kv.key);
+                    context.forward(new Record<>(kv.key, kv.value.value(), now), FlightStateTopology.COMPLETED_SINK);
+                }
+            }
+        }
+        for (String icao24 : expired) {
+            states.delete(icao24);
+            final List<String> zoneKeys = new ArrayList<>(2);
+            try (KeyValueIterator<String, Long> it = zoneSeen.prefixScan(icao24 + "|", prefixSerializer)) {
+                it.forEachRemaining(kv -> zoneKeys.add(kv.key));
+            }
+            zoneKeys.forEach(zoneSeen::delete);
+        }
+
+        final List<String> staleCallsigns = new ArrayList<>();
+        try (KeyValueIterator<String, ValueAndTimestamp<String>> it = callsigns.all()) {
+            it.forEachRemaining(kv -> { if (kv.value.timestamp() < cutoff) staleCallsigns.add(kv.key); });
+        }
+        staleCallsigns.forEach(callsigns::delete);
+
+        if (!expired.isEmpty()) {
+            log.debug("🧹 streams: {} aeronave(s) inactivas -> flights-completed", expired.size());
+        }
+    }
+
+    private static String trim(String s) {
+        if (s == null) return null;
+        String t = s.trim();
+        return t.isEmpty() ? null : t;
+    }
+}
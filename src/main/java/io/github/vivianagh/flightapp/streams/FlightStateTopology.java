@@ -0,0 +1,92 @@
+package io.github.vivianagh.flightapp.streams;
+
+import io.github.vivianagh.avro.Flight;
+import io.github.vivianagh.flightapp.geo.GeofenceEngine;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Named;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.state.Stores;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * {@code raw-flights -> flights-update / flights-over-home / flights-completed}, with the consolidated
+ * state of each aircraft in RocksDB stores backed by changelog topics.
+ * <p>
+ * {@code raw-flights} is keyed by icao24, so each task owns the aircraft of its partition: instances
+ * scale by partition and a restarted (or standby) task gets its state back from the changelog
+ * instead of starting empty.
+ */
+public class FlightStateTopology {
+
+    public static final String STATE_STORE = "flight-state";           // icao24 -> último Flight consolidado
+    public static final String CALLSIGN_STORE = "flight-callsigns";    // icao24 -> callsign (MSG 1/5)
+    public static final String ZONE_SEEN_STORE = "flight-zone-seen";   // icao24|zona -> ts del evento
+
+    static final String PROCESSOR = "flight-state-processor";
+    static final String UPDATE_SINK = "flights-update-sink";
+    static final String NEAR_ZONE_SINK = "flights-over-home-sink";
+    static final String COMPLETED_SINK = "flights-completed-sink";
+    static final String DLQ_SINK = "flights-dlq-sink";
+
+    /** Topic names, as in {@code kafka.topic.*}. */
+    public record Topics(String raw, String update, String overHome, String completed, String deadLetter) {}
+
+    /**
+     * Called for every record sent to the DLQ sink, so streams mode leaves the same trace as
+     * {@code DeadLetterPublisher.sendToDlq} (metric and database row); the topic itself is written by the sink.
+     */
+    @FunctionalInterface
+    public interface DeadLetters {
+        void record(Flight flight, String reason);
+    }
+
+    private final Topics topics;
+    private final GeofenceEngine geofence;
+    private final DeadLetters deadLetters;
+    private final Map<String, ?> serdeConfig;
+    private final Duration idleTimeout;
+    private final Duration sweepInterval;
+
+    public FlightStateTopology(Topics topics, GeofenceEngine geofence, DeadLetters deadLetters,
+                               Map<String, ?> serdeConfig, Duration idleTimeout, Duration sweepInterval) {
+        this.topics = topics;
+        this.geofence = geofence;
+        this.deadLetters = deadLetters;
+        this.serdeConfig = serdeConfig;
+        this.idleTimeout = idleTimeout;
+        this.sweepInterval = sweepInterval;
+    }
+
+    public KStream<String, Flight> build(StreamsBuilder builder) {
+        Serde<String> keySerde = Serdes.String();
+        Serde<Flight> flightSerde = new SpecificAvroSerde<>();
+        flightSerde.configure(serdeConfig, false);
+
+        builder.addStateStore(Stores.timestampedKeyValueStoreBuilder(
+                Stores.persistentTimestampedKeyValueStore(STATE_STORE), keySerde, flightSerde));
+        builder.addStateStore(Stores.timestampedKeyValueStoreBuilder(
+                Stores.persistentTimestampedKeyValueStore(CALLSIGN_STORE), keySerde, Serdes.String()));
+        builder.addStateStore(Stores.keyValueStoreBuilder(
+                Stores.persistentKeyValueStore(ZONE_SEEN_STORE), keySerde, Serdes.Long()));
+
+        KStream<String, Flight> raw = builder.stream(topics.raw(), Consumed.with(keySerde, flightSerde));
+        KStream<String, Flight> out = raw.process(
+                () -> new FlightStateProcessor(geofence, deadLetters, idleTimeout, sweepInterval),
+                Named.as(PROCESSOR),
+                STATE_STORE, CALLSIGN_STORE, ZONE_SEEN_STORE);
+
+        // El procesador elige el destino con forward(record, childName)
+        out.to(topics.update(), Produced.with(keySerde, flightSerde).withName(UPDATE_SINK));
+        out.to(topics.overHome(), Produced.with(keySerde, flightSerde).withName(NEAR_ZONE_SINK));
+        out.to(topics.completed(), Produced.with(keySerde, flightSerde).withName(COMPLETED_SINK));
+        out.to(topics.deadLetter(), Produced.with(keySerde, flightSerde).withName(DLQ_SINK));
+        return out;
+    }
+}
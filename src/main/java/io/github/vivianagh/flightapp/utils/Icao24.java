@@ -0,0 +1,72 @@
+package io.github.vivianagh.flightapp.utils;
+
+/**
+ * Helpers for the 24-bit ICAO aircraft address ("hex ident").
+ * The address is handled as an {@code int} on hot paths and only turned into
+ * its 6-char hex form when a String is really needed (Kafka keys, DB rows).
+ */
+public final class Icao24 {
+
+    public static final int INVALID = -1;
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    // Small direct-mapped cache int -> "4CA2D6". Entries are immutable, so racy reads are safe.
+    private static final int CACHE_SIZE = 1 << 12;
+    private static final Entry[] CACHE = new Entry[CACHE_SIZE];
+
+    private record Entry(int icao, String text) {}
+
+    private Icao24() {}
+
+    /** Parses up to 6 hex digits in {@code b[from, to)}; returns {@link #INVALID} otherwise. */
+    public static int parse(byte[] b, int from, int to) {
+        int len = to - from;
+        if (len <= 0 || len > 6) return INVALID;
+        int v = 0;
+        for (int i = from; i < to; i++) {
+            int d = hexDigit(b[i]);
+            if (d < 0) return INVALID;
+            v = (v << 4) | d;
+        }
+        return v;
+    }
+
+    /** Same as {@link #parse(byte[], int, int)} for text input; surrounding blanks are ignored. */
+    public static int parse(CharSequence s) {
+        if (s == null) return INVALID;
+        int from = 0, to = s.length();
+        while (from < to && s.charAt(from) <= ' ') from++;
+        while (to > from && s.charAt(to - 1) <= ' ') to--;
+        int len = to - from;
+        if (len <= 0 || len > 6) return INVALID;
+        int v = 0;
+        for (int i = from; i < to; i++) {
+            int d = hexDigit(s.charAt(i));
+            if (d < 0) return INVALID;
+            v = (v << 4) | d;
+        }
+        return v;
+    }
+
+    /** 6-char upper-case hex form, e.g. {@code 0x4CA2D6 -> "4CA2D6"}. Repeated addresses reuse the same String. */
+    public static String format(int icao) {
+        if (icao < 0) return null;
+        int slot = (icao ^ (icao >>> 12)) & (CACHE_SIZE - 1);
+        Entry e = CACHE[slot];
+        if (e != null && e.icao() == icao) return e.text();
+
+        char[] c = new char[6];
+        for (int i = 5, v = icao; i >= 0; i--, v >>>= 4) c[i] = HEX[v & 0xF];
+        String text = new String(c);
+        CACHE[slot] = new Entry(icao, text);
+        return text;
+    }
+
+    private static int hexDigit(int c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+        if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+        return -1;
+    }
+}
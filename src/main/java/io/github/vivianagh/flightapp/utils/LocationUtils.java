@@ -1,10 +1,11 @@
 package io.github.vivianagh.flightapp.utils;
 
+/** Punto "home" por defecto; la detección por zonas vive en {@code geo.GeofenceEngine}. */
 public class LocationUtils {
 
-    private static final double HOME_LAT = 51.4757;
-    private static final double HOME_LON = 0.3252;
-    private static final double RADIUS_KM = 20.0;
+    public static final double HOME_LAT = 51.4757;
+    public static final double HOME_LON = 0.3252;
+    public static final double RADIUS_KM = 20.0;
 
     public static boolean isNearHome(double lat, double lon) {
         double earthRadius = 6371.0;
@@ -3,31 +3,100 @@ package io.github.vivianagh.flightapp.utils;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Logs por mensaje del pipeline. Cada tipo de {@link Event} pasa por su {@link LogSampler}: a ritmo de feed
+ * solo se escribe una muestra (y con tope por segundo) y {@link #drainSummary()} da los conteos del intervalo,
+ * que {@code PipelineLogSummary} escribe en una sola línea. Los argumentos solo se formatean si la línea
+ * se escribe ({@code record.value()} incluido), así que el coste de un evento no muestreado es un contador.
+ */
 @Slf4j
 public class LogHelper {
+
+    /** Tipos de evento; {@link #key()} es el nombre en {@code flight.logging.sample-every}. */
+    public enum Event {
+        RECORD, RECEIVED, PRODUCED, SAVED, SKIPPED, MSG_TYPE, ERROR;
+
+        public String key() {
+            return name().toLowerCase().replace('_', '-');
+        }
+    }
+
+    // Sin configurar (tests, arranque) se loguea todo, como antes
+    private static volatile Map<Event, LogSampler> samplers = samplers(Map.of(), 0, 0);
+
+    /** Replaces the samplers; called once from {@code PipelineLogSummary} with {@code flight.logging}. */
+    public static void configure(Map<String, Long> sampleEvery, int maxPerSecond, int maxErrorsPerSecond) {
+        samplers = samplers(sampleEvery, maxPerSecond, maxErrorsPerSecond);
+    }
+
+    private static Map<Event, LogSampler> samplers(Map<String, Long> sampleEvery, int maxPerSecond, int maxErrorsPerSecond) {
+        Map<Event, LogSampler> m = new EnumMap<>(Event.class);
+        for (Event e : Event.values()) {
+            long every = e == Event.ERROR ? 1 : sampleEvery.getOrDefault(e.key(), 1L);
+            m.put(e, new LogSampler(every, e == Event.ERROR ? maxErrorsPerSecond : maxPerSecond));
+        }
+        return m;
+    }
+
+    private static boolean sampled(Event e) {
+        return samplers.get(e).tryAcquire();
+    }
+
     public static void logProduced(String topic, String key) {
-        log.info("✅ Produced to [{}] - key: {}", topic, key);
+        if (sampled(Event.PRODUCED)) log.info("✅ Produced to [{}] - key: {}", topic, key);
     }
 
     public static void logReceived(String topic, String key) {
-        log.info("📩 Received from [{}] - key: {}", topic, key);
+        if (sampled(Event.RECEIVED)) log.info("📩 Received from [{}] - key: {}", topic, key);
     }
 
     public static void logSavedToDb(String table, String key) {
-        log.info("💾 Saved [{}] to DB - key: {}", table, key);
+        if (sampled(Event.SAVED)) log.info("💾 Saved [{}] to DB - key: {}", table, key);
     }
 
     public static void logSkipped(String reason, String key) {
-        log.debug("⏭ Skipped message - reason: {} - key: {}", reason, key);
+        if (sampled(Event.SKIPPED) && log.isDebugEnabled()) log.debug("⏭ Skipped message - reason: {} - key: {}", reason, key);
+    }
+
+    /** Same as {@link #logSkipped(String, String)} without building "reason + detail" unless it is written. */
+    public static void logSkipped(String reason, Object detail, String key) {
+        if (sampled(Event.SKIPPED) && log.isDebugEnabled()) log.debug("⏭ Skipped message - reason: {} {} - key: {}", reason, detail, key);
     }
 
+    public static void logMsgType(int type, String key) {
+        if (sampled(Event.MSG_TYPE)) log.info("🔍 MSG type={} | icao24={}", type, key);
+    }
+
+    /** Errors are never sampled, only capped per second; the cut ones show up in the summary. */
     public static void logError(String context, Exception e) {
-        log.error("❌ Error during {} - {}", context, e.getMessage(), e);
+        if (sampled(Event.ERROR)) log.error("❌ Error during {} - {}", context, e.getMessage(), e);
     }
 
     // Extra: para loguear ConsumerRecord
     public static <K, V> void logRecord(ConsumerRecord<K, V> record, String action) {
-        log.info("📦 {}: topic={}, partition={}, offset={}, key={}, value={}",
-                action, record.topic(), record.partition(), record.offset(), record.key(), record.value());
+        if (sampled(Event.RECORD)) {
+            log.info("📦 {}: topic={}, partition={}, offset={}, key={}, value={}",
+                    action, record.topic(), record.partition(), record.offset(), record.key(), record.value());
+        }
+    }
+
+    /**
+     * Counts per event type since the previous call, e.g. {@code "record=5120 produced=4980 error=2(1 rate-limited)"};
+     * empty if nothing happened.
+     */
+    public static String drainSummary() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<Event, LogSampler> e : samplers.entrySet()) {
+            long n = e.getValue().drainEvents();
+            long cut = e.getValue().drainSuppressed();
+            if (n == 0) continue;
+            if (!sb.isEmpty()) sb.append(' ');
+            sb.append(e.getKey().key()).append('=').append(n);
+            if (cut > 0) sb.append('(').append(cut).append(" rate-limited)");
+        }
+        return sb.toString();
     }
 }
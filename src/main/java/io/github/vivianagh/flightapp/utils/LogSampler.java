@@ -0,0 +1,63 @@
+package io.github.vivianagh.flightapp.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Decide si un evento del hot path se loguea: muestreo 1 de cada {@code sampleEvery} (0 = nunca, solo
+ * cuenta; 1 = todos) y como mucho {@code maxPerSecond} líneas por segundo. Cuenta todos los eventos para
+ * la línea de resumen periódica. Sin locks: el muestreo es determinista (el 1º, el N+1º, ... con un
+ * contador atómico) y la ventana del segundo se reinicia de forma optimista (alguna línea de más en el
+ * borde del segundo da igual).
+ */
+public final class LogSampler {
+
+    private final long sampleEvery;
+    private final int maxPerSecond;
+    private final LongSupplier millisClock;
+
+    private final LongAdder events = new LongAdder();
+    private final LongAdder suppressed = new LongAdder(); // muestreadas pero cortadas por el límite
+    private final AtomicLong sequence = new AtomicLong(); // solo con sampleEvery > 1
+    private final AtomicInteger inWindow = new AtomicInteger();
+    private volatile long windowSecond = Long.MIN_VALUE;
+
+    public LogSampler(long sampleEvery, int maxPerSecond) {
+        this(sampleEvery, maxPerSecond, System::currentTimeMillis);
+    }
+
+    LogSampler(long sampleEvery, int maxPerSecond, LongSupplier millisClock) {
+        this.sampleEvery = Math.max(0, sampleEvery);
+        this.maxPerSecond = maxPerSecond <= 0 ? Integer.MAX_VALUE : maxPerSecond;
+        this.millisClock = millisClock;
+    }
+
+    /** Counts the event and tells whether this occurrence should be written. */
+    public boolean tryAcquire() {
+        events.increment();
+        if (sampleEvery == 0) return false;
+        if (sampleEvery > 1 && sequence.getAndIncrement() % sampleEvery != 0) return false;
+
+        long second = Math.floorDiv(millisClock.getAsLong(), 1000);
+        if (second != windowSecond) {
+            windowSecond = second;
+            inWindow.set(0);
+        }
+        if (inWindow.incrementAndGet() > maxPerSecond) {
+            suppressed.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /** Events since the previous call (and resets the count). */
+    public long drainEvents() {
+        return events.sumThenReset();
+    }
+
+    public long drainSuppressed() {
+        return suppressed.sumThenReset();
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.vivianagh.flightapp.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Bitset over a large, sparsely used index space (e.g. the 2^24 ICAO addresses): 256-bit pages
+ * are allocated on first use, so a few thousand aircraft cost a few hundred KB instead of 2 MB.
+ * Not thread-safe.
+ */
+public final class PagedBitSet {
+
+    private static final int PAGE_SHIFT = 8;                  // 256 bits por página
+    private static final int PAGE_MASK = (1 << PAGE_SHIFT) - 1;
+    private static final int WORDS_PER_PAGE = 1 << (PAGE_SHIFT - 6);
+
+    private final long[][] pages;
+    private int cardinality;
+
+    public PagedBitSet(int sizeBits) {
+        this.pages = new long[(sizeBits + PAGE_MASK) >>> PAGE_SHIFT][];
+    }
+
+    /** Sets bit {@code i}; returns true if it was not set before. */
+    public boolean add(int i) {
+        int p = i >>> PAGE_SHIFT;
+        long[] page = pages[p];
+        if (page == null) page = pages[p] = new long[WORDS_PER_PAGE];
+        int bit = i & PAGE_MASK;
+        long mask = 1L << bit;
+        int w = bit >>> 6;
+        if ((page[w] & mask) != 0) return false;
+        page[w] |= mask;
+        cardinality++;
+        return true;
+    }
+
+    public boolean contains(int i) {
+        long[] page = pages[i >>> PAGE_SHIFT];
+        if (page == null) return false;
+        int bit = i & PAGE_MASK;
+        return (page[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    public int cardinality() {
+        return cardinality;
+    }
+
+    /** The set bits in ascending order, 4 bytes each (big-endian), to persist the set. */
+    public byte[] toBytes() {
+        ByteBuffer out = ByteBuffer.allocate(cardinality * Integer.BYTES);
+        for (int p = 0; p < pages.length; p++) {
+            long[] page = pages[p];
+            if (page == null) continue;
+            for (int w = 0; w < page.length; w++) {
+                for (long word = page[w]; word != 0; word &= word - 1) {
+                    out.putInt(p << PAGE_SHIFT | w << 6 | Long.numberOfTrailingZeros(word));
+                }
+            }
+        }
+        return out.array();
+    }
+
+    /** Sets every bit listed in {@code bytes} (the format of {@link #toBytes()}). */
+    public void addAll(byte[] bytes) {
+        if (bytes.length % Integer.BYTES != 0) throw new IllegalArgumentException("length must be a multiple of 4");
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        while (in.hasRemaining()) add(in.getInt());
+    }
+}
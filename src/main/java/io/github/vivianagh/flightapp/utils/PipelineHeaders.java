@@ -0,0 +1,46 @@
+package io.github.vivianagh.flightapp.utils;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+
+/**
+ * Header {@value #RECEIVED_AT}: epoch millis at which {@code FlightSocketReader} read the SBS line.
+ * Stamped on {@code raw-flights} and copied onto every record derived from it, so any consumer can
+ * tell how old the sample is. Eight bytes, big-endian.
+ */
+public final class PipelineHeaders {
+
+    public static final String RECEIVED_AT = "flight-received-at";
+
+    /** Returned when the record carries no (valid) receive time, e.g. it predates the header. */
+    public static final long ABSENT = -1;
+
+    private PipelineHeaders() {}
+
+    /** Headers for a new record; empty when {@code receivedAtMillis} is {@link #ABSENT}. */
+    public static Headers receivedAt(long receivedAtMillis) {
+        RecordHeaders headers = new RecordHeaders();
+        if (receivedAtMillis >= 0) headers.add(RECEIVED_AT, encode(receivedAtMillis));
+        return headers;
+    }
+
+    public static long receivedAt(Headers headers) {
+        if (headers == null) return ABSENT;
+        Header h = headers.lastHeader(RECEIVED_AT);
+        if (h == null || h.value() == null || h.value().length != 8) return ABSENT;
+        byte[] v = h.value();
+        long millis = 0;
+        for (int i = 0; i < 8; i++) millis = (millis << 8) | (v[i] & 0xFF);
+        return millis;
+    }
+
+    static byte[] encode(long millis) {
+        byte[] v = new byte[8];
+        for (int i = 7; i >= 0; i--) {
+            v[i] = (byte) millis;
+            millis >>>= 8;
+        }
+        return v;
+    }
+}
@@ -0,0 +1,127 @@
+package io.github.vivianagh.flightapp.utils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * Parses the SBS "logged" date/time pair ({@code yyyy/MM/dd} or {@code yyyy-MM-dd} plus
+ * {@code HH:mm:ss[.SSS]}, London local time as dump1090 writes it) straight into epoch millis.
+ * <p>
+ * No formatters, exceptions or allocations on the hot path: digits are read in place and the UTC
+ * offset comes from a cached window between two DST transitions, recomputed only when a timestamp
+ * falls outside it (twice a year, or on the ambiguous/skipped hour itself).
+ */
+public final class SbsTimestamps {
+
+    /** Returned when the pair is missing or malformed. */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    public static final ZoneId LONDON = ZoneId.of("Europe/London");
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final ZoneRules RULES = LONDON.getRules();
+
+    /** Local (naive) millis range in which {@code offsetMillis} is the only valid offset. */
+    private record Window(long fromLocal, long toLocal, long offsetMillis) {
+        boolean contains(long local) {
+            return local >= fromLocal && local < toLocal;
+        }
+    }
+
+    private static volatile Window window = new Window(0, 0, 0);
+
+    private SbsTimestamps() {}
+
+    /** Epoch millis of the logged date/time, or {@link #INVALID}. */
+    public static long parseEpochMillis(CharSequence date, CharSequence time) {
+        long local = parseLocalMillis(date, time);
+        if (local == INVALID) return INVALID;
+        Window w = window;
+        if (!w.contains(local)) {
+            w = windowFor(local);
+            window = w;
+        }
+        return local - w.offsetMillis();
+    }
+
+    /** Same as {@link #parseEpochMillis} but as an {@code Instant}; null if it can't be parsed. */
+    public static Instant parseInstant(CharSequence date, CharSequence time) {
+        long millis = parseEpochMillis(date, time);
+        return millis == INVALID ? null : Instant.ofEpochMilli(millis);
+    }
+
+    /** Millis since 1970-01-01T00:00 of the wall-clock date/time, ignoring the zone. */
+    static long parseLocalMillis(CharSequence date, CharSequence time) {
+        if (date == null || time == null || date.length() != 10 || time.length() < 8) return INVALID;
+        char sep = date.charAt(4);
+        if ((sep != '/' && sep != '-') || date.charAt(7) != sep) return INVALID;
+        int year = digits(date, 0, 4), month = digits(date, 5, 2), day = digits(date, 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) return INVALID;
+
+        if (time.charAt(2) != ':' || time.charAt(5) != ':') return INVALID;
+        int h = digits(time, 0, 2), m = digits(time, 3, 2), s = digits(time, 6, 2);
+        if (h < 0 || h > 23 || m < 0 || m > 59 || s < 0 || s > 59) return INVALID;
+        int ms = 0;
+        if (time.length() > 8) {
+            if (time.charAt(8) != '.' || time.length() > 12 || time.length() == 9) return INVALID;
+            int frac = digits(time, 9, time.length() - 9);
+            if (frac < 0) return INVALID;
+            for (int i = time.length() - 9; i < 3; i++) frac *= 10; // ".5" -> 500
+            ms = frac;
+        }
+        return epochDay(year, month, day) * MILLIS_PER_DAY + ((h * 60L + m) * 60 + s) * 1000 + ms;
+    }
+
+    private static Window windowFor(long local) {
+        LocalDateTime ldt = LocalDateTime.ofEpochSecond(Math.floorDiv(local, 1000), 0, ZoneOffset.UTC);
+        ZoneOffset offset = RULES.getOffset(ldt); // hueco/solape: la misma elección que ZonedDateTime.of
+        Instant instant = ldt.toInstant(offset);
+        ZoneOffsetTransition prev = RULES.previousTransition(instant.plusMillis(1));
+        ZoneOffsetTransition next = RULES.nextTransition(instant);
+        // fuera del hueco y del solape de cada transición el offset local es único
+        long from = prev == null ? Long.MIN_VALUE : Math.max(localMillis(prev.getDateTimeBefore()), localMillis(prev.getDateTimeAfter()));
+        long to = next == null ? Long.MAX_VALUE : Math.min(localMillis(next.getDateTimeBefore()), localMillis(next.getDateTimeAfter()));
+        long offsetMillis = offset.getTotalSeconds() * 1000L;
+        if (local < from || local >= to) {
+            // justo en una transición: se resuelve sin cachear un rango
+            return new Window(local - local % 1000, local - local % 1000 + 1000, offsetMillis);
+        }
+        return new Window(from, to, offsetMillis);
+    }
+
+    private static long localMillis(LocalDateTime t) {
+        return t.toEpochSecond(ZoneOffset.UTC) * 1000;
+    }
+
+    private static int digits(CharSequence s, int from, int len) {
+        int v = 0;
+        for (int i = from; i < from + len; i++) {
+            int d = s.charAt(i) - '0';
+            if (d < 0 || d > 9) return -1;
+            v = v * 10 + d;
+        }
+        return v;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /** Days since 1970-01-01 (proleptic Gregorian), same as {@code LocalDate.toEpochDay}. */
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yoe = y - era * 400;
+        long doy = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146_097 + doe - 719_468;
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.vivianagh.flightapp.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket for an external quota: {@code ratePerSecond} sustained, up to {@code burst} at once.
+ * {@link #pauseFor(long)} empties the bucket and blocks every caller until the given delay has
+ * passed (e.g. a {@code Retry-After}). A rate {@code <= 0} means unlimited. Thread-safe.
+ */
+public final class TokenBucket {
+
+    private final double nanosPerToken;
+    private final double capacity;
+    private final LongSupplier nanoClock;
+
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+
+    public TokenBucket(double ratePerSecond, int burst) {
+        this(ratePerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucket(double ratePerSecond, int burst, LongSupplier nanoClock) {
+        this.nanosPerToken = ratePerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / ratePerSecond : 0;
+        this.capacity = Math.max(1, burst);
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.lastRefill = nanoClock.getAsLong();
+        this.pausedUntil = lastRefill;
+    }
+
+    public boolean tryAcquire() {
+        return reserve() == 0;
+    }
+
+    /** Waits up to {@code timeout} for a token; false if none became available in time. */
+    public boolean acquire(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = nanoClock.getAsLong() + unit.toNanos(timeout);
+        while (true) {
+            long wait = reserve();
+            if (wait == 0) return true;
+            long left = deadline - nanoClock.getAsLong();
+            if (left <= 0) return false;
+            TimeUnit.NANOSECONDS.sleep(Math.min(wait, left));
+        }
+    }
+
+    /** Drains the bucket and refuses tokens for the next {@code millis} (only ever extends a pause). */
+    public synchronized void pauseFor(long millis) {
+        long until = nanoClock.getAsLong() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+        if (until - pausedUntil > 0) pausedUntil = until;
+        tokens = 0;
+    }
+
+    /** Takes a token and returns 0, or returns the nanos to wait before one is available. */
+    private synchronized long reserve() {
+        if (nanosPerToken == 0) return 0;
+        long now = nanoClock.getAsLong();
+        if (pausedUntil - now > 0) return pausedUntil - now;
+        long from = lastRefill - pausedUntil > 0 ? lastRefill : pausedUntil; // no se acumula durante la pausa
+        tokens = Math.min(capacity, tokens + (now - from) / nanosPerToken);
+        lastRefill = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) ((1 - tokens) * nanosPerToken));
+    }
+}
@@ -0,0 +1,9 @@
+-- =========================
+-- V3: zona del geofence que disparó el evento (flight.geofence.zones[].id)
+-- =========================
+ALTER TABLE flight_over_home ADD COLUMN IF NOT EXISTS zone_id VARCHAR(32);
+
+-- Las filas anteriores vienen del único punto que existía
+UPDATE flight_over_home SET zone_id = 'home' WHERE zone_id IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_foh_zone_date ON flight_over_home (zone_id, logged_date);
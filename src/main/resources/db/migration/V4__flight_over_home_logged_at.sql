@@ -0,0 +1,43 @@
+-- =========================
+-- V4: instante tipado de la muestra (logged_date/logged_time son texto en yyyy/MM/dd o yyyy-MM-dd)
+-- =========================
+ALTER TABLE flight_over_home ADD COLUMN IF NOT EXISTS logged_at TIMESTAMPTZ;
+
+-- Backfill: hora local de Londres, igual que la parseaba el consumer. El regex solo filtra la forma;
+-- valores como 2025/02/30 o 25:61:00 lo pasan y el cast abortaría la migración, así que el cast va
+-- dentro de un helper que devuelve NULL. Lo que no se pueda parsear queda en NULL y ordena al final
+-- (NULLS LAST + id).
+CREATE OR REPLACE FUNCTION pg_temp.sbs_logged_at(d TEXT, t TEXT) RETURNS TIMESTAMPTZ
+    LANGUAGE plpgsql STABLE AS $$
+BEGIN
+    IF d !~ '^[0-9]{4}[-/][0-9]{2}[-/][0-9]{2}$'
+       OR t !~ '^[0-9]{2}:[0-9]{2}:[0-9]{2}(\.[0-9]{1,6})?$' THEN
+        RETURN NULL;
+    END IF;
+    RETURN (replace(d, '/', '-') || ' ' || t)::timestamp AT TIME ZONE 'Europe/London';
+EXCEPTION
+    WHEN datetime_field_overflow OR invalid_datetime_format THEN
+        RETURN NULL;
+END;
+$$;
+
+UPDATE flight_over_home
+   SET logged_at = pg_temp.sbs_logged_at(logged_date, logged_time)
+ WHERE logged_at IS NULL
+   AND logged_date IS NOT NULL
+   AND logged_time IS NOT NULL;
+
+-- findLatest / findLatestCompleteLike: ORDER BY logged_at DESC NULLS LAST, id DESC LIMIT n
+CREATE INDEX IF NOT EXISTS idx_foh_logged_at_desc
+    ON flight_over_home (logged_at DESC NULLS LAST, id DESC);
+
+-- findPendingWithCallsignAsc / findRecentMissingRouteWithCallsign: solo las filas sin ruta
+CREATE INDEX IF NOT EXISTS idx_foh_pending_route
+    ON flight_over_home (logged_at, id)
+    WHERE (origin IS NULL OR destination IS NULL) AND callsign IS NOT NULL;
+
+-- Rangos de tiempo (la tabla es append-only, así que logged_at sigue el orden físico)
+CREATE INDEX IF NOT EXISTS brin_foh_logged_at
+    ON flight_over_home USING BRIN (logged_at) WITH (pages_per_range = 32);
+
+ANALYZE flight_over_home;
@@ -0,0 +1,221 @@
+-- =========================
+-- V5: particiones mensuales (RANGE) para flight_over_home (logged_at) y flights_per_hour_seen (date)
+--     Las crea/borra PartitionMaintenanceJob con las dos funciones de abajo.
+-- =========================
+
+-- Crea la partición del mes que empieza en "month" si no existe. Límites en UTC para timestamptz.
+-- Si la DEFAULT ya tiene filas de ese mes (parada más larga que months-ahead, replay de datos viejos),
+-- CREATE ... PARTITION OF fallaría al validarla: se crea la tabla suelta, se mueven las filas y se adjunta.
+CREATE OR REPLACE FUNCTION ensure_month_partition(parent text, month date) RETURNS boolean
+LANGUAGE plpgsql AS $$
+DECLARE
+    first_day  date := date_trunc('month', month)::date;
+    child      text := parent || '_p' || to_char(first_day, 'YYYY_MM');
+    key_col    name;
+    key_type   regtype;
+    lower_lit  text;
+    upper_lit  text;
+    dflt       regclass;
+    pending    boolean := false;
+    moved      bigint;
+BEGIN
+    IF to_regclass(child) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+    SELECT a.attname, a.atttypid::regtype INTO key_col, key_type
+      FROM pg_partitioned_table p
+      JOIN pg_attribute a ON a.attrelid = p.partrelid AND a.attnum = p.partattrs[0]
+     WHERE p.partrelid = parent::regclass;
+    IF key_type = 'date'::regtype THEN
+        lower_lit := first_day::text;
+        upper_lit := (first_day + interval '1 month')::date::text;
+    ELSE
+        lower_lit := first_day::text || ' 00:00:00+00';
+        upper_lit := (first_day + interval '1 month')::date::text || ' 00:00:00+00';
+    END IF;
+
+    SELECT c.oid::regclass INTO dflt
+      FROM pg_inherits i
+      JOIN pg_class c ON c.oid = i.inhrelid
+     WHERE i.inhparent = parent::regclass
+       AND pg_get_expr(c.relpartbound, c.oid) = 'DEFAULT';
+    IF dflt IS NOT NULL THEN
+        EXECUTE format('SELECT EXISTS (SELECT 1 FROM %s WHERE %I >= %L AND %I < %L)',
+                       dflt, key_col, lower_lit, key_col, upper_lit) INTO pending;
+    END IF;
+
+    IF NOT pending THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                       child, parent, lower_lit, upper_lit);
+        RETURN true;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', child, parent);
+    EXECUTE format('WITH m AS (DELETE FROM %s WHERE %I >= %L AND %I < %L RETURNING *) INSERT INTO %I SELECT * FROM m',
+                   dflt, key_col, lower_lit, key_col, upper_lit, child);
+    GET DIAGNOSTICS moved = ROW_COUNT;
+    -- los índices de la tabla padre se crean en la hija al adjuntarla
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   parent, child, lower_lit, upper_lit);
+    RAISE NOTICE '%: % fila(s) movidas de % a la nueva partición', child, moved, dflt;
+    RETURN true;
+END $$;
+
+-- Borra las particiones mensuales que terminan antes de "cutoff". La DEFAULT nunca se toca.
+CREATE OR REPLACE FUNCTION drop_month_partitions_before(parent text, cutoff date) RETURNS integer
+LANGUAGE plpgsql AS $$
+DECLARE
+    child   text;
+    dropped integer := 0;
+BEGIN
+    FOR child IN
+        SELECT c.relname
+          FROM pg_inherits i
+          JOIN pg_class c ON c.oid = i.inhrelid
+         WHERE i.inhparent = parent::regclass
+           AND c.relname ~ ('^' || parent || '_p[0-9]{4}_[0-9]{2}$')
+    LOOP
+        IF to_date(right(child, 7), 'YYYY_MM') + interval '1 month' <= cutoff THEN
+            EXECUTE format('DROP TABLE %I', child);
+            dropped := dropped + 1;
+        END IF;
+    END LOOP;
+    RETURN dropped;
+END $$;
+
+-- 1) flight_over_home -------------------------------------------------------
+
+ALTER TABLE flight_over_home RENAME TO flight_over_home_old;
+ALTER TABLE flight_over_home_old RENAME CONSTRAINT flight_over_home_pkey TO flight_over_home_old_pkey;
+ALTER INDEX IF EXISTS uq_foh_icao24_logged   RENAME TO uq_foh_icao24_logged_old;
+ALTER INDEX IF EXISTS idx_foh_zone_date      RENAME TO idx_foh_zone_date_old;
+ALTER INDEX IF EXISTS idx_foh_logged_at_desc RENAME TO idx_foh_logged_at_desc_old;
+ALTER INDEX IF EXISTS idx_foh_pending_route  RENAME TO idx_foh_pending_route_old;
+ALTER INDEX IF EXISTS brin_foh_logged_at     RENAME TO brin_foh_logged_at_old;
+
+-- La PK de una tabla particionada tiene que incluir la clave de partición
+CREATE TABLE flight_over_home (
+    id           BIGINT           NOT NULL DEFAULT nextval('flight_over_home_id_seq'),
+    icao24       VARCHAR(16)      NOT NULL,
+    callsign     VARCHAR(16),
+    airline      VARCHAR(64),
+    latitude     DOUBLE PRECISION,
+    longitude    DOUBLE PRECISION,
+    altitude     DOUBLE PRECISION,
+    speed        DOUBLE PRECISION,
+    logged_date  VARCHAR(16),
+    logged_time  VARCHAR(16),
+    logged_at    TIMESTAMPTZ      NOT NULL,
+    origin       VARCHAR(8),
+    destination  VARCHAR(8),
+    zone_id      VARCHAR(32),
+    PRIMARY KEY (id, logged_at)
+) PARTITION BY RANGE (logged_at);
+
+CREATE TABLE flight_over_home_default PARTITION OF flight_over_home DEFAULT;
+
+-- Meses con datos + el actual + los dos siguientes
+DO $$
+DECLARE
+    m date;
+BEGIN
+    FOR m IN
+        SELECT generate_series(
+                   date_trunc('month', COALESCE(
+                       (SELECT min(logged_at) FROM flight_over_home_old WHERE logged_at IS NOT NULL), now()) AT TIME ZONE 'UTC'),
+                   date_trunc('month', now() AT TIME ZONE 'UTC') + interval '2 month',
+                   interval '1 month')::date
+    LOOP
+        PERFORM ensure_month_partition('flight_over_home', m);
+    END LOOP;
+END $$;
+
+-- Las filas que V4 no pudo parsear van a la DEFAULT con un instante único en 1970 (epoch + id ms).
+-- Filas distintas por (icao24, logged_date, logged_time) pueden caer en el mismo logged_at (p.ej. la misma hora
+-- escrita como 2025-08-31 y 2025/08/31): se fusionan en una, con el id más bajo y, por columna, el primer
+-- valor no nulo en orden de id, para no perder ruta/callsign/zona que solo tuviera una de ellas.
+CREATE TEMPORARY TABLE foh_keyed ON COMMIT DROP AS
+SELECT o.*, COALESCE(o.logged_at, TIMESTAMPTZ 'epoch' + o.id * interval '1 millisecond') AS key_at
+  FROM flight_over_home_old o;
+
+DO $$
+DECLARE
+    merged bigint;
+BEGIN
+    SELECT count(*) - count(DISTINCT (icao24, key_at)) INTO merged FROM foh_keyed;
+    RAISE NOTICE 'flight_over_home: % fila(s) fusionadas con otra del mismo (icao24, logged_at)', merged;
+END $$;
+
+INSERT INTO flight_over_home
+       (id, icao24, callsign, airline, latitude, longitude, altitude, speed,
+        logged_date, logged_time, logged_at, origin, destination, zone_id)
+SELECT min(id),
+       icao24,
+       (array_agg(callsign    ORDER BY id) FILTER (WHERE callsign    IS NOT NULL))[1],
+       (array_agg(airline     ORDER BY id) FILTER (WHERE airline     IS NOT NULL))[1],
+       (array_agg(latitude    ORDER BY id) FILTER (WHERE latitude    IS NOT NULL))[1],
+       (array_agg(longitude   ORDER BY id) FILTER (WHERE longitude   IS NOT NULL))[1],
+       (array_agg(altitude    ORDER BY id) FILTER (WHERE altitude    IS NOT NULL))[1],
+       (array_agg(speed       ORDER BY id) FILTER (WHERE speed       IS NOT NULL))[1],
+       (array_agg(logged_date ORDER BY id))[1],
+       (array_agg(logged_time ORDER BY id))[1],
+       key_at,
+       (array_agg(origin      ORDER BY id) FILTER (WHERE origin      IS NOT NULL))[1],
+       (array_agg(destination ORDER BY id) FILTER (WHERE destination IS NOT NULL))[1],
+       (array_agg(zone_id     ORDER BY id) FILTER (WHERE zone_id     IS NOT NULL))[1]
+  FROM foh_keyed
+ GROUP BY icao24, key_at;
+
+ALTER SEQUENCE flight_over_home_id_seq OWNED BY flight_over_home.id;
+DROP TABLE flight_over_home_old;
+
+-- Conflict target del upsert (antes icao24 + logged_date + logged_time como texto)
+CREATE UNIQUE INDEX uq_foh_icao24_logged_at ON flight_over_home (icao24, logged_at);
+
+-- findLatest / findLatestCompleteLike
+CREATE INDEX idx_foh_logged_at_desc ON flight_over_home (logged_at DESC NULLS LAST, id DESC);
+
+-- Backfill de rutas: el índice solo contiene filas pendientes, así que elegir el lote cuesta
+-- O(pendientes) y no O(historia)
+CREATE INDEX idx_foh_pending_route
+    ON flight_over_home (logged_at, id)
+    WHERE (origin IS NULL OR destination IS NULL) AND callsign IS NOT NULL;
+
+CREATE INDEX brin_foh_logged_at ON flight_over_home USING BRIN (logged_at) WITH (pages_per_range = 32);
+CREATE INDEX idx_foh_zone_logged_at ON flight_over_home (zone_id, logged_at);
+
+-- 2) flights_per_hour_seen --------------------------------------------------
+
+ALTER TABLE flights_per_hour_seen RENAME TO flights_per_hour_seen_old;
+ALTER TABLE flights_per_hour_seen_old RENAME CONSTRAINT flights_per_hour_seen_pkey TO flights_per_hour_seen_old_pkey;
+
+CREATE TABLE flights_per_hour_seen (
+    date   DATE        NOT NULL,
+    hour   INT         NOT NULL CHECK (hour BETWEEN 0 AND 23),
+    icao24 VARCHAR(10) NOT NULL,
+    PRIMARY KEY (date, hour, icao24)
+) PARTITION BY RANGE (date);
+
+CREATE TABLE flights_per_hour_seen_default PARTITION OF flights_per_hour_seen DEFAULT;
+
+DO $$
+DECLARE
+    m date;
+BEGIN
+    FOR m IN
+        SELECT generate_series(
+                   date_trunc('month', COALESCE((SELECT min(date) FROM flights_per_hour_seen_old), current_date)),
+                   date_trunc('month', current_date) + interval '2 month',
+                   interval '1 month')::date
+    LOOP
+        PERFORM ensure_month_partition('flights_per_hour_seen', m);
+    END LOOP;
+END $$;
+
+INSERT INTO flights_per_hour_seen (date, hour, icao24)
+SELECT date, hour, icao24 FROM flights_per_hour_seen_old;
+
+DROP TABLE flights_per_hour_seen_old;
+
+ANALYZE flight_over_home;
+ANALYZE flights_per_hour_seen;
@@ -0,0 +1,14 @@
+-- =========================
+-- V6: sketch de aviones distintos por hora (flight.per-hour.mode=exact|hll)
+-- =========================
+-- El agregador en memoria guarda aquí el conjunto de la hora (bitset o registros HLL) junto al count,
+-- y al retomar una hora tras un reinicio lo une con lo que ya llevaba: sin él, GREATEST de dos
+-- recuentos parciales se quedaba corto.
+CREATE TABLE IF NOT EXISTS flights_per_hour_sketch (
+    date       DATE        NOT NULL,
+    hour       INT         NOT NULL CHECK (hour BETWEEN 0 AND 23),
+    kind       VARCHAR(8)  NOT NULL,          -- exact | hll (otro modo no lo reutiliza)
+    sketch     BYTEA       NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    PRIMARY KEY (date, hour)
+);
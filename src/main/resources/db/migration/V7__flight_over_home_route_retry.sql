@@ -0,0 +1,9 @@
+-- =========================
+-- V7: backoff para las filas cuya ruta no se encuentra
+-- =========================
+-- findPendingWithCallsignAsc elige por logged_at ASC: una fila que la API nunca resuelve (vuelo sin
+-- datos, callsign raro) se quedaba siempre al principio del lote y, con muchas, no dejaba pasar a las
+-- nuevas. RouteEnrichmentWorker apunta cada intento fallido y la fila no vuelve hasta route_retry_at
+-- (espera que se dobla en cada intento, con tope en routes.max-retry-backoff).
+ALTER TABLE flight_over_home ADD COLUMN IF NOT EXISTS route_attempts INT NOT NULL DEFAULT 0;
+ALTER TABLE flight_over_home ADD COLUMN IF NOT EXISTS route_retry_at TIMESTAMPTZ;
@@ -0,0 +1,86 @@
+package io.github.vivianagh.flightapp.archive;
+
+import io.github.vivianagh.flightapp.bench.SbsSample;
+import io.github.vivianagh.flightapp.replay.ReplayFiles;
+import io.github.vivianagh.flightapp.replay.ReplayPacer;
+import io.github.vivianagh.flightapp.replay.ReplayReport;
+import io.github.vivianagh.flightapp.replay.SbsReplayer;
+import io.github.vivianagh.flightapp.socket.SbsLineParser;
+import io.github.vivianagh.flightapp.socket.SbsMessage;
+import io.github.vivianagh.flightapp.utils.SbsTimestamps;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArchiveReaderTest {
+
+    @TempDir
+    Path dir;
+
+    private final List<Long> logged = new ArrayList<>();
+
+    /** 1200 lines in blocks of 50 and segments of 500; the last segment stays open. */
+    private void writeArchive() throws IOException {
+        SbsMessage m = new SbsMessage();
+        List<String> lines = SbsSample.lines();
+        SegmentWriter w = null;
+        for (int i = 0; i < lines.size(); i++) {
+            byte[] line = lines.get(i).getBytes(StandardCharsets.US_ASCII);
+            long t = SbsLineParser.parse(line, 0, line.length, m)
+                    ? SbsTimestamps.parseEpochMillis(m.getLoggedDate(), m.getLoggedTime()) : SbsTimestamps.INVALID;
+            logged.add(t);
+            if (w == null) w = new SegmentWriter(dir, t);
+            w.append(line, t);
+            if (i % 50 == 49) w.closeBlock();
+            if (i % 500 == 499) {
+                w.close();
+                w = null;
+            }
+        }
+    }
+
+    @Test
+    void readsOnlyTheBlocksOfARange() throws IOException {
+        writeArchive();
+        long start = logged.stream().filter(t -> t != SbsTimestamps.INVALID).min(Long::compare).orElseThrow();
+        long from = start + 10_000, to = start + 12_000;
+        long expected = logged.stream().filter(t -> t >= from && t < to).count();
+
+        ArchiveReader reader = new ArchiveReader(dir);
+        List<ArchiveReader.Slice> slices = reader.slices(from, to);
+        assertThat(slices).isNotEmpty();
+        assertThat(slices.stream().mapToLong(ArchiveReader.Slice::length).sum())
+                .isLessThan(slices.get(0).segment().toFile().length());
+
+        List<String> sent = new ArrayList<>();
+        ReplayReport report = new SbsReplayer(new ReplayPacer(0, 0), (msg, at) -> sent.add(msg.getIcao24()), from, to)
+                .replay("range", reader.open(from, to));
+
+        assertThat(sent).hasSize((int) expected);
+        assertThat(report.lines()).isLessThan(logged.size());
+    }
+
+    @Test
+    void segmentsAreValidGzipAndTheOpenOneIsReadableUpToItsLastBlock() throws IOException {
+        writeArchive();
+        ArchiveReader reader = new ArchiveReader(dir);
+
+        List<String> all = new ArrayList<>();
+        new SbsReplayer(new ReplayPacer(0, 0), (msg, at) -> all.add(msg.getIcao24()))
+                .replay("all", reader.open(0, Long.MAX_VALUE));
+        assertThat(all).hasSize(SbsSample.lines().size()); // 1200 = 24 bloques completos
+
+        Path first = reader.slices(0, Long.MAX_VALUE).get(0).segment();
+        try (InputStream in = ReplayFiles.open(first)) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.US_ASCII).lines()).hasSize(500);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.vivianagh.flightapp.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SegmentWriterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void failingToOpenTheIndexLeavesNoDataFileBehind() throws Exception {
+        long start = 1_756_658_037_000L;
+        Path data = SegmentFiles.data(dir, start);
+        Files.createFile(SegmentFiles.indexOf(data)); // .idx suelto de un segmento anterior
+
+        assertThatThrownBy(() -> new SegmentWriter(dir, start)).isInstanceOf(FileAlreadyExistsException.class);
+
+        assertThat(data).doesNotExist();
+        try (var files = Files.list(dir)) {
+            assertThat(files.filter(SegmentFiles::isData)).isEmpty();
+        }
+    }
+}
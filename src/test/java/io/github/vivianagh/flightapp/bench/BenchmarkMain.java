@@ -0,0 +1,33 @@
+package io.github.vivianagh.flightapp.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+
+/**
+ * Entry point of the {@code bench} Maven profile: {@code mvn -Pbench verify}.
+ * <p>
+ * Args: include regex (default every benchmark in this package) and the JSON report path
+ * (default {@code target/jmh-result.json}, loadable in jmh.morethan.io).
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {}
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 && !args[0].isBlank() ? args[0] : BenchmarkMain.class.getPackageName() + ".*";
+        String report = args.length > 1 && !args[1].isBlank() ? args[1] : "target/jmh-result.json";
+        File parent = new File(report).getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+
+        new Runner(new OptionsBuilder()
+                .include(include)
+                .addProfiler("gc")
+                .resultFormat(ResultFormatType.JSON)
+                .result(report)
+                .build()).run();
+    }
+}
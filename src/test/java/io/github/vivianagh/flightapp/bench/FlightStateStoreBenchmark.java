@@ -0,0 +1,68 @@
+package io.github.vivianagh.flightapp.bench;
+
+import io.github.vivianagh.avro.Flight;
+import io.github.vivianagh.flightapp.config.StateStoreProperties;
+import io.github.vivianagh.flightapp.model.FlightData;
+import io.github.vivianagh.flightapp.state.ColumnarFlightStateStore;
+import io.github.vivianagh.flightapp.state.FlightStateStore;
+import io.github.vivianagh.flightapp.state.MapFlightStateStore;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FlightStateStore#process} with several consumer threads sharing one store, as with
+ * {@code flight.processor.concurrency > 1}. Every thread replays the capture from a different offset,
+ * so threads keep hitting the same aircraft.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class FlightStateStoreBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        @Param({"map", "columnar"})
+        String store;
+
+        FlightStateStore states;
+        FlightData[] samples;
+
+        @Setup
+        public void setup() {
+            StateStoreProperties props = new StateStoreProperties(store, 0, 0, 0);
+            states = "columnar".equals(store)
+                    ? new ColumnarFlightStateStore(props, event -> {})
+                    : new MapFlightStateStore(props, event -> {});
+            samples = SbsSample.lines().stream()
+                    .map(line -> FlightData.fromCsvLine(line.stripTrailing()))
+                    .filter(d -> d.getIcao24() != null && d.getTransmissionType() != null)
+                    .toArray(FlightData[]::new);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int i;
+
+        @Setup
+        public void setup(Shared shared, ThreadParams thread) {
+            i = thread.getThreadIndex() * (shared.samples.length / Math.max(1, thread.getThreadCount()));
+        }
+
+        FlightData next(FlightData[] samples) {
+            FlightData d = samples[i];
+            i = i + 1 < samples.length ? i + 1 : 0;
+            return d;
+        }
+    }
+
+    @Benchmark
+    public Flight process(Shared shared, Cursor cursor) {
+        return shared.states.process(cursor.next(shared.samples));
+    }
+}
@@ -0,0 +1,110 @@
+package io.github.vivianagh.flightapp.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.vivianagh.avro.Flight;
+import io.github.vivianagh.flightapp.model.FlightData;
+import io.github.vivianagh.flightapp.service.AirlineDirectory;
+import io.github.vivianagh.flightapp.service.AirlineLookupService;
+import io.github.vivianagh.flightapp.service.CallsignNormalizer;
+import io.github.vivianagh.flightapp.state.FlightState;
+import io.github.vivianagh.flightapp.utils.LocationUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-message steps of the ingestion path, fed with the recorded capture ({@link SbsSample}).
+ * Each invocation handles one message, cycling through the capture (or through the messages that
+ * carry the field the step needs), so scores are per message.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HotPathBenchmark {
+
+    private String[] lines;
+    private FlightData[] samples;
+    private Flight[] avro;
+    private FlightState[] states;
+    private double[] positions;     // lat, lon, lat, lon...
+    private String[] callsigns;
+    private AirlineLookupService airlines;
+    private FlightState rolling;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        lines = SbsSample.lines().toArray(String[]::new);
+        List<FlightData> data = new ArrayList<>();
+        List<Double> pos = new ArrayList<>();
+        List<String> cs = new ArrayList<>();
+        for (String line : lines) {
+            FlightData d = FlightData.fromCsvLine(line.stripTrailing());
+            if (d.getIcao24() == null || d.getTransmissionType() == null) continue;
+            data.add(d);
+            if (d.getLatitude() != null && d.getLongitude() != null) {
+                pos.add(d.getLatitude());
+                pos.add(d.getLongitude());
+            }
+            if (d.getCallsign() != null && !d.getCallsign().isBlank()) cs.add(d.getCallsign());
+        }
+        samples = data.toArray(FlightData[]::new);
+        positions = pos.stream().mapToDouble(Double::doubleValue).toArray();
+        callsigns = cs.toArray(String[]::new);
+
+        avro = new Flight[samples.length];
+        states = new FlightState[samples.length];
+        for (int i = 0; i < samples.length; i++) {
+            FlightState s = new FlightState();
+            s.apply(samples[i]);
+            states[i] = s;
+            avro[i] = s.toAvroFlight();
+        }
+        rolling = new FlightState();
+        airlines = new AirlineLookupService(new CallsignNormalizer(new AirlineDirectory(new ObjectMapper(), "")));
+    }
+
+    /** Split-based parse of one line (the old socket path). */
+    @Benchmark
+    public FlightData fromCsvLine() {
+        return FlightData.fromCsvLine(lines[next(lines.length)]);
+    }
+
+    @Benchmark
+    public FlightData fromAvro() {
+        return FlightData.fromAvro(avro[next(avro.length)]);
+    }
+
+    /** One state fed with the capture in order, the way a busy aircraft sees its samples. */
+    @Benchmark
+    public boolean applyAndDetectChange() {
+        return rolling.applyAndDetectChange(samples[next(samples.length)]);
+    }
+
+    @Benchmark
+    public Flight toAvroFlight() {
+        return states[next(states.length)].toAvroFlight();
+    }
+
+    @Benchmark
+    public boolean isNearHome() {
+        int i = next(positions.length / 2) * 2;
+        return LocationUtils.isNearHome(positions[i], positions[i + 1]);
+    }
+
+    @Benchmark
+    public String lookupByCallsignPrefix() {
+        return airlines.lookupByCallsignPrefix(callsigns[next(callsigns.length)]);
+    }
+
+    private int next(int length) {
+        int i = cursor;
+        cursor = i + 1 < length ? i + 1 : 0;
+        return i < length ? i : 0;
+    }
+}
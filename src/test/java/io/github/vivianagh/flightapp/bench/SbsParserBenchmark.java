@@ -0,0 +1,95 @@
+package io.github.vivianagh.flightapp.bench;
+
+import io.github.vivianagh.flightapp.model.FlightData;
+import io.github.vivianagh.flightapp.socket.SbsLineFramer;
+import io.github.vivianagh.flightapp.socket.SbsLineParser;
+import io.github.vivianagh.flightapp.socket.SbsMessage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Split-based {@code FlightData.fromCsvLine} vs. {@link SbsLineParser} over the recorded feed.
+ * Each invocation replays the whole capture; scores are per line.
+ * <p>
+ * {@link BenchmarkMain} runs it with the gc profiler, to compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SbsParserBenchmark {
+
+    /** Lines in the capture; {@code @OperationsPerInvocation} needs it as a constant. */
+    private static final int LINES = 1200;
+
+    private byte[] feed;
+    private String[] lines;
+    private SbsLineFramer framer;
+    private SbsMessage msg;
+
+    @Setup
+    public void setup() {
+        feed = SbsSample.bytes();
+        lines = SbsSample.lines().toArray(String[]::new);
+        if (lines.length != LINES) {
+            throw new IllegalStateException("@OperationsPerInvocation assumes " + LINES + " lines, sample has " + lines.length);
+        }
+        framer = new SbsLineFramer(64 * 1024);
+        msg = new SbsMessage();
+    }
+
+    /** Old path, parsing only: lines already decoded to Strings. */
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void splitParser(Blackhole bh) {
+        for (String line : lines) {
+            bh.consume(FlightData.fromCsvLine(line));
+        }
+    }
+
+    /** New path, parsing only. */
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void sbsLineParser(Blackhole bh) {
+        int start = 0;
+        for (int i = 0; i < feed.length; i++) {
+            if (feed[i] == '\n') {
+                bh.consume(SbsLineParser.parse(feed, start, i - start, msg));
+                start = i + 1;
+            }
+        }
+    }
+
+    /** Old socket path end to end: BufferedReader.readLine + split. */
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void readLineAndSplit(Blackhole bh) throws IOException {
+        try (BufferedReader br = new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(feed), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                bh.consume(FlightData.fromCsvLine(line));
+            }
+        }
+    }
+
+    /** New socket path end to end: byte framing + in-place parse. */
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void framerAndParser(Blackhole bh) throws IOException {
+        framer.reset();
+        ByteArrayInputStream in = new ByteArrayInputStream(feed);
+        while (framer.readFrom(in, (buf, off, len) -> bh.consume(SbsLineParser.parse(buf, off, len, msg))) != -1) {
+            // lines dispatched by the framer
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.vivianagh.flightapp.bench;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/** Recorded SBS-1 capture shipped under {@code src/test/resources/sbs}, shared by the benchmarks. */
+public final class SbsSample {
+
+    public static final String RESOURCE = "/sbs/sample-feed.sbs";
+
+    private SbsSample() {}
+
+    /** The capture exactly as it came off the socket (CRLF-terminated lines). */
+    public static byte[] bytes() {
+        try (InputStream in = SbsSample.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) throw new IllegalStateException("Missing " + RESOURCE + " in test resources");
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** One String per line, without line terminators. */
+    public static List<String> lines() {
+        return new String(bytes(), StandardCharsets.US_ASCII).lines().toList();
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.vivianagh.flightapp.geo;
+
+import io.github.vivianagh.flightapp.geo.GeofenceProperties.Point;
+import io.github.vivianagh.flightapp.geo.GeofenceProperties.Zone;
+import io.github.vivianagh.flightapp.utils.LocationUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GeofenceEngineTest {
+
+    @Test
+    void defaultHomeZoneMatchesHaversine() {
+        GeofenceEngine engine = new GeofenceEngine(new GeofenceProperties(0, null));
+        Random rnd = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            double lat = LocationUtils.HOME_LAT + (rnd.nextDouble() - 0.5);
+            double lon = LocationUtils.HOME_LON + (rnd.nextDouble() - 0.5) * 1.6;
+            assertThat(engine.isInsideAny(lat, lon))
+                    .as("lat=%s lon=%s", lat, lon)
+                    .isEqualTo(CircleZone.haversineKm(LocationUtils.HOME_LAT, LocationUtils.HOME_LON, lat, lon)
+                            <= LocationUtils.RADIUS_KM);
+        }
+        assertThat(engine.zonesAt(LocationUtils.HOME_LAT, LocationUtils.HOME_LON)).containsExactly(GeofenceProperties.HOME);
+    }
+
+    @Test
+    void largeHighLatitudeZoneMatchesHaversine() {
+        // a 80°N y 200 km la equirectangular se desvía ~3.8%, más que el margen fijo de la banda
+        GeofenceEngine engine = new GeofenceEngine(new GeofenceProperties(0.25, List.of(
+                new Zone("svalbard", "circle", 80, 15, 200, null))));
+        Random rnd = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            double lat = 80 + (rnd.nextDouble() - 0.5) * 4;
+            double lon = 15 + (rnd.nextDouble() - 0.5) * 24;
+            assertThat(engine.isInsideAny(lat, lon))
+                    .as("lat=%s lon=%s", lat, lon)
+                    .isEqualTo(CircleZone.haversineKm(80, 15, lat, lon) <= 200);
+        }
+    }
+
+    @Test
+    void circleWithoutAPositiveRadiusIsRejected() {
+        for (double radiusKm : new double[] {0, -5, Double.NaN}) {
+            GeofenceProperties props = new GeofenceProperties(0.25, List.of(new Zone("bad", "circle", 51.5, 0.5, radiusKm, null)));
+            assertThatThrownBy(() -> new GeofenceEngine(props))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("'bad'");
+        }
+    }
+
+    @Test
+    void reportsEveryOverlappingZone() {
+        GeofenceEngine engine = new GeofenceEngine(new GeofenceProperties(0.05, List.of(
+                new Zone("square", null, 0, 0, 0,
+                        List.of(new Point(51, 0), new Point(51, 1), new Point(52, 1), new Point(52, 0))),
+                new Zone("circle", "circle", 51.5, 0.5, 10, null))));
+
+        assertThat(engine.zonesAt(51.5, 0.5)).containsExactly("square", "circle");
+        assertThat(engine.zonesAt(51.9, 0.1)).containsExactly("square");
+        assertThat(engine.zonesAt(50.9, 0.5)).isEmpty();
+        assertThat(engine.zonesAt(Double.NaN, 0.5)).isEmpty();
+    }
+}
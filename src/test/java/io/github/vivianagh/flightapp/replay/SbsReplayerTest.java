@@ -0,0 +1,103 @@
+package io.github.vivianagh.flightapp.replay;
+
+import io.github.vivianagh.flightapp.bench.SbsSample;
+import io.github.vivianagh.flightapp.socket.SbsLineParser;
+import io.github.vivianagh.flightapp.socket.SbsMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SbsReplayerTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysPlainAndGzipCapturesLikeTheParser() throws IOException {
+        byte[] feed = SbsSample.bytes();
+        Path plain = Files.write(dir.resolve("feed.sbs"), feed);
+        Path gz = dir.resolve("feed.sbs.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gz))) {
+            out.write(feed);
+        }
+
+        List<String> expected = new ArrayList<>();
+        SbsMessage m = new SbsMessage();
+        for (String line : SbsSample.lines()) {
+            if (SbsLineParser.parse(line, m)) expected.add(m.getIcao24() + "@" + m.getLoggedTime());
+        }
+
+        for (Path file : List.of(plain, gz)) {
+            List<String> seen = new ArrayList<>();
+            ReplayReport report = new SbsReplayer(new ReplayPacer(0, 0),
+                    (msg, receivedAt) -> seen.add(msg.getIcao24() + "@" + msg.getLoggedTime()))
+                    .replay(List.of(file));
+
+            assertThat(seen).as(file.getFileName().toString()).containsExactlyElementsOf(expected);
+            assertThat(report.sent()).isEqualTo(expected.size());
+            assertThat(report.lines()).isEqualTo(SbsSample.lines().size());
+            assertThat(report.completed()).isTrue();
+            assertThat(report.feedSpanMs()).isPositive();
+        }
+    }
+
+    @Test
+    void lastLineWithoutNewlineIsNotLost() throws IOException {
+        Path file = Files.writeString(dir.resolve("tail.sbs"),
+                "MSG,3,1,1,4CA2D6,1,2025/08/31,16:33:57.544,2025/08/31,16:33:57.544,,37000,,,51.47570,-0.12345,,,0,0,0,0\n"
+              + "MSG,3,1,1,4CA2D7,1,2025/08/31,16:33:58.544,2025/08/31,16:33:58.544,,37000,,,51.47570,-0.12345,,,0,0,0,0");
+
+        List<String> seen = new ArrayList<>();
+        new SbsReplayer(new ReplayPacer(0, 0), (msg, at) -> seen.add(msg.getIcao24())).replay(List.of(file));
+
+        assertThat(seen).containsExactly("4CA2D6", "4CA2D7");
+    }
+
+    @Test
+    void droppedMessagesAreCountedAndMarkTheRunIncomplete() throws IOException {
+        Path file = Files.writeString(dir.resolve("drops.sbs"),
+                "MSG,3,1,1,4CA2D6,1,2025/08/31,16:33:57.544,2025/08/31,16:33:57.544,,37000,,,51.47570,-0.12345,,,0,0,0,0\n"
+              + "MSG,3,1,1,4CA2D7,1,2025/08/31,16:33:58.544,2025/08/31,16:33:58.544,,37000,,,51.47570,-0.12345,,,0,0,0,0\n"
+              + "MSG,3,1,1,4CA2D8,1,2025/08/31,16:33:59.544,2025/08/31,16:33:59.544,,37000,,,51.47570,-0.12345,,,0,0,0,0\n");
+
+        // el productor rechaza el segundo
+        ReplayReport report = new SbsReplayer(new ReplayPacer(0, 0), (msg, at) -> !"4CA2D7".equals(msg.getIcao24()))
+                .replay(List.of(file));
+
+        assertThat(report.sent()).isEqualTo(2);
+        assertThat(report.dropped()).isEqualTo(1);
+        assertThat(report.completed()).isFalse();
+    }
+
+    @Test
+    void pacerScalesAndCompressesGaps() {
+        long t0 = 1_000_000L;
+        ReplayPacer realTime = new ReplayPacer(1, 0);
+        assertThat(realTime.delayNanos(t0, 0)).isZero();
+        assertThat(realTime.delayNanos(t0 + 500, 0)).isEqualTo(500_000_000L);
+
+        ReplayPacer tenX = new ReplayPacer(10, 0);
+        tenX.delayNanos(t0, 0);
+        assertThat(tenX.delayNanos(t0 + 500, 0)).isEqualTo(50_000_000L);
+
+        // un silencio de 1 h cuenta como 2 s; fuera de orden no retrocede
+        ReplayPacer compressed = new ReplayPacer(1, 2_000);
+        compressed.delayNanos(t0, 0);
+        assertThat(compressed.delayNanos(t0 + 3_600_000, 0)).isEqualTo(2_000_000_000L);
+        assertThat(compressed.delayNanos(t0 + 10, 0)).isEqualTo(2_000_000_000L);
+
+        // enviado tarde: sin espera y con lag
+        assertThat(compressed.delayNanos(t0 + 3_600_000, 2_300_000_000L)).isZero();
+        assertThat(compressed.lagMillis()).isEqualTo(300);
+        assertThat(new ReplayPacer(0, 0).delayNanos(t0, 0)).isZero();
+    }
+}
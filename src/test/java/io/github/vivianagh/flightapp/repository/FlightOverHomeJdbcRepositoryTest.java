@@ -0,0 +1,63 @@
+package io.github.vivianagh.flightapp.repository;
+
+import io.github.vivianagh.flightapp.model.entity.FlightOverHomeEntity;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class FlightOverHomeJdbcRepositoryTest {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final FlightOverHomeJdbcRepository repo = new FlightOverHomeJdbcRepository(jdbc);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void upsertIsOneBatchThatOnlyFillsMissingColumnsOnConflict() throws Exception {
+        Instant at = Instant.parse("2025-08-31T15:00:00Z");
+        FlightOverHomeEntity row = FlightOverHomeEntity.builder()
+                .icao24("4CA2D6").callsign("BAW123").altitude(11_000.0)
+                .loggedDate("2025/08/31").loggedTime("16:00:00.000").loggedAt(at).zoneId("home").build();
+
+        repo.upsertBatch(List.of(row));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<FlightOverHomeEntity>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(jdbc).batchUpdate(sql.capture(), eq(List.of(row)), eq(1), setter.capture());
+
+        assertThat(sql.getValue())
+                .contains("ON CONFLICT (icao24, logged_at) DO UPDATE")
+                .contains("callsign  = COALESCE(flight_over_home.callsign,  EXCLUDED.callsign)")
+                .contains("zone_id   = COALESCE(flight_over_home.zone_id,   EXCLUDED.zone_id)")
+                .doesNotContain("origin");
+
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps, row);
+        verify(ps).setString(1, "4CA2D6");
+        verify(ps).setString(2, "BAW123");
+        verify(ps).setNull(4, Types.DOUBLE); // latitude sin valor
+        verify(ps).setDouble(6, 11_000.0);
+        verify(ps).setObject(10, at.atOffset(ZoneOffset.UTC));
+        verify(ps).setString(11, "home");
+    }
+
+    @Test
+    void emptyBatchDoesNotTouchTheDatabase() {
+        repo.upsertBatch(List.of());
+
+        verifyNoInteractions(jdbc);
+    }
+}
@@ -0,0 +1,193 @@
+package io.github.vivianagh.flightapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.vivianagh.flightapp.model.AirlineInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AirlineDirectoryTest {
+
+    private static final String CODE_CHARS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    // ---------- tabla ----------
+
+    @Test
+    void looksUpThreeAndTwoLetterCodesInAnyCase() {
+        AirlineInfo baw = new AirlineInfo("BAW", "BA", "British Airways", "United Kingdom");
+        AirlineInfo ezy = new AirlineInfo("EZY", "U2", "easyJet", "United Kingdom");
+        AirlineDirectory dir = new AirlineDirectory(List.of(baw, ezy));
+
+        assertThat(dir.byIcao('B', 'A', 'W')).isSameAs(baw);
+        assertThat(dir.byIcao('e', 'z', 'y')).isSameAs(ezy);
+        assertThat(dir.byIata('b', 'A')).isSameAs(baw);
+        assertThat(dir.byIata('U', '2')).isSameAs(ezy);
+        assertThat(dir.findByIcao(" ezy ")).containsSame(ezy);
+        assertThat(dir.findByIata("ba")).containsSame(baw);
+
+        // un código de 2 no es el prefijo de uno de 3, ni al revés
+        assertThat(dir.byIcao('B', 'A', '0')).isNull();
+        assertThat(dir.findByIcao("BA")).isEmpty();
+        assertThat(dir.findByIata("BAW")).isEmpty();
+    }
+
+    @Test
+    void charsOutsideTheCodeAlphabetNeverMatch() {
+        AirlineDirectory dir = new AirlineDirectory(List.of(new AirlineInfo("BAW", "BA", "British Airways", null)));
+
+        assertThat(dir.byIcao('B', 'A', ' ')).isNull();
+        assertThat(dir.byIcao('B', '-', 'W')).isNull();
+        assertThat(dir.byIcao('\0', 'B', 'A')).isNull();
+        assertThat(dir.byIata('B', 'Á')).isNull();
+        assertThat(dir.findByIcao(null)).isEmpty();
+    }
+
+    @Test
+    void everyKeyIsFoundInADenseTable() {
+        // 30k códigos ICAO + todos los IATA posibles: muchas claves parecidas en una tabla de 2^17 slots
+        List<AirlineInfo> airlines = denseAirlines();
+        AirlineDirectory dir = new AirlineDirectory(airlines);
+
+        for (AirlineInfo a : airlines) {
+            String icao = a.getIcao();
+            assertThat(dir.byIcao(icao.charAt(0), icao.charAt(1), icao.charAt(2))).isSameAs(a);
+            String iata = a.getIata();
+            if (iata != null) assertThat(dir.byIata(iata.charAt(0), iata.charAt(1))).isSameAs(a);
+        }
+        // los ICAO generados empiezan por letra: los que empiezan por dígito no están
+        assertThat(dir.byIcao('0', 'A', 'A')).isNull();
+        assertThat(dir.byIcao('9', '9', '9')).isNull();
+        assertThat(dir.longestProbe()).isLessThanOrEqualTo(8);
+    }
+
+    @Test
+    void homeSlotsSpreadOverTheWholeTable() {
+        // con más de 2^16 slots un hash de 16 bits dejaría sin usar la mitad alta como slot inicial
+        List<AirlineInfo> airlines = denseAirlines();
+        AirlineDirectory dir = new AirlineDirectory(airlines);
+        int half = dir.capacity() / 2;
+        assertThat(half).isGreaterThanOrEqualTo(1 << 16);
+
+        long upper = airlines.stream()
+                .map(AirlineInfo::getIcao)
+                .filter(icao -> dir.icaoHomeSlot(icao.charAt(0), icao.charAt(1), icao.charAt(2)) >= half)
+                .count();
+        assertThat(upper).isBetween(airlines.size() * 4L / 10, airlines.size() * 6L / 10);
+    }
+
+    private static List<AirlineInfo> denseAirlines() {
+        List<AirlineInfo> airlines = new ArrayList<>();
+        for (int i = 0; i < 30_000; i++) {
+            String icao = "" + CODE_CHARS.charAt(10 + i / 1296 % 26) + CODE_CHARS.charAt(i / 36 % 36) + CODE_CHARS.charAt(i % 36);
+            String iata = i < 1296 ? "" + CODE_CHARS.charAt(i / 36) + CODE_CHARS.charAt(i % 36) : null;
+            airlines.add(new AirlineInfo(icao, iata, "airline " + i, null));
+        }
+        return airlines;
+    }
+
+    @Test
+    void repeatedCodeKeepsTheLastAirline() {
+        AirlineInfo first = new AirlineInfo("CFE", "BA", "BA CityFlyer", null);
+        AirlineInfo last = new AirlineInfo("BAW", "BA", "British Airways", null);
+        AirlineDirectory dir = new AirlineDirectory(List.of(first, last));
+
+        assertThat(dir.byIata('B', 'A')).isSameAs(last);
+        assertThat(dir.byIcao('C', 'F', 'E')).isSameAs(first);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2, 3, 100, 1_000, 4_097})
+    void capacityKeepsTheLoadAtMostHalf(int n) {
+        List<AirlineInfo> airlines = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            airlines.add(new AirlineInfo("A" + CODE_CHARS.charAt(i / 36 % 36) + CODE_CHARS.charAt(i % 36), null, null, null));
+        }
+        int capacity = new AirlineDirectory(airlines).capacity();
+
+        assertThat(Integer.bitCount(capacity)).isEqualTo(1);
+        assertThat(capacity).isGreaterThanOrEqualTo(Math.max(8, 4 * n)); // 2 claves por aerolínea
+        assertThat(capacity).isLessThanOrEqualTo(Math.max(8, 8 * n));
+    }
+
+    // ---------- snapshot ----------
+
+    @Test
+    void snapshotIsWrittenAndGivesTheSameDirectory(@TempDir Path tmp) {
+        Path snapshot = tmp.resolve("sub/airlines.bin");
+        AirlineDirectory fromJson = new AirlineDirectory(new ObjectMapper(), snapshot.toString());
+        assertThat(snapshot).isRegularFile();
+
+        AirlineDirectory fromSnapshot = new AirlineDirectory(new ObjectMapper(), snapshot.toString());
+        assertThat(fromSnapshot.all()).usingRecursiveFieldByFieldElementComparator().isEqualTo(fromJson.all());
+        assertThat(fromSnapshot.byIcao('B', 'A', 'W').getIata()).isEqualTo("BA");
+    }
+
+    @Test
+    void staleSnapshotIsIgnoredAndRewritten(@TempDir Path tmp) throws IOException {
+        Path snapshot = tmp.resolve("airlines.bin");
+        writeSnapshot(snapshot, 12345L, "ZZZ", "ZZ");
+
+        AirlineDirectory dir = new AirlineDirectory(new ObjectMapper(), snapshot.toString());
+
+        assertThat(dir.findByIcao("ZZZ")).isEmpty();
+        assertThat(dir.findByIcao("BAW")).isPresent();
+        assertThat(stampOf(snapshot)).isNotEqualTo(12345L);
+    }
+
+    @Test
+    void snapshotWithTheCurrentStampIsUsed(@TempDir Path tmp) throws IOException {
+        Path snapshot = tmp.resolve("airlines.bin");
+        new AirlineDirectory(new ObjectMapper(), snapshot.toString());
+        writeSnapshot(snapshot, stampOf(snapshot), "ZZZ", "ZZ");
+
+        AirlineDirectory dir = new AirlineDirectory(new ObjectMapper(), snapshot.toString());
+
+        assertThat(dir.all()).hasSize(1);
+        assertThat(dir.findByIcao("ZZZ")).isPresent();
+    }
+
+    @Test
+    void truncatedSnapshotFallsBackToTheJson(@TempDir Path tmp) throws IOException {
+        Path snapshot = tmp.resolve("airlines.bin");
+        new AirlineDirectory(new ObjectMapper(), snapshot.toString());
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length / 2));
+
+        AirlineDirectory dir = new AirlineDirectory(new ObjectMapper(), snapshot.toString());
+
+        assertThat(dir.findByIcao("BAW")).isPresent();
+        assertThat(dir.all().size()).isGreaterThan(1);
+    }
+
+    /** Same layout AirlineDirectory writes: magic, stamp, count, then 5 nullable UTF strings per airline. */
+    private static void writeSnapshot(Path file, long stamp, String icao, String iata) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(0x41_49_52_31);
+            out.writeLong(stamp);
+            out.writeInt(1);
+            for (String s : new String[] {icao, iata, "Test", null, null}) {
+                out.writeBoolean(s != null);
+                if (s != null) out.writeUTF(s);
+            }
+        }
+    }
+
+    private static long stampOf(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            in.readInt();
+            return in.readLong();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.vivianagh.flightapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.vivianagh.flightapp.model.AirlineInfo;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Los casos de los normalizadores anteriores (regex {@code ^([A-Z]{2,3})(\d+)} + mapas ICAO->IATA en
+ * RouteResolverServiceImpl/FlightOverHomeService, y {@code CallsignParser} para la aerolínea), contra
+ * el {@code airlines.json} real.
+ */
+class CallsignNormalizerTest {
+
+    private static CallsignNormalizer normalizer;
+
+    @BeforeAll
+    static void load() {
+        normalizer = new CallsignNormalizer(new AirlineDirectory(new ObjectMapper(), ""));
+    }
+
+    @ParameterizedTest(name = "[{index}] ''{0}'' -> {1} / {2}")
+    @CsvSource({
+            // callsign,   flight number, airline (ICAO)
+            // ICAO -> IATA
+            "BAW123,       BA123,    BAW",
+            "EZY12,        U212,     EZY",
+            "RYR8,         FR8,      RYR",
+            "VIR3,         VS3,      VIR",
+            "HVN51,        VN51,     HVN",
+            "AEE600,       A3600,    AEE",
+            "KAL907,       KE907,    KAL",
+            "GTI1234,      5Y1234,   GTI",
+            // sufijo alfanumérico: solo cuentan los dígitos que siguen al prefijo
+            "BAW123A,      BA123,    BAW",
+            "EWG45Z,       EW45,     EWG",
+            "RYR8TX,       FR8,      RYR",
+            "EZY12AB,      U212,     EZY",
+            // flightNumberPrefix: vende con el código de otra aerolínea
+            "CFE45,        BA45,     CFE",
+            "DHK7,         QY7,      DHK",
+            // espacios y minúsculas
+            "' baw 123 ',  BA123,    BAW",
+            "'EZY 1 2',    U212,     EZY",
+            // prefijo de 2 letras (IATA) y códigos desconocidos
+            "BA123,        BA123,    BAW",
+            "ZZZ123,       ZZZ123,",
+            // IATA con dígito: aerolínea sí, número de vuelo no (la regex exigía letras)
+            "U21234,       ,         EZY",
+            // sin número de vuelo
+            "BAW,          ,         BAW",
+            "N123AB,       ,",
+            "G-ABCD,       ,",
+            "AB,           ,",
+            "A,            ,",
+            "'  ',         ,",
+    })
+    void matchesTheOldParsers(String callsign, String flightNumber, String airlineIcao) {
+        CallsignNormalizer.Normalized n = normalizer.normalize(callsign);
+
+        assertThat(n.flightNumber()).isEqualTo(flightNumber);
+        AirlineInfo airline = n.airline();
+        assertThat(airline == null ? null : airline.getIcao()).isEqualTo(airlineIcao);
+    }
+}
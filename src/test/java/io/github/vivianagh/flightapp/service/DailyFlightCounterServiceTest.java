@@ -0,0 +1,151 @@
+package io.github.vivianagh.flightapp.service;
+
+import io.github.vivianagh.flightapp.repository.FlightsPerDayRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class DailyFlightCounterServiceTest {
+
+    private static final ZoneId LONDON = ZoneId.of("Europe/London");
+    private static final LocalDate DAY_1 = LocalDate.of(2025, 8, 31);
+    private static final LocalDate DAY_2 = DAY_1.plusDays(1);
+
+    /** Reloj movible; {@code beforeNextMillis} corre una vez dentro de la siguiente lectura de millis(). */
+    private static final class TestClock extends Clock {
+        Instant now;
+        Runnable beforeNextMillis;
+
+        TestClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public long millis() {
+            long seen = now.toEpochMilli();
+            Runnable hook = beforeNextMillis;
+            beforeNextMillis = null;
+            if (hook != null) hook.run();
+            return seen;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return LONDON;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private final Map<LocalDate, Long> totals = new HashMap<>();
+    private final List<Integer> deltas = new ArrayList<>();
+    private FlightsPerDayRepository repository;
+    private TestClock clock;
+    private DailyFlightCounterService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(FlightsPerDayRepository.class);
+        doAnswer(inv -> {
+            LocalDate date = inv.getArgument(0);
+            int delta = inv.getArgument(1);
+            deltas.add(delta);
+            totals.merge(date, (long) delta, Long::sum);
+            return 1;
+        }).when(repository).addToCount(any(), anyInt());
+
+        clock = new TestClock(DAY_1.atTime(23, 59, 50).atZone(LONDON).toInstant());
+        service = new DailyFlightCounterService(repository, clock);
+    }
+
+    private void increment(int n) {
+        for (int i = 0; i < n; i++) service.incrementDailyCount();
+    }
+
+    private void toNextDay() {
+        clock.now = DAY_2.atStartOfDay(LONDON).toInstant();
+    }
+
+    @Test
+    void flushWritesOnlyWhatWasCountedSinceTheLastOne() {
+        increment(3);
+        service.persistDailyCounts();
+        service.persistDailyCounts(); // nada nuevo: no toca la BD
+        increment(2);
+        service.persistDailyCounts();
+
+        assertThat(deltas).containsExactly(3, 2);
+        assertThat(totals).containsExactlyEntriesOf(Map.of(DAY_1, 5L));
+    }
+
+    @Test
+    void failedFlushIsRetriedWithTheAccumulatedDelta() {
+        doAnswer(inv -> {
+            throw new IllegalStateException("db down");
+        }).doAnswer(inv -> {
+            deltas.add(inv.getArgument(1));
+            return 1;
+        }).when(repository).addToCount(any(), anyInt());
+
+        increment(2);
+        service.persistDailyCounts();
+        increment(1);
+        service.persistDailyCounts();
+
+        assertThat(deltas).containsExactly(3);
+    }
+
+    @Test
+    void countsAfterMidnightGoToTheNewDay() {
+        increment(2);
+        toNextDay();
+        increment(1);
+        service.persistDailyCounts();
+
+        assertThat(totals).containsExactlyInAnyOrderEntriesOf(Map.of(DAY_1, 2L, DAY_2, 1L));
+    }
+
+    @Test
+    void lateIncrementOnThePreviousDayIsFlushedAfterRollover() {
+        increment(2);
+
+        // Este incremento lee "today" (DAY_1) y, antes de sumar, otro hilo cambia de día y hace un flush
+        clock.beforeNextMillis = () -> {
+            toNextDay();
+            service.incrementDailyCount();
+            service.persistDailyCounts();
+        };
+        service.incrementDailyCount();
+        assertThat(totals).containsExactlyInAnyOrderEntriesOf(Map.of(DAY_1, 2L, DAY_2, 1L));
+
+        service.persistDailyCounts();
+        assertThat(totals).containsExactlyInAnyOrderEntriesOf(Map.of(DAY_1, 3L, DAY_2, 1L));
+
+        // ya sin nada pendiente, los siguientes flushes no vuelven a escribir DAY_1
+        service.persistDailyCounts();
+        service.persistDailyCounts();
+        assertThat(totals).containsExactlyInAnyOrderEntriesOf(Map.of(DAY_1, 3L, DAY_2, 1L));
+    }
+}
@@ -0,0 +1,112 @@
+package io.github.vivianagh.flightapp.service;
+
+import io.github.vivianagh.flightapp.config.OverHomeWriteBehindProperties;
+import io.github.vivianagh.flightapp.model.entity.FlightOverHomeEntity;
+import io.github.vivianagh.flightapp.repository.FlightOverHomeJdbcRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class FlightOverHomeWriteBehindTest {
+
+    private static final Instant T0 = Instant.parse("2025-08-31T15:00:00Z");
+
+    private final List<List<FlightOverHomeEntity>> batches = new ArrayList<>();
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private FlightOverHomeJdbcRepository jdbc;
+    private FlightOverHomeWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = mock(FlightOverHomeJdbcRepository.class);
+        doAnswer(inv -> batches.add(List.copyOf(inv.getArgument(0)))).when(jdbc).upsertBatch(anyList());
+
+        // max-batch alto: el flush solo ocurre cuando el test llama a flush(); el flusher es un mock que no corre nada
+        var props = new OverHomeWriteBehindProperties(true, 3_600_000, 100, 100, 1, 10);
+        writeBehind = new FlightOverHomeWriteBehind(jdbc, mock(RouteResolverService.class), props,
+                mock(LatestFlightsReadModel.class), mock(PipelineLatency.class), meters,
+                mock(ScheduledExecutorService.class));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writeBehind.shutdown();
+    }
+
+    private static FlightOverHomeEntity row(String icao24, Instant loggedAt, String callsign, Double altitude) {
+        return FlightOverHomeEntity.builder()
+                .icao24(icao24).loggedAt(loggedAt).callsign(callsign).altitude(altitude).build();
+    }
+
+    private double dropped() {
+        return meters.get("flight.overhome.dropped").functionCounter().count();
+    }
+
+    @Test
+    void samplesOfTheSameKeyAreCoalescedFillingOnlyWhatIsMissing() {
+        writeBehind.submit(row("4CA2D6", T0, null, 11_000.0), T0);
+        writeBehind.submit(row("4CA2D6", T0, "BAW123", 12_000.0), T0);
+        writeBehind.submit(row("4CA2D7", T0, "EZY45", null), T0);
+        assertThat(writeBehind.pendingCount()).isEqualTo(2);
+
+        writeBehind.flush();
+
+        assertThat(batches).hasSize(1);
+        List<FlightOverHomeEntity> rows = new ArrayList<>(batches.get(0));
+        rows.sort(Comparator.comparing(FlightOverHomeEntity::getIcao24));
+        assertThat(rows.get(0).getCallsign()).isEqualTo("BAW123");  // faltaba: se rellena
+        assertThat(rows.get(0).getAltitude()).isEqualTo(11_000.0);  // ya estaba: se mantiene
+        assertThat(rows.get(1).getCallsign()).isEqualTo("EZY45");
+        assertThat(writeBehind.pendingCount()).isZero();
+    }
+
+    @Test
+    void failedBatchIsRequeuedAndMergedWithNewerSamples() {
+        doAnswer(inv -> {
+            throw new IllegalStateException("db down");
+        }).doAnswer(inv -> batches.add(List.copyOf(inv.getArgument(0)))).when(jdbc).upsertBatch(anyList());
+
+        writeBehind.submit(row("4CA2D6", T0, "BAW123", null), T0);
+        writeBehind.flush();
+        assertThat(batches).isEmpty();
+        assertThat(writeBehind.pendingCount()).isEqualTo(1);
+
+        writeBehind.submit(row("4CA2D6", T0, null, 9_000.0), T0);
+        writeBehind.flush();
+
+        assertThat(batches).hasSize(1);
+        FlightOverHomeEntity written = batches.get(0).get(0);
+        assertThat(written.getCallsign()).isEqualTo("BAW123");
+        assertThat(written.getAltitude()).isEqualTo(9_000.0);
+        assertThat(dropped()).isZero();
+    }
+
+    @Test
+    void newKeysAreDroppedOnSubmitOnceTheBufferIsFull() {
+        for (int i = 0; i < 100; i++) writeBehind.submit(row("4CA2D6", T0.plusSeconds(i), null, null), T0);
+
+        writeBehind.submit(row("4CA2D7", T0, null, null), T0);
+        writeBehind.submit(row("4CA2D6", T0, "BAW123", null), T0); // clave ya en el buffer: se fusiona
+
+        assertThat(writeBehind.pendingCount()).isEqualTo(100);
+        assertThat(dropped()).isEqualTo(1);
+
+        writeBehind.flush();
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).hasSize(100)
+                .noneMatch(r -> r.getIcao24().equals("4CA2D7"))
+                .anyMatch(r -> "BAW123".equals(r.getCallsign()));
+    }
+}
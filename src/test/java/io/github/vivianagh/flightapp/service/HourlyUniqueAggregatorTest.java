@@ -0,0 +1,117 @@
+package io.github.vivianagh.flightapp.service;
+
+import io.github.vivianagh.flightapp.config.PerHourProperties;
+import io.github.vivianagh.flightapp.repository.FlightsPerHourJdbcRepository;
+import io.github.vivianagh.flightapp.repository.FlightsPerHourJdbcRepository.HourCount;
+import io.github.vivianagh.flightapp.repository.FlightsPerHourJdbcRepository.HourSketch;
+import io.github.vivianagh.flightapp.utils.HyperLogLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HourlyUniqueAggregatorTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 8, 31);
+    private static final int HOUR = 16;
+    private static final LocalDateTime STILL_OPEN = DAY.atTime(HOUR, 0).minusHours(1);
+
+    // flights_per_hour / flights_per_hour_sketch en memoria
+    private final Map<Integer, Integer> counts = new HashMap<>();
+    private final Map<Integer, HourSketch> sketches = new HashMap<>();
+    private FlightsPerHourJdbcRepository jdbc;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = mock(FlightsPerHourJdbcRepository.class);
+        doAnswer(inv -> {
+            for (HourCount r : inv.<List<HourCount>>getArgument(0)) counts.merge(r.hour(), r.count(), Math::max);
+            return null;
+        }).when(jdbc).upsertMax(anyList());
+        doAnswer(inv -> {
+            for (HourSketch s : inv.<List<HourSketch>>getArgument(0)) sketches.put(s.hour(), s);
+            return null;
+        }).when(jdbc).upsertSketches(anyList());
+        when(jdbc.findSketch(any(), anyInt(), anyString())).thenAnswer(inv -> Optional.ofNullable(sketches.get(inv.<Integer>getArgument(1)))
+                .filter(s -> s.kind().equals(inv.getArgument(2)))
+                .map(HourSketch::sketch));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {PerHourProperties.MODE_EXACT, PerHourProperties.MODE_HLL})
+    void restartMergesTheStoredSketchInsteadOfKeepingTheLargerPartial(String mode) {
+        HourlyUniqueAggregator before = aggregator(mode);
+        for (int i = 0; i < 100; i++) before.add(DAY, HOUR, icao(i));
+        before.flush(STILL_OPEN);
+        assertThat(counts.get(HOUR)).isEqualTo(expected(mode, 100));
+
+        // reinicio a mitad de hora: 50 ya vistos y 50 nuevos
+        HourlyUniqueAggregator after = aggregator(mode);
+        for (int i = 50; i < 150; i++) after.add(DAY, HOUR, icao(i));
+        after.flush(STILL_OPEN);
+
+        assertThat(counts.get(HOUR)).isEqualTo(expected(mode, 150));
+        assertThat(after.liveCounts(DAY)).containsEntry(HOUR, expected(mode, 150));
+    }
+
+    @Test
+    void hourWaitsForItsMergeWhenTheSketchCannotBeRead() {
+        HourlyUniqueAggregator before = aggregator(PerHourProperties.MODE_EXACT);
+        for (int i = 0; i < 10; i++) before.add(DAY, HOUR, icao(i));
+        before.flush(STILL_OPEN);
+        HourSketch stored = sketches.get(HOUR);
+
+        when(jdbc.findSketch(any(), anyInt(), anyString())).thenThrow(new IllegalStateException("db down"));
+        HourlyUniqueAggregator after = aggregator(PerHourProperties.MODE_EXACT);
+        after.add(DAY, HOUR, icao(99));
+        after.flush(LocalDateTime.MAX); // la hora ya estaría cerrada
+
+        assertThat(sketches.get(HOUR)).isSameAs(stored);       // no pisa el sketch guardado
+        assertThat(after.liveCounts(DAY)).containsKey(HOUR); // y no se descarta hasta poder unirlo
+        assertThat(counts.get(HOUR)).isEqualTo(10);          // GREATEST conserva el count
+    }
+
+    @Test
+    void closedHoursLeaveMemoryAfterTheirLastWrite() {
+        HourlyUniqueAggregator agg = aggregator(PerHourProperties.MODE_EXACT);
+        agg.add(DAY, HOUR, icao(1));
+        agg.add(DAY, HOUR + 2, icao(1));
+
+        agg.flush(DAY.atTime(HOUR + 1, 0));
+
+        assertThat(agg.liveCounts(DAY)).containsOnlyKeys(HOUR + 2);
+        assertThat(counts).containsEntry(HOUR, 1).containsEntry(HOUR + 2, 1);
+    }
+
+    private HourlyUniqueAggregator aggregator(String mode) {
+        return new HourlyUniqueAggregator(new PerHourProperties(mode, 0, 0, null), jdbc);
+    }
+
+    /** Distinct count of icao(0..n-1): exact, or what a single HLL over all of them estimates (the merge is lossless). */
+    private static int expected(String mode, int n) {
+        if (PerHourProperties.MODE_EXACT.equals(mode)) return n;
+        HyperLogLog hll = new HyperLogLog(14);
+        for (int i = 0; i < n; i++) hll.add(0x400000 + i);
+        return (int) hll.estimate();
+    }
+
+    private static String icao(int i) {
+        return String.format("%06X", 0x400000 + i);
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.vivianagh.flightapp.service;
+
+import io.github.vivianagh.flightapp.model.DTO.FlightOverHomeDTO;
+import io.github.vivianagh.flightapp.model.entity.FlightOverHomeEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LatestFlightsReadModelTest {
+
+    private static final Instant AT = Instant.parse("2025-08-31T15:33:57.544Z");
+
+    private FlightOverHomeService dbService;
+    private LatestFlightsReadModel model;
+
+    @BeforeEach
+    void setUp() {
+        dbService = mock(FlightOverHomeService.class);
+        when(dbService.withCachedRoute(any())).thenAnswer(inv -> inv.getArgument(0));
+        model = new LatestFlightsReadModel(dbService, mock(AirlineLookupService.class), 20);
+    }
+
+    @Test
+    void seededSampleIsNotDuplicatedWhenRecordedAgain() {
+        when(dbService.latestCandidates(anyInt())).thenReturn(List.of(row("4CA7B5", AT)));
+        model.seedFromDatabase();
+
+        // el consumer vuelve a ver la misma muestra tras el reinicio (icao24 con otro formato)
+        model.record(row(" 4ca7b5 ", AT), AT);
+
+        assertThat(model.latest().flights()).hasSize(1);
+    }
+
+    @Test
+    void routeReachesSeededSample() {
+        when(dbService.latestCandidates(anyInt())).thenReturn(List.of(row("4CA7B5", AT)));
+        model.seedFromDatabase();
+
+        model.applyRoute("4CA7B5", AT, "EGLL", "LEMD");
+
+        FlightOverHomeDTO dto = model.latest().flights().get(0);
+        assertThat(dto.getOrigin()).isEqualTo("EGLL");
+        assertThat(dto.getDestination()).isEqualTo("LEMD");
+    }
+
+    @Test
+    void publishesFlightsWithRouteFirstAndFallsBackToLatest() {
+        model.record(row("AAAAAA", AT), AT);
+        assertThat(model.latest().flights()).extracting(FlightOverHomeDTO::getIcao24).containsExactly("AAAAAA");
+
+        FlightOverHomeEntity older = row("BBBBBB", AT.minusSeconds(60));
+        older.setOrigin("EGLL");
+        model.record(older, older.getLoggedAt());
+
+        assertThat(model.latest().flights()).extracting(FlightOverHomeDTO::getIcao24).containsExactly("BBBBBB");
+    }
+
+    @Test
+    void newSampleWithoutRouteIsCompletedFromRouteCache() {
+        when(dbService.withCachedRoute(any())).thenAnswer(inv ->
+                inv.<FlightOverHomeDTO>getArgument(0).toBuilder().origin("EGKK").destination("LPPT").build());
+
+        model.record(row("4CA7B5", AT), AT);
+
+        assertThat(model.latest().flights().get(0).getOrigin()).isEqualTo("EGKK");
+    }
+
+    private static FlightOverHomeEntity row(String icao24, Instant at) {
+        return FlightOverHomeEntity.builder()
+                .icao24(icao24)
+                .callsign("RYR1234")
+                .loggedDate("2025/08/31")
+                .loggedTime("16:33:57.544")
+                .loggedAt(at)
+                .build();
+    }
+}
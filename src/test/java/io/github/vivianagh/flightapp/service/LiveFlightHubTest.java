@@ -0,0 +1,193 @@
+package io.github.vivianagh.flightapp.service;
+
+import io.github.vivianagh.flightapp.config.LiveStreamProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class LiveFlightHubTest {
+
+    /** Guarda lo que se envía en vez de escribir en un socket; con {@code failing} cada envío falla. */
+    private static final class RecordingEmitter extends SseEmitter {
+        final List<String> sent = new ArrayList<>();
+        final boolean failing;
+
+        RecordingEmitter(boolean failing) {
+            super(0L);
+            this.failing = failing;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) throw new IOException("broken pipe");
+            sent.add(builder.build().stream().map(d -> d.getData().toString()).collect(Collectors.joining()));
+        }
+
+        /** Payloads of the named events, in order (heartbeats are comments and carry no data). */
+        List<String> data() {
+            return sent.stream()
+                    .filter(s -> s.contains("data:"))
+                    .map(s -> s.substring(s.indexOf("data:") + 5).trim())
+                    .toList();
+        }
+    }
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final Deque<Runnable> drains = new ArrayDeque<>();
+    private ExecutorService senders;
+
+    @BeforeEach
+    void setUp() {
+        // las tareas de drain quedan en cola hasta que el test las corre: un cliente "lento" es uno no drenado
+        senders = mock(ExecutorService.class);
+        doAnswer(inv -> drains.add(inv.getArgument(0))).when(senders).execute(any());
+    }
+
+    private LiveFlightHub hub(int clientBuffer, int maxClients) {
+        return new LiveFlightHub(new LiveStreamProperties(clientBuffer, maxClients, 1, 0),
+                mock(KafkaListenerEndpointRegistry.class), meters, senders);
+    }
+
+    private void runDrains() {
+        while (!drains.isEmpty()) drains.poll().run();
+    }
+
+    private double dropped() {
+        return meters.get("flight.live.dropped").counter().count();
+    }
+
+    @Test
+    void fullBufferDropsTheOldestFlightDeltaAndKeepsNearHome() {
+        LiveFlightHub hub = hub(3, 10);
+        RecordingEmitter slow = new RecordingEmitter(false);
+        hub.subscribe(Set.of(), slow);
+
+        hub.publish(LiveFlightHub.TYPE_FLIGHT, "f1");
+        hub.publish(LiveFlightHub.TYPE_NEAR_HOME, "n1");
+        hub.publish(LiveFlightHub.TYPE_FLIGHT, "f2");
+        hub.publish(LiveFlightHub.TYPE_FLIGHT, "f3");     // lleno: cae f1
+        hub.publish(LiveFlightHub.TYPE_NEAR_HOME, "n2");  // cae f2, no n1
+        runDrains();
+
+        assertThat(slow.data()).containsExactly("n1", "f3", "n2");
+        assertThat(dropped()).isEqualTo(2);
+    }
+
+    @Test
+    void bufferOfOnlyNearHomeDropsTheOldest() {
+        LiveFlightHub hub = hub(2, 10);
+        RecordingEmitter slow = new RecordingEmitter(false);
+        hub.subscribe(Set.of(), slow);
+
+        hub.publish(LiveFlightHub.TYPE_NEAR_HOME, "n1");
+        hub.publish(LiveFlightHub.TYPE_NEAR_HOME, "n2");
+        hub.publish(LiveFlightHub.TYPE_NEAR_HOME, "n3");
+        runDrains();
+
+        assertThat(slow.data()).containsExactly("n2", "n3");
+        assertThat(dropped()).isEqualTo(1);
+    }
+
+    @Test
+    void slowClientDoesNotHoldBackTheOthers() {
+        LiveFlightHub hub = hub(2, 10);
+        RecordingEmitter slow = new RecordingEmitter(false);
+        RecordingEmitter fast = new RecordingEmitter(false);
+        hub.subscribe(Set.of(), slow);
+        hub.subscribe(Set.of(LiveFlightHub.TYPE_FLIGHT), fast);
+
+        for (int i = 1; i <= 5; i++) {
+            hub.publish(LiveFlightHub.TYPE_FLIGHT, "f" + i);
+            // solo se drena el cliente rápido: el drain del lento sigue pendiente desde el primer evento
+            Runnable slowDrain = drains.pollFirst();
+            runDrains();
+            drains.addFirst(slowDrain);
+        }
+        assertThat(fast.data()).containsExactly("f1", "f2", "f3", "f4", "f5");
+        assertThat(slow.data()).isEmpty();
+        assertThat(drains).hasSize(1);
+
+        runDrains();
+        assertThat(slow.data()).containsExactly("f4", "f5");
+    }
+
+    @Test
+    void atMostOneDrainIsScheduledPerClient() {
+        LiveFlightHub hub = hub(10, 10);
+        RecordingEmitter client = new RecordingEmitter(false);
+        hub.subscribe(Set.of(), client);
+
+        hub.publish(LiveFlightHub.TYPE_FLIGHT, "f1");
+        hub.publish(LiveFlightHub.TYPE_FLIGHT, "f2");
+        hub.heartbeat();
+        assertThat(drains).hasSize(1);
+
+        runDrains();
+        assertThat(client.sent).hasSize(3);
+        assertThat(client.data()).containsExactly("f1", "f2");
+
+        // el drain terminó con la cola vacía y soltó el flag: el siguiente evento agenda otro
+        hub.publish(LiveFlightHub.TYPE_FLIGHT, "f3");
+        assertThat(drains).hasSize(1);
+        runDrains();
+        assertThat(client.data()).containsExactly("f1", "f2", "f3");
+    }
+
+    @Test
+    void failingClientIsRemovedAndFreesItsSlot() {
+        LiveFlightHub hub = hub(10, 1);
+        assertThat(hub.subscribe(Set.of(), new RecordingEmitter(true))).isNotNull();
+        assertThat(hub.subscribe(Set.of(), new RecordingEmitter(false))).isNull();
+
+        hub.publish(LiveFlightHub.TYPE_FLIGHT, "f1");
+        runDrains();
+
+        assertThat(hub.hasSubscribers()).isFalse();
+        assertThat(hub.subscribe(Set.of(), new RecordingEmitter(false))).isNotNull();
+    }
+
+    @Test
+    void concurrentSubscribesNeverExceedMaxClients() throws Exception {
+        LiveFlightHub hub = hub(10, 5);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<SseEmitter>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return hub.subscribe(Set.of(), new RecordingEmitter(false));
+                }));
+            }
+            start.countDown();
+
+            int accepted = 0;
+            for (Future<SseEmitter> f : results) {
+                if (f.get() != null) accepted++;
+            }
+            assertThat(accepted).isEqualTo(5);
+            assertThat(meters.get("flight.live.clients").gauge().value()).isEqualTo(5);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package io.github.vivianagh.flightapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.vivianagh.flightapp.config.RouteEnrichmentProperties;
+import io.github.vivianagh.flightapp.exception.RateLimitException;
+import io.github.vivianagh.flightapp.repository.FlightRouteCacheRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.ExpectedCount.times;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class RouteResolverServiceImplTest {
+
+    private static final String BASE_URL = "http://adb.test";
+    private static final String CALLSIGN = "BAW123";
+    private static final Instant WHEN = Instant.parse("2025-08-31T15:00:00Z");
+    private static final String FLIGHT = """
+            [{"departure":{"airport":{"iata":"LHR"}},"arrival":{"airport":{"iata":"MAD"}}}]""";
+
+    private MockRestServiceServer server;
+    private RouteResolverServiceImpl resolver;
+    private String flightNumber;
+
+    @BeforeEach
+    void setUp() {
+        FlightRouteCacheRepository repo = mock(FlightRouteCacheRepository.class);
+        when(repo.findById(anyString())).thenReturn(Optional.empty());
+        when(repo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        var normalizer = new CallsignNormalizer(new AirlineDirectory(new ObjectMapper(), ""));
+        flightNumber = normalizer.flightNumber(CALLSIGN);
+        assertThat(flightNumber).isNotNull();
+
+        // sin cuota local ni cooldown tras error: el segundo intento sale a la API enseguida
+        var props = new RouteEnrichmentProperties(0, 0, -1, 0, 0, null, null,
+                new RouteEnrichmentProperties.RouteCache(0, null, null, 0, Duration.ZERO));
+        RestClient.Builder http = RestClient.builder();
+        server = MockRestServiceServer.bindTo(http).build();
+        resolver = new RouteResolverServiceImpl(repo, normalizer, BASE_URL, "key", "adb.test",
+                props, new SimpleMeterRegistry(), http);
+    }
+
+    @Test
+    void serverErrorIsNotCachedAsNoRoute() throws Exception {
+        String url = BASE_URL + "/flights/number/" + flightNumber + "/";
+        server.expect(once(), requestTo(startsWith(url))).andRespond(withServerError());
+        server.expect(once(), requestTo(startsWith(url))).andRespond(withSuccess(FLIGHT, MediaType.APPLICATION_JSON));
+
+        assertThat(resolver.resolve(CALLSIGN, null, WHEN)).isNull();
+
+        var route = resolver.resolve(CALLSIGN, null, WHEN);
+        assertThat(route).isNotNull();
+        assertThat(route.origin()).isEqualTo("LHR");
+        assertThat(route.destination()).isEqualTo("MAD");
+        server.verify();
+    }
+
+    @Test
+    void emptyAnswerIsCachedAsNoRoute() throws Exception {
+        // hoy, ayer y mañana sin vuelos: la API contestó, se cachea "sin datos"
+        server.expect(times(3), requestTo(startsWith(BASE_URL + "/flights/number/" + flightNumber + "/")))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+
+        assertThat(resolver.resolve(CALLSIGN, null, WHEN)).isNull();
+        assertThat(resolver.resolve(CALLSIGN, null, WHEN)).isNull(); // no vuelve a la API
+
+        server.verify();
+    }
+
+    private void answer429(String retryAfter) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, retryAfter);
+        server.expect(once(), requestTo(startsWith(BASE_URL + "/flights/number/" + flightNumber + "/")))
+                .andRespond(withStatus(HttpStatus.TOO_MANY_REQUESTS).headers(headers));
+    }
+
+    @Test
+    void retryAfterSecondsDrivesTheCooldown() {
+        answer429("120");
+        Instant before = Instant.now();
+
+        assertThatThrownBy(() -> resolver.resolve(CALLSIGN, null, WHEN)).isInstanceOf(RateLimitException.class);
+
+        assertThat(resolver.isCoolingDown()).isTrue();
+        assertThat(resolver.cooldownUntil()).isCloseTo(before.plusSeconds(120), within(5, ChronoUnit.SECONDS));
+        assertThatThrownBy(() -> resolver.resolve(CALLSIGN, null, WHEN)).isInstanceOf(RateLimitException.class);
+        server.verify(); // el segundo intento no llega a la API
+    }
+
+    @Test
+    void retryAfterHttpDateDrivesTheCooldown() {
+        Instant at = Instant.now().plusSeconds(300).truncatedTo(ChronoUnit.SECONDS);
+        answer429(DateTimeFormatter.RFC_1123_DATE_TIME.format(at.atOffset(ZoneOffset.UTC))); // "Wed, 21 Oct 2015 07:28:00 GMT"
+
+        assertThatThrownBy(() -> resolver.resolve(CALLSIGN, null, WHEN)).isInstanceOf(RateLimitException.class);
+
+        assertThat(resolver.isCoolingDown()).isTrue();
+        assertThat(resolver.cooldownUntil()).isEqualTo(at); // no el cooldown por defecto de 1h
+        server.verify();
+    }
+
+    @Test
+    void retryAfterParsing() {
+        Instant now = Instant.parse("2015-10-21T07:00:00Z");
+
+        assertThat(RouteResolverServiceImpl.retryAfter("30", now)).isEqualTo(now.plusSeconds(30));
+        assertThat(RouteResolverServiceImpl.retryAfter(" 0 ", now)).isEqualTo(now);
+        assertThat(RouteResolverServiceImpl.retryAfter("Wed, 21 Oct 2015 07:28:00 GMT", now))
+                .isEqualTo(Instant.parse("2015-10-21T07:28:00Z"));
+        // fecha ya pasada: se puede volver a llamar ya
+        assertThat(RouteResolverServiceImpl.retryAfter("Wed, 21 Oct 2015 06:00:00 GMT", now)).isEqualTo(now);
+        assertThat(RouteResolverServiceImpl.retryAfter("mañana", now)).isNull();
+        assertThat(RouteResolverServiceImpl.retryAfter("", now)).isNull();
+        assertThat(RouteResolverServiceImpl.retryAfter(null, now)).isNull();
+    }
+}
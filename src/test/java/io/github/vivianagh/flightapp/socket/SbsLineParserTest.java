@@ -0,0 +1,72 @@
+package io.github.vivianagh.flightapp.socket;
+
+import io.github.vivianagh.flightapp.bench.SbsSample;
+import io.github.vivianagh.flightapp.model.FlightData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SbsLineParserTest {
+
+    @Test
+    void parsesPositionMessage() {
+        SbsMessage m = new SbsMessage();
+        boolean ok = SbsLineParser.parse(
+                "MSG,3,1,1,4CA2D6,1,2025/08/31,16:33:57.544,2025/08/31,16:33:57.544,,37000,,,51.47570,-0.12345,,,0,0,0,-1\r", m);
+
+        assertThat(ok).isTrue();
+        assertThat(m.getTransmissionType()).isEqualTo(3);
+        assertThat(m.getIcao()).isEqualTo(0x4CA2D6);
+        assertThat(m.getIcao24()).isEqualTo("4CA2D6");
+        assertThat(m.getAltitude()).isEqualTo(37000.0);
+        assertThat(m.getLatitude()).isEqualTo(51.4757);
+        assertThat(m.getLongitude()).isEqualTo(-0.12345);
+        assertThat(Double.isNaN(m.getGroundSpeed())).isTrue();
+        assertThat(m.getCallsign()).isNull();
+        assertThat(m.getLoggedTime()).hasToString("16:33:57.544");
+        assertThat(m.isOnGround()).isTrue();
+    }
+
+    @Test
+    void rejectsNonMsgLinesAndMissingHexIdent() {
+        SbsMessage m = new SbsMessage();
+        assertThat(SbsLineParser.parse("STA,,1,1,4CA2D6,1,2025/08/31,16:33:57.544,2025/08/31,16:33:57.544,RM", m)).isFalse();
+        assertThat(SbsLineParser.parse("MSG,3,1,1,,1,2025/08/31,16:33:57.544", m)).isFalse();
+        assertThat(SbsLineParser.parse("", m)).isFalse();
+    }
+
+    @Test
+    void agreesWithSplitParserOnRecordedFeed() {
+        byte[] feed = SbsSample.bytes();
+        SbsMessage m = new SbsMessage();
+        List<String> seen = new ArrayList<>();
+
+        SbsLineFramer framer = new SbsLineFramer(256);
+        framer.feed(feed, 0, feed.length, (buf, off, len) -> {
+            assertThat(SbsLineParser.parse(buf, off, len, m)).isTrue();
+            FlightData d = FlightData.fromCsvLine(new String(buf, off, len).stripTrailing());
+
+            assertThat(m.getIcao24()).isEqualTo(d.getIcao24());
+            assertThat(text(m.getTransmissionTypeText())).isEqualTo(d.getTransmissionType());
+            assertThat(text(m.getCallsign())).isEqualTo(d.getCallsign());
+            assertThat(text(m.getLoggedDate())).isEqualTo(d.getLoggedDate());
+            assertThat(text(m.getLoggedTime())).isEqualTo(d.getLoggedTime());
+            assertThat(text(m.getSquawk())).isEqualTo(d.getSquawk());
+            assertThat(SbsMessage.boxed(m.getAltitude())).isEqualTo(d.getAltitude());
+            assertThat(SbsMessage.boxed(m.getGroundSpeed())).isEqualTo(d.getGroundSpeed());
+            assertThat(SbsMessage.boxed(m.getTrack())).isEqualTo(d.getTrack());
+            assertThat(SbsMessage.boxed(m.getLatitude())).isEqualTo(d.getLatitude());
+            assertThat(SbsMessage.boxed(m.getLongitude())).isEqualTo(d.getLongitude());
+            seen.add(m.getIcao24());
+        });
+
+        assertThat(seen).hasSize(SbsSample.lines().size());
+    }
+
+    private static String text(CharSequence cs) {
+        return cs == null ? null : cs.toString();
+    }
+}
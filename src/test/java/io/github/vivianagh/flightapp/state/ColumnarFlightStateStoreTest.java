@@ -0,0 +1,79 @@
+package io.github.vivianagh.flightapp.state;
+
+import io.github.vivianagh.avro.Flight;
+import io.github.vivianagh.flightapp.bench.SbsSample;
+import io.github.vivianagh.flightapp.config.StateStoreProperties;
+import io.github.vivianagh.flightapp.model.FlightData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnarFlightStateStoreTest {
+
+    @Test
+    void emitsSameRecordsAsMapStore() {
+        MapFlightStateStore map = new MapFlightStateStore(StateStoreProperties.defaults(), event -> {});
+        ColumnarFlightStateStore columnar = new ColumnarFlightStateStore(StateStoreProperties.defaults(), event -> {});
+
+        for (String line : SbsSample.lines()) {
+            FlightData d = FlightData.fromCsvLine(line.stripTrailing());
+            assertThat(columnar.process(d)).isEqualTo(map.process(d));
+        }
+        assertThat(columnar.size()).isEqualTo(map.size());
+    }
+
+    @Test
+    void reportsOnlyChangedFields() {
+        ColumnarFlightStateStore store = new ColumnarFlightStateStore(StateStoreProperties.defaults(), event -> {});
+        FlightData d = FlightData.fromCsvLine(
+                "MSG,3,1,1,4CA2D6,1,2025/08/31,16:33:57.544,2025/08/31,16:33:57.544,,37000,,,51.47570,-0.12345,,,0,0,0,0");
+
+        assertThat(store.apply(d)).isNotZero();
+        assertThat(store.apply(d)).isEqualTo(FlightFields.NONE);
+
+        d.setLatitude(51.48);
+        assertThat(store.apply(d)).isEqualTo(FlightFields.LATITUDE);
+
+        Flight delta = store.toAvro("4CA2D6", FlightFields.POSITION);
+        assertThat(delta.getLatitude()).isEqualTo(51.48);
+        assertThat(delta.getAltitude()).isNull();
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        ColumnarFlightStateStore store = new ColumnarFlightStateStore(
+                new StateStoreProperties("columnar", 0, 100_000, 0), event -> {});
+        FlightData d = new FlightData();
+        for (int icao = 0; icao < 20_000; icao++) {
+            d.setIcao24(String.format("%06X", icao));
+            d.setAltitude((double) icao);
+            store.apply(d);
+        }
+        assertThat(store.size()).isEqualTo(20_000);
+        assertThat(store.toAvro("004E1F", FlightFields.ALL).getAltitude()).isEqualTo(19_999.0);
+    }
+
+    @Test
+    void evictsIdleAndOverCapacityAircraft() {
+        List<FlightEvictedEvent> events = new ArrayList<>();
+        ColumnarFlightStateStore store = new ColumnarFlightStateStore(
+                new StateStoreProperties("columnar", 0, 160, 0), e -> events.add((FlightEvictedEvent) e));
+        FlightData d = new FlightData();
+        for (int icao = 0; icao < 5_000; icao++) {
+            d.setIcao24(String.format("%06X", icao));
+            store.apply(d);
+        }
+        assertThat(store.size()).isLessThanOrEqualTo(160);
+        assertThat(events).hasSize(5_000 - store.size())
+                .allMatch(e -> e.cause() == FlightEvictedEvent.Cause.CAPACITY);
+
+        events.clear();
+        int remaining = store.size();
+        assertThat(store.evictIdle(System.currentTimeMillis() + 1)).isEqualTo(remaining);
+        assertThat(store.size()).isZero();
+        assertThat(events).hasSize(remaining).allMatch(e -> e.cause() == FlightEvictedEvent.Cause.IDLE);
+    }
+}
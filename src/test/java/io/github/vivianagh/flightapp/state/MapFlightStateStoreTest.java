@@ -0,0 +1,47 @@
+package io.github.vivianagh.flightapp.state;
+
+import io.github.vivianagh.flightapp.config.StateStoreProperties;
+import io.github.vivianagh.flightapp.model.FlightData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MapFlightStateStoreTest {
+
+    private final List<FlightEvictedEvent> events = new ArrayList<>();
+    private final MapFlightStateStore store =
+            new MapFlightStateStore(StateStoreProperties.defaults(), e -> events.add((FlightEvictedEvent) e));
+
+    private static FlightData sample(String icao24) {
+        return FlightData.fromCsvLine(
+                "MSG,3,1,1," + icao24 + ",1,2025/08/31,16:33:57.544,2025/08/31,16:33:57.544,,37000,,,51.47570,-0.12345,,,0,0,0,0");
+    }
+
+    @Test
+    void evictsOnlyIdleAircraftAndPublishesThem() {
+        store.apply(sample("4CA2D6"));
+        store.apply(sample("4CA2D7"));
+        store.getStateMap().get("4CA2D6").setLastUpdateMillis(1_000);
+
+        assertThat(store.evictIdle(2_000)).isEqualTo(1);
+
+        assertThat(store.getStateMap()).containsOnlyKeys("4CA2D7");
+        assertThat(events).singleElement().satisfies(e -> {
+            assertThat(e.cause()).isEqualTo(FlightEvictedEvent.Cause.IDLE);
+            assertThat(e.lastState().getIcao24()).hasToString("4CA2D6");
+        });
+    }
+
+    @Test
+    void aircraftUpdatedAgainIsKept() {
+        store.apply(sample("4CA2D6"));
+        long cutoff = System.currentTimeMillis() - 60_000;
+
+        assertThat(store.evictIdle(cutoff)).isZero();
+        assertThat(store.size()).isEqualTo(1);
+        assertThat(events).isEmpty();
+    }
+}
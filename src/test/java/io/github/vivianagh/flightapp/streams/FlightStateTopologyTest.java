@@ -0,0 +1,166 @@
+package io.github.vivianagh.flightapp.streams;
+
+import io.confluent.kafka.schemaregistry.testutil.MockSchemaRegistry;
+import io.confluent.kafka.streams.serdes.avro.SpecificAvroSerde;
+import io.github.vivianagh.avro.Flight;
+import io.github.vivianagh.flightapp.geo.GeofenceEngine;
+import io.github.vivianagh.flightapp.geo.GeofenceProperties;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FlightStateTopologyTest {
+
+    private static final String SCOPE = "flight-topology-test";
+    private static final Map<String, String> SERDE_CONFIG = Map.of("schema.registry.url", "mock://" + SCOPE);
+
+    @TempDir
+    Path stateDir;
+
+    private TopologyTestDriver driver;
+    private TestInputTopic<String, Flight> raw;
+    private TestOutputTopic<String, Flight> updates;
+    private TestOutputTopic<String, Flight> overHome;
+    private TestOutputTopic<String, Flight> completed;
+    private TestOutputTopic<String, Flight> deadLetter;
+    private final List<String> recordedDeadLetters = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        start(new GeofenceEngine(new GeofenceProperties(0, null)));
+    }
+
+    private void start(GeofenceEngine geofence) {
+        var topology = new FlightStateTopology(
+                new FlightStateTopology.Topics("raw-flights", "flights-update", "flights-over-home", "flights-completed", "flights-dlq"),
+                geofence,
+                (flight, reason) -> recordedDeadLetters.add(flight.getIcao24() + ": " + reason),
+                SERDE_CONFIG,
+                Duration.ofMinutes(5),
+                Duration.ofSeconds(10));
+        StreamsBuilder builder = new StreamsBuilder();
+        topology.build(builder);
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "flight-topology-test");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+        driver = new TopologyTestDriver(builder.build(), props, Instant.parse("2025-08-31T16:00:00Z"));
+
+        SpecificAvroSerde<Flight> serde = new SpecificAvroSerde<>();
+        serde.configure(SERDE_CONFIG, false);
+        raw = driver.createInputTopic("raw-flights", Serdes.String().serializer(), serde.serializer());
+        updates = driver.createOutputTopic("flights-update", Serdes.String().deserializer(), serde.deserializer());
+        overHome = driver.createOutputTopic("flights-over-home", Serdes.String().deserializer(), serde.deserializer());
+        completed = driver.createOutputTopic("flights-completed", Serdes.String().deserializer(), serde.deserializer());
+        deadLetter = driver.createOutputTopic("flights-dlq", Serdes.String().deserializer(), serde.deserializer());
+    }
+
+    @AfterEach
+    void tearDown() {
+        driver.close();
+        MockSchemaRegistry.dropScope(SCOPE);
+    }
+
+    @Test
+    void consolidatesStateAndEmitsOnlyOnChange() {
+        Instant t0 = Instant.parse("2025-08-31T16:00:00Z");
+        raw.pipeInput("4CA2D6", sample("1", null, null, "BAW123 "), t0);
+        raw.pipeInput("4CA2D6", sample("3", 52.5, -1.0, null), t0.plusSeconds(1));
+        raw.pipeInput("4CA2D6", sample("3", 52.5, -1.0, null), t0.plusSeconds(2)); // repetido: sin update
+        raw.pipeInput("4CA2D6", sample("3", 51.48, 0.33, null), t0.plusSeconds(3)); // entra en "home"
+        raw.pipeInput("4CA2D6", sample("3", 51.47, 0.32, null), t0.plusSeconds(4)); // sigue en home: sin evento nuevo
+
+        var out = updates.readValuesToList();
+        assertThat(out).hasSize(3);
+        assertThat(out.get(0).getCallsign()).hasToString("BAW123");
+        assertThat(out.get(2).getLatitude()).isEqualTo(51.47);
+
+        var near = overHome.readValuesToList();
+        assertThat(near).hasSize(1);
+        assertThat(near.get(0).getZoneId()).hasToString(GeofenceProperties.HOME);
+
+        assertThat(driver.getTimestampedKeyValueStore(FlightStateTopology.STATE_STORE).get("4CA2D6")).isNotNull();
+    }
+
+    @Test
+    void idleAircraftIsPublishedAsCompleted() {
+        Instant t0 = Instant.parse("2025-08-31T16:00:00Z");
+        raw.pipeInput("4CA2D6", sample("3", 52.5, -1.0, null), t0);
+        // otro avión hace avanzar el stream time 6 min
+        raw.pipeInput("4CA2D7", sample("3", 52.6, -1.1, null), t0.plus(Duration.ofMinutes(6)));
+
+        var done = completed.readKeyValuesToList();
+        assertThat(done).hasSize(1);
+        assertThat(done.get(0).key).isEqualTo("4CA2D6");
+        assertThat(driver.getTimestampedKeyValueStore(FlightStateTopology.STATE_STORE).get("4CA2D6")).isNull();
+    }
+
+    @Test
+    void backlogIsNotExpiredByWallClock() {
+        // un consumer que se pone al día: registros de hace una hora, y el reloj de pared sigue corriendo
+        Instant hourAgo = Instant.parse("2025-08-31T15:00:00Z");
+        raw.pipeInput("4CA2D6", sample("3", 52.5, -1.0, null), hourAgo);
+        raw.pipeInput("4CA2D6", sample("3", 52.6, -1.0, null), hourAgo.plusSeconds(30));
+        driver.advanceWallClockTime(Duration.ofMinutes(6));
+
+        assertThat(completed.isEmpty()).isTrue();
+        assertThat(driver.getTimestampedKeyValueStore(FlightStateTopology.STATE_STORE).get("4CA2D6")).isNotNull();
+    }
+
+    @Test
+    void failedRecordGoesToTheDlqTopicAndIsRecorded() {
+        driver.close();
+        GeofenceEngine failing = mock(GeofenceEngine.class);
+        when(failing.zonesAt(anyDouble(), anyDouble())).thenThrow(new IllegalStateException("geofence down"));
+        start(failing);
+
+        raw.pipeInput("4CA2D6", sample("3", 51.48, 0.33, null), Instant.parse("2025-08-31T16:00:00Z"));
+
+        assertThat(deadLetter.readKeyValuesToList()).singleElement()
+                .satisfies(kv -> assertThat(kv.key).isEqualTo("4CA2D6"));
+        assertThat(recordedDeadLetters).containsExactly("4CA2D6: geofence down");
+        assertThat(overHome.isEmpty()).isTrue();
+    }
+
+    @Test
+    void validRecordsAreNotDeadLettered() {
+        raw.pipeInput("4CA2D6", sample("3", 52.5, -1.0, null), Instant.parse("2025-08-31T16:00:00Z"));
+
+        assertThat(deadLetter.isEmpty()).isTrue();
+        assertThat(recordedDeadLetters).isEmpty();
+    }
+
+    private static Flight sample(String type, Double lat, Double lon, String callsign) {
+        return Flight.newBuilder()
+                .setIcao24("4CA2D6")
+                .setTransmissionType(type)
+                .setCallsign(callsign)
+                .setAltitude(lat == null ? null : 12000.0)
+                .setLatitude(lat)
+                .setLongitude(lon)
+                .setLoggedDate("2025/08/31")
+                .setLoggedTime("16:00:00.000")
+                .build();
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.vivianagh.flightapp.utils;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    private static final int P = 14;
+    // 1.04 / sqrt(2^14) ~= 0.8%; tres desviaciones estándar
+    private static final double MAX_RELATIVE_ERROR = 3 * 1.04 / Math.sqrt(1 << P);
+
+    @ParameterizedTest
+    @ValueSource(ints = {1_000, 5_000, 20_000, 100_000, 1 << 20})
+    void estimateStaysWithinTheStandardErrorBound(int n) {
+        HyperLogLog hll = new HyperLogLog(P);
+        for (int i = 0; i < n; i++) hll.add(i);
+
+        assertThat((double) hll.estimate()).isCloseTo(n, within(n * MAX_RELATIVE_ERROR));
+    }
+
+    @Test
+    void smallCardinalitiesAreNearlyExact() {
+        HyperLogLog hll = new HyperLogLog(P);
+        for (int i = 0; i < 200; i++) {
+            hll.add(0x400000 + i);
+            hll.add(0x400000 + i); // repetidos no cuentan
+        }
+        assertThat(hll.estimate()).isBetween(198L, 202L);
+    }
+
+    @Test
+    void mergeOfTwoHalvesEqualsTheWholeSet() {
+        HyperLogLog whole = new HyperLogLog(P), first = new HyperLogLog(P), second = new HyperLogLog(P);
+        for (int i = 0; i < 30_000; i++) {
+            whole.add(i);
+            (i % 3 == 0 ? first : second).add(i);
+            if (i % 5 == 0) second.add(i); // solapadas
+        }
+
+        first.merge(second.toBytes());
+
+        assertThat(first.toBytes()).isEqualTo(whole.toBytes());
+        assertThat(first.estimate()).isEqualTo(whole.estimate());
+    }
+
+    @Test
+    void rejectsSketchOfAnotherPrecision() {
+        HyperLogLog hll = new HyperLogLog(P);
+        assertThatThrownBy(() -> hll.merge(new HyperLogLog(P - 1).toBytes()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
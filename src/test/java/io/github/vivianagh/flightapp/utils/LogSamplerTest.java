@@ -0,0 +1,90 @@
+package io.github.vivianagh.flightapp.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogSamplerTest {
+
+    private final AtomicLong now = new AtomicLong(1_756_658_037_000L);
+
+    /** Indexes (0-based) of the events that were written. */
+    private static List<Integer> written(LogSampler sampler, int events) {
+        List<Integer> out = new ArrayList<>();
+        for (int i = 0; i < events; i++) {
+            if (sampler.tryAcquire()) out.add(i);
+        }
+        return out;
+    }
+
+    @Test
+    void zeroNeverWritesButStillCounts() {
+        LogSampler sampler = new LogSampler(0, 0, now::get);
+
+        assertThat(written(sampler, 50)).isEmpty();
+        assertThat(sampler.drainEvents()).isEqualTo(50);
+        assertThat(sampler.drainSuppressed()).isZero();
+    }
+
+    @Test
+    void oneWritesEveryEventWithoutACap() {
+        LogSampler sampler = new LogSampler(1, 0, now::get);
+
+        assertThat(written(sampler, 10_000)).hasSize(10_000);
+        assertThat(sampler.drainEvents()).isEqualTo(10_000);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {2, 10, 1_000})
+    void everyNthEventIsWrittenStartingWithTheFirst(long every) {
+        LogSampler sampler = new LogSampler(every, 0, now::get);
+
+        List<Integer> out = written(sampler, 3_000);
+
+        assertThat(out).hasSize((int) ((3_000 + every - 1) / every));
+        for (int i = 0; i < out.size(); i++) assertThat(out.get(i)).isEqualTo((int) (i * every));
+    }
+
+    @Test
+    void capLimitsLinesPerSecondAndCountsTheCutOnes() {
+        LogSampler sampler = new LogSampler(1, 3, now::get);
+
+        assertThat(written(sampler, 10)).hasSize(3);
+        assertThat(sampler.drainSuppressed()).isEqualTo(7);
+
+        now.addAndGet(999 - now.get() % 1000); // último ms del mismo segundo
+        assertThat(sampler.tryAcquire()).isFalse();
+
+        now.incrementAndGet(); // segundo nuevo
+        assertThat(written(sampler, 10)).hasSize(3);
+        assertThat(sampler.drainEvents()).isEqualTo(21);
+        assertThat(sampler.drainSuppressed()).isEqualTo(8);
+    }
+
+    @Test
+    void capAppliesAfterSampling() {
+        LogSampler sampler = new LogSampler(10, 2, now::get);
+
+        // 100 eventos -> 10 muestreados -> 2 escritos; solo los muestreados cuentan como cortados
+        assertThat(written(sampler, 100)).containsExactly(0, 10);
+        assertThat(sampler.drainSuppressed()).isEqualTo(8);
+        assertThat(sampler.drainEvents()).isEqualTo(100);
+    }
+
+    @Test
+    void drainResetsTheCounts() {
+        LogSampler sampler = new LogSampler(1, 1, now::get);
+        written(sampler, 5);
+
+        assertThat(sampler.drainEvents()).isEqualTo(5);
+        assertThat(sampler.drainSuppressed()).isEqualTo(4);
+        assertThat(sampler.drainEvents()).isZero();
+        assertThat(sampler.drainSuppressed()).isZero();
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.vivianagh.flightapp.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PagedBitSetTest {
+
+    private static final int ICAO_SPACE = 1 << 24;
+
+    @Test
+    void addReportsOnlyTheFirstTimeAndCountsDistinct() {
+        PagedBitSet set = new PagedBitSet(ICAO_SPACE);
+
+        assertThat(set.add(0x4CA2D6)).isTrue();
+        assertThat(set.add(0x4CA2D6)).isFalse();
+        assertThat(set.add(0x4CA2D7)).isTrue();
+
+        assertThat(set.contains(0x4CA2D6)).isTrue();
+        assertThat(set.contains(0x4CA2D5)).isFalse();
+        assertThat(set.contains(0xFFFFFF)).isFalse(); // página sin reservar
+        assertThat(set.cardinality()).isEqualTo(2);
+    }
+
+    @Test
+    void pageAndWordBoundaries() {
+        PagedBitSet set = new PagedBitSet(ICAO_SPACE);
+        int[] edges = {0, 63, 64, 255, 256, 511, ICAO_SPACE - 1};
+        for (int i : edges) assertThat(set.add(i)).as("bit %d", i).isTrue();
+
+        for (int i : edges) assertThat(set.contains(i)).as("bit %d", i).isTrue();
+        assertThat(set.contains(1)).isFalse();
+        assertThat(set.contains(257)).isFalse();
+        assertThat(set.cardinality()).isEqualTo(edges.length);
+    }
+
+    @Test
+    void bytesRoundTripInAscendingOrder() {
+        PagedBitSet set = new PagedBitSet(ICAO_SPACE);
+        int[] bits = {ICAO_SPACE - 1, 0x4CA2D6, 7, 0x400000, 256};
+        for (int i : bits) set.add(i);
+
+        byte[] bytes = set.toBytes();
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        assertThat(new int[]{in.getInt(), in.getInt(), in.getInt(), in.getInt(), in.getInt()})
+                .containsExactly(7, 256, 0x400000, 0x4CA2D6, ICAO_SPACE - 1);
+
+        PagedBitSet copy = new PagedBitSet(ICAO_SPACE);
+        copy.add(7); // la unión no duplica
+        copy.addAll(bytes);
+        assertThat(copy.cardinality()).isEqualTo(bits.length);
+        assertThat(copy.toBytes()).isEqualTo(bytes);
+    }
+
+    @Test
+    void rejectsTruncatedBytes() {
+        assertThatThrownBy(() -> new PagedBitSet(ICAO_SPACE).addAll(new byte[]{0, 0, 1}))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.vivianagh.flightapp.utils;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PipelineHeadersTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {0L, 1L, 255L, 256L, 1_756_658_037_123L, Long.MAX_VALUE})
+    void roundTripsThroughTheHeader(long millis) {
+        Headers headers = PipelineHeaders.receivedAt(millis);
+
+        assertThat(headers.lastHeader(PipelineHeaders.RECEIVED_AT).value()).hasSize(8);
+        assertThat(PipelineHeaders.receivedAt(headers)).isEqualTo(millis);
+    }
+
+    @Test
+    void roundTripsTheCurrentTime() {
+        long now = System.currentTimeMillis();
+
+        assertThat(PipelineHeaders.receivedAt(PipelineHeaders.receivedAt(now))).isEqualTo(now);
+    }
+
+    @Test
+    void encodesBigEndianLikeByteBuffer() {
+        long millis = 0x0102_0304_0506_0708L;
+
+        assertThat(PipelineHeaders.encode(millis))
+                .containsExactly(1, 2, 3, 4, 5, 6, 7, 8)
+                .containsExactly(ByteBuffer.allocate(8).putLong(millis).array());
+        assertThat(PipelineHeaders.encode(0)).containsExactly(new byte[8]);
+    }
+
+    @Test
+    void absentTimeAddsNoHeader() {
+        Headers headers = PipelineHeaders.receivedAt(PipelineHeaders.ABSENT);
+
+        assertThat(headers.lastHeader(PipelineHeaders.RECEIVED_AT)).isNull();
+        assertThat(PipelineHeaders.receivedAt(headers)).isEqualTo(PipelineHeaders.ABSENT);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 4, 7, 9, 16})
+    void wrongLengthIsAbsent(int length) {
+        Headers headers = new RecordHeaders().add(PipelineHeaders.RECEIVED_AT, new byte[length]);
+
+        assertThat(PipelineHeaders.receivedAt(headers)).isEqualTo(PipelineHeaders.ABSENT);
+    }
+
+    @Test
+    void missingOrNullHeaderIsAbsent() {
+        assertThat(PipelineHeaders.receivedAt((Headers) null)).isEqualTo(PipelineHeaders.ABSENT);
+        assertThat(PipelineHeaders.receivedAt(new RecordHeaders())).isEqualTo(PipelineHeaders.ABSENT);
+        assertThat(PipelineHeaders.receivedAt(new RecordHeaders().add(PipelineHeaders.RECEIVED_AT, null)))
+                .isEqualTo(PipelineHeaders.ABSENT);
+    }
+
+    @Test
+    void lastHeaderWins() {
+        // con varias cabeceras iguales cuenta la última (Headers.lastHeader)
+        Headers headers = PipelineHeaders.receivedAt(1_000L);
+        headers.add(PipelineHeaders.RECEIVED_AT, PipelineHeaders.encode(2_000L));
+
+        assertThat(PipelineHeaders.receivedAt(headers)).isEqualTo(2_000L);
+    }
+}
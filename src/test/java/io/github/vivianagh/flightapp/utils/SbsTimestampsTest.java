@@ -0,0 +1,74 @@
+package io.github.vivianagh.flightapp.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SbsTimestampsTest {
+
+    private static final ZoneId LONDON = ZoneId.of("Europe/London");
+
+    @Test
+    void parsesBothDateFormatsAsLondonTime() {
+        long expected = ZonedDateTime.of(2025, 8, 31, 16, 33, 57, 544_000_000, LONDON).toInstant().toEpochMilli();
+
+        assertThat(SbsTimestamps.parseEpochMillis("2025/08/31", "16:33:57.544")).isEqualTo(expected);
+        assertThat(SbsTimestamps.parseEpochMillis("2025-08-31", "16:33:57.544")).isEqualTo(expected);
+        assertThat(SbsTimestamps.parseEpochMillis("2025/08/31", "16:33:57")).isEqualTo(expected - 544);
+        assertThat(SbsTimestamps.parseEpochMillis("2025/08/31", "16:33:57.5")).isEqualTo(expected - 44);
+    }
+
+    @Test
+    void matchesZonedDateTimeAcrossDstTransitions() {
+        // cada minuto alrededor de los cambios de hora de 2025, incluido el hueco y el solape
+        for (LocalDateTime start : new LocalDateTime[]{
+                LocalDateTime.of(2025, 3, 29, 22, 0), LocalDateTime.of(2025, 10, 25, 22, 0)}) {
+            for (int min = 0; min < 8 * 60; min++) {
+                LocalDateTime t = start.plusMinutes(min).plusSeconds(7);
+                String date = t.toLocalDate().toString().replace('-', '/');
+                String time = t.toLocalTime().toString() + ".250";
+                long expected = ZonedDateTime.of(t.plusNanos(250_000_000), LONDON).toInstant().toEpochMilli();
+
+                assertThat(SbsTimestamps.parseEpochMillis(date, time)).as(date + " " + time).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        assertThat(SbsTimestamps.parseEpochMillis(null, "10:00:00")).isEqualTo(SbsTimestamps.INVALID);
+        assertThat(SbsTimestamps.parseEpochMillis("2025/02/30", "10:00:00")).isEqualTo(SbsTimestamps.INVALID);
+        assertThat(SbsTimestamps.parseEpochMillis("2025/08-31", "10:00:00")).isEqualTo(SbsTimestamps.INVALID);
+        assertThat(SbsTimestamps.parseEpochMillis("2025/08/31", "24:00:00")).isEqualTo(SbsTimestamps.INVALID);
+        assertThat(SbsTimestamps.parseEpochMillis("2025/08/31", "10:00:00.")).isEqualTo(SbsTimestamps.INVALID);
+        assertThat(SbsTimestamps.parseInstant("", "")).isNull();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            // pasan el regex de V4 pero no son fechas/horas válidas: el backfill las deja en NULL
+            "2025/02/30, 10:00:00",
+            "2025/04/31, 10:00:00",
+            "2025/13/01, 10:00:00",
+            "2025/00/10, 10:00:00",
+            "2100/02/29, 10:00:00",
+            "2025/08/31, 25:61:00",
+            "2025/08/31, 10:60:00",
+            "2025/08/31, 10:00:99",
+    })
+    void rejectsOutOfRangeValuesThatMatchTheShape(String date, String time) {
+        assertThat(SbsTimestamps.parseEpochMillis(date, time)).isEqualTo(SbsTimestamps.INVALID);
+    }
+
+    @Test
+    void acceptsLeapDay() {
+        long expected = ZonedDateTime.of(2024, 2, 29, 10, 0, 0, 0, LONDON).toInstant().toEpochMilli();
+        assertThat(SbsTimestamps.parseEpochMillis("2024/02/29", "10:00:00")).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,103 @@
+package io.github.vivianagh.flightapp.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    private void advanceMillis(long ms) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(ms));
+    }
+
+    private int drain(TokenBucket bucket) {
+        int n = 0;
+        while (bucket.tryAcquire()) n++;
+        return n;
+    }
+
+    @Test
+    void startsFullAndAllowsExactlyTheBurst() {
+        TokenBucket bucket = new TokenBucket(1.0, 3, now::get);
+
+        assertThat(drain(bucket)).isEqualTo(3);
+        assertThat(bucket.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void refillsAtTheConfiguredRate() {
+        TokenBucket bucket = new TokenBucket(2.0, 1, now::get); // un token cada 500 ms
+        assertThat(bucket.tryAcquire()).isTrue();
+
+        advanceMillis(499);
+        assertThat(bucket.tryAcquire()).isFalse();
+        advanceMillis(1);
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void idleTimeNeverAccumulatesMoreThanTheBurst() {
+        TokenBucket bucket = new TokenBucket(1.0, 3, now::get);
+        drain(bucket);
+
+        advanceMillis(60_000);
+        assertThat(drain(bucket)).isEqualTo(3);
+    }
+
+    @Test
+    void failedAttemptsDoNotDriveTheBucketNegative() {
+        TokenBucket bucket = new TokenBucket(1.0, 1, now::get);
+        drain(bucket);
+
+        for (int i = 0; i < 1_000; i++) assertThat(bucket.tryAcquire()).isFalse();
+        advanceMillis(1_000);
+        assertThat(bucket.tryAcquire()).isTrue(); // un segundo da un token, no hay deuda que pagar
+    }
+
+    @Test
+    void pauseBlocksAndDoesNotRefillWhilePaused() {
+        TokenBucket bucket = new TokenBucket(1.0, 3, now::get);
+        bucket.pauseFor(5_000);
+
+        advanceMillis(4_999);
+        assertThat(bucket.tryAcquire()).isFalse();
+        advanceMillis(1);
+        assertThat(bucket.tryAcquire()).isFalse(); // la pausa vació el bucket y no cuenta como recarga
+        advanceMillis(1_000);
+        assertThat(drain(bucket)).isEqualTo(1);
+    }
+
+    @Test
+    void shorterPauseDoesNotCutALongerOne() {
+        TokenBucket bucket = new TokenBucket(1.0, 1, now::get);
+        bucket.pauseFor(10_000);
+        bucket.pauseFor(1_000);
+
+        advanceMillis(5_000);
+        assertThat(bucket.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void acquireGivesUpAtTheDeadline() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1.0, 1, now::get);
+        drain(bucket);
+
+        // el reloj no avanza: con timeout 0 no llega a dormir
+        assertThat(bucket.acquire(0, TimeUnit.MILLISECONDS)).isFalse();
+        advanceMillis(1_000);
+        assertThat(bucket.acquire(0, TimeUnit.MILLISECONDS)).isTrue();
+    }
+
+    @Test
+    void nonPositiveRateIsUnlimited() {
+        TokenBucket bucket = new TokenBucket(0, 1, now::get);
+
+        for (int i = 0; i < 1_000; i++) assertThat(bucket.tryAcquire()).isTrue();
+    }
+}